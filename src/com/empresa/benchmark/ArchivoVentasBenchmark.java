@@ -0,0 +1,107 @@
+package com.empresa.benchmark;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.HistorialVentas;
+import com.empresa.modelo.Pagina;
+import com.empresa.modelo.Producto;
+import com.empresa.modelo.Venta;
+import com.empresa.persistencia.SegmentoVentas;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark del archivo de ventas: pasa varios días de ventas a segmentos y mide
+ * el tiempo de archivar, el tamaño en disco, la memoria liberada, la apertura de
+ * los segmentos y la lectura de páginas y rangos desde disco.
+ *
+ * Uso: java -Xmx2g com.empresa.benchmark.ArchivoVentasBenchmark [dias] [ventasPorDia]
+ */
+public class ArchivoVentasBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int dias = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        int porDia = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        Path directorio = Files.createTempDirectory("archivo-ventas");
+        try {
+            HistorialVentas historial = HistorialVentas.getInstancia();
+            historial.activarArchivo(directorio.toString(), 1);
+
+            Random random = new Random(24);
+            Producto[] productos = new Producto[200];
+            for (int i = 0; i < productos.length; i++) {
+                productos[i] = new Producto("Producto " + i, "tipo " + (i % 10), 1_000 + i * 100, 100 + i);
+            }
+            LocalDate hoy = LocalDate.now();
+            for (int d = dias; d >= 0; d--) {
+                LocalDateTime inicio = hoy.minusDays(d).atTime(8, 0);
+                List<Venta> lote = new ArrayList<>(porDia);
+                for (int i = 0; i < porDia; i++) {
+                    Cliente cliente = new Cliente("Cliente " + (i % 500), (i % 500) + "-K", "9", "Calle " + i % 500);
+                    Venta venta = new Venta(i % 3 == 0 ? "domicilio" : "local", cliente, inicio.plusSeconds(i * 3L));
+                    for (int l = 0, lineas = 1 + random.nextInt(3); l < lineas; l++) {
+                        venta.agregarLinea(productos[random.nextInt(productos.length)], 1 + random.nextInt(4), 0);
+                    }
+                    lote.add(venta);
+                }
+                historial.agregarVentas(lote);
+            }
+
+            long memoriaAntes = memoriaUsada();
+            long t0 = System.nanoTime();
+            int archivadas = historial.archivar();
+            long msArchivar = (System.nanoTime() - t0) / 1_000_000;
+            long memoriaDespues = memoriaUsada();
+            long bytes;
+            try (Stream<Path> archivos = Files.list(directorio)) {
+                bytes = archivos.mapToLong(p -> p.toFile().length()).sum();
+            }
+            System.out.printf("Archivar: %,d ventas en %,d ms (%,.0f ventas/s) | %,d KB en disco (%.1f bytes/venta)"
+                    + " | memoria: %,d MB -> %,d MB\n", archivadas, msArchivar, archivadas * 1000.0 / Math.max(1, msArchivar),
+                    bytes / 1024, bytes / (double) archivadas, memoriaAntes >> 20, memoriaDespues >> 20);
+
+            t0 = System.nanoTime();
+            List<SegmentoVentas> segmentos = SegmentoVentas.abrirDirectorio(directorio);
+            System.out.printf("Abrir %d segmentos (solo pies): %,d µs\n", segmentos.size(), (System.nanoTime() - t0) / 1_000);
+
+            int tamano = 20;
+            int paginas = historial.getCantidadVentas() / tamano;
+            Random azar = new Random(1);
+            t0 = System.nanoTime();
+            int leidas = 0;
+            for (int i = 0; i < 200; i++) {
+                Pagina<Venta> pagina = historial.ventas(null, null, azar.nextInt(paginas), tamano);
+                leidas += pagina.getElementos().size();
+            }
+            System.out.printf("Página al azar: %,d µs promedio (%d ventas leídas)\n", (System.nanoTime() - t0) / 200_000, leidas);
+
+            t0 = System.nanoTime();
+            LocalDateTime desde = hoy.minusDays(dias / 2).atTime(12, 0);
+            int domicilio = historial.buscarPorFormato("domicilio", desde, desde.plusHours(1)).size();
+            System.out.printf("Rango de una hora: %d ventas a domicilio en %,d µs\n", domicilio, (System.nanoTime() - t0) / 1_000);
+
+            t0 = System.nanoTime();
+            int todas = historial.buscarPorFormato("local", null, null).size();
+            System.out.printf("Recorrido completo: %,d ventas en local en %,d ms\n", todas, (System.nanoTime() - t0) / 1_000_000);
+        } finally {
+            try (Stream<Path> archivos = Files.list(directorio)) {
+                archivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+            Files.deleteIfExists(directorio);
+        }
+    }
+
+    private static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
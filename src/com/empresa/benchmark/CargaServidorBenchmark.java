@@ -0,0 +1,125 @@
+package com.empresa.benchmark;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.GestorClientes;
+import com.empresa.modelo.HistorialVentas;
+import com.empresa.modelo.Inventario;
+import com.empresa.servicio.HistogramaLatencias;
+import com.empresa.servicio.ServidorVentas;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de carga local de {@link ServidorVentas}: levanta el servidor en un
+ * puerto libre y lo somete a clientes concurrentes (un hilo virtual cada uno)
+ * con una mezcla de 60% consultas de stock, 20% búsquedas de clientes y 20% ventas.
+ * Informa el rendimiento y las latencias vistas por el cliente y por el servidor.
+ *
+ * Uso: java com.empresa.benchmark.CargaServidorBenchmark [clientes] [segundos]
+ */
+public class CargaServidorBenchmark {
+
+    private static final int PRODUCTOS = 500;
+    private static final int CLIENTES_REGISTRADOS = 5_000;
+
+    public static void main(String[] args) throws Exception {
+        int concurrentes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int segundos = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Inventario inventario = Inventario.getInstancia();
+        GestorClientes gestorClientes = GestorClientes.getInstancia();
+        for (int i = 0; i < PRODUCTOS; i++) {
+            inventario.agregarProducto("Carga " + i, "tipo " + (i % 10), 5000 + i, 500, 1_000_000);
+        }
+        List<Cliente> clientes = new ArrayList<>(CLIENTES_REGISTRADOS);
+        for (int i = 0; i < CLIENTES_REGISTRADOS; i++) {
+            clientes.add(new Cliente("Cliente " + i, rut(i), "9" + (10_000_000 + i), "Calle " + i));
+        }
+        gestorClientes.registrarClientes(clientes);
+
+        try (ServidorVentas servidor = ServidorVentas.iniciar(0, inventario, gestorClientes, HistorialVentas.getInstancia())) {
+            String base = "http://localhost:" + servidor.getPuerto();
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            HistogramaLatencias stock = new HistogramaLatencias();
+            HistogramaLatencias consultaClientes = new HistogramaLatencias();
+            HistogramaLatencias ventas = new HistogramaLatencias();
+            AtomicLong errores = new AtomicLong();
+
+            // calentamiento para que el JIT compile el camino de las solicitudes
+            ejecutar(http, base, concurrentes, System.nanoTime() + 2_000_000_000L,
+                    new HistogramaLatencias(), new HistogramaLatencias(), new HistogramaLatencias(), new AtomicLong());
+            servidor.reiniciarLatencias();
+
+            long inicio = System.nanoTime();
+            ejecutar(http, base, concurrentes, inicio + segundos * 1_000_000_000L, stock, consultaClientes, ventas, errores);
+            double duracion = (System.nanoTime() - inicio) / 1e9;
+
+            long total = stock.getCantidad() + consultaClientes.getCantidad() + ventas.getCantidad();
+            System.out.printf("%d clientes concurrentes, %.1f s: %,d solicitudes (%,.0f/s), %d errores\n",
+                    concurrentes, duracion, total, total / duracion, errores.get());
+            System.out.println("Cliente  stock:    " + stock);
+            System.out.println("Cliente  clientes: " + consultaClientes);
+            System.out.println("Cliente  ventas:   " + ventas);
+            for (Map.Entry<String, HistogramaLatencias> e : servidor.getLatencias().entrySet()) {
+                System.out.printf("Servidor %-18s %s\n", e.getKey() + ":", e.getValue());
+            }
+        }
+    }
+
+    private static void ejecutar(HttpClient http, String base, int concurrentes, long fin, HistogramaLatencias stock,
+            HistogramaLatencias consultaClientes, HistogramaLatencias ventas, AtomicLong errores) {
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrentes; c++) {
+                hilos.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < fin) {
+                        int operacion = random.nextInt(10);
+                        HttpRequest solicitud;
+                        HistogramaLatencias histograma;
+                        int esperado = 200;
+                        if (operacion < 6) {
+                            solicitud = HttpRequest.newBuilder(URI.create(base + "/api/stock?producto=Carga%20"
+                                    + random.nextInt(PRODUCTOS))).build();
+                            histograma = stock;
+                        } else if (operacion < 8) {
+                            solicitud = HttpRequest.newBuilder(URI.create(base + "/api/clientes/"
+                                    + rut(random.nextInt(CLIENTES_REGISTRADOS)))).build();
+                            histograma = consultaClientes;
+                        } else {
+                            String cuerpo = "{\"formato\":\"local\",\"lineas\":[{\"producto\":\"Carga "
+                                    + random.nextInt(PRODUCTOS) + "\",\"cantidad\":" + (1 + random.nextInt(3)) + "}]}";
+                            solicitud = HttpRequest.newBuilder(URI.create(base + "/api/ventas"))
+                                    .POST(HttpRequest.BodyPublishers.ofString(cuerpo)).build();
+                            histograma = ventas;
+                            esperado = 201;
+                        }
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<String> respuesta = http.send(solicitud, HttpResponse.BodyHandlers.ofString());
+                            if (respuesta.statusCode() != esperado) {
+                                errores.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errores.incrementAndGet();
+                        }
+                        histograma.registrar(System.nanoTime() - t0);
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    private static String rut(int i) {
+        return (10_000_000 + i) + "-" + (i % 10);
+    }
+}
@@ -0,0 +1,53 @@
+package com.empresa.benchmark;
+
+import com.empresa.importacion.ImportadorCatalogo;
+import com.empresa.modelo.Inventario;
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Benchmark de importación de catálogo desde CSV: primera carga (productos
+ * nuevos) y segunda carga con precios cambiados (actualizaciones), en filas por
+ * segundo.
+ *
+ * Uso: java -Xmx2g com.empresa.benchmark.CatalogoBenchmark [productos]
+ */
+public class CatalogoBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Path archivo = Files.createTempFile("catalogo", ".csv");
+        try {
+            Inventario inventario = Inventario.getInstancia();
+            for (int ronda = 0; ronda < 2; ronda++) {
+                escribir(archivo, cantidad, new Random(ronda));
+                ImportadorCatalogo.Resultado r = new ImportadorCatalogo(inventario).importar(archivo);
+                System.out.printf("%s: %,d filas | nuevos: %,d | actualizados: %,d | errores: %d | %,d ms | %,.0f filas/s\n",
+                        ronda == 0 ? "Carga inicial" : "Actualización", r.getFilasLeidas(), r.getProductosNuevos(),
+                        r.getProductosActualizados(), r.getErrores().size(), r.getDuracionMs(),
+                        r.getFilasPorSegundo());
+            }
+            long t0 = System.nanoTime();
+            int encontrados = inventario.buscarProductos("producto 1234", 0, 10).getTotal();
+            System.out.printf("Búsqueda después de importar: %d resultados en %,d µs\n", encontrados,
+                    (System.nanoTime() - t0) / 1_000);
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+    }
+
+    private static void escribir(Path archivo, int cantidad, Random random) throws Exception {
+        String[] tipos = {"gas", "accesorio", "repuesto", "artefacto"};
+        try (BufferedWriter w = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            w.write("Nombre,Tipo,PrecioCompra,Comision,Stock\n");
+            for (int i = 0; i < cantidad; i++) {
+                w.write("Producto " + i + "," + tipos[i % tipos.length] + "," + (1_000 + random.nextInt(50_000))
+                        + "," + random.nextInt(5_000) + "," + (random.nextInt(3) == 0 ? "" : random.nextInt(100))
+                        + "\n");
+            }
+        }
+    }
+}
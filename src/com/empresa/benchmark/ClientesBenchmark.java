@@ -0,0 +1,91 @@
+package com.empresa.benchmark;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.GestorClientes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark de búsqueda de clientes: índices secundarios de {@link GestorClientes}
+ * contra un recorrido lineal de todos los clientes (como se hacía antes).
+ *
+ * Uso: java -Xmx4g com.empresa.benchmark.ClientesBenchmark [clientes] [consultas]
+ */
+public class ClientesBenchmark {
+
+    private static final String[] NOMBRES = {"Ana", "Juan", "Pedro", "María", "José", "Camila", "Diego",
+        "Valentina", "Matías", "Francisca", "Tomás", "Catalina", "Benjamín", "Javiera", "Vicente", "Constanza"};
+    private static final String[] APELLIDOS = {"González", "Muñoz", "Rojas", "Díaz", "Pérez", "Soto", "Contreras",
+        "Silva", "Martínez", "Sepúlveda", "Morales", "Rodríguez", "López", "Fuentes", "Hernández", "Torres"};
+    private static final String[] CALLES = {"Los Leones", "Irarrázaval", "Grecia", "Macul", "Tobalaba",
+        "Vicuña Mackenna", "Las Rosas", "El Roble", "Los Aromos", "Pajaritos"};
+
+    public static void main(String[] args) {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int consultas = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        Random random = new Random(42);
+
+        List<Cliente> clientes = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            String nombre = elegir(random, NOMBRES) + " " + elegir(random, APELLIDOS) + " "
+                    + elegir(random, APELLIDOS) + " " + Integer.toString(i, 36);
+            String direccion = elegir(random, CALLES) + " " + random.nextInt(5000);
+            String telefono = String.format("9%08d", i);
+            clientes.add(new Cliente(nombre, "B" + i, telefono, direccion));
+        }
+
+        GestorClientes gestor = GestorClientes.getInstancia();
+        long t0 = System.nanoTime();
+        gestor.registrarClientes(clientes);
+        System.out.printf("Registro + indexación de %,d clientes: %,d ms\n", cantidad, (System.nanoTime() - t0) / 1_000_000);
+
+        String[] textos = new String[consultas];
+        String[] telefonos = new String[consultas];
+        for (int i = 0; i < consultas; i++) {
+            Cliente c = clientes.get(random.nextInt(cantidad));
+            textos[i] = c.getNombre().substring(c.getNombre().lastIndexOf(' ') + 1);
+            telefonos[i] = c.getTelefono();
+        }
+
+        long encontrados = 0;
+        t0 = System.nanoTime();
+        for (int i = 0; i < consultas; i++) {
+            encontrados += gestor.buscarPorNombre(textos[i]).size();
+            encontrados += gestor.buscarPorTelefono(telefonos[i]).size();
+            encontrados += gestor.sugerirPorNombre(textos[i].substring(0, 2), 10).size();
+        }
+        long indexado = System.nanoTime() - t0;
+
+        long encontradosLineal = 0;
+        t0 = System.nanoTime();
+        for (int i = 0; i < consultas; i++) {
+            String texto = textos[i].toLowerCase();
+            String prefijo = texto.substring(0, 2);
+            int sugerencias = 0;
+            for (Cliente c : clientes) {
+                String nombre = c.getNombre().toLowerCase();
+                if (nombre.contains(texto)) {
+                    encontradosLineal++;
+                }
+                if (c.getTelefono().equals(telefonos[i])) {
+                    encontradosLineal++;
+                }
+                if (sugerencias < 10 && nombre.contains(" " + prefijo)) {
+                    sugerencias++;
+                }
+            }
+            encontradosLineal += sugerencias;
+        }
+        long lineal = System.nanoTime() - t0;
+
+        System.out.printf("Índices:  %,d consultas en %,d ms (%,.1f µs/consulta) | resultados: %,d\n",
+                consultas * 3, indexado / 1_000_000, indexado / 1e3 / (consultas * 3), encontrados);
+        System.out.printf("Lineal:   %,d consultas en %,d ms (%,.1f µs/consulta) | resultados: %,d\n",
+                consultas * 3, lineal / 1_000_000, lineal / 1e3 / (consultas * 3), encontradosLineal);
+    }
+
+    private static String elegir(Random random, String[] opciones) {
+        return opciones[random.nextInt(opciones.length)];
+    }
+}
@@ -0,0 +1,110 @@
+package com.empresa.benchmark;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.HistorialVentas;
+import com.empresa.modelo.Pagina;
+import com.empresa.modelo.Producto;
+import com.empresa.modelo.Venta;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark de consultas del historial por rango de fechas y por cliente, con los
+ * índices (búsqueda binaria por fecha e índice de clientes) y contra un recorrido
+ * completo que filtra cada venta.
+ *
+ * Uso: java -Xmx2g com.empresa.benchmark.ConsultaVentasBenchmark [dias] [ventasPorDia] [clientes]
+ */
+public class ConsultaVentasBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int dias = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        int porDia = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int cantidadClientes = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        Path directorio = Files.createTempDirectory("archivo-ventas");
+        Path csv = Files.createTempFile("ventas-cliente", ".csv");
+        try {
+            HistorialVentas historial = HistorialVentas.getInstancia();
+            historial.activarArchivo(directorio.toString(), 7);
+
+            Random random = new Random(25);
+            Producto[] productos = new Producto[200];
+            for (int i = 0; i < productos.length; i++) {
+                productos[i] = new Producto("Producto " + i, "tipo " + (i % 10), 1_000 + i * 100, 100 + i);
+            }
+            Cliente[] clientes = new Cliente[cantidadClientes];
+            for (int i = 0; i < clientes.length; i++) {
+                clientes[i] = new Cliente("Cliente " + i, i + "-K", "9", "Calle " + i);
+            }
+            LocalDate hoy = LocalDate.now();
+            for (int d = dias; d >= 0; d--) {
+                LocalDateTime inicio = hoy.minusDays(d).atTime(8, 0);
+                List<Venta> lote = new ArrayList<>(porDia);
+                for (int i = 0; i < porDia; i++) {
+                    Venta venta = new Venta("local", clientes[random.nextInt(clientes.length)], inicio.plusSeconds(i * 3L));
+                    venta.agregarLinea(productos[random.nextInt(productos.length)], 1 + random.nextInt(4), 0);
+                    lote.add(venta);
+                }
+                historial.agregarVentas(lote);
+            }
+            historial.archivar();
+            System.out.printf("Historial: %,d ventas (%,d en memoria)\n", historial.getCantidadVentas(),
+                    historial.getCantidadVentasEnMemoria());
+
+            String rut = clientes[42].getRut();
+            long t0 = System.nanoTime();
+            Pagina<Venta> pagina = historial.ventasCliente(rut, null, null, 0, 20);
+            long indice = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            int[] encontradas = new int[1];
+            historial.recorrer(null, null, venta -> {
+                if (venta.getCliente() != null && venta.getCliente().getRut().equals(rut)) {
+                    encontradas[0]++;
+                }
+            });
+            long recorrido = System.nanoTime() - t0;
+            System.out.printf("Cliente %s: %d ventas | índice (primera página + total): %,d µs | recorrido: %,d µs\n",
+                    rut, pagina.getTotal(), indice / 1_000, recorrido / 1_000);
+            if (encontradas[0] != pagina.getTotal()) {
+                throw new IllegalStateException("El índice de clientes no coincide con el recorrido");
+            }
+
+            t0 = System.nanoTime();
+            pagina = historial.ventasCliente(rut, null, null, 0, 20);
+            System.out.printf("Cliente, segunda consulta (índices ya leídos): %,d µs\n", (System.nanoTime() - t0) / 1_000);
+
+            LocalDateTime desde = hoy.minusDays(dias / 2).atTime(12, 0);
+            LocalDateTime hasta = desde.plusHours(1);
+            t0 = System.nanoTime();
+            Pagina<Venta> hora = historial.ventas(desde, hasta, 3, 20);
+            indice = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            int[] enRango = new int[1];
+            historial.recorrer(null, null, venta -> {
+                if (!venta.getFechaHora().isBefore(desde) && venta.getFechaHora().isBefore(hasta)) {
+                    enRango[0]++;
+                }
+            });
+            recorrido = System.nanoTime() - t0;
+            System.out.printf("Rango de una hora: %d ventas | índice (página 4 + total): %,d µs | recorrido: %,d µs\n",
+                    hora.getTotal(), indice / 1_000, recorrido / 1_000);
+
+            t0 = System.nanoTime();
+            historial.exportarCSV(csv.toString(), rut, null, null);
+            System.out.printf("Exportar CSV de un cliente: %,d µs\n", (System.nanoTime() - t0) / 1_000);
+        } finally {
+            try (Stream<Path> archivos = Files.list(directorio)) {
+                archivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+            Files.deleteIfExists(directorio);
+            Files.deleteIfExists(csv);
+        }
+    }
+}
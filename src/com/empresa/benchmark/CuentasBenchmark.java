@@ -0,0 +1,61 @@
+package com.empresa.benchmark;
+
+import com.empresa.modelo.CuentasClientes;
+import com.empresa.modelo.InformeAntiguedad;
+import com.empresa.modelo.MovimientoCuenta;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmark de cuentas corrientes: registro de asientos e informe de antigüedad
+ * de saldos para muchos clientes, con 1 hilo y con todos los procesadores.
+ *
+ * Uso: java -Xmx2g com.empresa.benchmark.CuentasBenchmark [clientes] [asientosPorCliente]
+ */
+public class CuentasBenchmark {
+
+    public static void main(String[] args) {
+        int clientes = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int asientos = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        Random random = new Random(13);
+        LocalDate hoy = LocalDate.of(2024, 6, 30);
+
+        CuentasClientes cuentas = new CuentasClientes();
+        long t0 = System.nanoTime();
+        for (int c = 0; c < clientes; c++) {
+            String rut = (10_000_000 + c) + "-" + (c % 10);
+            LocalDateTime fecha = hoy.minusDays(180).atTime(9, 0);
+            for (int a = 0; a < asientos; a++) {
+                fecha = fecha.plusHours(random.nextInt(9 * 24));
+                if (random.nextInt(3) == 0) {
+                    cuentas.abonar(rut, fecha, 5_000 + random.nextInt(40_000), "Pago");
+                } else {
+                    cuentas.registrar(rut, fecha, MovimientoCuenta.Tipo.CARGO, 10_000 + random.nextInt(30_000), "Venta");
+                }
+            }
+        }
+        long registroNs = System.nanoTime() - t0;
+        System.out.printf("%,d clientes, %,d asientos registrados en %,d ms (%,.0f asientos/s)\n", clientes,
+                (long) clientes * asientos, registroNs / 1_000_000, clientes * (double) asientos / (registroNs / 1e9));
+
+        ForkJoinPool unHilo = new ForkJoinPool(1);
+        ForkJoinPool todos = ForkJoinPool.commonPool();
+        InformeAntiguedad informe = null;
+        for (int ronda = 0; ronda < 5; ronda++) {
+            t0 = System.nanoTime();
+            cuentas.antiguedadSaldos(hoy, unHilo);
+            long secuencialNs = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            informe = cuentas.antiguedadSaldos(hoy, todos);
+            long paraleloNs = System.nanoTime() - t0;
+            if (ronda == 4) {
+                System.out.printf("Antigüedad de saldos | 1 hilo: %,d ms | %d hilos: %,d ms\n", secuencialNs / 1_000_000,
+                        todos.getParallelism(), paraleloNs / 1_000_000);
+            }
+        }
+        System.out.printf("Clientes con saldo: %,d | adeudado: $%,d | a favor: $%,d\n", informe.getFilas().size(),
+                informe.getTotalAdeudado(), informe.getTotalAFavor());
+    }
+}
@@ -0,0 +1,74 @@
+package com.empresa.benchmark;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.MotorDescuentos;
+import com.empresa.modelo.Producto;
+import com.empresa.modelo.ReglaDescuento;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark de consulta de descuentos: tabla compilada de {@link MotorDescuentos}
+ * contra los mapas por nombre en minúsculas que usaba Descuento antes.
+ *
+ * Uso: java com.empresa.benchmark.DescuentosBenchmark [reglas] [consultas]
+ */
+public class DescuentosBenchmark {
+
+    private static final String[] FORMATOS = {"local", "domicilio"};
+
+    public static void main(String[] args) {
+        int cantidadReglas = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int consultas = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        Random random = new Random(7);
+
+        List<ReglaDescuento> reglas = new ArrayList<>(cantidadReglas);
+        Map<String, int[]> local = new HashMap<>();
+        Map<String, int[]> domicilio = new HashMap<>();
+        Producto[] productos = new Producto[cantidadReglas / 2];
+        for (int i = 0; i < productos.length; i++) {
+            productos[i] = new Producto("Producto " + i, "tipo " + (i % 50), 10000, 1000);
+            int[] d1 = {500 + random.nextInt(10) * 100};
+            int[] d2 = {700, 1500};
+            reglas.add(ReglaDescuento.paraProducto(productos[i].getNombre(), "local", d1));
+            reglas.add(ReglaDescuento.paraProducto(productos[i].getNombre(), "domicilio", d2));
+            local.put(productos[i].getNombre().toLowerCase(), d1);
+            domicilio.put(productos[i].getNombre().toLowerCase(), d2);
+        }
+
+        MotorDescuentos motor = MotorDescuentos.getInstancia();
+        long t0 = System.nanoTime();
+        motor.cargarReglas(reglas);
+        System.out.printf("Compilación de %,d reglas: %,d ms\n", reglas.size(), (System.nanoTime() - t0) / 1_000_000);
+
+        Cliente cliente = new Cliente("Ana", "11.111.111-1", "", "");
+        long control = 0;
+        long mejorMotor = Long.MAX_VALUE;
+        long mejorMapas = Long.MAX_VALUE;
+        for (int ronda = 0; ronda < 5; ronda++) {
+            t0 = System.nanoTime();
+            for (int i = 0; i < consultas; i++) {
+                Producto p = productos[i % productos.length];
+                control += motor.obtenerDescuentos(p, FORMATOS[i & 1], cliente, i % 24, 1 + (i & 7))[0];
+            }
+            mejorMotor = Math.min(mejorMotor, System.nanoTime() - t0);
+
+            t0 = System.nanoTime();
+            for (int i = 0; i < consultas; i++) {
+                Producto p = productos[i % productos.length];
+                String nombre = p.getNombre().toLowerCase();
+                int[] d = FORMATOS[i & 1].equalsIgnoreCase("local")
+                        ? local.getOrDefault(nombre, new int[]{0})
+                        : domicilio.getOrDefault(nombre, new int[]{0});
+                control += d[0];
+            }
+            mejorMapas = Math.min(mejorMapas, System.nanoTime() - t0);
+        }
+
+        System.out.printf("Tabla compilada: %,.1f ns/consulta\n", (double) mejorMotor / consultas);
+        System.out.printf("Mapas + toLowerCase: %,.1f ns/consulta | control: %,d\n", (double) mejorMapas / consultas, control);
+    }
+}
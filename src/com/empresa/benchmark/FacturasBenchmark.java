@@ -0,0 +1,52 @@
+package com.empresa.benchmark;
+
+import com.empresa.importacion.ImportadorFacturas;
+import com.empresa.modelo.Inventario;
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Benchmark de importación de facturas de proveedores desde CSV: una planilla
+ * nueva y la misma planilla otra vez (todas las facturas repetidas).
+ *
+ * Uso: java -Xmx2g com.empresa.benchmark.FacturasBenchmark [facturas] [lineasPorFactura]
+ */
+public class FacturasBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int facturas = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int lineas = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        String[] proveedores = {"Abastible", "Lipigas", "Gasco"};
+        Random random = new Random(23);
+
+        Path archivo = Files.createTempFile("facturas", ".csv");
+        try {
+            try (BufferedWriter w = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+                w.write("NumeroFactura,Fecha,Proveedor,Producto,Tipo,PrecioCompra,Comision,Cantidad\n");
+                for (int f = 0; f < facturas; f++) {
+                    String cabecera = "BF-" + f + ",2025-03-" + String.format("%02d", 1 + f % 28) + ","
+                            + proveedores[f % proveedores.length] + ",";
+                    for (int l = 0; l < lineas; l++) {
+                        int p = random.nextInt(2_000);
+                        w.write(cabecera + "Insumo " + p + ",tipo " + (p % 10) + "," + (1_000 + p * 10) + ","
+                                + (100 + p) + "," + (1 + random.nextInt(50)) + "\n");
+                    }
+                }
+            }
+
+            Inventario inventario = Inventario.getInstancia();
+            for (int ronda = 0; ronda < 2; ronda++) {
+                ImportadorFacturas.Resultado r = new ImportadorFacturas(inventario).importar(archivo);
+                System.out.printf("%s: %,d líneas | registradas: %,d | ya registradas: %,d | %,d ms | %,.0f líneas/s\n",
+                        ronda == 0 ? "Planilla nueva" : "Planilla repetida", r.getLineasLeidas(),
+                        r.getFacturasRegistradas(), r.getFacturasRepetidas(), r.getDuracionMs(),
+                        r.getLineasPorSegundo());
+            }
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+    }
+}
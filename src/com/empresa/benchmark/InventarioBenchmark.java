@@ -0,0 +1,93 @@
+package com.empresa.benchmark;
+
+import com.empresa.modelo.Inventario;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmark de rendimiento del inventario concurrente.
+ * Varios hilos (cajas / repartidores) reservan y confirman stock sobre un mismo
+ * conjunto de productos hasta agotarlo. Se mide el throughput por cantidad de
+ * hilos y se verifica que nunca se venda más de lo que había (sin sobreventa).
+ *
+ * Uso: java com.empresa.benchmark.InventarioBenchmark [productos] [stockPorProducto]
+ */
+public class InventarioBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int cantidadProductos = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int stockPorProducto = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        Inventario inventario = Inventario.getInstancia();
+
+        System.out.printf("Productos: %d | Stock por producto: %d | Núcleos: %d\n",
+                cantidadProductos, stockPorProducto, nucleos);
+
+        int ronda = 0;
+        for (int hilos = 1; hilos <= nucleos * 2; hilos *= 2) {
+            String[] nombres = new String[cantidadProductos];
+            for (int i = 0; i < cantidadProductos; i++) {
+                nombres[i] = "bench-" + ronda + "-" + i;
+                inventario.agregarProducto(nombres[i], "gas", 20000, 2000, stockPorProducto);
+            }
+            ronda++;
+
+            long vendidos = ejecutarRonda(inventario, nombres, hilos);
+            long esperado = (long) cantidadProductos * stockPorProducto;
+            int restante = 0;
+            for (String nombre : nombres) {
+                restante += inventario.getStock(nombre);
+            }
+            if (vendidos != esperado || restante != 0) {
+                throw new IllegalStateException("Sobreventa detectada: vendidos=" + vendidos + " esperado=" + esperado);
+            }
+        }
+    }
+
+    private static long ejecutarRonda(Inventario inventario, String[] nombres, int hilos) throws InterruptedException {
+        LongAdder vendidos = new LongAdder();
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Thread> trabajadores = new ArrayList<>();
+
+        for (int h = 0; h < hilos; h++) {
+            final int desplazamiento = h;
+            Thread t = new Thread(() -> {
+                try {
+                    inicio.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                int agotados = 0;
+                int i = desplazamiento;
+                // Recorre los productos en round-robin hasta que todos se agoten
+                while (agotados < nombres.length) {
+                    String nombre = nombres[i % nombres.length];
+                    if (inventario.reservarStock(nombre, 1)) {
+                        inventario.confirmarReserva(nombre, 1);
+                        vendidos.increment();
+                        agotados = 0;
+                    } else {
+                        agotados++;
+                    }
+                    i++;
+                }
+            });
+            t.start();
+            trabajadores.add(t);
+        }
+
+        long t0 = System.nanoTime();
+        inicio.countDown();
+        for (Thread t : trabajadores) {
+            t.join();
+        }
+        long nanos = System.nanoTime() - t0;
+
+        long total = vendidos.sum();
+        System.out.printf("Hilos: %2d | Ventas: %,d | Tiempo: %,d ms | Throughput: %,.0f ops/s\n",
+                hilos, total, nanos / 1_000_000, total * 1e9 / nanos);
+        return total;
+    }
+}
@@ -0,0 +1,137 @@
+package com.empresa.benchmark;
+
+import com.empresa.modelo.EntradaCompra;
+import com.empresa.modelo.FacturaCompra;
+import com.empresa.modelo.LibroCompras;
+import com.empresa.modelo.OrdenCompra;
+import com.empresa.modelo.Pagina;
+import com.empresa.modelo.Producto;
+import com.empresa.persistencia.RepositorioMemoria;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark de consultas del libro de compras: índices de {@link LibroCompras}
+ * contra recorrer la lista de facturas como hacían consultarHistorial y
+ * mostrarHistorialPorProducto.
+ *
+ * Uso: java -Xmx4g com.empresa.benchmark.LibroComprasBenchmark [facturas] [consultas]
+ */
+public class LibroComprasBenchmark {
+
+    private static final LocalDate INICIO = LocalDate.of(2022, 1, 1);
+
+    public static void main(String[] args) {
+        int cantidadFacturas = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int consultas = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        Random random = new Random(11);
+
+        Producto[] productos = new Producto[2_000];
+        for (int i = 0; i < productos.length; i++) {
+            productos[i] = new Producto("Producto " + i, "tipo " + (i % 40), 5000 + i, 500);
+        }
+        String[] proveedores = new String[200];
+        for (int i = 0; i < proveedores.length; i++) {
+            proveedores[i] = "Proveedor " + i;
+        }
+
+        List<FacturaCompra> lista = new ArrayList<>(cantidadFacturas);
+        for (int i = 0; i < cantidadFacturas; i++) {
+            // ~900 facturas por día en orden de fecha, con un 2% que llega atrasada
+            int dia = i / 900 - (random.nextInt(50) == 0 ? random.nextInt(30) : 0);
+            FacturaCompra f = new FacturaCompra("F-" + i, proveedores[random.nextInt(proveedores.length)], null,
+                    INICIO.plusDays(Math.max(0, dia)));
+            for (int l = 0; l < 3; l++) {
+                f.agregarProducto(productos[random.nextInt(productos.length)], 1 + random.nextInt(20));
+            }
+            lista.add(f);
+        }
+
+        LibroCompras libro = new LibroCompras(new RepositorioMemoria<>(OrdenCompra::getIdOrden),
+                new RepositorioMemoria<>(FacturaCompra::getNumeroFactura));
+        long t0 = System.nanoTime();
+        for (FacturaCompra f : lista) {
+            libro.registrarFactura(f);
+        }
+        System.out.printf("Registro de %,d facturas: %,d ms\n", cantidadFacturas, (System.nanoTime() - t0) / 1_000_000);
+
+        String[] numeros = new String[consultas];
+        String[] nombres = new String[consultas];
+        String[] proveedoresConsulta = new String[consultas];
+        LocalDate[] desdes = new LocalDate[consultas];
+        for (int q = 0; q < consultas; q++) {
+            numeros[q] = "f-" + random.nextInt(cantidadFacturas);
+            nombres[q] = productos[random.nextInt(productos.length)].getNombre().toUpperCase();
+            proveedoresConsulta[q] = proveedores[random.nextInt(proveedores.length)];
+            desdes[q] = INICIO.plusDays(random.nextInt(Math.max(1, cantidadFacturas / 900 - 30)));
+        }
+
+        long control = 0;
+        long mejorIndice = Long.MAX_VALUE;
+        long mejorLista = Long.MAX_VALUE;
+        for (int ronda = 0; ronda < 3; ronda++) {
+            t0 = System.nanoTime();
+            for (int q = 0; q < consultas; q++) {
+                control += libro.buscarFactura(numeros[q]).getProductosIngresados().size();
+            }
+            long numero = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for (int q = 0; q < consultas; q++) {
+                for (EntradaCompra e : libro.entradasPorProducto(nombres[q])) {
+                    control += e.getCantidad();
+                }
+            }
+            long producto = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for (int q = 0; q < consultas; q++) {
+                Pagina<FacturaCompra> p = libro.buscarFacturas(proveedoresConsulta[q], desdes[q], desdes[q].plusDays(30), 0, 50);
+                control += p.getTotal() + p.getElementos().size();
+            }
+            long proveedor = System.nanoTime() - t0;
+            mejorIndice = Math.min(mejorIndice, numero + producto + proveedor);
+            if (ronda == 2) {
+                System.out.printf("Índices  | factura: %,.1f µs | producto: %,.1f µs | proveedor+fechas: %,.1f µs (por consulta)\n",
+                        numero / 1e3 / consultas, producto / 1e3 / consultas, proveedor / 1e3 / consultas);
+            }
+
+            t0 = System.nanoTime();
+            for (int q = 0; q < consultas; q++) {
+                String buscado = numeros[q];
+                control += lista.stream().filter(f -> f.getNumeroFactura().equalsIgnoreCase(buscado))
+                        .findFirst().get().getProductosIngresados().size();
+            }
+            numero = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for (int q = 0; q < consultas; q++) {
+                for (FacturaCompra f : lista) {
+                    for (FacturaCompra.IngresoInventario ingreso : f.getProductosIngresados()) {
+                        if (ingreso.getProducto().getNombre().equalsIgnoreCase(nombres[q])) {
+                            control += ingreso.getCantidad();
+                        }
+                    }
+                }
+            }
+            producto = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            for (int q = 0; q < consultas; q++) {
+                LocalDate desde = desdes[q];
+                LocalDate hasta = desde.plusDays(30);
+                String buscado = proveedoresConsulta[q];
+                control += lista.stream()
+                        .filter(f -> f.getProveedor().equalsIgnoreCase(buscado)
+                                && !f.getFecha().isBefore(desde) && !f.getFecha().isAfter(hasta))
+                        .count();
+            }
+            proveedor = System.nanoTime() - t0;
+            mejorLista = Math.min(mejorLista, numero + producto + proveedor);
+            if (ronda == 2) {
+                System.out.printf("Recorrido| factura: %,.1f µs | producto: %,.1f µs | proveedor+fechas: %,.1f µs (por consulta)\n",
+                        numero / 1e3 / consultas, producto / 1e3 / consultas, proveedor / 1e3 / consultas);
+            }
+        }
+        System.out.printf("Total mejor ronda -> índices: %,d µs | recorrido: %,d µs | control: %,d\n",
+                mejorIndice / 1000, mejorLista / 1000, control);
+    }
+}
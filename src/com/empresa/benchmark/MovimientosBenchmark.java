@@ -0,0 +1,91 @@
+package com.empresa.benchmark;
+
+import com.empresa.modelo.LibroMovimientos;
+import com.empresa.modelo.MovimientoStock;
+import com.empresa.modelo.Producto;
+import com.empresa.modelo.Venta;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark del stock a una fecha: {@link LibroMovimientos} (foto + reproducción
+ * corta) contra recalcular sumando ingresos y recorriendo todas las ventas.
+ *
+ * Uso: java -Xmx2g com.empresa.benchmark.MovimientosBenchmark [ventas] [consultas]
+ */
+public class MovimientosBenchmark {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    public static void main(String[] args) {
+        int cantidadVentas = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int consultas = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        Random random = new Random(3);
+
+        Producto[] productos = new Producto[200];
+        for (int i = 0; i < productos.length; i++) {
+            productos[i] = new Producto("Producto " + i, "tipo " + (i % 10), 5000 + i, 500);
+        }
+
+        LibroMovimientos libro = new LibroMovimientos();
+        List<Venta> ventas = new ArrayList<>(cantidadVentas);
+        long t0 = System.nanoTime();
+        for (Producto p : productos) {
+            libro.registrar(p.getNombre(), MovimientoStock.INICIO, MovimientoStock.Tipo.INICIAL, 1_000_000);
+        }
+        for (int i = 0; i < cantidadVentas; i++) {
+            // ~3 ventas por minuto; cada 5.000 ventas un ingreso de mercadería
+            LocalDateTime fecha = INICIO.plusSeconds(i * 20L);
+            if (i % 5_000 == 0) {
+                libro.registrar(productos[random.nextInt(productos.length)].getNombre(), fecha,
+                        MovimientoStock.Tipo.ENTRADA, 500);
+            }
+            Venta venta = new Venta("local", null, fecha);
+            venta.agregarLinea(productos[random.nextInt(productos.length)], 1 + random.nextInt(3), 0);
+            ventas.add(venta);
+            libro.registrarVenta(venta);
+        }
+        System.out.printf("Registro de %,d movimientos: %,d ms\n", libro.getCantidadMovimientos(),
+                (System.nanoTime() - t0) / 1_000_000);
+
+        String[] nombres = new String[consultas];
+        LocalDateTime[] fechas = new LocalDateTime[consultas];
+        for (int q = 0; q < consultas; q++) {
+            nombres[q] = productos[random.nextInt(productos.length)].getNombre();
+            fechas[q] = INICIO.plusSeconds(random.nextInt(cantidadVentas) * 20L);
+        }
+
+        long control = 0;
+        for (int ronda = 0; ronda < 3; ronda++) {
+            t0 = System.nanoTime();
+            for (int q = 0; q < consultas; q++) {
+                control += libro.stockEn(nombres[q], fechas[q]);
+            }
+            long libroNs = System.nanoTime() - t0;
+
+            int recorridas = Math.min(consultas, 20);
+            t0 = System.nanoTime();
+            for (int q = 0; q < recorridas; q++) {
+                int stock = 1_000_000;
+                for (Venta v : ventas) {
+                    if (v.getFechaHora().isAfter(fechas[q])) {
+                        continue;
+                    }
+                    for (int i = 0; i < v.getCantidadLineas(); i++) {
+                        if (v.getProductoLinea(i).getNombre().equalsIgnoreCase(nombres[q])) {
+                            stock -= v.getCantidadLinea(i);
+                        }
+                    }
+                }
+                control += stock;
+            }
+            long recorridoNs = System.nanoTime() - t0;
+            if (ronda == 2) {
+                System.out.printf("Stock a una fecha | libro: %,.2f µs | recálculo: %,.0f µs (por consulta) | control: %d\n",
+                        libroNs / 1e3 / consultas, recorridoNs / 1e3 / recorridas, control);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.empresa.benchmark;
+
+import com.empresa.modelo.Pesos;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Benchmark de montos: suma de líneas y formato de totales con {@code double} +
+ * {@link NumberFormat} (como lo hacía AppPrincipal) contra {@code long} + {@link Pesos}.
+ *
+ * El proyecto no incluye JMH, así que se sigue el mismo esquema: varias rondas de
+ * calentamiento y luego rondas medidas, acumulando un resultado para que el JIT
+ * no elimine el trabajo.
+ *
+ * Uso: java com.empresa.benchmark.PesosBenchmark [ventas] [rondas]
+ */
+public class PesosBenchmark {
+
+    private static final int LINEAS_POR_VENTA = 4;
+    private static final int CALENTAMIENTO = 5;
+
+    public static void main(String[] args) {
+        int ventas = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int rondas = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Random random = new Random(7);
+
+        int lineas = ventas * LINEAS_POR_VENTA;
+        long[] precios = new long[lineas];
+        int[] cantidades = new int[lineas];
+        int[] descuentos = new int[lineas];
+        for (int i = 0; i < lineas; i++) {
+            precios[i] = 5000 + random.nextInt(40000);
+            cantidades[i] = 1 + random.nextInt(5);
+            descuentos[i] = random.nextInt(4) * 500;
+        }
+
+        long sumaDouble = 0;
+        long sumaPesos = 0;
+        long mejorDouble = Long.MAX_VALUE;
+        long mejorPesos = Long.MAX_VALUE;
+        for (int r = 0; r < CALENTAMIENTO + rondas; r++) {
+            long t0 = System.nanoTime();
+            long resultado = conDouble(precios, cantidades, descuentos, ventas);
+            long tDouble = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            long resultadoPesos = conPesos(precios, cantidades, descuentos, ventas);
+            long tPesos = System.nanoTime() - t0;
+
+            if (r >= CALENTAMIENTO) {
+                sumaDouble += resultado;
+                sumaPesos += resultadoPesos;
+                mejorDouble = Math.min(mejorDouble, tDouble);
+                mejorPesos = Math.min(mejorPesos, tPesos);
+            }
+        }
+
+        System.out.printf("double + NumberFormat: %,.1f ns/venta | control: %,d\n", (double) mejorDouble / ventas, sumaDouble);
+        System.out.printf("long + Pesos:          %,.1f ns/venta | control: %,d\n", (double) mejorPesos / ventas, sumaPesos);
+    }
+
+    /**
+     * Camino anterior: totales en double y formato con NumberFormat es-CL.
+     */
+    private static long conDouble(long[] precios, int[] cantidades, int[] descuentos, int ventas) {
+        NumberFormat formato = NumberFormat.getCurrencyInstance(new Locale("es", "CL"));
+        long control = 0;
+        for (int v = 0, i = 0; v < ventas; v++) {
+            double total = 0;
+            for (int l = 0; l < LINEAS_POR_VENTA; l++, i++) {
+                double precio = precios[i];
+                double descuento = descuentos[i];
+                total += (precio - descuento) * cantidades[i];
+            }
+            control += formato.format(total).length();
+        }
+        return control;
+    }
+
+    /**
+     * Camino nuevo: totales en long y formato en un StringBuilder reutilizado.
+     */
+    private static long conPesos(long[] precios, int[] cantidades, int[] descuentos, int ventas) {
+        StringBuilder sb = new StringBuilder(32);
+        long control = 0;
+        for (int v = 0, i = 0; v < ventas; v++) {
+            long total = 0;
+            for (int l = 0; l < LINEAS_POR_VENTA; l++, i++) {
+                total = Pesos.sumar(total, Pesos.multiplicar(precios[i] - descuentos[i], cantidades[i]));
+            }
+            sb.setLength(0);
+            control += Pesos.formatear(total, sb).length();
+        }
+        return control;
+    }
+}
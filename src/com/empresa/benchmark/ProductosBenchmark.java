@@ -0,0 +1,62 @@
+package com.empresa.benchmark;
+
+import com.empresa.modelo.Inventario;
+import com.empresa.modelo.Producto;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark de búsqueda de productos: índice de trigramas de {@link Inventario}
+ * contra el recorrido lineal con {@code toLowerCase().contains()} que se usaba antes.
+ *
+ * Uso: java com.empresa.benchmark.ProductosBenchmark [productos] [consultas]
+ */
+public class ProductosBenchmark {
+
+    private static final String[] BASES = {"Gas", "Regulador", "Manguera", "Válvula", "Abrazadera", "Cocinilla",
+        "Estufa", "Calefont", "Quemador", "Llave paso", "Flexible", "Termocupla"};
+    private static final String[] TIPOS = {"gas", "accesorio", "repuesto", "artefacto", "servicio"};
+    private static final String[] CONSULTAS = {"gas 15", "regulador", "valvula", "flex", "artefacto", "quem", "llave p"};
+
+    public static void main(String[] args) {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int consultas = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        Random random = new Random(7);
+        Inventario inventario = Inventario.getInstancia();
+
+        List<Producto> catalogo = new ArrayList<>(cantidad);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < cantidad; i++) {
+            String nombre = BASES[random.nextInt(BASES.length)] + " " + (5 + random.nextInt(40)) + "kg modelo " + i;
+            String tipo = TIPOS[random.nextInt(TIPOS.length)];
+            inventario.agregarProducto(nombre, tipo, 10000 + random.nextInt(20000), 1000, 10);
+            catalogo.add(inventario.getProducto(nombre));
+        }
+        System.out.printf("Carga + indexación de %,d productos: %,d ms\n", cantidad, (System.nanoTime() - t0) / 1_000_000);
+
+        long resultados = 0;
+        t0 = System.nanoTime();
+        for (int i = 0; i < consultas; i++) {
+            resultados += inventario.buscarProductos(CONSULTAS[i % CONSULTAS.length], 0, 20).getTotal();
+        }
+        long indexado = System.nanoTime() - t0;
+
+        long resultadosLineal = 0;
+        t0 = System.nanoTime();
+        for (int i = 0; i < consultas; i++) {
+            String criterio = CONSULTAS[i % CONSULTAS.length].toLowerCase();
+            for (Producto p : catalogo) {
+                if (p.getNombre().toLowerCase().contains(criterio) || p.getTipo().toLowerCase().contains(criterio)) {
+                    resultadosLineal++;
+                }
+            }
+        }
+        long lineal = System.nanoTime() - t0;
+
+        System.out.printf("Índice: %,d consultas | %,.1f µs/consulta | coincidencias: %,d\n",
+                consultas, indexado / 1e3 / consultas, resultados);
+        System.out.printf("Lineal: %,d consultas | %,.1f µs/consulta | coincidencias: %,d\n",
+                consultas, lineal / 1e3 / consultas, resultadosLineal);
+    }
+}
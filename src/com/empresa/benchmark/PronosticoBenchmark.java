@@ -0,0 +1,87 @@
+package com.empresa.benchmark;
+
+import com.empresa.modelo.Inventario;
+import com.empresa.modelo.LibroCompras;
+import com.empresa.modelo.LibroMovimientos;
+import com.empresa.modelo.MovimientoStock;
+import com.empresa.modelo.OrdenCompra;
+import com.empresa.modelo.PronosticoReposicion;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark del pronóstico de reposición: actualizar un día cerrado (incremental)
+ * contra recalcular el pronóstico desde cero con toda la historia.
+ *
+ * Uso: java -Xmx2g com.empresa.benchmark.PronosticoBenchmark [productos] [dias] [ventasPorDia]
+ */
+public class PronosticoBenchmark {
+
+    public static void main(String[] args) {
+        int productos = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int dias = args.length > 1 ? Integer.parseInt(args[1]) : 730;
+        int ventasPorDia = args.length > 2 ? Integer.parseInt(args[2]) : 3_000;
+        Random random = new Random(8);
+
+        Inventario inventario = Inventario.getInstancia();
+        LibroMovimientos libro = new LibroMovimientos();
+        String[] nombres = new String[productos];
+        for (int p = 0; p < productos; p++) {
+            nombres[p] = "Producto " + p;
+            inventario.agregarProducto(nombres[p], "tipo " + (p % 10), 5000 + p, 500, 1 + random.nextInt(200));
+        }
+        LocalDate primerDia = LocalDate.of(2023, 1, 1);
+        long t0 = System.nanoTime();
+        for (int d = 0; d < dias; d++) {
+            LocalDate dia = primerDia.plusDays(d);
+            for (int v = 0; v < ventasPorDia; v++) {
+                // demanda sesgada: pocos productos concentran la mayoría de las ventas
+                int p = (int) (productos * Math.pow(random.nextDouble(), 2));
+                libro.registrar(nombres[p], dia.atTime(8 + v * 12 / ventasPorDia, random.nextInt(60)),
+                        MovimientoStock.Tipo.VENTA, -(1 + random.nextInt(3)));
+            }
+        }
+        System.out.printf("Historia: %,d movimientos en %d días (%,d ms)\n", libro.getCantidadMovimientos(), dias,
+                (System.nanoTime() - t0) / 1_000_000);
+
+        LocalDate ultimo = primerDia.plusDays(dias - 1);
+        LibroCompras compras = LibroCompras.getInstancia();
+        PronosticoReposicion incremental = new PronosticoReposicion(libro, inventario, compras);
+        t0 = System.nanoTime();
+        incremental.actualizarHasta(ultimo.minusDays(30));
+        System.out.printf("Carga inicial: %,d ms\n", (System.nanoTime() - t0) / 1_000_000);
+
+        long diarioNs = 0;
+        for (int d = 29; d >= 0; d--) {
+            t0 = System.nanoTime();
+            incremental.actualizarHasta(ultimo.minusDays(d));
+            diarioNs += System.nanoTime() - t0;
+        }
+
+        long completoNs = 0;
+        int repeticiones = 5;
+        for (int r = 0; r < repeticiones; r++) {
+            // desde cero: la ventana completa de historia, como haría un proceso sin estado
+            PronosticoReposicion completo = new PronosticoReposicion(libro, inventario, compras);
+            t0 = System.nanoTime();
+            for (String nombre : nombres) {
+                libro.ventasDiarias(nombre, primerDia, dias);
+            }
+            completo.actualizarHasta(ultimo);
+            completoNs += System.nanoTime() - t0;
+        }
+        System.out.printf("Actualizar un día: %,.2f ms | recalcular desde cero leyendo toda la historia: %,.1f ms\n",
+                diarioNs / 1e6 / 30, completoNs / 1e6 / repeticiones);
+
+        t0 = System.nanoTime();
+        List<OrdenCompra> borradores = incremental.generarBorradores(ultimo.plusDays(1),
+                PronosticoReposicion.Metodo.SUAVIZADO_EXPONENCIAL, 3, 7);
+        int lineas = 0;
+        for (OrdenCompra orden : borradores) {
+            lineas += orden.getItems().size();
+        }
+        System.out.printf("Órdenes sugeridas: %d (%d productos) en %,.2f ms\n", borradores.size(), lineas,
+                (System.nanoTime() - t0) / 1e6);
+    }
+}
@@ -0,0 +1,81 @@
+package com.empresa.benchmark;
+
+import com.empresa.modelo.HistorialVentas;
+import com.empresa.modelo.MotorRentabilidad;
+import com.empresa.modelo.Producto;
+import com.empresa.modelo.Rentabilidad;
+import com.empresa.modelo.Venta;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmark del informe de rentabilidad: cálculo en frío de un año de ventas con 1
+ * hilo y con todos los procesadores, y la misma consulta con los meses cerrados
+ * ya guardados.
+ *
+ * Uso: java -Xmx2g com.empresa.benchmark.RentabilidadBenchmark [ventas] [lineasPorVenta]
+ */
+public class RentabilidadBenchmark {
+
+    public static void main(String[] args) {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lineas = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        Random random = new Random(21);
+
+        Producto[] productos = new Producto[200];
+        for (int p = 0; p < productos.length; p++) {
+            productos[p] = new Producto("Producto " + p, "tipo " + (p % 12), 1_000 + random.nextInt(30_000),
+                    100 + random.nextInt(3_000));
+        }
+
+        HistorialVentas historial = HistorialVentas.getInstancia();
+        YearMonth primerMes = YearMonth.now().minusMonths(12);
+        long segundosPorVenta = Math.max(1, 365L * 24 * 3600 / cantidad);
+        LocalDateTime fecha = primerMes.atDay(1).atStartOfDay();
+        List<Venta> bloque = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            fecha = fecha.plusSeconds(segundosPorVenta);
+            Venta venta = new Venta(i % 4 == 0 ? "domicilio" : "local", null, fecha);
+            for (int l = 0; l < lineas; l++) {
+                venta.agregarLinea(productos[random.nextInt(productos.length)], 1 + random.nextInt(3),
+                        random.nextInt(4) == 0 ? random.nextInt(500) : 0);
+            }
+            bloque.add(venta);
+            if (bloque.size() == 10_000) {
+                historial.agregarVentas(bloque);
+                bloque.clear();
+            }
+        }
+        historial.agregarVentas(bloque);
+        System.out.printf("%,d ventas, %,d líneas registradas\n", cantidad, (long) cantidad * lineas);
+
+        YearMonth ultimoCerrado = YearMonth.now().minusMonths(1);
+        ForkJoinPool unHilo = new ForkJoinPool(1);
+        ForkJoinPool todos = ForkJoinPool.commonPool();
+        for (int ronda = 0; ronda < 3; ronda++) {
+            long t0 = System.nanoTime();
+            new MotorRentabilidad(historial).porMes(primerMes, ultimoCerrado, unHilo);
+            long secuencialNs = System.nanoTime() - t0;
+
+            MotorRentabilidad motor = new MotorRentabilidad(historial);
+            t0 = System.nanoTime();
+            motor.porMes(primerMes, ultimoCerrado, todos);
+            long paraleloNs = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            motor.porDimension(MotorRentabilidad.Dimension.PRODUCTO, primerMes, ultimoCerrado, todos);
+            Rentabilidad total = motor.total(primerMes, ultimoCerrado);
+            long guardadoNs = System.nanoTime() - t0;
+            if (ronda == 2) {
+                System.out.printf("En frío | 1 hilo: %,d ms | %d hilos: %,d ms\n", secuencialNs / 1_000_000,
+                        todos.getParallelism(), paraleloNs / 1_000_000);
+                System.out.printf("Con %d meses guardados: %,d µs\n", motor.getMesesGuardados(), guardadoNs / 1_000);
+                System.out.println("Total: " + total);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.empresa.benchmark;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.MapaZonas;
+import com.empresa.modelo.PlanReparto;
+import com.empresa.modelo.PlanificadorRepartos;
+import com.empresa.modelo.Producto;
+import com.empresa.modelo.RutaReparto;
+import com.empresa.modelo.Venta;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmark del planificador de repartos: miles de pedidos a domicilio de un día
+ * sobre una grilla de calles, con 1 hilo y con todos los procesadores, y el largo
+ * total contra repartir los mismos lotes en orden de llegada.
+ *
+ * Uso: java com.empresa.benchmark.RepartosBenchmark [pedidos] [repartidores] [paradasPorViaje]
+ */
+public class RepartosBenchmark {
+
+    private static final int LADO = 200;
+    private static final int METROS_POR_CELDA = 100;
+
+    public static void main(String[] args) {
+        int pedidos = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int repartidores = args.length > 1 ? Integer.parseInt(args[1]) : 25;
+        int paradas = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        Random random = new Random(21);
+
+        MapaZonas mapa = new MapaZonas(METROS_POR_CELDA);
+        mapa.setLocal(LADO / 2, LADO / 2);
+        int calles = 5_000;
+        for (int i = 0; i < calles; i++) {
+            mapa.agregarCalle("Calle " + i, random.nextInt(LADO), random.nextInt(LADO));
+        }
+        Producto gas = new Producto("Gas 15kg", "gas", 25000, 3000);
+        List<Venta> ventas = new ArrayList<>(pedidos);
+        LocalDateTime inicio = LocalDateTime.of(2024, 6, 10, 8, 0);
+        for (int i = 0; i < pedidos; i++) {
+            Cliente cliente = new Cliente("Cliente " + i, i + "-0", "", "Calle " + random.nextInt(calles) + " " + i);
+            Venta venta = new Venta("domicilio", cliente, inicio.plusSeconds(i * 4L));
+            venta.agregarLinea(gas, 1, 0);
+            ventas.add(venta);
+        }
+
+        PlanificadorRepartos planificador = new PlanificadorRepartos(mapa, paradas);
+        ForkJoinPool secuencial = new ForkJoinPool(1);
+        ForkJoinPool paralelo = ForkJoinPool.commonPool();
+        PlanReparto plan = null;
+        for (int ronda = 0; ronda < 5; ronda++) {
+            long t0 = System.nanoTime();
+            planificador.planificar(ventas, repartidores, secuencial);
+            long secuencialNs = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            plan = planificador.planificar(ventas, repartidores, paralelo);
+            long paraleloNs = System.nanoTime() - t0;
+            if (ronda == 4) {
+                System.out.printf("%,d pedidos, %d viajes | 1 hilo: %,d ms | %d hilos: %,d ms\n", pedidos,
+                        plan.getRutas().size(), secuencialNs / 1_000_000, paralelo.getParallelism(),
+                        paraleloNs / 1_000_000);
+            }
+        }
+
+        // referencia: los mismos pedidos en lotes por orden de llegada, sin reordenar
+        long llegada = 0;
+        for (int i = 0; i < pedidos; i += paradas) {
+            int anterior = mapa.getLocal();
+            for (int j = i; j < Math.min(pedidos, i + paradas); j++) {
+                int celda = mapa.ubicar(ventas.get(j).getCliente().getDireccion());
+                llegada += mapa.distancia(anterior, celda);
+                anterior = celda;
+            }
+            llegada += mapa.distancia(anterior, mapa.getLocal());
+        }
+        int maxParadas = 0;
+        for (RutaReparto ruta : plan.getRutas()) {
+            maxParadas = Math.max(maxParadas, ruta.getParadas().size());
+        }
+        System.out.printf("Recorrido total: %,.0f km (orden de llegada: %,.0f km) | máx. paradas por viaje: %d\n",
+                plan.getMetrosTotales() / 1000.0, llegada / 1000.0, maxParadas);
+    }
+}
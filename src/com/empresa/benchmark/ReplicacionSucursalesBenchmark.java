@@ -0,0 +1,112 @@
+package com.empresa.benchmark;
+
+import com.empresa.modelo.InventarioSucursales;
+import com.empresa.modelo.OrdenTransferencia;
+import com.empresa.servicio.ReplicadorSucursales;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Replicación entre dos JVM en la misma máquina: este proceso es el local (sucursal
+ * Centro) y lanza un segundo proceso como depósito (sucursal Norte). El local
+ * ingresa mercadería y transfiere al depósito; el depósito recibe cada transferencia
+ * en cuanto le llega y vende parte. Se mide cuánto tarda el local en ver recibida
+ * cada transferencia (ida y vuelta) y en converger al stock esperado.
+ *
+ * Uso: java com.empresa.benchmark.ReplicacionSucursalesBenchmark [transferencias] [intervaloMs]
+ */
+public class ReplicacionSucursalesBenchmark {
+
+    private static final String PRODUCTO = "Gas 15kg";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--deposito")) {
+            deposito(Long.parseLong(args[1]));
+            return;
+        }
+        int transferencias = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        long intervaloMs = args.length > 1 ? Long.parseLong(args[1]) : 100;
+
+        InventarioSucursales local = new InventarioSucursales("local", "Centro");
+        Process hijo = new ProcessBuilder(new File(System.getProperty("java.home"), "bin/java").getPath(),
+                "-cp", System.getProperty("java.class.path"), ReplicacionSucursalesBenchmark.class.getName(),
+                "--deposito", String.valueOf(intervaloMs))
+                .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        try (ReplicadorSucursales replicador = ReplicadorSucursales.iniciar(local, 0, intervaloMs);
+                BufferedReader entrada = new BufferedReader(new InputStreamReader(hijo.getInputStream()));
+                PrintWriter salida = new PrintWriter(hijo.getOutputStream(), true)) {
+            int puertoDeposito = Integer.parseInt(entrada.readLine().trim());
+            salida.println(replicador.getPuerto());
+            replicador.agregarPar("127.0.0.1", puertoDeposito);
+
+            Random random = new Random(11);
+            long[] idaYVuelta = new long[transferencias];
+            long enviadas = 0;
+            long t0 = System.nanoTime();
+            for (int i = 0; i < transferencias; i++) {
+                int cantidad = 2 + random.nextInt(5);
+                local.ingresar("Centro", PRODUCTO, cantidad);
+                long inicio = System.nanoTime();
+                OrdenTransferencia orden = local.transferir("Centro", "Norte", PRODUCTO, cantidad);
+                enviadas += cantidad;
+                while (local.buscarTransferencia(orden.getId()).getEstado() != OrdenTransferencia.Estado.RECIBIDA) {
+                    Thread.yield();
+                }
+                idaYVuelta[i] = System.nanoTime() - inicio;
+            }
+            // el depósito vende 1 unidad por transferencia recibida
+            long esperado = enviadas - transferencias;
+            while (local.getStock("Norte", PRODUCTO) != esperado) {
+                Thread.sleep(1);
+            }
+            long totalMs = (System.nanoTime() - t0) / 1_000_000;
+
+            Arrays.sort(idaYVuelta);
+            System.out.printf("%,d transferencias en %,d ms | ida y vuelta p50: %,.2f ms | p99: %,.2f ms | max: %,.2f ms\n",
+                    transferencias, totalMs, idaYVuelta[transferencias / 2] / 1e6,
+                    idaYVuelta[transferencias * 99 / 100] / 1e6, idaYVuelta[transferencias - 1] / 1e6);
+            System.out.printf("Stock Norte visto por el local: %,d (esperado %,d) | total: %,d\n",
+                    local.getStock("Norte", PRODUCTO), esperado, local.getStockTotal(PRODUCTO));
+        } finally {
+            hijo.getOutputStream().close();
+            hijo.waitFor();
+        }
+    }
+
+    /**
+     * Proceso hijo: anuncia su puerto por la salida estándar, lee el del local por la
+     * entrada estándar y termina cuando la entrada se cierra.
+     */
+    private static void deposito(long intervaloMs) throws Exception {
+        InventarioSucursales deposito = new InventarioSucursales("deposito", "Norte");
+        try (ReplicadorSucursales replicador = ReplicadorSucursales.iniciar(deposito, 0, intervaloMs)) {
+            System.out.println(replicador.getPuerto());
+            System.out.flush();
+            BufferedReader entrada = new BufferedReader(new InputStreamReader(System.in));
+            replicador.agregarPar("127.0.0.1", Integer.parseInt(entrada.readLine().trim()));
+
+            Thread receptor = Thread.ofPlatform().daemon().start(() -> {
+                try {
+                    while (true) {
+                        for (OrdenTransferencia orden : deposito.transferenciasPendientes("Norte")) {
+                            if (deposito.recibirTransferencia(orden.getId())) {
+                                deposito.descontar("Norte", PRODUCTO, 1);
+                            }
+                        }
+                        Thread.sleep(1);
+                    }
+                } catch (InterruptedException e) {
+                    // fin del benchmark
+                }
+            });
+            while (entrada.readLine() != null) {
+                // esperar a que el local cierre la entrada
+            }
+            receptor.interrupt();
+        }
+    }
+}
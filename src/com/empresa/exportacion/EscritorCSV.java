@@ -0,0 +1,250 @@
+package com.empresa.exportacion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escritor CSV en streaming con un único buffer reutilizable.
+ *
+ * Los campos se codifican directamente a bytes UTF-8 dentro del buffer y los
+ * números y fechas se escriben dígito a dígito, sin {@code String.format} ni
+ * objetos intermedios por línea. El buffer se vacía a un {@link FileChannel}
+ * (o a un flujo gzip si se pidió compresión), por lo que la memoria usada es
+ * constante sin importar cuántas líneas se exporten.
+ *
+ * @author Ignacio
+ */
+public class EscritorCSV implements Closeable {
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final FileChannel canal;
+    private final OutputStream salida;
+    private final byte[] datos = new byte[TAMANO_BUFFER];
+    private final ByteBuffer envoltura = ByteBuffer.wrap(datos);
+    private final byte[] digitos = new byte[20];
+    private int pos;
+    private boolean inicioLinea = true;
+    private long lineas;
+
+    private EscritorCSV(FileChannel canal, OutputStream salida) {
+        this.canal = canal;
+        this.salida = salida;
+    }
+
+    /**
+     * Abre un archivo CSV para escritura, reemplazando su contenido.
+     *
+     * @param ruta Archivo de destino
+     * @param gzip true para comprimir la salida en formato gzip
+     */
+    public static EscritorCSV abrir(Path ruta, boolean gzip) throws IOException {
+        if (gzip) {
+            return new EscritorCSV(null, new GZIPOutputStream(Files.newOutputStream(ruta), TAMANO_BUFFER));
+        }
+        return new EscritorCSV(FileChannel.open(ruta, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), null);
+    }
+
+    /**
+     * Escribe el CSV sobre un flujo ya abierto (por ejemplo, una respuesta HTTP).
+     * Al cerrar el escritor se cierra también el flujo.
+     */
+    public static EscritorCSV sobre(OutputStream salida) {
+        return new EscritorCSV(null, salida);
+    }
+
+    /**
+     * Escribe una línea completa de encabezado.
+     */
+    public void encabezado(String... columnas) throws IOException {
+        for (String columna : columnas) {
+            campo(columna);
+        }
+        finLinea();
+    }
+
+    /**
+     * Escribe un campo de texto, entre comillas solo si contiene separadores.
+     */
+    public void campo(CharSequence valor) throws IOException {
+        separador();
+        if (valor == null) {
+            return;
+        }
+        boolean comillas = requiereComillas(valor);
+        if (comillas) {
+            escribirByte('"');
+        }
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c < 0x80) {
+                if (c == '"') {
+                    escribirByte('"');
+                }
+                escribirByte(c);
+            } else if (c < 0x800) {
+                asegurar(2);
+                datos[pos++] = (byte) (0xC0 | (c >> 6));
+                datos[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < valor.length()
+                    && Character.isLowSurrogate(valor.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, valor.charAt(++i));
+                asegurar(4);
+                datos[pos++] = (byte) (0xF0 | (cp >> 18));
+                datos[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                datos[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                datos[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else {
+                asegurar(3);
+                datos[pos++] = (byte) (0xE0 | (c >> 12));
+                datos[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                datos[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        if (comillas) {
+            escribirByte('"');
+        }
+    }
+
+    /**
+     * Escribe un número entero (por ejemplo un monto en pesos) sin crear objetos.
+     */
+    public void campo(long valor) throws IOException {
+        separador();
+        entero(valor, 1);
+    }
+
+    /**
+     * Escribe una fecha/hora en formato ISO con precisión de segundos (AAAA-MM-DDTHH:MM:SS).
+     */
+    public void campo(LocalDateTime fechaHora) throws IOException {
+        separador();
+        fecha(fechaHora.getYear(), fechaHora.getMonthValue(), fechaHora.getDayOfMonth());
+        escribirByte('T');
+        entero(fechaHora.getHour(), 2);
+        escribirByte(':');
+        entero(fechaHora.getMinute(), 2);
+        escribirByte(':');
+        entero(fechaHora.getSecond(), 2);
+    }
+
+    /**
+     * Escribe una fecha en formato ISO (AAAA-MM-DD).
+     */
+    public void campo(LocalDate fecha) throws IOException {
+        separador();
+        fecha(fecha.getYear(), fecha.getMonthValue(), fecha.getDayOfMonth());
+    }
+
+    public void finLinea() throws IOException {
+        escribirByte('\n');
+        inicioLinea = true;
+        lineas++;
+    }
+
+    /**
+     * Cantidad de líneas escritas (incluido el encabezado).
+     */
+    public long getLineas() {
+        return lineas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            vaciar();
+        } finally {
+            if (canal != null) {
+                canal.close();
+            } else {
+                salida.close();
+            }
+        }
+    }
+
+    private void fecha(int anio, int mes, int dia) throws IOException {
+        entero(anio, 4);
+        escribirByte('-');
+        entero(mes, 2);
+        escribirByte('-');
+        entero(dia, 2);
+    }
+
+    /**
+     * Escribe los dígitos de un entero, rellenando con ceros hasta {@code minimo}.
+     * Trabaja en negativo para cubrir también {@code Long.MIN_VALUE}.
+     */
+    private void entero(long valor, int minimo) throws IOException {
+        asegurar(21);
+        long n = valor < 0 ? valor : -valor;
+        int largo = 0;
+        do {
+            digitos[largo++] = (byte) ('0' - (n % 10));
+            n /= 10;
+        } while (n != 0);
+        if (valor < 0) {
+            datos[pos++] = '-';
+        }
+        for (int i = largo; i < minimo; i++) {
+            datos[pos++] = '0';
+        }
+        while (largo > 0) {
+            datos[pos++] = digitos[--largo];
+        }
+    }
+
+    private void separador() throws IOException {
+        if (!inicioLinea) {
+            escribirByte(',');
+        }
+        inicioLinea = false;
+    }
+
+    private static boolean requiereComillas(CharSequence valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void escribirByte(int b) throws IOException {
+        if (pos == datos.length) {
+            vaciar();
+        }
+        datos[pos++] = (byte) b;
+    }
+
+    private void asegurar(int bytes) throws IOException {
+        if (pos + bytes > datos.length) {
+            vaciar();
+        }
+    }
+
+    private void vaciar() throws IOException {
+        if (pos == 0) {
+            return;
+        }
+        if (canal != null) {
+            envoltura.clear().limit(pos);
+            while (envoltura.hasRemaining()) {
+                canal.write(envoltura);
+            }
+        } else {
+            salida.write(datos, 0, pos);
+        }
+        pos = 0;
+    }
+}
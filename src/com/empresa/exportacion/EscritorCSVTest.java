@@ -0,0 +1,54 @@
+package com.empresa.exportacion;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link EscritorCSV}.
+ */
+public class EscritorCSVTest {
+
+    @Test
+    public void campo_escribeNumerosFechasYTextoEscapado() throws Exception {
+        Path ruta = Files.createTempFile("csv", ".csv");
+        try (EscritorCSV csv = EscritorCSV.abrir(ruta, false)) {
+            csv.encabezado("Fecha", "Producto", "Monto");
+            csv.campo(LocalDateTime.of(2025, 3, 7, 9, 5, 1));
+            csv.campo("Gas \"15kg\", válvula");
+            csv.campo(-26253);
+            csv.finLinea();
+            csv.campo(Long.MIN_VALUE);
+            csv.finLinea();
+        }
+
+        String esperado = "Fecha,Producto,Monto\n"
+                + "2025-03-07T09:05:01,\"Gas \"\"15kg\"\", válvula\",-26253\n"
+                + "-9223372036854775808\n";
+        assertEquals(esperado, Files.readString(ruta, StandardCharsets.UTF_8));
+        Files.delete(ruta);
+    }
+
+    @Test
+    public void abrir_gzipComprimeSalida() throws Exception {
+        Path ruta = Files.createTempFile("csv", ".csv.gz");
+        try (EscritorCSV csv = EscritorCSV.abrir(ruta, true)) {
+            for (int i = 0; i < 100_000; i++) {
+                csv.campo(i);
+                csv.finLinea();
+            }
+        }
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(ruta))) {
+            String[] lineas = new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+            assertEquals(100_000, lineas.length);
+            assertEquals("99999", lineas[99_999]);
+        }
+        Files.delete(ruta);
+    }
+}
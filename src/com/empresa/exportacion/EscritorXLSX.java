@@ -0,0 +1,205 @@
+package com.empresa.exportacion;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * Escritor XLSX en streaming sobre {@link SXSSFWorkbook}, con la misma forma de
+ * uso que {@link EscritorCSV}: se abre una hoja y se escriben campos y líneas.
+ *
+ * Solo las últimas {@value #VENTANA_FILAS} filas quedan en memoria; las anteriores
+ * se vacían a un archivo temporal comprimido que se borra al cerrar. Los estilos
+ * (encabezado, fechas, pesos) se crean una vez por libro y se comparten entre
+ * todas las celdas, porque un estilo por celda agota el límite de estilos de Excel
+ * y hace crecer el libro. Si una hoja llega al máximo de filas de Excel, sigue
+ * en una hoja nueva con el mismo encabezado ("Ventas (2)", ...).
+ *
+ * @author Ignacio
+ */
+public class EscritorXLSX implements Closeable {
+
+    /** Máximo de filas por hoja en Excel, incluido el encabezado. */
+    public static final int MAX_FILAS = 1_048_576;
+    private static final int VENTANA_FILAS = 200;
+    private static final int ANCHO_MINIMO = 12;
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final SXSSFWorkbook libro;
+    private final OutputStream salida;
+    private final CellStyle estiloEncabezado;
+    private final CellStyle estiloFechaHora;
+    private final CellStyle estiloFecha;
+    private final CellStyle estiloPesos;
+    private final CellStyle estiloEntero;
+
+    private Sheet hoja;
+    private String nombreHoja;
+    private String[] columnas;
+    private int partes;
+    private Row fila;
+    private int numeroFila;
+    private int columna;
+    private long filas;
+
+    private EscritorXLSX(OutputStream salida) {
+        this.salida = salida;
+        this.libro = new SXSSFWorkbook(VENTANA_FILAS);
+        libro.setCompressTempFiles(true);
+
+        DataFormat formatos = libro.createDataFormat();
+        Font negrita = libro.createFont();
+        negrita.setBold(true);
+        estiloEncabezado = libro.createCellStyle();
+        estiloEncabezado.setFont(negrita);
+        estiloFechaHora = estilo(formatos, "yyyy-mm-dd hh:mm:ss");
+        estiloFecha = estilo(formatos, "yyyy-mm-dd");
+        estiloPesos = estilo(formatos, "\"$\"#,##0");
+        estiloEntero = estilo(formatos, "#,##0");
+    }
+
+    private CellStyle estilo(DataFormat formatos, String formato) {
+        CellStyle estilo = libro.createCellStyle();
+        estilo.setDataFormat(formatos.getFormat(formato));
+        return estilo;
+    }
+
+    /**
+     * Crea un libro XLSX en el archivo indicado, reemplazando su contenido. El
+     * archivo se escribe completo al cerrar el escritor.
+     */
+    public static EscritorXLSX abrir(Path ruta) throws IOException {
+        return new EscritorXLSX(new BufferedOutputStream(Files.newOutputStream(ruta), TAMANO_BUFFER));
+    }
+
+    /**
+     * Escribe el libro sobre un flujo ya abierto. Al cerrar el escritor se cierra también el flujo.
+     */
+    public static EscritorXLSX sobre(OutputStream salida) {
+        return new EscritorXLSX(salida);
+    }
+
+    /**
+     * Comienza una hoja nueva con una fila de encabezado fija (no se desplaza).
+     * Las líneas siguientes se escriben en esta hoja.
+     */
+    public void hoja(String nombre, String... columnas) {
+        this.nombreHoja = nombre;
+        this.columnas = columnas;
+        this.partes = 0;
+        crearHoja(nombre);
+    }
+
+    private void crearHoja(String nombre) {
+        hoja = libro.createSheet(nombre);
+        hoja.createFreezePane(0, 1);
+        Row encabezado = hoja.createRow(0);
+        for (int i = 0; i < columnas.length; i++) {
+            Cell celda = encabezado.createCell(i);
+            celda.setCellValue(columnas[i]);
+            celda.setCellStyle(estiloEncabezado);
+            hoja.setColumnWidth(i, Math.max(ANCHO_MINIMO, columnas[i].length() + 4) * 256);
+        }
+        partes++;
+        numeroFila = 1;
+        fila = null;
+        columna = 0;
+    }
+
+    /**
+     * Escribe un campo de texto; null deja la celda vacía.
+     */
+    public void campo(CharSequence valor) {
+        Cell celda = celda();
+        if (valor != null) {
+            celda.setCellValue(valor.toString());
+        }
+    }
+
+    /**
+     * Escribe un número entero con separador de miles.
+     */
+    public void campo(long valor) {
+        numero(valor, estiloEntero);
+    }
+
+    /**
+     * Escribe un monto en pesos con formato de moneda. La celda queda numérica,
+     * así que se puede sumar en Excel.
+     */
+    public void pesos(long valor) {
+        numero(valor, estiloPesos);
+    }
+
+    public void campo(LocalDateTime fechaHora) {
+        Cell celda = celda();
+        celda.setCellValue(fechaHora);
+        celda.setCellStyle(estiloFechaHora);
+    }
+
+    public void campo(LocalDate fecha) {
+        Cell celda = celda();
+        celda.setCellValue(fecha);
+        celda.setCellStyle(estiloFecha);
+    }
+
+    private void numero(long valor, CellStyle estilo) {
+        Cell celda = celda();
+        celda.setCellValue((double) valor);
+        celda.setCellStyle(estilo);
+    }
+
+    private Cell celda() {
+        return filaActual().createCell(columna++);
+    }
+
+    private Row filaActual() {
+        if (hoja == null) {
+            throw new IllegalStateException("Debe crear una hoja antes de escribir campos");
+        }
+        if (fila == null) {
+            if (numeroFila == MAX_FILAS) {
+                crearHoja(nombreHoja + " (" + (partes + 1) + ")");
+            }
+            fila = hoja.createRow(numeroFila);
+        }
+        return fila;
+    }
+
+    public void finLinea() {
+        filaActual(); // una línea vacía igual ocupa su fila
+        numeroFila++;
+        fila = null;
+        columna = 0;
+        filas++;
+    }
+
+    /**
+     * Cantidad de líneas escritas en todas las hojas, sin contar encabezados.
+     */
+    public long getFilas() {
+        return filas;
+    }
+
+    /**
+     * Escribe el libro completo en el destino y borra los archivos temporales.
+     */
+    @Override
+    public void close() throws IOException {
+        try (libro; salida) {
+            libro.write(salida);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.empresa.exportacion;
+
+import com.empresa.modelo.CuboVentas;
+import com.empresa.modelo.HistorialVentas;
+import com.empresa.modelo.Metricas;
+import com.empresa.modelo.Venta;
+import com.empresa.persistencia.SegmentoVentas;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Exporta el historial de ventas a un libro Excel con tres hojas: el detalle de
+ * líneas ("Ventas"), los totales por día ("Resumen diario") y los totales por
+ * producto ("Por producto").
+ *
+ * Recorre el historial con {@link HistorialVentas#recorrer} (las ventas archivadas
+ * se leen de a un bloque) y escribe con {@link EscritorXLSX}, así que la memoria
+ * usada no depende de la cantidad de ventas. Está separado de
+ * {@link HistorialVentas} para que solo esta clase y el escritor dependan de POI.
+ *
+ * @author Ignacio
+ */
+public class ExportadorVentasXLSX {
+
+    private final HistorialVentas historial;
+
+    public ExportadorVentasXLSX(HistorialVentas historial) {
+        this.historial = historial;
+    }
+
+    /**
+     * Exporta al archivo indicado las ventas del cliente (o de todos si {@code rut}
+     * es null) en el rango, informando el resultado por consola.
+     *
+     * @param rutaArchivo Ruta del archivo .xlsx de destino
+     * @param desde Fecha/hora mínima (inclusive), o null para no limitar
+     * @param hasta Fecha/hora máxima (exclusive), o null para no limitar
+     */
+    public void exportar(String rutaArchivo, String rut, LocalDateTime desde, LocalDateTime hasta) {
+        try (EscritorXLSX xlsx = EscritorXLSX.abrir(Path.of(rutaArchivo))) {
+            exportar(xlsx, rut, desde, hasta);
+            System.out.println("Historial exportado exitosamente a: " + rutaArchivo
+                    + " (" + xlsx.getFilas() + " filas)");
+        } catch (IOException e) {
+            System.out.println("Error al exportar XLSX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe el libro en el flujo indicado (por ejemplo, la respuesta HTTP) y lo cierra.
+     */
+    public void exportar(OutputStream salida, String rut, LocalDateTime desde, LocalDateTime hasta) throws IOException {
+        try (EscritorXLSX xlsx = EscritorXLSX.sobre(salida)) {
+            exportar(xlsx, rut, desde, hasta);
+        }
+    }
+
+    /**
+     * Escribe las hojas de detalle y resumen en el escritor indicado. Los resúmenes
+     * se acumulan en un {@link CuboVentas} propio durante la misma pasada, de modo
+     * que cuadran con las líneas exportadas. No cierra el escritor.
+     */
+    public void exportar(EscritorXLSX xlsx, String rut, LocalDateTime desde, LocalDateTime hasta) throws IOException {
+        CuboVentas resumen = new CuboVentas();
+        xlsx.hoja("Ventas", "FechaHora", "TipoVenta", "RUT", "Producto", "Cantidad", "PrecioUnitario", "Descuento", "TotalLinea");
+        SegmentoVentas.Receptor detalle = venta -> {
+            resumen.registrar(venta);
+            escribirLineas(xlsx, venta);
+        };
+        if (rut != null) {
+            historial.recorrerCliente(rut, desde, hasta, detalle);
+        } else {
+            historial.recorrer(desde, hasta, detalle);
+        }
+
+        xlsx.hoja("Resumen diario", "Fecha", "Ventas", "Unidades", "TotalBruto", "TotalDescuento", "TotalNeto");
+        for (Map.Entry<LocalDate, Metricas> dia : resumen.serieDiaria(LocalDate.MIN, LocalDate.MAX).entrySet()) {
+            xlsx.campo(dia.getKey());
+            escribirMetricas(xlsx, dia.getValue());
+        }
+        xlsx.campo("Total");
+        escribirMetricas(xlsx, resumen.getTotal());
+
+        xlsx.hoja("Por producto", "Producto", "Ventas", "Unidades", "TotalBruto", "TotalDescuento", "TotalNeto");
+        for (Map.Entry<String, Metricas> producto : resumen.ranking(CuboVentas.Dimension.PRODUCTO, Integer.MAX_VALUE).entrySet()) {
+            xlsx.campo(producto.getKey());
+            escribirMetricas(xlsx, producto.getValue());
+        }
+    }
+
+    private static void escribirLineas(EscritorXLSX xlsx, Venta venta) {
+        String rut = venta.getCliente() != null ? venta.getCliente().getRut() : null;
+        for (int i = 0; i < venta.getCantidadLineas(); i++) {
+            xlsx.campo(venta.getFechaHora());
+            xlsx.campo(venta.getFormatoVenta());
+            xlsx.campo(rut);
+            xlsx.campo(venta.getProductoLinea(i).getNombre());
+            xlsx.campo(venta.getCantidadLinea(i));
+            xlsx.pesos(venta.getPrecioUnitarioLinea(i));
+            xlsx.pesos(venta.getDescuentoLinea(i));
+            xlsx.pesos(venta.getTotalLinea(i));
+            xlsx.finLinea();
+        }
+    }
+
+    private static void escribirMetricas(EscritorXLSX xlsx, Metricas m) {
+        xlsx.campo(m.getVentas());
+        xlsx.campo(m.getUnidades());
+        xlsx.pesos(m.getTotalBruto());
+        xlsx.pesos(m.getTotalDescuento());
+        xlsx.pesos(m.getTotalNeto());
+        xlsx.finLinea();
+    }
+}
@@ -0,0 +1,30 @@
+package com.empresa.importacion;
+
+/**
+ * Error de una fila de la planilla, informado en el resultado de
+ * {@link ImportadorCatalogo} e {@link ImportadorFacturas}.
+ *
+ * @author Ignacio
+ */
+public final class ErrorFila {
+    private final int linea;
+    private final String mensaje;
+
+    ErrorFila(int linea, String mensaje) {
+        this.linea = linea;
+        this.mensaje = mensaje;
+    }
+
+    public int getLinea() {
+        return linea;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    @Override
+    public String toString() {
+        return "Línea " + linea + ": " + mensaje;
+    }
+}
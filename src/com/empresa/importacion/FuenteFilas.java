@@ -0,0 +1,27 @@
+package com.empresa.importacion;
+
+import java.io.IOException;
+
+/**
+ * Origen de las filas de una planilla. Los importadores leen CSV por su cuenta y
+ * reciben los demás formatos por esta interfaz, de modo que no dependen de la
+ * biblioteca que los lee (por ejemplo {@link LectorFilasXLSX#primeraHoja}, que usa POI).
+ *
+ * @author Ignacio
+ */
+@FunctionalInterface
+public interface FuenteFilas {
+
+    /**
+     * Recibe cada fila no vacía con su número de línea (la primera es 1) y sus
+     * campos, siempre {@code columnas} textos (vacíos si faltan celdas).
+     */
+    interface Receptor {
+        void fila(int linea, String[] campos);
+    }
+
+    /**
+     * @param columnas Cantidad de columnas, desde la primera, que se entregan de cada fila
+     */
+    void leer(int columnas, Receptor receptor) throws IOException;
+}
@@ -0,0 +1,294 @@
+package com.empresa.importacion;
+
+import com.empresa.modelo.Inventario;
+import com.empresa.modelo.Producto;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Importa un catálogo de productos con precios desde CSV, o desde otra
+ * {@link FuenteFilas} (por ejemplo Excel con {@link LectorFilasXLSX#primeraHoja}).
+ *
+ * Columnas (la fila de encabezado es opcional):
+ * <pre>
+ * Nombre,Tipo,PrecioCompra,Comision,Stock
+ * Gas 15kg,gas,25000,3000,40
+ * </pre>
+ * Los montos son pesos enteros y aceptan "$" y separadores de miles. Stock son las
+ * unidades que ingresan y puede quedar vacío. Un producto que ya existe toma el
+ * tipo, precio y comisión del archivo.
+ *
+ * Cada fila se valida con {@link Producto#validar} sin lanzar excepciones; las
+ * filas inválidas se informan con su número de línea y el resto se carga en el
+ * {@link Inventario} por lotes. El índice de búsqueda se reconstruye una sola vez
+ * al final.
+ *
+ * @author Ignacio
+ */
+public class ImportadorCatalogo {
+
+    private static final int TAMANO_LOTE = 1000;
+    private static final int COLUMNAS = 5;
+    private static final Pattern MILES = Pattern.compile("\\d{1,3}([.,]\\d{3})+");
+
+    private final Inventario inventario;
+
+    public ImportadorCatalogo(Inventario inventario) {
+        this.inventario = inventario;
+    }
+
+    /**
+     * Importa el catálogo desde un archivo CSV.
+     *
+     * @return Resumen con cantidades, rendimiento y errores por fila
+     */
+    public Resultado importar(Path ruta) throws IOException {
+        return importar((columnas, receptor) -> leerCSV(ruta, receptor));
+    }
+
+    /**
+     * Importa el catálogo desde las filas de la fuente indicada.
+     *
+     * @return Resumen con cantidades, rendimiento y errores por fila
+     */
+    public Resultado importar(FuenteFilas filas) throws IOException {
+        long inicio = System.nanoTime();
+        Resultado resultado = new Resultado();
+        Lote lote = new Lote(resultado);
+        try {
+            filas.leer(COLUMNAS, (linea, campos) -> procesar(linea, campos, lote, resultado));
+            lote.registrar();
+        } finally {
+            inventario.reconstruirIndice();
+            resultado.nanos = System.nanoTime() - inicio;
+        }
+        return resultado;
+    }
+
+    /**
+     * Entrega las líneas no vacías del CSV, separadas en campos.
+     */
+    static void leerCSV(Path ruta, FuenteFilas.Receptor receptor) throws IOException {
+        try (BufferedReader lector = Files.newBufferedReader(ruta, StandardCharsets.UTF_8)) {
+            String linea;
+            int numero = 0;
+            while ((linea = lector.readLine()) != null) {
+                numero++;
+                if (!linea.isBlank()) {
+                    receptor.fila(numero, separarCampos(linea));
+                }
+            }
+        }
+    }
+
+    private void procesar(int linea, String[] campos, Lote lote, Resultado resultado) {
+        if (linea == 1 && campos[0].equalsIgnoreCase("Nombre")) {
+            return;
+        }
+        resultado.filasLeidas++;
+        if (campos.length < COLUMNAS - 1 || campos.length > COLUMNAS) {
+            resultado.agregarError(linea, "Se esperaban " + (COLUMNAS - 1) + " o " + COLUMNAS
+                    + " columnas y hay " + campos.length);
+            return;
+        }
+        long precio = leerPesos(campos[2]);
+        if (precio < 0) {
+            resultado.agregarError(linea, "Precio de compra inválido: " + campos[2]);
+            return;
+        }
+        long comision = leerPesos(campos[3]);
+        if (comision < 0) {
+            resultado.agregarError(linea, "Comisión inválida: " + campos[3]);
+            return;
+        }
+        int unidades = 0;
+        String stock = campos.length == COLUMNAS ? campos[4] : "";
+        if (!stock.isEmpty()) {
+            long leido = leerPesos(stock);
+            if (leido < 0 || leido > Integer.MAX_VALUE) {
+                resultado.agregarError(linea, "Stock inválido: " + stock);
+                return;
+            }
+            unidades = (int) leido;
+        }
+        String error = Producto.validar(campos[0], campos[1], precio, comision);
+        if (error != null) {
+            resultado.agregarError(linea, error);
+            return;
+        }
+        lote.agregar(linea, new Producto(campos[0], campos[1], precio, comision), unidades);
+    }
+
+    /**
+     * Monto entero sin signo, con "$" y separadores de miles opcionales ("$25.000").
+     *
+     * @return El monto, o -1 si el texto no es un monto válido
+     */
+    static long leerPesos(String texto) {
+        String limpio = texto.replace("$", "").trim();
+        if (MILES.matcher(limpio).matches()) {
+            limpio = limpio.replace(".", "").replace(",", "");
+        }
+        if (limpio.isEmpty() || limpio.length() > 18) {
+            return -1;
+        }
+        for (int i = 0; i < limpio.length(); i++) {
+            if (!Character.isDigit(limpio.charAt(i))) {
+                return -1;
+            }
+        }
+        return Long.parseLong(limpio);
+    }
+
+    /**
+     * Separa una línea CSV respetando los campos entre comillas (como los escribe
+     * {@link com.empresa.exportacion.EscritorCSV}) y quita los espacios de los extremos.
+     */
+    static String[] separarCampos(String linea) {
+        List<String> campos = new ArrayList<>(COLUMNAS);
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString().trim());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString().trim());
+        return campos.toArray(new String[0]);
+    }
+
+    /**
+     * Productos válidos pendientes de registrar en el inventario.
+     */
+    private final class Lote {
+        private final Resultado resultado;
+        private final List<Producto> productos = new ArrayList<>(TAMANO_LOTE);
+        private final int[] unidades = new int[TAMANO_LOTE];
+        private final int[] lineas = new int[TAMANO_LOTE];
+
+        private Lote(Resultado resultado) {
+            this.resultado = resultado;
+        }
+
+        private void agregar(int linea, Producto producto, int cantidad) {
+            unidades[productos.size()] = cantidad;
+            lineas[productos.size()] = linea;
+            productos.add(producto);
+            if (productos.size() == TAMANO_LOTE) {
+                registrar();
+            }
+        }
+
+        /**
+         * Si el inventario no puede registrar el lote (por ejemplo, falla el diario
+         * de movimientos), ninguna de sus filas se carga y el error queda en el
+         * resultado; la importación sigue con el lote siguiente.
+         */
+        private void registrar() {
+            if (productos.isEmpty()) {
+                return;
+            }
+            int cantidad = productos.size();
+            try {
+                int nuevos = inventario.actualizarCatalogo(productos, Arrays.copyOf(unidades, cantidad));
+                resultado.productosNuevos += nuevos;
+                resultado.productosActualizados += cantidad - nuevos;
+                for (int i = 0; i < cantidad; i++) {
+                    resultado.unidades += unidades[i];
+                }
+            } catch (RuntimeException e) {
+                resultado.filasNoCargadas += cantidad;
+                resultado.agregarError(lineas[0], "No se cargaron las " + cantidad + " filas de las líneas "
+                        + lineas[0] + " a " + lineas[cantidad - 1] + ": " + e.getMessage());
+            } finally {
+                productos.clear();
+            }
+        }
+    }
+
+    /**
+     * Resumen de una importación.
+     */
+    public static final class Resultado {
+        private int filasLeidas;
+        private int productosNuevos;
+        private int productosActualizados;
+        private long unidades;
+        private int filasNoCargadas;
+        private final List<ErrorFila> errores = new ArrayList<>();
+        private long nanos;
+
+        private void agregarError(int linea, String mensaje) {
+            errores.add(new ErrorFila(linea, mensaje));
+        }
+
+        public int getFilasLeidas() {
+            return filasLeidas;
+        }
+
+        public int getProductosNuevos() {
+            return productosNuevos;
+        }
+
+        /**
+         * Filas de productos que ya existían (o que se repiten en el archivo).
+         */
+        public int getProductosActualizados() {
+            return productosActualizados;
+        }
+
+        /**
+         * Unidades ingresadas de las filas que se cargaron.
+         */
+        public long getUnidades() {
+            return unidades;
+        }
+
+        /**
+         * Filas válidas que no se cargaron porque el inventario rechazó su lote.
+         */
+        public int getFilasNoCargadas() {
+            return filasNoCargadas;
+        }
+
+        /**
+         * Errores en el orden de las filas.
+         */
+        public List<ErrorFila> getErrores() {
+            // el error de un lote rechazado se agrega después de los de filas siguientes
+            List<ErrorFila> ordenados = new ArrayList<>(errores);
+            ordenados.sort((x, y) -> Integer.compare(x.getLinea(), y.getLinea()));
+            return ordenados;
+        }
+
+        public long getDuracionMs() {
+            return nanos / 1_000_000;
+        }
+
+        public double getFilasPorSegundo() {
+            return nanos > 0 ? filasLeidas * 1e9 / nanos : 0;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.empresa.importacion;
+
+import com.empresa.modelo.FacturaCompra;
+import com.empresa.modelo.Inventario;
+import com.empresa.modelo.LibroCompras;
+import com.empresa.modelo.LibroMovimientos;
+import com.empresa.modelo.MovimientoStock;
+import com.empresa.modelo.OrdenCompra;
+import com.empresa.modelo.Producto;
+import com.empresa.persistencia.RepositorioMemoria;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ImportadorCatalogo}.
+ */
+public class ImportadorCatalogoTest {
+
+    private final Inventario inventario = Inventario.getInstancia();
+
+    @Test
+    public void importar_agregaActualizaYReportaFilasInvalidas() throws Exception {
+        inventario.agregarProducto("Catalogo Gas 5kg", "gas", 9000, 1000, 4);
+        Producto anterior = inventario.getProducto("Catalogo Gas 5kg");
+
+        Path archivo = Files.createTempFile("catalogo", ".csv");
+        try {
+            Files.writeString(archivo, String.join("\n",
+                    "Nombre,Tipo,PrecioCompra,Comision,Stock",
+                    "Catalogo Gas 5kg,gas,$10.500,1200,",
+                    "\"Catalogo Manguera, 2m\",accesorio,3000,300,15",
+                    "Catalogo Valvula,accesorio,0,100,1",
+                    "Catalogo Abrazadera,accesorio,800,-5,1",
+                    "Catalogo Sin Stock,accesorio,800,50",
+                    "Catalogo Corto,accesorio",
+                    "",
+                    "Catalogo Tapa,accesorio,500,50,x"));
+
+            ImportadorCatalogo.Resultado resultado = new ImportadorCatalogo(inventario).importar(archivo);
+
+            assertEquals(7, resultado.getFilasLeidas());
+            assertEquals(2, resultado.getProductosNuevos());
+            assertEquals(1, resultado.getProductosActualizados());
+            assertEquals(15, resultado.getUnidades());
+
+            List<ErrorFila> errores = resultado.getErrores();
+            assertEquals(4, errores.size());
+            assertEquals(4, errores.get(0).getLinea());
+            assertTrue(errores.get(0).getMensaje().contains("precio de compra"));
+            assertTrue(errores.get(1).getMensaje().contains("Comisión inválida"));
+            assertEquals(7, errores.get(2).getLinea());
+            assertEquals(9, errores.get(3).getLinea());
+
+            // precio nuevo, mismo stock; la instancia anterior (usada por ventas) no cambia
+            Producto actualizado = inventario.getProducto("Catalogo Gas 5kg");
+            assertEquals(10500, actualizado.getPrecioCompraConIVA());
+            assertEquals(11700, actualizado.getPrecioVentaFinal());
+            assertEquals(4, inventario.getStock("Catalogo Gas 5kg"));
+            assertEquals(9000, anterior.getPrecioCompraConIVA());
+
+            assertEquals(15, inventario.getStock("Catalogo Manguera, 2m"));
+            assertEquals(0, inventario.getStock("Catalogo Sin Stock"));
+            assertEquals(1, inventario.buscarProductos("catalogo manguera", 0, 10).getTotal());
+            assertSame(actualizado, inventario.buscarProductos("catalogo gas 5kg", 0, 10).getElementos().get(0));
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+    }
+
+    @Test
+    public void importar_informaLoteQueElDiarioNoPudoRegistrar() throws Exception {
+        LibroMovimientos sinDisco = new LibroMovimientos() {
+            @Override
+            public void registrarTodos(List<MovimientoStock> lote) {
+                throw new UncheckedIOException("No se pudieron registrar los movimientos en el diario",
+                        new IOException("disco lleno"));
+            }
+        };
+        Inventario aislado = new Inventario(new LibroCompras(new RepositorioMemoria<>(OrdenCompra::getIdOrden),
+                new RepositorioMemoria<>(FacturaCompra::getNumeroFactura)), sinDisco);
+
+        Path archivo = Files.createTempFile("catalogo", ".csv");
+        try {
+            Files.writeString(archivo, String.join("\n",
+                    "Catalogo Diario Gas,gas,9000,1000,5",
+                    "Catalogo Diario Tapa,accesorio,500,50,2",
+                    "Catalogo Diario Valvula,accesorio,0,100,1"));
+
+            ImportadorCatalogo.Resultado resultado = new ImportadorCatalogo(aislado).importar(archivo);
+
+            assertEquals(3, resultado.getFilasLeidas());
+            assertEquals(0, resultado.getProductosNuevos());
+            assertEquals(0, resultado.getUnidades());
+            assertEquals(2, resultado.getFilasNoCargadas());
+            List<ErrorFila> errores = resultado.getErrores();
+            assertEquals(2, errores.size());
+            assertEquals(1, errores.get(0).getLinea());
+            assertTrue(errores.get(0).getMensaje().contains("líneas 1 a 2"));
+            assertEquals(3, errores.get(1).getLinea());
+            assertNull(aislado.getProducto("Catalogo Diario Gas"));
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+    }
+
+    @Test
+    public void leerPesos_aceptaSignoYSeparadoresDeMiles() {
+        assertEquals(25000, ImportadorCatalogo.leerPesos("$25.000"));
+        assertEquals(25000, ImportadorCatalogo.leerPesos("25,000"));
+        assertEquals(1500, ImportadorCatalogo.leerPesos(" 1500 "));
+        assertEquals(-1, ImportadorCatalogo.leerPesos("15.5"));
+        assertEquals(-1, ImportadorCatalogo.leerPesos("-3"));
+        assertEquals(-1, ImportadorCatalogo.leerPesos(""));
+    }
+}
@@ -0,0 +1,83 @@
+package com.empresa.importacion;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.GestorClientes;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Importa clientes desde un archivo Excel (.xlsx) leyendo la primera hoja en
+ * streaming con {@link LectorFilasXLSX}. Los clientes se registran en
+ * {@link GestorClientes} por lotes, y se informa el avance mediante un callback.
+ *
+ * Columnas esperadas:
+ * Nombre cuenta | Teléfono (ignorado) | Dirección | Día Último (ignorado)
+ *
+ * @author Ignacio
+ */
+public class ImportadorClientesExcel {
+
+    private static final int COLUMNA_NOMBRE = 0;
+    private static final int COLUMNA_DIRECCION = 2;
+    private static final int TAMANO_LOTE = 1000;
+
+    /**
+     * Recibe el avance de la importación después de cada lote registrado.
+     */
+    public interface Progreso {
+        void avance(int filasLeidas, int clientesImportados);
+    }
+
+    private final GestorClientes gestor;
+    private final Progreso progreso;
+
+    public ImportadorClientesExcel(GestorClientes gestor, Progreso progreso) {
+        this.gestor = gestor;
+        this.progreso = progreso;
+    }
+
+    /**
+     * Importa los clientes del archivo.
+     *
+     * @param rutaArchivo Ruta al archivo Excel
+     * @return Cantidad de clientes nuevos registrados
+     */
+    public int importar(String rutaArchivo) throws IOException {
+        List<Cliente> lote = new ArrayList<>(TAMANO_LOTE);
+        int[] filas = {0};
+        int[] importados = {0};
+
+        new LectorFilasXLSX(COLUMNA_DIRECCION + 1).leerPrimeraHoja(rutaArchivo, fila -> {
+            if (fila.getNumero() == 0) {
+                return; // Saltar encabezado
+            }
+            filas[0]++;
+
+            String nombre = fila.getTexto(COLUMNA_NOMBRE);
+            String direccion = fila.getTexto(COLUMNA_DIRECCION);
+            if (!nombre.isEmpty() && !direccion.isEmpty()) {
+                String rutFicticio = "GEN" + fila.getNumero();
+                lote.add(new Cliente(nombre, rutFicticio, "", direccion));
+            }
+
+            if (lote.size() == TAMANO_LOTE) {
+                importados[0] += registrarLote(lote);
+                progreso.avance(filas[0], importados[0]);
+            }
+        });
+
+        importados[0] += registrarLote(lote);
+        progreso.avance(filas[0], importados[0]);
+        return importados[0];
+    }
+
+    private int registrarLote(List<Cliente> lote) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        int registrados = gestor.registrarClientes(lote);
+        lote.clear();
+        return registrados;
+    }
+}
@@ -0,0 +1,295 @@
+package com.empresa.importacion;
+
+import com.empresa.modelo.FacturaCompra;
+import com.empresa.modelo.Inventario;
+import com.empresa.modelo.LibroCompras;
+import com.empresa.modelo.Producto;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Importa facturas de compra desde las planillas mensuales de los proveedores,
+ * en CSV o desde otra {@link FuenteFilas} (por ejemplo Excel con
+ * {@link LectorFilasXLSX#primeraHoja}).
+ *
+ * Formato (una fila por producto; las filas consecutivas con el mismo número
+ * forman una factura):
+ * <pre>
+ * NumeroFactura,Fecha,Proveedor,Producto,Tipo,PrecioCompra,Comision,Cantidad
+ * F-1001,2025-03-01,Abastible,Gas 15kg,gas,25000,3000,40
+ * </pre>
+ * Fecha vacía usa la fecha actual. Los montos aceptan "$" y separadores de miles.
+ *
+ * Primero se leen y validan todas las filas: una factura con alguna fila inválida
+ * se rechaza completa, y un número que aparece en filas no consecutivas rechaza
+ * todas sus apariciones (no se sabe cuál es la correcta). Cada error se informa
+ * con su número de línea. Luego las válidas se
+ * registran juntas con {@link Inventario#registrarEntradasConFacturas}; las que
+ * ya estaban en el {@link LibroCompras} se informan como repetidas.
+ *
+ * @author Ignacio
+ */
+public class ImportadorFacturas {
+
+    private static final int COLUMNAS = 8;
+    private static final int MAX_LONGITUD_NUMERO = 25;
+
+    private final Inventario inventario;
+
+    public ImportadorFacturas(Inventario inventario) {
+        this.inventario = inventario;
+    }
+
+    /**
+     * Importa las facturas desde un archivo CSV.
+     *
+     * @return Resumen con cantidades, rendimiento y errores por fila
+     */
+    public Resultado importar(Path ruta) throws IOException {
+        return importar((columnas, receptor) -> ImportadorCatalogo.leerCSV(ruta, receptor));
+    }
+
+    /**
+     * Importa las facturas desde las filas de la fuente indicada.
+     *
+     * @return Resumen con cantidades, rendimiento y errores por fila
+     */
+    public Resultado importar(FuenteFilas filas) throws IOException {
+        long inicio = System.nanoTime();
+        Resultado resultado = new Resultado();
+        Lectura lectura = new Lectura(resultado);
+        filas.leer(COLUMNAS, lectura::fila);
+        lectura.cerrarFactura();
+        lectura.rechazarRepetidas();
+
+        List<FacturaCompra> validas = new ArrayList<>();
+        for (FacturaLeida leida : lectura.facturas) {
+            if (leida.rechazada) {
+                resultado.facturasRechazadas++;
+            } else {
+                validas.add(leida.factura);
+            }
+        }
+        Set<FacturaCompra> registradas = Collections.newSetFromMap(new IdentityHashMap<>());
+        registradas.addAll(inventario.registrarEntradasConFacturas(validas));
+        for (FacturaLeida leida : lectura.facturas) {
+            if (leida.rechazada) {
+                continue;
+            }
+            if (registradas.contains(leida.factura)) {
+                resultado.facturasRegistradas++;
+                for (FacturaCompra.IngresoInventario ingreso : leida.factura.getProductosIngresados()) {
+                    resultado.unidades += ingreso.getCantidad();
+                }
+            } else {
+                resultado.facturasRepetidas++;
+                resultado.agregarError(leida.primeraLinea, "La factura " + leida.factura.getNumeroFactura()
+                        + " ya estaba registrada.");
+            }
+        }
+        resultado.errores.sort((a, b) -> Integer.compare(a.getLinea(), b.getLinea()));
+        resultado.nanos = System.nanoTime() - inicio;
+        return resultado;
+    }
+
+    /**
+     * Agrupa las filas en facturas a medida que se leen.
+     */
+    private static final class Lectura {
+        private final Resultado resultado;
+        private final List<FacturaLeida> facturas = new ArrayList<>();
+        private FacturaLeida actual;
+        private String[] primeraFila;
+
+        private Lectura(Resultado resultado) {
+            this.resultado = resultado;
+        }
+
+        private void fila(int linea, String[] campos) {
+            if (linea == 1 && campos[0].equalsIgnoreCase("NumeroFactura")) {
+                return;
+            }
+            resultado.lineasLeidas++;
+            if (campos.length != COLUMNAS) {
+                rechazarFila(linea, campos.length > 0 ? campos[0] : "",
+                        "Se esperaban " + COLUMNAS + " columnas y hay " + campos.length);
+                return;
+            }
+            String numero = campos[0];
+            if (actual == null || !actual.factura.getNumeroFactura().equalsIgnoreCase(numero)) {
+                cerrarFactura();
+                iniciarFactura(linea, campos);
+            } else if (!campos[1].equals(primeraFila[1]) || !campos[2].equals(primeraFila[2])) {
+                rechazar(linea, "Fecha y proveedor deben coincidir en todas las filas de la factura");
+                return;
+            }
+            if (actual.rechazada) {
+                return;
+            }
+
+            long precio = ImportadorCatalogo.leerPesos(campos[5]);
+            long comision = ImportadorCatalogo.leerPesos(campos[6]);
+            long cantidad = ImportadorCatalogo.leerPesos(campos[7]);
+            if (precio < 0) {
+                rechazar(linea, "Precio de compra inválido: " + campos[5]);
+            } else if (comision < 0) {
+                rechazar(linea, "Comisión inválida: " + campos[6]);
+            } else if (cantidad <= 0 || cantidad > Integer.MAX_VALUE) {
+                rechazar(linea, "Cantidad inválida: " + campos[7]);
+            } else {
+                String error = Producto.validar(campos[3], campos[4], precio, comision);
+                if (error != null) {
+                    rechazar(linea, error);
+                } else {
+                    actual.factura.agregarProducto(new Producto(campos[3], campos[4], precio, comision), (int) cantidad);
+                }
+            }
+        }
+
+        private void iniciarFactura(int linea, String[] campos) {
+            primeraFila = campos;
+            String numero = campos[0];
+            LocalDate fecha = LocalDate.now();
+            String error = null;
+            if (numero.isEmpty() || numero.length() > MAX_LONGITUD_NUMERO || !numero.matches("[a-zA-Z0-9\\-]+")) {
+                error = "Número de factura inválido (letras, números y guiones, hasta " + MAX_LONGITUD_NUMERO
+                        + "): " + numero;
+            } else if (campos[2].isEmpty()) {
+                error = "Falta el proveedor.";
+            } else if (!campos[1].isEmpty()) {
+                try {
+                    fecha = LocalDate.parse(campos[1]);
+                } catch (DateTimeParseException e) {
+                    error = "Fecha inválida (AAAA-MM-DD): " + campos[1];
+                }
+            }
+            actual = new FacturaLeida(new FacturaCompra(numero, campos[2], null, fecha), linea);
+            if (error != null) {
+                rechazar(linea, error);
+            }
+        }
+
+        private void cerrarFactura() {
+            if (actual != null) {
+                facturas.add(actual);
+                actual = null;
+            }
+        }
+
+        /**
+         * Rechaza cada aparición de los números que forman más de una factura.
+         */
+        private void rechazarRepetidas() {
+            Map<String, Integer> apariciones = new HashMap<>();
+            for (FacturaLeida leida : facturas) {
+                apariciones.merge(leida.factura.getNumeroFactura().toLowerCase(), 1, Integer::sum);
+            }
+            for (FacturaLeida leida : facturas) {
+                if (apariciones.get(leida.factura.getNumeroFactura().toLowerCase()) > 1) {
+                    rechazar(leida, leida.primeraLinea, "aparece más de una vez en la planilla, en filas no consecutivas");
+                }
+            }
+        }
+
+        private void rechazar(int linea, String mensaje) {
+            rechazar(actual, linea, mensaje);
+        }
+
+        private void rechazar(FacturaLeida leida, int linea, String mensaje) {
+            if (!leida.rechazada) {
+                leida.rechazada = true;
+                resultado.agregarError(linea, "Factura " + leida.factura.getNumeroFactura() + ": " + mensaje);
+            }
+        }
+
+        /**
+         * Fila sin las columnas esperadas: rechaza su factura si es la actual, o la
+         * informa sola.
+         */
+        private void rechazarFila(int linea, String numero, String mensaje) {
+            if (actual != null && actual.factura.getNumeroFactura().equalsIgnoreCase(numero)) {
+                rechazar(linea, mensaje);
+            } else {
+                resultado.agregarError(linea, mensaje);
+            }
+        }
+    }
+
+    /**
+     * Factura armada con las filas de la planilla.
+     */
+    private static final class FacturaLeida {
+        private final FacturaCompra factura;
+        private final int primeraLinea;
+        private boolean rechazada;
+
+        private FacturaLeida(FacturaCompra factura, int primeraLinea) {
+            this.factura = factura;
+            this.primeraLinea = primeraLinea;
+        }
+    }
+
+    /**
+     * Resumen de una importación.
+     */
+    public static final class Resultado {
+        private int lineasLeidas;
+        private int facturasRegistradas;
+        private int facturasRepetidas;
+        private int facturasRechazadas;
+        private long unidades;
+        private final List<ErrorFila> errores = new ArrayList<>();
+        private long nanos;
+
+        private void agregarError(int linea, String mensaje) {
+            errores.add(new ErrorFila(linea, mensaje));
+        }
+
+        public int getLineasLeidas() {
+            return lineasLeidas;
+        }
+
+        public int getFacturasRegistradas() {
+            return facturasRegistradas;
+        }
+
+        /**
+         * Facturas omitidas porque su número ya estaba en el libro de compras.
+         */
+        public int getFacturasRepetidas() {
+            return facturasRepetidas;
+        }
+
+        public int getFacturasRechazadas() {
+            return facturasRechazadas;
+        }
+
+        public long getUnidades() {
+            return unidades;
+        }
+
+        /**
+         * Errores ordenados por número de línea.
+         */
+        public List<ErrorFila> getErrores() {
+            return errores;
+        }
+
+        public long getDuracionMs() {
+            return nanos / 1_000_000;
+        }
+
+        public double getLineasPorSegundo() {
+            return nanos > 0 ? lineasLeidas * 1e9 / nanos : 0;
+        }
+    }
+}
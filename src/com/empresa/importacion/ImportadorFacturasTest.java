@@ -0,0 +1,76 @@
+package com.empresa.importacion;
+
+import com.empresa.modelo.FacturaCompra;
+import com.empresa.modelo.Inventario;
+import com.empresa.modelo.LibroCompras;
+import com.empresa.modelo.LibroMovimientos;
+import com.empresa.modelo.OrdenCompra;
+import com.empresa.persistencia.RepositorioMemoria;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ImportadorFacturas}.
+ */
+public class ImportadorFacturasTest {
+
+    private final LibroCompras libro = new LibroCompras(new RepositorioMemoria<>(OrdenCompra::getIdOrden),
+            new RepositorioMemoria<>(FacturaCompra::getNumeroFactura));
+    private final Inventario inventario = new Inventario(libro, new LibroMovimientos());
+
+    @Test
+    public void importar_agrupaFilasYDescartaFacturasRepetidas() throws Exception {
+        FacturaCompra previa = new FacturaCompra("IMP-100", "Abastible");
+        libro.registrarFactura(previa);
+
+        Path archivo = Files.createTempFile("facturas", ".csv");
+        try {
+            Files.writeString(archivo, String.join("\n",
+                    "NumeroFactura,Fecha,Proveedor,Producto,Tipo,PrecioCompra,Comision,Cantidad",
+                    "IMP-101,2025-03-01,Abastible,Imp Gas 15kg,gas,25000,3000,10",
+                    "IMP-101,2025-03-01,Abastible,Imp Regulador,accesorio,$5.000,500,4",
+                    "IMP-101,2025-03-01,Abastible,Imp Gas 15kg,gas,25000,3000,5",
+                    "IMP-102,2025-03-02,Lipigas,Imp Gas 15kg,gas,25000,3000,0",
+                    "IMP-103,2025-03-03,Lipigas,Imp Gas 15kg,gas,25000,3000,2",
+                    "IMP-103,2025-03-04,Lipigas,Imp Regulador,accesorio,5000,500,1",
+                    "IMP-100,2025-03-05,Abastible,Imp Gas 15kg,gas,25000,3000,7",
+                    "IMP-104,,Gasco,Imp Manguera,accesorio,3000,300,6",
+                    "IMP-101,2025-03-06,Abastible,Imp Gas 15kg,gas,25000,3000,9"));
+
+            ImportadorFacturas.Resultado resultado = new ImportadorFacturas(inventario).importar(archivo);
+
+            assertEquals(9, resultado.getLineasLeidas());
+            assertEquals(1, resultado.getFacturasRegistradas());
+            assertEquals(1, resultado.getFacturasRepetidas());
+            assertEquals(4, resultado.getFacturasRechazadas());
+            assertEquals(6, resultado.getUnidades());
+
+            // IMP-101 aparece en dos grupos de filas: se rechazan ambos
+            List<ErrorFila> errores = resultado.getErrores();
+            assertEquals(5, errores.size());
+            assertEquals(2, errores.get(0).getLinea());
+            assertTrue(errores.get(0).getMensaje().contains("más de una vez"));
+            assertEquals(5, errores.get(1).getLinea());
+            assertTrue(errores.get(1).getMensaje().contains("Cantidad inválida"));
+            assertEquals(7, errores.get(2).getLinea());
+            assertEquals(8, errores.get(3).getLinea());
+            assertTrue(errores.get(3).getMensaje().contains("ya estaba registrada"));
+            assertEquals(10, errores.get(4).getLinea());
+            assertTrue(errores.get(4).getMensaje().contains("más de una vez"));
+
+            assertEquals(0, inventario.getStock("Imp Gas 15kg"));
+            assertEquals(0, inventario.getStock("Imp Regulador"));
+            assertEquals(6, inventario.getStock("Imp Manguera"));
+            assertFalse(libro.existeFactura("IMP-101"));
+            assertEquals(LocalDate.now(), libro.buscarFactura("IMP-104").getFecha());
+            assertFalse(libro.existeFactura("IMP-103"));
+            assertSame(previa, libro.buscarFactura("IMP-100"));
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+    }
+}
@@ -0,0 +1,488 @@
+package com.empresa.importacion;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.Descuento;
+import com.empresa.modelo.GestorClientes;
+import com.empresa.modelo.HistorialVentas;
+import com.empresa.modelo.Inventario;
+import com.empresa.modelo.Producto;
+import com.empresa.modelo.Venta;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Importa ventas desde un archivo CSV sin interacción con el usuario (por ejemplo,
+ * las ventas de reparto que envían los dispositivos de los choferes).
+ *
+ * Formato (una línea por producto; las líneas consecutivas con el mismo IdVenta
+ * forman una venta):
+ * <pre>
+ * IdVenta,FechaHora,Formato,RUT,Producto,Cantidad,Descuento
+ * R1-001,2025-03-10T09:15:00,domicilio,11.111.111-1,Gas 15kg,2,5000
+ * </pre>
+ * FechaHora vacía usa la hora actual. Descuento es el descuento por unidad en
+ * pesos; debe ser una de las opciones de {@link Descuento} para la línea y puede
+ * omitirse si hay una sola opción.
+ *
+ * Se procesa en etapas: el hilo que llama lee y agrupa las líneas en lotes, y
+ * varios hilos validan cada venta (cliente, productos, descuentos), reservan y
+ * confirman su stock y registran el lote completo en {@link HistorialVentas}
+ * (un solo fsync del diario por lote). Una venta con errores se rechaza completa
+ * sin afectar el stock, y el error se informa con su número de línea; lo mismo
+ * una venta que el diario no alcanza a escribir (se le devuelve el stock).
+ *
+ * Las ventas se procesan en paralelo: si el stock no alcanza para todas, cuáles
+ * se rechazan depende del orden en que se procesen.
+ *
+ * @author Ignacio
+ */
+public class ImportadorVentasLote {
+
+    private static final int TAMANO_LOTE = 256;
+    private static final int COLUMNAS = 7;
+    private static final List<VentaLeida> FIN = Collections.emptyList();
+
+    private final Inventario inventario;
+    private final GestorClientes gestorClientes;
+    private final HistorialVentas historial;
+    private final int hilos;
+
+    /**
+     * @param hilos Cantidad de hilos que validan y registran ventas
+     */
+    public ImportadorVentasLote(Inventario inventario, GestorClientes gestorClientes, HistorialVentas historial, int hilos) {
+        if (hilos <= 0) {
+            throw new IllegalArgumentException("Se necesita al menos un hilo.");
+        }
+        this.inventario = inventario;
+        this.gestorClientes = gestorClientes;
+        this.historial = historial;
+        this.hilos = hilos;
+    }
+
+    /**
+     * Importa las ventas del archivo.
+     *
+     * @param ruta Archivo CSV de ventas
+     * @return Resumen con cantidades, rendimiento y errores por registro
+     */
+    public Resultado importar(Path ruta) throws IOException {
+        long inicio = System.nanoTime();
+        BlockingQueue<List<VentaLeida>> cola = new ArrayBlockingQueue<>(hilos * 2);
+        Resultado resultado = new Resultado();
+
+        List<Thread> trabajadores = new ArrayList<>(hilos);
+        for (int i = 0; i < hilos; i++) {
+            Thread hilo = new Thread(() -> procesarLotes(cola, resultado), "ingesta-ventas-" + i);
+            hilo.setDaemon(true);
+            hilo.start();
+            trabajadores.add(hilo);
+        }
+
+        try {
+            leer(ruta, cola, trabajadores, resultado);
+        } finally {
+            terminar(cola, trabajadores);
+            resultado.nanos = System.nanoTime() - inicio;
+        }
+        return resultado;
+    }
+
+    /**
+     * Envía el fin a cada hilo y espera a que todos terminen, aunque el hilo que
+     * llama sea interrumpido (en ese caso se interrumpe también a los trabajadores).
+     */
+    private static void terminar(BlockingQueue<List<VentaLeida>> cola, List<Thread> trabajadores) {
+        boolean interrumpido = false;
+        try {
+            for (int i = 0; i < trabajadores.size(); i++) {
+                ponerEnCola(cola, FIN, trabajadores);
+            }
+        } catch (IllegalStateException e) {
+            interrumpido = Thread.interrupted();
+            trabajadores.forEach(Thread::interrupt);
+        }
+        for (Thread hilo : trabajadores) {
+            while (true) {
+                try {
+                    hilo.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                    hilo.interrupt();
+                }
+            }
+        }
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ======================== LECTURA ========================
+
+    private void leer(Path ruta, BlockingQueue<List<VentaLeida>> cola, List<Thread> trabajadores,
+            Resultado resultado) throws IOException {
+        try (BufferedReader lector = Files.newBufferedReader(ruta, StandardCharsets.UTF_8)) {
+            List<VentaLeida> lote = new ArrayList<>(TAMANO_LOTE);
+            VentaLeida actual = null;
+            String linea;
+            int numero = 0;
+            while ((linea = lector.readLine()) != null) {
+                numero++;
+                if (linea.isBlank() || (numero == 1 && linea.startsWith("IdVenta"))) {
+                    continue;
+                }
+                resultado.lineasLeidas++;
+
+                String[] campos = linea.split(",", -1);
+                for (int i = 0; i < campos.length; i++) {
+                    campos[i] = campos[i].trim();
+                }
+                if (actual == null || !actual.id.equals(campos[0])) {
+                    if (actual != null) {
+                        lote.add(actual);
+                        if (lote.size() == TAMANO_LOTE) {
+                            ponerEnCola(cola, lote, trabajadores);
+                            lote = new ArrayList<>(TAMANO_LOTE);
+                        }
+                    }
+                    actual = new VentaLeida(campos[0], numero);
+                }
+                actual.lineas.add(campos);
+                actual.numeros.add(numero);
+            }
+            if (actual != null) {
+                lote.add(actual);
+            }
+            if (!lote.isEmpty()) {
+                ponerEnCola(cola, lote, trabajadores);
+            }
+        }
+    }
+
+    /**
+     * Encola un lote esperando espacio, pero sin quedar bloqueado si ya no queda
+     * ningún hilo trabajador que consuma la cola.
+     */
+    private static void ponerEnCola(BlockingQueue<List<VentaLeida>> cola, List<VentaLeida> lote, List<Thread> trabajadores) {
+        try {
+            while (!cola.offer(lote, 100, TimeUnit.MILLISECONDS)) {
+                if (trabajadores.stream().noneMatch(Thread::isAlive)) {
+                    throw new IllegalStateException("Los hilos de importación terminaron inesperadamente.");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Importación de ventas interrumpida.", e);
+        }
+    }
+
+    // ======================== VALIDACIÓN Y REGISTRO ========================
+
+    /**
+     * Consume lotes hasta recibir el fin. Un error inesperado rechaza solo el lote
+     * en curso; el hilo sigue consumiendo para no bloquear al lector.
+     */
+    private void procesarLotes(BlockingQueue<List<VentaLeida>> cola, Resultado resultado) {
+        while (true) {
+            List<VentaLeida> lote;
+            try {
+                lote = cola.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (lote == FIN) {
+                return;
+            }
+            try {
+                procesarLote(lote, resultado);
+            } catch (RuntimeException e) {
+                VentaLeida primera = lote.get(0);
+                resultado.agregarError(primera.primeraLinea, primera.id, "Error inesperado al procesar el lote: " + e.getMessage());
+                resultado.ventasRechazadas.addAndGet(lote.size());
+            }
+        }
+    }
+
+    private void procesarLote(List<VentaLeida> lote, Resultado resultado) {
+        List<Venta> aceptadas = new ArrayList<>(lote.size());
+        List<VentaLeida> leidas = new ArrayList<>(lote.size());
+        for (VentaLeida leida : lote) {
+            try {
+                Venta venta = construirVenta(leida, resultado);
+                if (venta != null) {
+                    aceptadas.add(venta);
+                    leidas.add(leida);
+                }
+            } catch (RuntimeException e) {
+                resultado.agregarError(leida.primeraLinea, leida.id, "Error inesperado: " + e.getMessage());
+            }
+        }
+
+        List<Venta> fallidas;
+        try {
+            fallidas = historial.agregarVentas(aceptadas);
+        } catch (RuntimeException e) {
+            // el stock ya se descontó al validar; sin esto quedaría reservado
+            for (Venta venta : aceptadas) {
+                inventario.devolverVenta(venta);
+            }
+            throw e;
+        }
+        int registradas = 0;
+        for (int i = 0; i < aceptadas.size(); i++) {
+            Venta venta = aceptadas.get(i);
+            if (!fallidas.isEmpty() && fallidas.contains(venta)) {
+                inventario.devolverVenta(venta);
+                resultado.agregarError(leidas.get(i).primeraLinea, leidas.get(i).id, "No se pudo registrar la venta en el diario");
+                continue;
+            }
+            registradas++;
+            resultado.unidades.addAndGet(venta.getCantidadUnidades());
+        }
+        resultado.ventasRegistradas.addAndGet(registradas);
+        resultado.ventasRechazadas.addAndGet(lote.size() - registradas);
+    }
+
+    /**
+     * Valida una venta y descuenta su stock.
+     *
+     * @return La venta lista para registrar, o null si se rechazó (el error queda en el resultado)
+     */
+    private Venta construirVenta(VentaLeida leida, Resultado resultado) {
+        for (int l = 0; l < leida.lineas.size(); l++) {
+            String[] campos = leida.lineas.get(l);
+            if (campos.length != COLUMNAS) {
+                resultado.agregarError(leida.numeros.get(l), leida.id, "Se esperaban " + COLUMNAS + " columnas y hay " + campos.length);
+                return null;
+            }
+            for (int c = 1; c <= 3; c++) {
+                if (!campos[c].equals(leida.lineas.get(0)[c])) {
+                    resultado.agregarError(leida.numeros.get(l), leida.id, "FechaHora, Formato y RUT deben coincidir en todas las líneas de la venta");
+                    return null;
+                }
+            }
+        }
+
+        String[] primera = leida.lineas.get(0);
+        LocalDateTime fechaHora;
+        try {
+            fechaHora = primera[1].isEmpty() ? LocalDateTime.now() : LocalDateTime.parse(primera[1]);
+        } catch (DateTimeParseException e) {
+            resultado.agregarError(leida.primeraLinea, leida.id, "FechaHora inválida: " + primera[1]);
+            return null;
+        }
+        String formato = primera[2].toLowerCase();
+        if (!formato.equals("local") && !formato.equals("domicilio")) {
+            resultado.agregarError(leida.primeraLinea, leida.id, "Formato inválido (local/domicilio): " + primera[2]);
+            return null;
+        }
+        Cliente cliente = gestorClientes.buscarClientePorRUT(primera[3]);
+        if (cliente == null) {
+            resultado.agregarError(leida.primeraLinea, leida.id, "Cliente no registrado: " + primera[3]);
+            return null;
+        }
+
+        Venta venta = new Venta(formato, cliente, fechaHora);
+        for (int l = 0; l < leida.lineas.size(); l++) {
+            String error = agregarLinea(venta, leida.lineas.get(l));
+            if (error != null) {
+                resultado.agregarError(leida.numeros.get(l), leida.id, error);
+                return null;
+            }
+        }
+
+        String error = descontarStock(venta);
+        if (error != null) {
+            resultado.agregarError(leida.primeraLinea, leida.id, error);
+            return null;
+        }
+        return venta;
+    }
+
+    /**
+     * Agrega una línea a la venta validando producto, cantidad y descuento.
+     *
+     * @return Mensaje de error, o null si la línea es válida
+     */
+    private String agregarLinea(Venta venta, String[] campos) {
+        Producto producto = inventario.getProducto(campos[4]);
+        if (producto == null) {
+            return "Producto no existe: " + campos[4];
+        }
+        int cantidad;
+        try {
+            cantidad = Integer.parseInt(campos[5]);
+        } catch (NumberFormatException e) {
+            return "Cantidad inválida: " + campos[5];
+        }
+        if (cantidad <= 0) {
+            return "La cantidad debe ser mayor a 0.";
+        }
+
+        int[] opciones = Descuento.obtenerDescuentosDisponibles(producto, venta.getFormatoVenta(),
+                venta.getCliente(), venta.getFechaHora().getHour(), cantidad);
+        int descuento;
+        if (campos[6].isEmpty()) {
+            if (opciones.length > 1) {
+                return "Indique el descuento; opciones: " + Arrays.toString(opciones);
+            }
+            descuento = opciones[0];
+        } else {
+            try {
+                descuento = Integer.parseInt(campos[6]);
+            } catch (NumberFormatException e) {
+                return "Descuento inválido: " + campos[6];
+            }
+            if (!contiene(opciones, descuento)) {
+                return "Descuento $" + descuento + " no disponible; opciones: " + Arrays.toString(opciones);
+            }
+        }
+
+        venta.agregarLinea(producto, cantidad, descuento);
+        return null;
+    }
+
+    private static boolean contiene(int[] opciones, int valor) {
+        for (int opcion : opciones) {
+            if (opcion == valor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reserva el stock de todas las líneas y lo confirma solo si alcanza para la venta completa.
+     *
+     * @return Mensaje de error, o null si el stock quedó descontado
+     */
+    private String descontarStock(Venta venta) {
+        String sinStock = inventario.descontarVenta(venta);
+        if (sinStock == null) {
+            return null;
+        }
+        int solicitado = 0;
+        for (int i = 0; i < venta.getCantidadLineas(); i++) {
+            if (venta.getProductoLinea(i).getNombre().equals(sinStock)) {
+                solicitado += venta.getCantidadLinea(i);
+            }
+        }
+        return "Stock insuficiente para " + sinStock + " (disponible: "
+                + inventario.getStock(sinStock) + ", solicitado: " + solicitado + ")";
+    }
+
+    /**
+     * Líneas de una misma venta, tal como se leyeron.
+     */
+    private static final class VentaLeida {
+        private final String id;
+        private final int primeraLinea;
+        private final List<String[]> lineas = new ArrayList<>(2);
+        private final List<Integer> numeros = new ArrayList<>(2);
+
+        private VentaLeida(String id, int primeraLinea) {
+            this.id = id;
+            this.primeraLinea = primeraLinea;
+        }
+    }
+
+    /**
+     * Error de un registro del archivo.
+     */
+    public static final class ErrorRegistro {
+        private final int linea;
+        private final String idVenta;
+        private final String mensaje;
+
+        ErrorRegistro(int linea, String idVenta, String mensaje) {
+            this.linea = linea;
+            this.idVenta = idVenta;
+            this.mensaje = mensaje;
+        }
+
+        public int getLinea() {
+            return linea;
+        }
+
+        public String getIdVenta() {
+            return idVenta;
+        }
+
+        public String getMensaje() {
+            return mensaje;
+        }
+
+        @Override
+        public String toString() {
+            return "Línea " + linea + " (venta " + idVenta + "): " + mensaje;
+        }
+    }
+
+    /**
+     * Resumen de una importación.
+     */
+    public static final class Resultado {
+        private int lineasLeidas;
+        private final AtomicInteger ventasRegistradas = new AtomicInteger();
+        private final AtomicInteger ventasRechazadas = new AtomicInteger();
+        private final AtomicInteger unidades = new AtomicInteger();
+        private final List<ErrorRegistro> errores = Collections.synchronizedList(new ArrayList<>());
+        private long nanos;
+
+        private void agregarError(int linea, String idVenta, String mensaje) {
+            errores.add(new ErrorRegistro(linea, idVenta, mensaje));
+        }
+
+        public int getLineasLeidas() {
+            return lineasLeidas;
+        }
+
+        public int getVentasRegistradas() {
+            return ventasRegistradas.get();
+        }
+
+        public int getVentasRechazadas() {
+            return ventasRechazadas.get();
+        }
+
+        public int getUnidades() {
+            return unidades.get();
+        }
+
+        /**
+         * Errores ordenados por número de línea.
+         */
+        public List<ErrorRegistro> getErrores() {
+            List<ErrorRegistro> ordenados = new ArrayList<>(errores);
+            ordenados.sort((a, b) -> Integer.compare(a.linea, b.linea));
+            return ordenados;
+        }
+
+        public long getDuracionMs() {
+            return nanos / 1_000_000;
+        }
+
+        public double getVentasPorSegundo() {
+            return nanos > 0 ? (ventasRegistradas.get() + ventasRechazadas.get()) * 1e9 / nanos : 0;
+        }
+
+        public double getLineasPorSegundo() {
+            return nanos > 0 ? lineasLeidas * 1e9 / nanos : 0;
+        }
+    }
+}
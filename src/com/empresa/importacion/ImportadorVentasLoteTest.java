@@ -0,0 +1,65 @@
+package com.empresa.importacion;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.GestorClientes;
+import com.empresa.modelo.HistorialVentas;
+import com.empresa.modelo.Inventario;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ImportadorVentasLote}.
+ */
+public class ImportadorVentasLoteTest {
+
+    private final Inventario inventario = Inventario.getInstancia();
+    private final GestorClientes clientes = GestorClientes.getInstancia();
+    private final HistorialVentas historial = HistorialVentas.getInstancia();
+
+    @Test
+    public void importar_registraVentasValidasYReportaErrores() throws Exception {
+        inventario.agregarProducto("Lote Gas 15kg", "gas", 25000, 3000, 10);
+        inventario.agregarProducto("Lote Regulador", "accesorio", 5000, 500, 2);
+        clientes.registrarClientes(List.of(new Cliente("Chofer Test", "77.777.777-7", "", "Ruta 1")));
+
+        Path archivo = Files.createTempFile("ventas", ".csv");
+        try {
+            Files.writeString(archivo, String.join("\n",
+                    "IdVenta,FechaHora,Formato,RUT,Producto,Cantidad,Descuento",
+                    "V1,2025-03-10T09:15:00,local,77.777.777-7,Lote Gas 15kg,3,",
+                    "V1,2025-03-10T09:15:00,local,77.777.777-7,Lote Regulador,1,",
+                    "V2,2025-03-10T10:00:00,local,77.777.777-7,Lote Regulador,5,",
+                    "V3,2025-03-10T10:05:00,local,99.999.999-9,Lote Gas 15kg,1,",
+                    "V4,2025-03-10T10:10:00,local,77.777.777-7,Producto Inexistente,1,",
+                    "V5,2025-03-10T10:20:00,domicilio,77.777.777-7,Lote Gas 15kg,2,700",
+                    "V6,2025-03-10T10:30:00,local,77.777.777-7,Lote Gas 15kg,x,"));
+
+            int antes = historial.getCantidadVentas();
+            ImportadorVentasLote.Resultado resultado =
+                    new ImportadorVentasLote(inventario, clientes, historial, 3).importar(archivo);
+
+            assertEquals(7, resultado.getLineasLeidas());
+            assertEquals(1, resultado.getVentasRegistradas());
+            assertEquals(5, resultado.getVentasRechazadas());
+            assertEquals(4, resultado.getUnidades());
+            assertEquals(antes + 1, historial.getCantidadVentas());
+
+            List<ImportadorVentasLote.ErrorRegistro> errores = resultado.getErrores();
+            assertEquals(5, errores.size());
+            assertEquals(4, errores.get(0).getLinea());
+            assertTrue(errores.get(0).getMensaje().startsWith("Stock insuficiente"));
+            assertEquals("V3", errores.get(1).getIdVenta());
+            assertEquals("V5", errores.get(3).getIdVenta());
+            assertTrue(errores.get(3).getMensaje().contains("no disponible"));
+
+            // Solo V1 descontó stock; las rechazadas no dejaron reservas
+            assertEquals(7, inventario.getStock("Lote Gas 15kg"));
+            assertEquals(1, inventario.getStock("Lote Regulador"));
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.empresa.importacion;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import javax.xml.parsers.ParserConfigurationException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Lector de archivos Excel (.xlsx) en streaming, basado en el modelo de eventos
+ * (SAX) de Apache POI: {@link XSSFReader} + {@link XSSFSheetXMLHandler}.
+ *
+ * A diferencia de {@code new XSSFWorkbook(...)}, no construye el documento completo
+ * en memoria: la hoja se recorre fila por fila y solo se conservan las primeras
+ * {@code maxColumnas} celdas de la fila actual, por lo que la memoria es constante
+ * sin importar la cantidad de filas.
+ *
+ * @author Ignacio
+ */
+public class LectorFilasXLSX {
+
+    /**
+     * Recibe cada fila leída. La instancia de {@link Fila} se reutiliza entre
+     * llamadas, por lo que no debe guardarse.
+     */
+    public interface ManejadorFilas {
+        void fila(Fila fila);
+    }
+
+    private final int maxColumnas;
+
+    /**
+     * @param maxColumnas Cantidad de columnas (desde la A) que se leen de cada fila
+     */
+    public LectorFilasXLSX(int maxColumnas) {
+        this.maxColumnas = maxColumnas;
+    }
+
+    /**
+     * Recorre la primera hoja del archivo entregando cada fila no vacía al manejador.
+     *
+     * @param rutaArchivo Ruta al archivo .xlsx
+     * @param manejador Receptor de las filas
+     */
+    public void leerPrimeraHoja(String rutaArchivo, ManejadorFilas manejador) throws IOException {
+        try (OPCPackage paquete = OPCPackage.open(rutaArchivo, PackageAccess.READ)) {
+            ReadOnlySharedStringsTable textos = new ReadOnlySharedStringsTable(paquete, false);
+            XSSFReader lector = new XSSFReader(paquete);
+            StylesTable estilos = lector.getStylesTable();
+
+            Iterator<InputStream> hojas = lector.getSheetsData();
+            if (!hojas.hasNext()) {
+                return;
+            }
+            try (InputStream hoja = hojas.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        estilos, null, textos, new Recolector(manejador), new DataFormatter(), false));
+                parser.parse(new InputSource(hoja));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Formato de Excel inválido: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Primera hoja del archivo como {@link FuenteFilas}, para los importadores de
+     * catálogo y facturas.
+     */
+    public static FuenteFilas primeraHoja(String rutaArchivo) {
+        return (columnas, receptor) -> new LectorFilasXLSX(columnas).leerPrimeraHoja(rutaArchivo, fila -> {
+            String[] campos = new String[columnas];
+            for (int c = 0; c < columnas; c++) {
+                campos[c] = fila.getTexto(c);
+            }
+            receptor.fila(fila.getNumero() + 1, campos);
+        });
+    }
+
+    /**
+     * Fila actual de la hoja: número (base 0) y valores de texto de sus celdas.
+     */
+    public static final class Fila {
+        private final String[] celdas;
+        private int numero;
+        private boolean vacia;
+
+        private Fila(int maxColumnas) {
+            celdas = new String[maxColumnas];
+        }
+
+        public int getNumero() {
+            return numero;
+        }
+
+        /**
+         * Texto de la celda sin espacios en los extremos, o "" si está vacía.
+         */
+        public String getTexto(int columna) {
+            String valor = columna < celdas.length ? celdas[columna] : null;
+            return valor != null ? valor.trim() : "";
+        }
+
+        public boolean estaVacia() {
+            return vacia;
+        }
+    }
+
+    private final class Recolector implements SheetContentsHandler {
+        private final ManejadorFilas manejador;
+        private final Fila fila = new Fila(maxColumnas);
+
+        private Recolector(ManejadorFilas manejador) {
+            this.manejador = manejador;
+        }
+
+        @Override
+        public void startRow(int numeroFila) {
+            Arrays.fill(fila.celdas, null);
+            fila.numero = numeroFila;
+            fila.vacia = true;
+        }
+
+        @Override
+        public void endRow(int numeroFila) {
+            if (!fila.vacia) {
+                manejador.fila(fila);
+            }
+        }
+
+        @Override
+        public void cell(String referencia, String valor, XSSFComment comentario) {
+            int columna = columnaDesdeReferencia(referencia);
+            if (columna >= 0 && columna < maxColumnas && valor != null) {
+                fila.celdas[columna] = valor;
+                fila.vacia = false;
+            }
+        }
+    }
+
+    /**
+     * Convierte la parte de letras de una referencia ("C17") al índice de columna (2).
+     */
+    static int columnaDesdeReferencia(String referencia) {
+        if (referencia == null) {
+            return -1;
+        }
+        int columna = 0;
+        for (int i = 0; i < referencia.length(); i++) {
+            char c = referencia.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            columna = columna * 26 + (c - 'A' + 1);
+        }
+        return columna - 1;
+    }
+}
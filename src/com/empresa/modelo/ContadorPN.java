@@ -0,0 +1,68 @@
+package com.empresa.modelo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Contador PN (CRDT): cada nodo lleva su propio total de sumas (P) y de restas (N),
+ * y el valor es la suma de todos los P menos la de todos los N. Como cada nodo
+ * solo hace crecer sus propios totales, dos réplicas se fusionan tomando el
+ * máximo por nodo, sin importar el orden ni cuántas veces llegue la misma
+ * actualización: todas terminan con el mismo valor.
+ *
+ * @author Ignacio
+ */
+public final class ContadorPN {
+
+    private final Map<String, long[]> porNodo = new HashMap<>();
+
+    public synchronized void incrementar(String nodo, long cantidad) {
+        validar(cantidad);
+        totales(nodo)[0] += cantidad;
+    }
+
+    public synchronized void decrementar(String nodo, long cantidad) {
+        validar(cantidad);
+        totales(nodo)[1] += cantidad;
+    }
+
+    private static void validar(long cantidad) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad no puede ser negativa: " + cantidad);
+        }
+    }
+
+    private long[] totales(String nodo) {
+        return porNodo.computeIfAbsent(nodo, k -> new long[2]);
+    }
+
+    public synchronized long valor() {
+        long valor = 0;
+        for (long[] t : porNodo.values()) {
+            valor += t[0] - t[1];
+        }
+        return valor;
+    }
+
+    /**
+     * Fusiona los totales de un nodo recibidos de otra réplica.
+     *
+     * @return true si el contador cambió
+     */
+    public synchronized boolean fusionar(String nodo, long positivos, long negativos) {
+        long[] t = totales(nodo);
+        boolean cambio = positivos > t[0] || negativos > t[1];
+        t[0] = Math.max(t[0], positivos);
+        t[1] = Math.max(t[1], negativos);
+        return cambio;
+    }
+
+    /**
+     * Copia de los totales por nodo: {P, N}.
+     */
+    public synchronized Map<String, long[]> getTotales() {
+        Map<String, long[]> copia = new HashMap<>();
+        porNodo.forEach((nodo, t) -> copia.put(nodo, t.clone()));
+        return copia;
+    }
+}
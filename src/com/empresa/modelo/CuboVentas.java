@@ -0,0 +1,310 @@
+package com.empresa.modelo;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Agregados de ventas precalculados para estadísticas.
+ *
+ * Cada venta registrada suma sus totales (ventas, unidades, bruto y descuento) en
+ * todas las dimensiones: producto, tipo de producto, formato, cliente, hora del
+ * día y calendario (día, semana y mes). Las consultas leen el acumulado del grupo
+ * pedido sin recorrer el historial.
+ *
+ * {@link HistorialVentas} registra aquí cada venta agregada o recuperada del diario.
+ * Las ventas archivadas se suman desde el resumen de cada segmento
+ * ({@link #escribirResumen} y {@link #sumarResumen}), sin volver a leerlas.
+ *
+ * @author Ignacio
+ */
+public class CuboVentas {
+
+    /**
+     * Dimensiones por las que se puede pedir un ranking.
+     */
+    public enum Dimension {
+        PRODUCTO, TIPO, FORMATO, CLIENTE
+    }
+
+    private static final int HORAS = 24;
+
+    private final Acumulador total = new Acumulador();
+    private final Map<String, Acumulador> porProducto = new HashMap<>();
+    private final Map<String, Acumulador> porTipo = new HashMap<>();
+    private final Map<String, Acumulador> porFormato = new HashMap<>();
+    private final Map<String, Acumulador> porCliente = new HashMap<>();
+    private final Acumulador[] porHora = new Acumulador[HORAS];
+    private final TreeMap<LocalDate, Acumulador> porDia = new TreeMap<>();
+    private final TreeMap<LocalDate, Acumulador> porSemana = new TreeMap<>(); // clave: lunes de la semana
+    private final TreeMap<YearMonth, Acumulador> porMes = new TreeMap<>();
+
+    public CuboVentas() {
+        for (int h = 0; h < HORAS; h++) {
+            porHora[h] = new Acumulador();
+        }
+    }
+
+    /**
+     * Suma una venta a todos los agregados.
+     */
+    public synchronized void registrar(Venta venta) {
+        long unidades = venta.getCantidadUnidades();
+        long bruto = venta.calcularTotalBruto();
+        long descuento = venta.calcularTotalDescuento();
+        LocalDate dia = venta.getFechaHora().toLocalDate();
+
+        total.sumar(venta, unidades, bruto, descuento);
+        acumulador(porFormato, venta.getFormatoVenta()).sumar(venta, unidades, bruto, descuento);
+        if (venta.getCliente() != null) {
+            acumulador(porCliente, venta.getCliente().getRut()).sumar(venta, unidades, bruto, descuento);
+        }
+        porHora[venta.getFechaHora().getHour()].sumar(venta, unidades, bruto, descuento);
+        porDia.computeIfAbsent(dia, k -> new Acumulador()).sumar(venta, unidades, bruto, descuento);
+        porSemana.computeIfAbsent(inicioSemana(dia), k -> new Acumulador()).sumar(venta, unidades, bruto, descuento);
+        porMes.computeIfAbsent(YearMonth.from(dia), k -> new Acumulador()).sumar(venta, unidades, bruto, descuento);
+
+        for (int i = 0; i < venta.getCantidadLineas(); i++) {
+            Producto producto = venta.getProductoLinea(i);
+            int cantidad = venta.getCantidadLinea(i);
+            long brutoLinea = Pesos.multiplicar(venta.getPrecioUnitarioLinea(i), cantidad);
+            long descuentoLinea = Pesos.multiplicar(venta.getDescuentoLinea(i), cantidad);
+            acumulador(porProducto, producto.getNombre()).sumar(venta, cantidad, brutoLinea, descuentoLinea);
+            acumulador(porTipo, producto.getTipo()).sumar(venta, cantidad, brutoLinea, descuentoLinea);
+        }
+    }
+
+    private static Acumulador acumulador(Map<String, Acumulador> grupos, String clave) {
+        return grupos.computeIfAbsent(clave, k -> new Acumulador());
+    }
+
+    /**
+     * Lunes de la semana ISO que contiene la fecha.
+     */
+    public static LocalDate inicioSemana(LocalDate fecha) {
+        return fecha.with(DayOfWeek.MONDAY);
+    }
+
+    // ======================== RESUMEN ========================
+
+    /**
+     * Escribe los agregados para guardarlos junto a las ventas que resumen. Las
+     * semanas y meses no se escriben: se derivan de los días al sumar el resumen.
+     */
+    public synchronized void escribirResumen(DataOutput out) throws IOException {
+        total.escribir(out);
+        escribirGrupos(out, porProducto);
+        escribirGrupos(out, porTipo);
+        escribirGrupos(out, porFormato);
+        escribirGrupos(out, porCliente);
+        for (Acumulador hora : porHora) {
+            hora.escribir(out);
+        }
+        out.writeInt(porDia.size());
+        for (Map.Entry<LocalDate, Acumulador> dia : porDia.entrySet()) {
+            out.writeLong(dia.getKey().toEpochDay());
+            dia.getValue().escribir(out);
+        }
+    }
+
+    /**
+     * Suma a estos agregados un resumen escrito con {@link #escribirResumen}.
+     */
+    public synchronized void sumarResumen(DataInput in) throws IOException {
+        total.sumar(Acumulador.leer(in));
+        sumarGrupos(in, porProducto);
+        sumarGrupos(in, porTipo);
+        sumarGrupos(in, porFormato);
+        sumarGrupos(in, porCliente);
+        for (Acumulador hora : porHora) {
+            hora.sumar(Acumulador.leer(in));
+        }
+        int dias = in.readInt();
+        for (int i = 0; i < dias; i++) {
+            LocalDate dia = LocalDate.ofEpochDay(in.readLong());
+            Acumulador delDia = Acumulador.leer(in);
+            porDia.computeIfAbsent(dia, k -> new Acumulador()).sumar(delDia);
+            porSemana.computeIfAbsent(inicioSemana(dia), k -> new Acumulador()).sumar(delDia);
+            porMes.computeIfAbsent(YearMonth.from(dia), k -> new Acumulador()).sumar(delDia);
+        }
+    }
+
+    private static void escribirGrupos(DataOutput out, Map<String, Acumulador> grupos) throws IOException {
+        out.writeInt(grupos.size());
+        for (Map.Entry<String, Acumulador> grupo : grupos.entrySet()) {
+            out.writeUTF(grupo.getKey());
+            grupo.getValue().escribir(out);
+        }
+    }
+
+    private static void sumarGrupos(DataInput in, Map<String, Acumulador> grupos) throws IOException {
+        int cantidad = in.readInt();
+        for (int i = 0; i < cantidad; i++) {
+            String clave = in.readUTF();
+            acumulador(grupos, clave).sumar(Acumulador.leer(in));
+        }
+    }
+
+    // ======================== CONSULTAS ========================
+
+    public synchronized Metricas getTotal() {
+        return total.foto();
+    }
+
+    public synchronized Metricas porProducto(String nombre) {
+        return foto(porProducto.get(nombre));
+    }
+
+    public synchronized Metricas porTipo(String tipo) {
+        return foto(porTipo.get(tipo));
+    }
+
+    /**
+     * @param formato "local" o "domicilio"
+     */
+    public synchronized Metricas porFormato(String formato) {
+        return foto(porFormato.get(formato.toLowerCase()));
+    }
+
+    public synchronized Metricas porCliente(String rut) {
+        return foto(porCliente.get(rut));
+    }
+
+    /**
+     * Ventas hechas a una hora del día (0 a 23), sumando todas las fechas.
+     */
+    public synchronized Metricas porHora(int hora) {
+        return porHora[hora].foto();
+    }
+
+    public synchronized Metricas porDia(LocalDate dia) {
+        return foto(porDia.get(dia));
+    }
+
+    /**
+     * Ventas de la semana (lunes a domingo) que contiene la fecha.
+     */
+    public synchronized Metricas porSemana(LocalDate dia) {
+        return foto(porSemana.get(inicioSemana(dia)));
+    }
+
+    public synchronized Metricas porMes(YearMonth mes) {
+        return foto(porMes.get(mes));
+    }
+
+    /**
+     * Grupos de una dimensión ordenados por ingreso neto, de mayor a menor.
+     *
+     * @param limite Máximo de grupos a retornar
+     */
+    public synchronized Map<String, Metricas> ranking(Dimension dimension, int limite) {
+        Map<String, Acumulador> grupos = switch (dimension) {
+            case PRODUCTO -> porProducto;
+            case TIPO -> porTipo;
+            case FORMATO -> porFormato;
+            case CLIENTE -> porCliente;
+        };
+        List<Map.Entry<String, Acumulador>> ordenados = new ArrayList<>(grupos.entrySet());
+        ordenados.sort((a, b) -> Long.compare(b.getValue().neto(), a.getValue().neto()));
+
+        Map<String, Metricas> resultado = new LinkedHashMap<>();
+        for (int i = 0; i < ordenados.size() && i < limite; i++) {
+            resultado.put(ordenados.get(i).getKey(), ordenados.get(i).getValue().foto());
+        }
+        return resultado;
+    }
+
+    /**
+     * Totales por día en el rango, inclusive. Los días sin ventas no aparecen.
+     */
+    public synchronized SortedMap<LocalDate, Metricas> serieDiaria(LocalDate desde, LocalDate hasta) {
+        return fotos(porDia.subMap(desde, true, hasta, true));
+    }
+
+    /**
+     * Totales por semana en el rango, inclusive; la clave es el lunes de cada semana.
+     */
+    public synchronized SortedMap<LocalDate, Metricas> serieSemanal(LocalDate desde, LocalDate hasta) {
+        return fotos(porSemana.subMap(inicioSemana(desde), true, inicioSemana(hasta), true));
+    }
+
+    /**
+     * Totales por mes en el rango, inclusive.
+     */
+    public synchronized SortedMap<YearMonth, Metricas> serieMensual(YearMonth desde, YearMonth hasta) {
+        return fotos(porMes.subMap(desde, true, hasta, true));
+    }
+
+    private static Metricas foto(Acumulador acumulador) {
+        return acumulador != null ? acumulador.foto() : Metricas.VACIAS;
+    }
+
+    private static <K> SortedMap<K, Metricas> fotos(SortedMap<K, Acumulador> grupos) {
+        SortedMap<K, Metricas> resultado = new TreeMap<>();
+        grupos.forEach((clave, acumulador) -> resultado.put(clave, acumulador.foto()));
+        return resultado;
+    }
+
+    /**
+     * Totales mutables de un grupo. Una venta con varias líneas del mismo producto
+     * se cuenta una sola vez en {@code ventas}.
+     */
+    private static final class Acumulador {
+        private long ventas;
+        private long unidades;
+        private long bruto;
+        private long descuento;
+        private Venta ultimaVenta;
+
+        private void sumar(Venta venta, long unidades, long bruto, long descuento) {
+            if (venta != ultimaVenta) {
+                ventas++;
+                ultimaVenta = venta;
+            }
+            this.unidades += unidades;
+            this.bruto = Pesos.sumar(this.bruto, bruto);
+            this.descuento = Pesos.sumar(this.descuento, descuento);
+        }
+
+        private void sumar(Acumulador otro) {
+            ventas += otro.ventas;
+            unidades += otro.unidades;
+            bruto = Pesos.sumar(bruto, otro.bruto);
+            descuento = Pesos.sumar(descuento, otro.descuento);
+        }
+
+        private void escribir(DataOutput out) throws IOException {
+            out.writeLong(ventas);
+            out.writeLong(unidades);
+            out.writeLong(bruto);
+            out.writeLong(descuento);
+        }
+
+        private static Acumulador leer(DataInput in) throws IOException {
+            Acumulador leido = new Acumulador();
+            leido.ventas = in.readLong();
+            leido.unidades = in.readLong();
+            leido.bruto = in.readLong();
+            leido.descuento = in.readLong();
+            return leido;
+        }
+
+        private long neto() {
+            return bruto - descuento;
+        }
+
+        private Metricas foto() {
+            return new Metricas(ventas, unidades, bruto, descuento);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.empresa.modelo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.SortedMap;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link CuboVentas}.
+ */
+public class CuboVentasTest {
+
+    private final Producto gas = new Producto("Gas 15kg", "gas", 25000, 3000);
+    private final Producto regulador = new Producto("Regulador", "accesorio", 5000, 500);
+    private final Cliente ana = new Cliente("Ana", "11.111.111-1", "", "");
+    private final Cliente luis = new Cliente("Luis", "22.222.222-2", "", "");
+
+    @Test
+    public void registrar_acumulaEnTodasLasDimensiones() {
+        CuboVentas cubo = new CuboVentas();
+
+        // Lunes 2025-03-10 y miércoles 2025-03-12 (misma semana), y 2025-04-01
+        Venta v1 = new Venta("local", ana, LocalDateTime.of(2025, 3, 10, 9, 30));
+        v1.agregarLinea(gas, 2, 5500);
+        v1.agregarLinea(gas, 1, 0); // misma venta, otro descuento: cuenta una sola venta
+        v1.agregarLinea(regulador, 1, 0);
+        Venta v2 = new Venta("domicilio", luis, LocalDateTime.of(2025, 3, 12, 9, 5));
+        v2.agregarLinea(gas, 1, 3000);
+        Venta v3 = new Venta("domicilio", ana, LocalDateTime.of(2025, 4, 1, 18, 0));
+        v3.agregarLinea(regulador, 4, 0);
+        cubo.registrar(v1);
+        cubo.registrar(v2);
+        cubo.registrar(v3);
+
+        Metricas total = cubo.getTotal();
+        assertEquals(3, total.getVentas());
+        assertEquals(9, total.getUnidades());
+        assertEquals(v1.calcularTotalNeto() + v2.calcularTotalNeto() + v3.calcularTotalNeto(), total.getTotalNeto());
+
+        Metricas porGas = cubo.porProducto("Gas 15kg");
+        assertEquals(2, porGas.getVentas());
+        assertEquals(4, porGas.getUnidades());
+        assertEquals(4 * 28000, porGas.getTotalBruto());
+        assertEquals(2 * 5500 + 3000, porGas.getTotalDescuento());
+        assertEquals(cubo.porProducto("Regulador").getTotalNeto(), cubo.porTipo("accesorio").getTotalNeto());
+
+        assertEquals(1, cubo.porFormato("LOCAL").getVentas());
+        assertEquals(2, cubo.porCliente("11.111.111-1").getVentas());
+        assertEquals(2, cubo.porHora(9).getVentas());
+        assertEquals(Metricas.VACIAS, cubo.porDia(LocalDate.of(2025, 3, 11)));
+        assertEquals(2, cubo.porSemana(LocalDate.of(2025, 3, 16)).getVentas());
+        assertEquals(2, cubo.porMes(YearMonth.of(2025, 3)).getVentas());
+
+        SortedMap<YearMonth, Metricas> meses = cubo.serieMensual(YearMonth.of(2025, 1), YearMonth.of(2025, 12));
+        assertEquals(2, meses.size());
+        SortedMap<LocalDate, Metricas> semanas = cubo.serieSemanal(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 30));
+        assertEquals(LocalDate.of(2025, 3, 10), semanas.firstKey());
+        assertEquals(LocalDate.of(2025, 3, 31), semanas.lastKey());
+
+        Map<String, Metricas> ranking = cubo.ranking(CuboVentas.Dimension.PRODUCTO, 1);
+        assertEquals(1, ranking.size());
+        assertTrue(ranking.containsKey("Gas 15kg"));
+    }
+}
@@ -0,0 +1,129 @@
+package com.empresa.modelo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cuenta corriente de un cliente: los asientos en orden de registro, con el saldo
+ * acumulado después de cada uno, y un resumen que se mantiene al registrar.
+ *
+ * El resumen son los cargos aún impagos (fecha y monto pendiente) y el saldo a
+ * favor. Cada abono paga primero los cargos más antiguos y lo que sobra queda a
+ * favor; un cargo nuevo consume primero el saldo a favor. Así el informe de
+ * antigüedad solo recorre los cargos pendientes, no todo el historial.
+ *
+ * @author Ignacio
+ */
+final class CuentaCliente {
+
+    private final String rut;
+    private final List<MovimientoCuenta> movimientos = new ArrayList<>();
+    private long saldo;
+
+    // cargos pendientes desde el índice primerPendiente: cola FIFO en arreglos paralelos
+    private long[] diasCargo = new long[4];
+    private long[] pendientes = new long[4];
+    private int primerPendiente;
+    private int cantidadCargos;
+    private long saldoAFavor;
+
+    CuentaCliente(String rut) {
+        this.rut = rut;
+    }
+
+    String getRut() {
+        return rut;
+    }
+
+    synchronized MovimientoCuenta registrar(LocalDateTime fechaHora, MovimientoCuenta.Tipo tipo, long monto,
+            String referencia) {
+        if (tipo == MovimientoCuenta.Tipo.CARGO) {
+            saldo += monto;
+            long resto = monto;
+            long usado = Math.min(resto, saldoAFavor);
+            saldoAFavor -= usado;
+            resto -= usado;
+            if (resto > 0) {
+                agregarPendiente(fechaHora.toLocalDate().toEpochDay(), resto);
+            }
+        } else {
+            saldo -= monto;
+            long resto = monto;
+            while (resto > 0 && primerPendiente < cantidadCargos) {
+                long pago = Math.min(resto, pendientes[primerPendiente]);
+                pendientes[primerPendiente] -= pago;
+                resto -= pago;
+                if (pendientes[primerPendiente] == 0) {
+                    primerPendiente++;
+                }
+            }
+            saldoAFavor += resto;
+        }
+        MovimientoCuenta m = new MovimientoCuenta(rut, fechaHora, tipo, monto, referencia, saldo);
+        movimientos.add(m);
+        return m;
+    }
+
+    private void agregarPendiente(long dia, long monto) {
+        if (cantidadCargos == diasCargo.length) {
+            if (primerPendiente > cantidadCargos / 2) {
+                // compactar: descartar los cargos ya pagados
+                int vivos = cantidadCargos - primerPendiente;
+                System.arraycopy(diasCargo, primerPendiente, diasCargo, 0, vivos);
+                System.arraycopy(pendientes, primerPendiente, pendientes, 0, vivos);
+                primerPendiente = 0;
+                cantidadCargos = vivos;
+            } else {
+                diasCargo = Arrays.copyOf(diasCargo, diasCargo.length * 2);
+                pendientes = Arrays.copyOf(pendientes, pendientes.length * 2);
+            }
+        }
+        diasCargo[cantidadCargos] = dia;
+        pendientes[cantidadCargos] = monto;
+        cantidadCargos++;
+    }
+
+    synchronized long getSaldo() {
+        return saldo;
+    }
+
+    /**
+     * Suma lo pendiente en cada tramo de antigüedad a la fecha indicada y retorna el
+     * saldo a favor. Un cargo de fecha posterior cuenta en el primer tramo.
+     *
+     * @param limites Días máximos de cada tramo salvo el último, en orden creciente
+     * @param tramos Acumulado por tramo ({@code limites.length + 1} posiciones)
+     */
+    synchronized long antiguedad(LocalDate alDia, int[] limites, long[] tramos) {
+        long hoy = alDia.toEpochDay();
+        for (int i = primerPendiente; i < cantidadCargos; i++) {
+            long dias = hoy - diasCargo[i];
+            int t = 0;
+            while (t < limites.length && dias > limites[t]) {
+                t++;
+            }
+            tramos[t] += pendientes[i];
+        }
+        return saldoAFavor;
+    }
+
+    /**
+     * Asientos con fecha en [desde, hasta), con el saldo después de cada uno.
+     */
+    synchronized Pagina<MovimientoCuenta> movimientos(LocalDateTime desde, LocalDateTime hasta, int pagina,
+            int tamanoPagina) {
+        List<MovimientoCuenta> enRango = new ArrayList<>();
+        for (MovimientoCuenta m : movimientos) {
+            LocalDateTime fecha = m.getFechaHora();
+            if ((desde == null || !fecha.isBefore(desde)) && (hasta == null || fecha.isBefore(hasta))) {
+                enRango.add(m);
+            }
+        }
+        int primero = (int) Math.min((long) pagina * tamanoPagina, enRango.size());
+        int ultimo = Math.min(enRango.size(), primero + tamanoPagina);
+        return new Pagina<>(new ArrayList<>(enRango.subList(primero, ultimo)), enRango.size(), pagina, tamanoPagina);
+    }
+}
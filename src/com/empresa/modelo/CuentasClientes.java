@@ -0,0 +1,229 @@
+package com.empresa.modelo;
+
+import com.empresa.persistencia.DiarioCuentas;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Cuentas corrientes de clientes, por RUT: las ventas a crédito se cargan y los
+ * pagos se abonan como asientos de un libro, y cada cuenta mantiene su saldo y
+ * sus cargos pendientes al registrar (ver {@link CuentaCliente}).
+ *
+ * Consultar un saldo no recorre asientos, y el informe de antigüedad solo lee los
+ * cargos pendientes de cada cuenta: es lineal en la cantidad de clientes y se
+ * reparte entre hilos con fork/join.
+ *
+ * Con el diario activo, cada asiento queda en disco antes de aplicarse.
+ *
+ * @author Ignacio
+ */
+public class CuentasClientes {
+
+    private static final CuentasClientes instancia = new CuentasClientes();
+    private static final int CUENTAS_POR_TAREA = 2048;
+
+    private final Map<String, CuentaCliente> cuentas;
+    private DiarioCuentas diario;
+
+    public CuentasClientes() {
+        cuentas = new ConcurrentHashMap<>();
+    }
+
+    public static CuentasClientes getInstancia() {
+        return instancia;
+    }
+
+    /**
+     * Abre el diario de cuentas, recupera los asientos guardados en él y guarda ahí
+     * los siguientes.
+     */
+    public synchronized void activarDiario(String rutaArchivo) {
+        if (diario != null) {
+            System.out.println("El diario de cuentas ya está activo.");
+            return;
+        }
+        try {
+            diario = DiarioCuentas.abrir(Path.of(rutaArchivo), this::aplicar);
+        } catch (IOException e) {
+            System.out.println("Error al abrir el diario de cuentas: " + e.getMessage());
+        }
+    }
+
+    public synchronized void cerrarDiario() {
+        if (diario == null) {
+            return;
+        }
+        try {
+            diario.close();
+        } catch (IOException e) {
+            System.out.println("Error al cerrar el diario de cuentas: " + e.getMessage());
+        }
+        diario = null;
+    }
+
+    /**
+     * Carga una venta a crédito a la cuenta de su cliente, por el total neto.
+     *
+     * @throws IllegalArgumentException si la venta no tiene cliente o su total es 0
+     */
+    public MovimientoCuenta cargarVenta(Venta venta) {
+        if (venta.getCliente() == null) {
+            throw new IllegalArgumentException("Una venta a crédito debe tener cliente.");
+        }
+        return registrar(venta.getCliente().getRut(), venta.getFechaHora(), MovimientoCuenta.Tipo.CARGO,
+                venta.calcularTotalNeto(), "Venta " + venta.getFormatoVenta());
+    }
+
+    /**
+     * Registra un pago del cliente.
+     */
+    public MovimientoCuenta abonar(String rut, LocalDateTime fechaHora, long monto, String referencia) {
+        return registrar(rut, fechaHora, MovimientoCuenta.Tipo.ABONO, monto, referencia);
+    }
+
+    /**
+     * Registra un asiento, guardándolo primero en el diario si está activo. El
+     * diario y el saldo se actualizan con el mismo candado, así que los saldos
+     * siguen el orden del diario.
+     *
+     * @return El asiento con el saldo resultante
+     * @throws IllegalArgumentException si el monto no es positivo
+     * @throws UncheckedIOException si no se pudo guardar en el diario; en ese caso
+     *         el asiento no se aplica
+     */
+    public MovimientoCuenta registrar(String rut, LocalDateTime fechaHora, MovimientoCuenta.Tipo tipo, long monto,
+            String referencia) {
+        if (monto <= 0) {
+            throw new IllegalArgumentException("El monto debe ser mayor a 0.");
+        }
+        if (rut == null || rut.isBlank()) {
+            throw new IllegalArgumentException("Debe indicar el RUT del cliente.");
+        }
+        MovimientoCuenta movimiento = new MovimientoCuenta(rut, fechaHora, tipo, monto,
+                referencia != null ? referencia : "");
+        synchronized (this) {
+            if (diario != null) {
+                try {
+                    diario.agregar(movimiento);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("No se pudo registrar el asiento en el diario", e);
+                }
+            }
+            return aplicar(movimiento);
+        }
+    }
+
+    private MovimientoCuenta aplicar(MovimientoCuenta m) {
+        return cuentas.computeIfAbsent(m.getRut(), CuentaCliente::new)
+                .registrar(m.getFechaHora(), m.getTipo(), m.getMonto(), m.getReferencia());
+    }
+
+    /**
+     * Deuda del cliente (negativa si tiene saldo a favor), o 0 si no tiene cuenta.
+     */
+    public long getSaldo(String rut) {
+        CuentaCliente c = cuentas.get(rut);
+        return c != null ? c.getSaldo() : 0;
+    }
+
+    /**
+     * Estado de cuenta: asientos en orden de registro, con el saldo después de cada uno.
+     *
+     * @param desde Fecha/hora mínima (inclusive), o null para no limitar
+     * @param hasta Fecha/hora máxima (exclusive), o null para no limitar
+     */
+    public Pagina<MovimientoCuenta> estadoCuenta(String rut, LocalDateTime desde, LocalDateTime hasta, int pagina,
+            int tamanoPagina) {
+        CuentaCliente c = cuentas.get(rut);
+        if (c == null) {
+            return new Pagina<>(List.of(), 0, pagina, tamanoPagina);
+        }
+        return c.movimientos(desde, hasta, pagina, tamanoPagina);
+    }
+
+    public int getCantidadCuentas() {
+        return cuentas.size();
+    }
+
+    public InformeAntiguedad antiguedadSaldos(LocalDate alDia) {
+        return antiguedadSaldos(alDia, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Antigüedad de los saldos de todas las cuentas a la fecha indicada.
+     *
+     * @param pool Pool donde se reparte el cálculo
+     */
+    public InformeAntiguedad antiguedadSaldos(LocalDate alDia, ForkJoinPool pool) {
+        CuentaCliente[] todas = cuentas.values().toArray(new CuentaCliente[0]);
+        Parcial p = pool.invoke(new CalcularAntiguedad(todas, 0, todas.length, alDia));
+        p.filas.sort((a, b) -> Long.compare(b.getAdeudado(), a.getAdeudado()));
+        return new InformeAntiguedad(alDia, p.filas, p.totales, p.aFavor);
+    }
+
+    private static final class Parcial {
+        private final List<InformeAntiguedad.Fila> filas = new ArrayList<>();
+        private final long[] totales = new long[InformeAntiguedad.LIMITES.length + 1];
+        private long aFavor;
+
+        private Parcial unir(Parcial otro) {
+            filas.addAll(otro.filas);
+            for (int t = 0; t < totales.length; t++) {
+                totales[t] += otro.totales[t];
+            }
+            aFavor += otro.aFavor;
+            return this;
+        }
+    }
+
+    private static final class CalcularAntiguedad extends RecursiveTask<Parcial> {
+        private static final long serialVersionUID = 1L;
+
+        private final CuentaCliente[] cuentas;
+        private final int desde;
+        private final int hasta;
+        private final LocalDate alDia;
+
+        private CalcularAntiguedad(CuentaCliente[] cuentas, int desde, int hasta, LocalDate alDia) {
+            this.cuentas = cuentas;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.alDia = alDia;
+        }
+
+        @Override
+        protected Parcial compute() {
+            if (hasta - desde > CUENTAS_POR_TAREA) {
+                int medio = (desde + hasta) >>> 1;
+                CalcularAntiguedad izquierda = new CalcularAntiguedad(cuentas, desde, medio, alDia);
+                izquierda.fork();
+                Parcial derecha = new CalcularAntiguedad(cuentas, medio, hasta, alDia).compute();
+                return izquierda.join().unir(derecha);
+            }
+            Parcial p = new Parcial();
+            for (int i = desde; i < hasta; i++) {
+                long[] tramos = new long[p.totales.length];
+                long aFavor = cuentas[i].antiguedad(alDia, InformeAntiguedad.LIMITES, tramos);
+                boolean adeuda = false;
+                for (int t = 0; t < tramos.length; t++) {
+                    p.totales[t] += tramos[t];
+                    adeuda |= tramos[t] > 0;
+                }
+                if (adeuda || aFavor > 0) {
+                    p.filas.add(new InformeAntiguedad.Fila(cuentas[i].getRut(), tramos, aFavor));
+                    p.aFavor += aFavor;
+                }
+            }
+            return p;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.empresa.modelo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link CuentasClientes}.
+ */
+public class CuentasClientesTest {
+
+    private static final LocalDate HOY = LocalDate.of(2024, 6, 30);
+
+    private static LocalDateTime haceDias(int dias) {
+        return HOY.minusDays(dias).atTime(10, 0);
+    }
+
+    @Test
+    public void registrar_llevaSaldoAcumuladoYRechazaMontosInvalidos() {
+        CuentasClientes cuentas = new CuentasClientes();
+        assertEquals(30000, cuentas.registrar("1-9", haceDias(5), MovimientoCuenta.Tipo.CARGO, 30000, "Venta").getSaldo());
+        assertEquals(18000, cuentas.abonar("1-9", haceDias(2), 12000, "Efectivo").getSaldo());
+        assertEquals(-2000, cuentas.abonar("1-9", haceDias(1), 20000, "Transferencia").getSaldo());
+        assertEquals(-2000, cuentas.getSaldo("1-9"));
+        assertEquals(0, cuentas.getSaldo("2-7"));
+        try {
+            cuentas.abonar("1-9", haceDias(0), 0, "");
+            fail("Se esperaba IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // monto inválido
+        }
+
+        Pagina<MovimientoCuenta> pagina = cuentas.estadoCuenta("1-9", haceDias(3), null, 0, 10);
+        assertEquals(2, pagina.getTotal());
+        assertEquals(MovimientoCuenta.Tipo.ABONO, pagina.getElementos().get(0).getTipo());
+        assertEquals(18000, pagina.getElementos().get(0).getSaldo());
+    }
+
+    @Test
+    public void antiguedadSaldos_pagaPrimeroLosCargosMasAntiguos() {
+        CuentasClientes cuentas = new CuentasClientes();
+        cuentas.registrar("1-9", haceDias(100), MovimientoCuenta.Tipo.CARGO, 10000, "");
+        cuentas.registrar("1-9", haceDias(45), MovimientoCuenta.Tipo.CARGO, 20000, "");
+        cuentas.registrar("1-9", haceDias(10), MovimientoCuenta.Tipo.CARGO, 5000, "");
+        cuentas.abonar("1-9", haceDias(5), 15000, ""); // paga el de 100 días y 5.000 del de 45
+        cuentas.abonar("2-7", haceDias(3), 4000, "");
+        cuentas.registrar("2-7", haceDias(1), MovimientoCuenta.Tipo.CARGO, 1000, ""); // sale del saldo a favor
+        cuentas.registrar("3-5", haceDias(70), MovimientoCuenta.Tipo.CARGO, 8000, "");
+        cuentas.abonar("4-3", haceDias(70), 100, "");
+        cuentas.registrar("4-3", haceDias(60), MovimientoCuenta.Tipo.CARGO, 100, "");
+
+        InformeAntiguedad informe = cuentas.antiguedadSaldos(HOY);
+        assertEquals(3, informe.getFilas().size()); // 4-3 quedó en cero
+        InformeAntiguedad.Fila primera = informe.getFilas().get(0);
+        assertEquals("1-9", primera.getRut());
+        assertEquals(5000, primera.getTramo(0));
+        assertEquals(15000, primera.getTramo(1));
+        assertEquals(0, primera.getTramo(3));
+        assertEquals(8000, informe.getTotalTramo(2));
+        assertEquals(28000, informe.getTotalAdeudado());
+        assertEquals(3000, informe.getTotalAFavor());
+    }
+
+    @Test
+    public void antiguedadSaldos_paraleloIgualQueSecuencial() {
+        CuentasClientes cuentas = new CuentasClientes();
+        for (int c = 0; c < 10_000; c++) {
+            String rut = c + "-0";
+            for (int d = 0; d < 5; d++) {
+                cuentas.registrar(rut, haceDias((c * 7 + d * 31) % 150), MovimientoCuenta.Tipo.CARGO, 1000 + c % 500, "");
+            }
+            cuentas.abonar(rut, haceDias(1), 2500 + c % 3000, "");
+        }
+        InformeAntiguedad secuencial = cuentas.antiguedadSaldos(HOY, new ForkJoinPool(1));
+        InformeAntiguedad paralelo = cuentas.antiguedadSaldos(HOY, new ForkJoinPool(4));
+        assertEquals(secuencial.getFilas().size(), paralelo.getFilas().size());
+        for (int t = 0; t < InformeAntiguedad.TRAMOS.size(); t++) {
+            assertEquals(secuencial.getTotalTramo(t), paralelo.getTotalTramo(t));
+        }
+        long saldos = 0;
+        for (int c = 0; c < 10_000; c++) {
+            saldos += cuentas.getSaldo(c + "-0");
+        }
+        assertEquals(saldos, paralelo.getTotalAdeudado() - paralelo.getTotalAFavor());
+    }
+
+    @Test
+    public void activarDiario_recuperaLosAsientos() throws Exception {
+        Path ruta = Files.createTempFile("cuentas", ".diario");
+        Files.delete(ruta);
+        try {
+            CuentasClientes cuentas = new CuentasClientes();
+            cuentas.activarDiario(ruta.toString());
+            cuentas.registrar("1-9", haceDias(40), MovimientoCuenta.Tipo.CARGO, 25000, "Venta domicilio");
+            cuentas.abonar("1-9", haceDias(3), 10000, "Efectivo");
+            cuentas.cerrarDiario();
+
+            CuentasClientes recuperadas = new CuentasClientes();
+            recuperadas.activarDiario(ruta.toString());
+            assertEquals(15000, recuperadas.getSaldo("1-9"));
+            assertEquals(15000, recuperadas.antiguedadSaldos(HOY).getTotalTramo(1));
+            assertEquals("Efectivo", recuperadas.estadoCuenta("1-9", null, null, 0, 5).getElementos().get(1).getReferencia());
+            recuperadas.cerrarDiario();
+        } finally {
+            Files.deleteIfExists(ruta);
+        }
+    }
+}
@@ -1,54 +1,50 @@
 package com.empresa.modelo;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.LocalTime;
 
 /**
  * Clase que aplica descuentos fijos en pesos chilenos según el nombre del producto
  * y el formato de venta ("local" o "domicilio").
- * 
+ *
  * Si hay más de un valor posible, el sistema debe recibir el índice del descuento elegido.
  * No hay selección aleatoria.
- * 
+ *
  * Por ejemplo:
  * gas 15kg - local → {5500, 6000} → usuario debe elegir uno (0 ó 1)
  * gas 11kg - domicilio → {1500, 3500} → usuario elige índice
- * 
+ *
+ * Los valores provienen de las reglas cargadas en {@link MotorDescuentos}.
+ *
  * @author Ignacio
  */
 public class Descuento {
 
-    private static final Map<String, int[]> descuentoLocal = new HashMap<>();
-    private static final Map<String, int[]> descuentoDomicilio = new HashMap<>();
+    private static final MotorDescuentos motor = MotorDescuentos.getInstancia();
 
-    static {
-        // LOCAL
-        descuentoLocal.put("gas 5kg", new int[]{2500});
-        descuentoLocal.put("gas 11kg", new int[]{4000});
-        descuentoLocal.put("gas 15kg", new int[]{5500, 6000});
-
-        // DOMICILIO
-        descuentoDomicilio.put("gas 5kg", new int[]{700, 1500});
-        descuentoDomicilio.put("gas 11kg", new int[]{1500, 3500});
-        descuentoDomicilio.put("gas 15kg", new int[]{3000, 5000});
-        descuentoDomicilio.put("gas 45kg", new int[]{6000, 7000});
+    /**
+     * Retorna los descuentos posibles para un producto y formato, a la hora actual
+     * y para una unidad.
+     *
+     * @param producto Producto
+     * @param formatoVenta "local" o "domicilio"
+     * @return Arreglo de descuentos disponibles (puede tener 1 o más). No debe modificarse.
+     */
+    public static int[] obtenerDescuentosDisponibles(Producto producto, String formatoVenta) {
+        return motor.obtenerDescuentos(producto, formatoVenta, null, LocalTime.now().getHour(), 1);
     }
 
     /**
-     * Retorna los descuentos posibles para un producto y formato.
+     * Retorna los descuentos posibles para una línea de venta.
      *
      * @param producto Producto
      * @param formatoVenta "local" o "domicilio"
-     * @return Arreglo de descuentos disponibles (puede tener 1 o más)
+     * @param cliente Cliente de la venta, o null
+     * @param hora Hora de la venta (0 a 23)
+     * @param cantidad Unidades de la línea
+     * @return Arreglo de descuentos disponibles (puede tener 1 o más). No debe modificarse.
      */
-    public static int[] obtenerDescuentosDisponibles(Producto producto, String formatoVenta) {
-        String nombre = producto.getNombre().toLowerCase();
-        if (formatoVenta.equalsIgnoreCase("local")) {
-            return descuentoLocal.getOrDefault(nombre, new int[]{0});
-        } else if (formatoVenta.equalsIgnoreCase("domicilio")) {
-            return descuentoDomicilio.getOrDefault(nombre, new int[]{0});
-        }
-        return new int[]{0};
+    public static int[] obtenerDescuentosDisponibles(Producto producto, String formatoVenta, Cliente cliente, int hora, int cantidad) {
+        return motor.obtenerDescuentos(producto, formatoVenta, cliente, hora, cantidad);
     }
 
     /**
@@ -57,14 +53,13 @@ public class Descuento {
      * @param producto Producto
      * @param formatoVenta "local" o "domicilio"
      * @param opcionSeleccionada Índice del descuento elegido
-     * @return Precio final con descuento aplicado
+     * @return Precio final con descuento aplicado, en pesos
      */
-    public static double aplicarDescuentoSeleccionado(Producto producto, String formatoVenta, int opcionSeleccionada) {
+    public static long aplicarDescuentoSeleccionado(Producto producto, String formatoVenta, int opcionSeleccionada) {
         int[] descuentos = obtenerDescuentosDisponibles(producto, formatoVenta);
 
         if (opcionSeleccionada >= 0 && opcionSeleccionada < descuentos.length) {
-            double descuento = descuentos[opcionSeleccionada];
-            return producto.getPrecioVentaFinal() - descuento;
+            return producto.getPrecioVentaFinal() - descuentos[opcionSeleccionada];
         }
 
         return producto.getPrecioVentaFinal(); // No aplica descuento si selección inválida
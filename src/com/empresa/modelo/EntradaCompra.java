@@ -0,0 +1,66 @@
+package com.empresa.modelo;
+
+import java.time.LocalDate;
+
+/**
+ * Una línea de una factura de compra: cuántas unidades de un producto ingresaron,
+ * en qué factura, de qué proveedor y a qué precio. Es inmutable.
+ *
+ * @author Ignacio
+ */
+public final class EntradaCompra {
+
+    private final String numeroFactura;
+    private final LocalDate fecha;
+    private final String proveedor;
+    private final String producto;
+    private final int cantidad;
+    private final long precioCompraConIVA;
+
+    public EntradaCompra(String numeroFactura, LocalDate fecha, String proveedor, String producto,
+            int cantidad, long precioCompraConIVA) {
+        this.numeroFactura = numeroFactura;
+        this.fecha = fecha;
+        this.proveedor = proveedor;
+        this.producto = producto;
+        this.cantidad = cantidad;
+        this.precioCompraConIVA = precioCompraConIVA;
+    }
+
+    public String getNumeroFactura() {
+        return numeroFactura;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public String getProveedor() {
+        return proveedor;
+    }
+
+    public String getProducto() {
+        return producto;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public long getPrecioCompraConIVA() {
+        return precioCompraConIVA;
+    }
+
+    /**
+     * Total de la línea en pesos, con IVA incluido.
+     */
+    public long getTotal() {
+        return Pesos.multiplicar(precioCompraConIVA, cantidad);
+    }
+
+    @Override
+    public String toString() {
+        return "EntradaCompra{factura=" + numeroFactura + ", fecha=" + fecha + ", proveedor=" + proveedor
+                + ", producto=" + producto + ", cantidad=" + cantidad + "}";
+    }
+}
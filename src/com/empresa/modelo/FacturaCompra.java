@@ -19,10 +19,17 @@ public class FacturaCompra {
     private final OrdenCompra ordenAsociada;
 
     public FacturaCompra(String numeroFactura, String proveedor, OrdenCompra ordenAsociada) {
+        this(numeroFactura, proveedor, ordenAsociada, LocalDate.now());
+    }
+
+    /**
+     * Constructor con fecha explícita (usado al leer facturas guardadas).
+     */
+    public FacturaCompra(String numeroFactura, String proveedor, OrdenCompra ordenAsociada, LocalDate fecha) {
         this.numeroFactura = numeroFactura;
         this.proveedor = proveedor;
         this.ordenAsociada = ordenAsociada;
-        this.fecha = LocalDate.now();
+        this.fecha = fecha;
         this.productosIngresados = new ArrayList<>();
     }
 
@@ -54,14 +61,24 @@ public class FacturaCompra {
         return ordenAsociada;
     }
 
-    public double calcularTotalFactura() {
-        double total = 0;
+    /**
+     * Total de la factura en pesos, con IVA incluido.
+     */
+    public long calcularTotalFactura() {
+        long total = 0;
         for (IngresoInventario ingreso : productosIngresados) {
-            total += ingreso.getProducto().getPrecioCompraConIVA() * ingreso.getCantidad();
+            total = Pesos.sumar(total, Pesos.multiplicar(ingreso.getProducto().getPrecioCompraConIVA(), ingreso.getCantidad()));
         }
         return total;
     }
 
+    /**
+     * IVA contenido en el total de la factura, en pesos.
+     */
+    public long calcularIVAFactura() {
+        return Pesos.ivaIncluido(calcularTotalFactura());
+    }
+
     public void mostrarDetalle() {
         System.out.printf("\nFactura: %s | Fecha: %s | Proveedor: %s\n", numeroFactura, fecha, proveedor);
         if (ordenAsociada != null) {
@@ -69,10 +86,13 @@ public class FacturaCompra {
         }
         for (IngresoInventario ingreso : productosIngresados) {
             Producto p = ingreso.getProducto();
-            System.out.printf("Producto: %-15s | Cantidad: %d | PrecioCompra: $%.0f\n",
-                    p.getNombre(), ingreso.getCantidad(), p.getPrecioCompra());
+            System.out.printf("Producto: %-15s | Cantidad: %d | PrecioCompra: %s\n",
+                    p.getNombre(), ingreso.getCantidad(), Pesos.formatear(p.getPrecioCompra()));
         }
-        System.out.printf("TOTAL FACTURA: $%.0f\n", calcularTotalFactura());
+        long total = calcularTotalFactura();
+        System.out.println("NETO:          " + Pesos.formatear(Pesos.netoSinIVA(total)));
+        System.out.println("IVA:           " + Pesos.formatear(Pesos.ivaIncluido(total)));
+        System.out.println("TOTAL FACTURA: " + Pesos.formatear(total));
     }
 
     public static class IngresoInventario {
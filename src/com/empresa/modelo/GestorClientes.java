@@ -1,115 +1,277 @@
 package com.empresa.modelo;
 
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-
-
-import java.io.FileInputStream;
-import java.io.IOException;
+import com.empresa.persistencia.Repositorio;
 import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Clase singleton que gestiona el registro de clientes.
  * Permite registrar, buscar, listar y eliminar clientes por RUT.
- * Además permite importar clientes desde un archivo Excel.
+ *
+ * Mantiene índices secundarios (palabras del nombre y la dirección, teléfono y
+ * un trie de prefijos para búsqueda mientras se escribe) que se actualizan en
+ * cada registro, actualización o eliminación. Las lecturas pueden ser
+ * concurrentes; las modificaciones son exclusivas.
+ *
+ * Con un repositorio activo, cada modificación se guarda también en disco. Al
+ * activarlo no se leen los clientes: la búsqueda por RUT va al repositorio y los
+ * clientes se cargan e indexan recién con la primera búsqueda por nombre,
+ * dirección o teléfono (o al listar, actualizar o eliminar).
  */
 public class GestorClientes {
     private static final GestorClientes instancia = new GestorClientes();
     private final Map<String, Cliente> clientesPorRut;
+    private final IndiceClientes indice;
+    private final ReadWriteLock candado;
+    private Repositorio<Cliente> repositorio;
+    private volatile boolean cargados;
 
     private GestorClientes() {
         clientesPorRut = new HashMap<>();
+        indice = new IndiceClientes();
+        candado = new ReentrantReadWriteLock();
+        cargados = true;
     }
 
     public static GestorClientes getInstancia() {
         return instancia;
     }
 
-    public void registrarCliente(Cliente cliente) {
-        if (clientesPorRut.containsKey(cliente.getRut())) {
-            System.out.println("Ya existe un cliente con este RUT: " + cliente.getRut());
-        } else {
-            clientesPorRut.put(cliente.getRut(), cliente);
-            System.out.println("Cliente registrado: " + cliente.getNombre());
+    /**
+     * Usa el repositorio indicado y guarda ahí cada modificación siguiente. Los
+     * clientes que ya estaban registrados y no en el repositorio se agregan a él.
+     * Los del repositorio no se leen hasta que se necesiten (ver la clase).
+     */
+    public void usarRepositorio(Repositorio<Cliente> repo) {
+        candado.writeLock().lock();
+        try {
+            List<Cliente> soloEnMemoria = new ArrayList<>(clientesPorRut.values());
+            soloEnMemoria.removeIf(c -> repo.existe(c.getRut()));
+            repo.guardarTodos(soloEnMemoria);
+            for (Cliente cliente : clientesPorRut.values()) {
+                indice.quitar(cliente);
+            }
+            clientesPorRut.clear();
+            repositorio = repo;
+            cargados = false;
+        } finally {
+            candado.writeLock().unlock();
         }
     }
 
-    public Cliente buscarClientePorRUT(String rut) {
-        return clientesPorRut.get(rut);
-    }
-
-    public void listarClientes() {
-        if (clientesPorRut.isEmpty()) {
-            System.out.println("No hay clientes registrados.");
+    /**
+     * Carga e indexa los clientes del repositorio si aún no se hizo. Se llama sin
+     * ningún candado tomado.
+     */
+    private void asegurarCargados() {
+        if (cargados) {
             return;
         }
-
-        System.out.println("\n--- LISTA DE CLIENTES ---");
-        for (Cliente c : clientesPorRut.values()) {
-            System.out.println(c);
+        candado.writeLock().lock();
+        try {
+            if (!cargados) {
+                repositorio.paraCada(this::agregarEnMemoria);
+                cargados = true;
+            }
+        } finally {
+            candado.writeLock().unlock();
         }
     }
 
-    public void eliminarCliente(String rut) {
-        if (clientesPorRut.remove(rut) != null) {
-            System.out.println("Cliente eliminado correctamente.");
+    public void registrarCliente(Cliente cliente) {
+        boolean registrado;
+        candado.writeLock().lock();
+        try {
+            registrado = agregar(cliente);
+            if (registrado && repositorio != null) {
+                repositorio.guardar(cliente);
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+
+        if (registrado) {
+            System.out.println("Cliente registrado: " + cliente.getNombre());
         } else {
-            System.out.println("No se encontró un cliente con ese RUT.");
+            System.out.println("Ya existe un cliente con este RUT: " + cliente.getRut());
         }
     }
 
     /**
-     * Importa clientes desde un archivo Excel (.xlsx) con columnas:
-     * Nombre cuenta | Teléfono (ignorado) | Dirección | Día Último (ignorado)
+     * Registra un lote de clientes sin imprimir cada uno (usado en importaciones).
+     * Los RUT ya existentes se omiten.
      *
-     * @param rutaArchivo Ruta al archivo Excel
+     * @return Cantidad de clientes nuevos registrados
      */
-    public void importarClientesDesdeExcel(String rutaArchivo) {
-        try (FileInputStream fis = new FileInputStream(rutaArchivo);
-             Workbook workbook = new XSSFWorkbook(fis)) {
+    public int registrarClientes(Collection<Cliente> clientes) {
+        List<Cliente> nuevos = new ArrayList<>();
+        Set<String> vistos = new HashSet<>();
+        candado.writeLock().lock();
+        try {
+            for (Cliente cliente : clientes) {
+                if (vistos.add(cliente.getRut()) && agregar(cliente)) {
+                    nuevos.add(cliente);
+                }
+            }
+            if (repositorio != null) {
+                repositorio.guardarTodos(nuevos);
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+        return nuevos.size();
+    }
 
-            Sheet hoja = workbook.getSheetAt(0);
-            int contador = 0;
+    /**
+     * Sin los clientes cargados solo comprueba que el RUT no esté en el
+     * repositorio; quien llama lo guarda ahí y se indexará al cargar.
+     */
+    private boolean agregar(Cliente cliente) {
+        if (!cargados) {
+            return !repositorio.existe(cliente.getRut());
+        }
+        return agregarEnMemoria(cliente);
+    }
 
-            for (int i = 1; i <= hoja.getLastRowNum(); i++) { // Saltar encabezado
-                Row fila = hoja.getRow(i);
-                if (fila == null) continue;
+    private boolean agregarEnMemoria(Cliente cliente) {
+        if (clientesPorRut.putIfAbsent(cliente.getRut(), cliente) != null) {
+            return false;
+        }
+        indice.agregar(cliente);
+        return true;
+    }
 
-                Cell celdaNombre = fila.getCell(0); // Columna 0: Nombre cuenta
-                Cell celdaDireccion = fila.getCell(2); // Columna 2: Dirección
+    /**
+     * Actualiza teléfono y dirección de un cliente manteniendo los índices al día.
+     * Usar este método en lugar de los setters de {@link Cliente} para clientes registrados.
+     *
+     * @return true si el cliente existía
+     */
+    public boolean actualizarCliente(String rut, String telefono, String direccion) {
+        asegurarCargados();
+        candado.writeLock().lock();
+        try {
+            Cliente cliente = clientesPorRut.get(rut);
+            if (cliente == null) {
+                return false;
+            }
+            indice.quitar(cliente);
+            cliente.setTelefono(telefono);
+            cliente.setDireccion(direccion);
+            indice.agregar(cliente);
+            if (repositorio != null) {
+                repositorio.guardar(cliente);
+            }
+            return true;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
 
-                String nombre = obtenerTextoDesdeCelda(celdaNombre);
-                String direccion = obtenerTextoDesdeCelda(celdaDireccion);
-                String rutFicticio = "GEN" + i;
-                String telefono = ""; // Ignorado
+    public Cliente buscarClientePorRUT(String rut) {
+        candado.readLock().lock();
+        try {
+            return cargados ? clientesPorRut.get(rut) : repositorio.buscar(rut);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
 
-                if (!nombre.isEmpty() && !direccion.isEmpty()) {
-                    Cliente nuevo = new Cliente(nombre, rutFicticio, telefono, direccion);
-                    registrarCliente(nuevo);
-                    contador++;
-                }
-            }
+    /**
+     * Clientes cuyo nombre contiene todas las palabras indicadas (sin importar
+     * mayúsculas ni tildes).
+     */
+    public List<Cliente> buscarPorNombre(String texto) {
+        asegurarCargados();
+        candado.readLock().lock();
+        try {
+            return indice.buscarPorNombre(texto);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
 
-            System.out.println("✅ Importación finalizada. Clientes importados: " + contador);
+    /**
+     * Clientes cuya dirección contiene todas las palabras indicadas.
+     */
+    public List<Cliente> buscarPorDireccion(String texto) {
+        asegurarCargados();
+        candado.readLock().lock();
+        try {
+            return indice.buscarPorDireccion(texto);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
 
-        } catch (IOException e) {
-            System.out.println("❌ Error al leer el archivo Excel: " + e.getMessage());
+    /**
+     * Clientes con el teléfono indicado (se comparan solo los dígitos, sin prefijo +56).
+     */
+    public List<Cliente> buscarPorTelefono(String telefono) {
+        asegurarCargados();
+        candado.readLock().lock();
+        try {
+            return indice.buscarPorTelefono(telefono);
+        } finally {
+            candado.readLock().unlock();
         }
     }
 
     /**
-     * Método auxiliar para extraer texto desde una celda (soporta String y Numeric).
+     * Sugerencias mientras se escribe el nombre: la última palabra se busca como prefijo.
+     *
+     * @param texto Texto ingresado hasta ahora
+     * @param limite Máximo de sugerencias
      */
-    private String obtenerTextoDesdeCelda(Cell celda) {
-        if (celda == null) return "";
-        return switch (celda.getCellType()) {
-            case STRING -> celda.getStringCellValue().trim();
-            case NUMERIC -> String.valueOf((long) celda.getNumericCellValue()).trim();
-            case BOOLEAN -> String.valueOf(celda.getBooleanCellValue());
-            default -> "";
-        };
+    public List<Cliente> sugerirPorNombre(String texto, int limite) {
+        asegurarCargados();
+        candado.readLock().lock();
+        try {
+            return indice.sugerir(texto, limite);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    public void listarClientes() {
+        asegurarCargados();
+        candado.readLock().lock();
+        try {
+            if (clientesPorRut.isEmpty()) {
+                System.out.println("No hay clientes registrados.");
+                return;
+            }
+
+            System.out.println("\n--- LISTA DE CLIENTES ---");
+            for (Cliente c : clientesPorRut.values()) {
+                System.out.println(c);
+            }
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    public void eliminarCliente(String rut) {
+        asegurarCargados();
+        Cliente eliminado;
+        candado.writeLock().lock();
+        try {
+            eliminado = clientesPorRut.remove(rut);
+            if (eliminado != null) {
+                indice.quitar(eliminado);
+                if (repositorio != null) {
+                    repositorio.eliminar(rut);
+                }
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+
+        if (eliminado != null) {
+            System.out.println("Cliente eliminado correctamente.");
+        } else {
+            System.out.println("No se encontró un cliente con ese RUT.");
+        }
     }
 }
@@ -1,69 +1,812 @@
 package com.empresa.modelo;
 
-import java.io.FileWriter;
+import com.empresa.exportacion.EscritorCSV;
+import com.empresa.persistencia.DiarioVentas;
+import com.empresa.persistencia.SegmentoVentas;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Clase Singleton que gestiona el historial completo de ventas realizadas.
  * Permite agregar ventas, consultar el historial y exportarlo a CSV.
+ *
+ * Si se activa el diario de ventas, cada venta se agrega además a un archivo
+ * binario de solo-agregado y al iniciar se recuperan las ventas ya registradas,
+ * de modo que las ventas del día sobreviven a un cierre inesperado.
+ *
+ * Cada venta registrada recibe un número correlativo ({@link Venta#getNumero()})
+ * que se guarda en el diario y en los segmentos.
+ *
+ * Cada venta se suma también a un {@link CuboVentas} para las estadísticas y se
+ * registra como salida en el {@link LibroMovimientos}.
+ *
+ * Con el archivo activo, solo las ventas de los últimos días quedan en memoria:
+ * {@link #archivar()} pasa los días anteriores a segmentos inmutables y
+ * comprimidos ({@link SegmentoVentas}, uno por día) y deja en el diario solo las
+ * ventas recientes. Las consultas y exportaciones recorren primero los segmentos,
+ * leyendo de disco solo los bloques que necesitan, y luego las ventas en memoria.
+ *
+ * Las ventas en memoria se mantienen ordenadas por fecha y hora (casi siempre
+ * llegan en orden, así que se agregan al final), junto a la lista de ventas de
+ * cada cliente. Las consultas por rango buscan el inicio y el fin con búsqueda
+ * binaria, en memoria y en el índice de bloques de cada segmento; las consultas
+ * por cliente usan esas listas y el índice de clientes de los segmentos.
  */
 public class HistorialVentas {
 
-    private static HistorialVentas instancia = null;
+    private static final HistorialVentas instancia = new HistorialVentas();
+    private static final Comparator<Venta> POR_FECHA = Comparator.comparing(Venta::getFechaHora);
     private final List<Venta> ventas;
+    private final Map<String, List<Venta>> porCliente;
+    private final CuboVentas estadisticas;
+    private final LibroMovimientos movimientos;
+    private final Object archivando;
+    private DiarioVentas diario;
+    private Path rutaDiario;
+    private Path directorioArchivo;
+    private int diasEnMemoria;
+    private List<SegmentoVentas> segmentos;
+    private int ventasArchivadas;
+    private long ultimoNumero;
 
-    private HistorialVentas() {
+    HistorialVentas() {
         ventas = new ArrayList<>();
+        porCliente = new HashMap<>();
+        estadisticas = new CuboVentas();
+        movimientos = LibroMovimientos.getInstancia();
+        archivando = new Object();
+        segmentos = List.of();
     }
 
     public static HistorialVentas getInstancia() {
-        if (instancia == null) {
-            instancia = new HistorialVentas();
-        }
         return instancia;
     }
 
+    /**
+     * Abre el archivo de ventas del directorio indicado y suma las ventas archivadas
+     * a las estadísticas, los movimientos y el stock leyendo solo el resumen de cada
+     * segmento, sin descomprimir las ventas ni cargarlas en memoria.
+     * Debe llamarse antes de {@link #activarDiario(String)}.
+     *
+     * @param directorio Directorio de los segmentos (se crea si no existe)
+     * @param diasEnMemoria Días (contando hoy) que {@link #archivar()} deja en memoria
+     */
+    public synchronized void activarArchivo(String directorio, int diasEnMemoria) {
+        if (directorioArchivo != null) {
+            System.out.println("El archivo de ventas ya está activo.");
+            return;
+        }
+        if (diario != null) {
+            System.out.println("El archivo de ventas debe activarse antes que el diario.");
+            return;
+        }
+        if (diasEnMemoria < 1) {
+            throw new IllegalArgumentException("Debe quedar al menos un día en memoria.");
+        }
+
+        Inventario inventario = Inventario.getInstancia();
+        try {
+            List<SegmentoVentas> abiertos = SegmentoVentas.abrirDirectorio(Path.of(directorio));
+            int cantidad = 0;
+            for (SegmentoVentas segmento : abiertos) {
+                ultimoNumero = Math.max(ultimoNumero, segmento.getUltimoNumero());
+                segmento.leerResumen(estadisticas, (producto, segundos, cantidades, largo) -> {
+                    movimientos.registrarSalidas(producto, segundos, cantidades, largo);
+                    for (int i = 0; i < largo; i++) {
+                        inventario.reducirStock(producto, cantidades[i]);
+                    }
+                });
+                cantidad += segmento.getCantidadVentas();
+            }
+            segmentos = List.copyOf(abiertos);
+            ventasArchivadas = cantidad;
+            directorioArchivo = Path.of(directorio);
+            this.diasEnMemoria = diasEnMemoria;
+            System.out.println("Archivo de ventas activo. Ventas archivadas: " + cantidad
+                    + " en " + abiertos.size() + " segmentos");
+        } catch (IOException e) {
+            System.out.println("Error al abrir el archivo de ventas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Abre el diario de ventas indicado, recupera las ventas registradas en él
+     * (descontando su stock del inventario) y registra ahí las ventas siguientes.
+     *
+     * Las ventas del diario que ya están en un segmento (si el programa se cerró
+     * después de archivar pero antes de reescribir el diario) se omiten; se
+     * reconocen por su número con {@link SegmentoVentas#yaArchivada}, sin leer
+     * los segmentos.
+     *
+     * @param rutaArchivo Ruta del archivo del diario
+     */
+    public synchronized void activarDiario(String rutaArchivo) {
+        if (diario != null) {
+            System.out.println("El diario de ventas ya está activo.");
+            return;
+        }
+
+        Inventario inventario = Inventario.getInstancia();
+        int antes = ventas.size();
+        int[] repetidas = new int[1];
+        try {
+            diario = DiarioVentas.abrir(Path.of(rutaArchivo), venta -> {
+                ultimoNumero = Math.max(ultimoNumero, venta.getNumero());
+                if (estaArchivada(venta)) {
+                    repetidas[0]++;
+                    return;
+                }
+                agregarEnMemoria(venta);
+                estadisticas.registrar(venta);
+                movimientos.registrarVenta(venta);
+                descontarStock(inventario, venta);
+            });
+            rutaDiario = Path.of(rutaArchivo);
+            System.out.println("Diario de ventas activo. Ventas recuperadas: " + (ventas.size() - antes)
+                    + (repetidas[0] > 0 ? " (omitidas por estar archivadas: " + repetidas[0] + ")" : ""));
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Error al abrir el diario de ventas: " + e.getMessage());
+        }
+    }
+
+    private boolean estaArchivada(Venta venta) {
+        for (SegmentoVentas segmento : segmentos) {
+            if (segmento.yaArchivada(venta)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void descontarStock(Inventario inventario, Venta venta) {
+        for (int i = 0; i < venta.getCantidadLineas(); i++) {
+            inventario.reducirStock(venta.getProductoLinea(i).getNombre(), venta.getCantidadLinea(i));
+        }
+    }
+
+    /**
+     * Archiva las ventas anteriores a los días que se mantienen en memoria.
+     *
+     * @return Cantidad de ventas archivadas
+     */
+    public int archivar() {
+        int dias;
+        synchronized (this) {
+            dias = diasEnMemoria;
+        }
+        return archivarAntesDe(LocalDate.now().minusDays(Math.max(0, dias - 1)));
+    }
+
+    /**
+     * Pasa las ventas en memoria anteriores al día indicado a segmentos, uno por
+     * día, y reescribe el diario con las que quedan. Los segmentos se escriben sin
+     * bloquear el historial; el candado se toma solo para reemplazar las ventas por
+     * los segmentos.
+     *
+     * @param limite Primer día que queda en memoria
+     * @return Cantidad de ventas archivadas
+     */
+    public int archivarAntesDe(LocalDate limite) {
+        synchronized (archivando) {
+            Path directorio;
+            List<Venta> antiguas = new ArrayList<>();
+            LocalDateTime corte = limite.atStartOfDay();
+            synchronized (this) {
+                if (directorioArchivo == null) {
+                    System.out.println("El archivo de ventas no está activo.");
+                    return 0;
+                }
+                directorio = directorioArchivo;
+                for (Venta venta : ventas) {
+                    if (venta.getFechaHora().isBefore(corte)) {
+                        antiguas.add(venta);
+                    }
+                }
+            }
+            if (antiguas.isEmpty()) {
+                return 0;
+            }
+
+            antiguas.sort(Comparator.comparing(Venta::getFechaHora));
+            List<SegmentoVentas> nuevos = new ArrayList<>();
+            try {
+                int inicio = 0;
+                while (inicio < antiguas.size()) {
+                    LocalDate dia = antiguas.get(inicio).getFechaHora().toLocalDate();
+                    int fin = inicio + 1;
+                    while (fin < antiguas.size() && antiguas.get(fin).getFechaHora().toLocalDate().equals(dia)) {
+                        fin++;
+                    }
+                    Path ruta = SegmentoVentas.rutaLibre(directorio, "ventas-" + dia);
+                    nuevos.add(SegmentoVentas.escribir(ruta, antiguas.subList(inicio, fin)));
+                    inicio = fin;
+                }
+            } catch (IOException e) {
+                System.out.println("Error al archivar ventas: " + e.getMessage());
+                for (SegmentoVentas segmento : nuevos) {
+                    try {
+                        Files.deleteIfExists(segmento.getRuta());
+                    } catch (IOException ignorada) {
+                        // el segmento queda y sus ventas se omiten al recuperar el diario
+                    }
+                }
+                return 0;
+            }
+
+            synchronized (this) {
+                Set<Venta> archivadas = Collections.newSetFromMap(new IdentityHashMap<>());
+                archivadas.addAll(antiguas);
+                ventas.removeIf(archivadas::contains);
+                porCliente.clear();
+                for (Venta venta : ventas) {
+                    agregarACliente(venta);
+                }
+                List<SegmentoVentas> todos = new ArrayList<>(segmentos);
+                todos.addAll(nuevos);
+                todos.sort(SegmentoVentas::comparar);
+                segmentos = List.copyOf(todos);
+                ventasArchivadas += antiguas.size();
+                if (rutaDiario != null) {
+                    reescribirDiario();
+                }
+            }
+            System.out.println("Ventas archivadas: " + antiguas.size() + " en " + nuevos.size() + " segmentos");
+            return antiguas.size();
+        }
+    }
+
+    /**
+     * Deja en el diario solo las ventas en memoria. Se llama con el candado tomado,
+     * así que no entran ventas mientras el diario está cerrado. Si no se puede
+     * reabrir, las ventas se rechazan hasta que {@link #diarioDisponible()} lo logre.
+     */
+    private void reescribirDiario() {
+        try {
+            if (diario != null) {
+                diario.close();
+                diario = null;
+            }
+            DiarioVentas.reescribir(rutaDiario, ventas);
+        } catch (IOException e) {
+            System.out.println("Error al reescribir el diario de ventas: " + e.getMessage());
+        }
+        try {
+            diarioDisponible();
+        } catch (IOException e) {
+            System.out.println("Error al reabrir el diario de ventas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Con el diario activo, lo reabre si quedó cerrado tras un error. Se llama con
+     * el candado tomado.
+     *
+     * @throws IOException si el diario está activo pero no se puede abrir; no se
+     *         deben aceptar ventas que no quedarían persistidas
+     */
+    private void diarioDisponible() throws IOException {
+        if (diario == null && rutaDiario != null) {
+            diario = DiarioVentas.abrir(rutaDiario, venta -> { });
+            System.out.println("Diario de ventas reabierto.");
+        }
+    }
+
+    /**
+     * Cierra el diario de ventas, esperando que se escriban las ventas pendientes.
+     */
+    public synchronized void cerrarDiario() {
+        if (diario == null) {
+            rutaDiario = null;
+            return;
+        }
+        try {
+            diario.close();
+        } catch (IOException e) {
+            System.out.println("Error al cerrar el diario de ventas: " + e.getMessage());
+        }
+        diario = null;
+        rutaDiario = null;
+    }
+
+    /**
+     * Agrega una venta al historial. Con el diario activo, retorna solo cuando la
+     * venta quedó persistida (el fsync se comparte con otras ventas concurrentes).
+     *
+     * @throws UncheckedIOException si el diario no pudo escribir la venta o no está
+     *         disponible; en ese caso la venta no queda registrada
+     */
     public void agregarVenta(Venta venta) {
-        ventas.add(venta);
+        CompletableFuture<Void> escritura = null;
+        synchronized (this) {
+            try {
+                diarioDisponible();
+            } catch (IOException e) {
+                throw new UncheckedIOException("El diario de ventas no está disponible", e);
+            }
+            venta.setNumero(++ultimoNumero);
+            if (diario != null) {
+                escritura = diario.agregar(venta);
+            }
+            agregarEnMemoria(venta);
+        }
+
+        if (escritura != null) {
+            try {
+                escritura.join();
+            } catch (CompletionException e) {
+                synchronized (this) {
+                    quitarDeMemoria(venta);
+                }
+                throw errorDiario(e);
+            }
+        }
+        estadisticas.registrar(venta);
+        movimientos.registrarVenta(venta);
+    }
+
+    /**
+     * Agrega varias ventas de una vez. Con el diario activo, todas se encolan juntas
+     * (comparten el fsync) y retorna cuando quedaron persistidas.
+     *
+     * @return Ventas que el diario no pudo escribir y que por eso no quedaron
+     *         registradas (vacía si se registraron todas; todas si el diario no
+     *         está disponible); quien llama decide qué hacer con ellas, por ejemplo
+     *         devolver su stock
+     */
+    public List<Venta> agregarVentas(List<Venta> nuevas) {
+        List<CompletableFuture<Void>> escrituras = new ArrayList<>(nuevas.size());
+        synchronized (this) {
+            try {
+                diarioDisponible();
+            } catch (IOException e) {
+                System.out.println("El diario de ventas no está disponible: " + e.getMessage());
+                return new ArrayList<>(nuevas);
+            }
+            boolean ordenadas = true;
+            for (Venta venta : nuevas) {
+                venta.setNumero(++ultimoNumero);
+                if (diario != null) {
+                    escrituras.add(diario.agregar(venta));
+                }
+                ordenadas &= ventas.isEmpty() || !venta.getFechaHora().isBefore(ventas.get(ventas.size() - 1).getFechaHora());
+                ventas.add(venta);
+                agregarACliente(venta);
+            }
+            if (!ordenadas) {
+                ventas.sort(POR_FECHA);
+            }
+        }
+
+        List<Venta> fallidas = new ArrayList<>();
+        for (int i = 0; i < nuevas.size(); i++) {
+            Venta venta = nuevas.get(i);
+            if (!escrituras.isEmpty()) {
+                try {
+                    escrituras.get(i).join();
+                } catch (CompletionException e) {
+                    synchronized (this) {
+                        quitarDeMemoria(venta);
+                    }
+                    fallidas.add(venta);
+                    continue;
+                }
+            }
+            estadisticas.registrar(venta);
+            movimientos.registrarVenta(venta);
+        }
+        return fallidas;
+    }
+
+    private static UncheckedIOException errorDiario(CompletionException e) {
+        IOException causa = e.getCause() instanceof IOException
+                ? (IOException) e.getCause() : new IOException(e.getCause());
+        return new UncheckedIOException("No se pudo registrar la venta en el diario", causa);
+    }
+
+    /**
+     * Agrega la venta a las listas en memoria, en su lugar por fecha. Se llama con
+     * el candado tomado; las estadísticas y movimientos los registra quien llama.
+     */
+    private void agregarEnMemoria(Venta venta) {
+        insertarPorFecha(ventas, venta);
+        agregarACliente(venta);
+    }
+
+    /**
+     * Quita una venta cuyo registro en el diario falló. Se busca desde el final,
+     * donde quedan las ventas recientes. Se llama con el candado tomado.
+     */
+    private void quitarDeMemoria(Venta venta) {
+        quitar(ventas, venta);
+        if (venta.getCliente() != null) {
+            List<Venta> delCliente = porCliente.get(venta.getCliente().getRut());
+            if (delCliente != null) {
+                quitar(delCliente, venta);
+            }
+        }
     }
 
+    private static void quitar(List<Venta> lista, Venta venta) {
+        for (int i = lista.size() - 1; i >= 0; i--) {
+            if (lista.get(i) == venta) {
+                lista.remove(i);
+                return;
+            }
+        }
+    }
+
+    private void agregarACliente(Venta venta) {
+        if (venta.getCliente() != null) {
+            insertarPorFecha(porCliente.computeIfAbsent(venta.getCliente().getRut(), k -> new ArrayList<>()), venta);
+        }
+    }
+
+    /**
+     * Agrega al final si la venta no es anterior a la última; si llegó atrasada, la
+     * inserta después de las de su misma fecha y hora.
+     */
+    private static void insertarPorFecha(List<Venta> lista, Venta venta) {
+        int n = lista.size();
+        if (n == 0 || !venta.getFechaHora().isBefore(lista.get(n - 1).getFechaHora())) {
+            lista.add(venta);
+            return;
+        }
+        int bajo = 0;
+        int alto = n;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (venta.getFechaHora().isBefore(lista.get(medio).getFechaHora())) {
+                alto = medio;
+            } else {
+                bajo = medio + 1;
+            }
+        }
+        lista.add(bajo, venta);
+    }
+
+    /**
+     * Posición de la primera venta con fecha igual o posterior a la indicada, en un
+     * arreglo ordenado por fecha.
+     */
+    private static int primeraDesde(Venta[] ordenadas, LocalDateTime fecha) {
+        int bajo = 0;
+        int alto = ordenadas.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (ordenadas[medio].getFechaHora().isBefore(fecha)) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Agregados de las ventas registradas, actualizados con cada venta.
+     */
+    public CuboVentas getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * Segmentos archivados y copia de las referencias a las ventas en memoria, para
+     * recorrerlos sin bloquear el historial.
+     */
+    synchronized Foto foto() {
+        return new Foto(segmentos, ventas.toArray(new Venta[0]));
+    }
+
+    /**
+     * Como {@link #foto()}, pero con solo las ventas en memoria del cliente.
+     */
+    private synchronized Foto fotoCliente(String rut) {
+        List<Venta> delCliente = porCliente.getOrDefault(rut, List.of());
+        return new Foto(segmentos, delCliente.toArray(new Venta[0]));
+    }
+
+    /**
+     * Cantidad de ventas registradas, archivadas y en memoria.
+     */
+    public synchronized int getCantidadVentas() {
+        return ventasArchivadas + ventas.size();
+    }
+
+    /**
+     * Cantidad de ventas que están en memoria (no archivadas).
+     */
+    public synchronized int getCantidadVentasEnMemoria() {
+        return ventas.size();
+    }
+
+    /**
+     * Página de las ventas del rango: primero las archivadas, segmento por segmento,
+     * y luego las que están en memoria, cada grupo por fecha y hora. De los
+     * segmentos se leen solo los bloques de la página.
+     *
+     * @param desde Fecha/hora mínima (inclusive), o null para no limitar
+     * @param hasta Fecha/hora máxima (exclusive), o null para no limitar
+     * @param pagina Número de página, comenzando en 0
+     * @param tamano Ventas por página
+     */
+    public Pagina<Venta> ventas(LocalDateTime desde, LocalDateTime hasta, int pagina, int tamano) throws IOException {
+        return pagina(tramos(null, desde, hasta), pagina, tamano);
+    }
+
+    /**
+     * Página de las ventas del cliente en el rango, en el mismo orden que
+     * {@link #ventas(LocalDateTime, LocalDateTime, int, int)}.
+     */
+    public Pagina<Venta> ventasCliente(String rut, LocalDateTime desde, LocalDateTime hasta, int pagina, int tamano)
+            throws IOException {
+        return pagina(tramos(rut, desde, hasta), pagina, tamano);
+    }
+
+    /**
+     * Entrega las ventas del rango en orden, sin cargarlas todas en memoria. Trabaja
+     * sobre una foto tomada al inicio, así que no bloquea nuevas ventas mientras el
+     * receptor escribe a disco.
+     *
+     * @param desde Fecha/hora mínima (inclusive), o null para no limitar
+     * @param hasta Fecha/hora máxima (exclusive), o null para no limitar
+     */
+    public void recorrer(LocalDateTime desde, LocalDateTime hasta, SegmentoVentas.Receptor receptor) throws IOException {
+        recorrer(tramos(null, desde, hasta), receptor);
+    }
+
+    /**
+     * Entrega las ventas del cliente en el rango, en orden, sin cargarlas todas en
+     * memoria.
+     */
+    public void recorrerCliente(String rut, LocalDateTime desde, LocalDateTime hasta, SegmentoVentas.Receptor receptor)
+            throws IOException {
+        recorrer(tramos(rut, desde, hasta), receptor);
+    }
+
+    /**
+     * Tramos de la consulta: en cada segmento que se solapa con el rango, las
+     * posiciones entre el inicio y el fin del rango (o las del cliente dentro de
+     * ellas), y al final las ventas en memoria del rango.
+     *
+     * @param rut Cliente, o null para todas las ventas
+     */
+    private List<Tramo> tramos(String rut, LocalDateTime desde, LocalDateTime hasta) throws IOException {
+        Foto foto = rut != null ? fotoCliente(rut) : foto();
+        List<Tramo> tramos = new ArrayList<>();
+        for (SegmentoVentas segmento : foto.segmentos) {
+            if (!segmento.seSolapa(desde, hasta)) {
+                continue;
+            }
+            int primera = desde != null ? segmento.posicionDesde(desde) : 0;
+            int fin = hasta != null ? segmento.posicionDesde(hasta) : segmento.getCantidadVentas();
+            if (rut == null) {
+                if (primera < fin) {
+                    tramos.add(new Tramo(segmento, null, null, primera, fin));
+                }
+                continue;
+            }
+            int[] posiciones = segmento.posicionesCliente(rut);
+            int a = primeraPosicion(posiciones, primera);
+            int b = primeraPosicion(posiciones, fin);
+            if (a < b) {
+                tramos.add(new Tramo(segmento, posiciones, null, a, b));
+            }
+        }
+        Venta[] recientes = foto.recientes;
+        int a = desde != null ? primeraDesde(recientes, desde) : 0;
+        int b = hasta != null ? primeraDesde(recientes, hasta) : recientes.length;
+        if (a < b) {
+            tramos.add(new Tramo(null, null, recientes, a, b));
+        }
+        return tramos;
+    }
+
+    private static int primeraPosicion(int[] posiciones, int posicion) {
+        int i = Arrays.binarySearch(posiciones, posicion);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private static Pagina<Venta> pagina(List<Tramo> tramos, int pagina, int tamano) throws IOException {
+        int total = 0;
+        for (Tramo tramo : tramos) {
+            total += tramo.cantidad();
+        }
+        List<Venta> elementos = new ArrayList<>(tamano);
+        long inicio = (long) pagina * tamano;
+        long fin = Math.min(total, inicio + tamano);
+        long base = 0;
+        Map<String, Producto> productos = new HashMap<>();
+        for (Tramo tramo : tramos) {
+            int cantidad = tramo.cantidad();
+            if (base + cantidad > inicio && base < fin) {
+                int desde = (int) Math.max(0, inicio - base);
+                tramo.leer(desde, (int) Math.min(cantidad, fin - base), productos, elementos::add);
+            }
+            base += cantidad;
+        }
+        return new Pagina<>(elementos, total, pagina, tamano);
+    }
+
+    private static void recorrer(List<Tramo> tramos, SegmentoVentas.Receptor receptor) throws IOException {
+        Map<String, Producto> productos = new HashMap<>();
+        for (Tramo tramo : tramos) {
+            tramo.leer(0, tramo.cantidad(), productos, receptor);
+        }
+    }
+
+    /**
+     * Ventas de un formato ("local" o "domicilio") en el rango indicado.
+     *
+     * @param desde Fecha/hora mínima (inclusive), o null para no limitar
+     * @param hasta Fecha/hora máxima (exclusive), o null para no limitar
+     */
+    public List<Venta> buscarPorFormato(String formato, LocalDateTime desde, LocalDateTime hasta) {
+        List<Venta> encontradas = new ArrayList<>();
+        try {
+            recorrer(desde, hasta, venta -> {
+                if (venta.getFormatoVenta().equalsIgnoreCase(formato)) {
+                    encontradas.add(venta);
+                }
+            });
+        } catch (IOException e) {
+            System.out.println("Error al leer las ventas archivadas: " + e.getMessage());
+        }
+        return encontradas;
+    }
+
+    /**
+     * Muestra todas las ventas, leyendo las archivadas de a un bloque.
+     */
     public void mostrarHistorial() {
-        if (ventas.isEmpty()) {
+        if (getCantidadVentas() == 0) {
             System.out.println("No hay ventas registradas.");
             return;
         }
 
         System.out.println("\n===== HISTORIAL DE VENTAS =====");
-        for (Venta venta : ventas) {
-            venta.mostrarResumenVenta();
-            System.out.println("---------------------------------------------");
+        try {
+            recorrer(null, null, venta -> {
+                venta.mostrarResumenVenta();
+                System.out.println("---------------------------------------------");
+            });
+        } catch (IOException e) {
+            System.out.println("Error al leer las ventas archivadas: " + e.getMessage());
         }
     }
 
     public void exportarCSV(String rutaArchivo) {
-        try (FileWriter writer = new FileWriter(rutaArchivo)) {
-            writer.write("FechaHora,TipoVenta,Producto,PrecioUnitario,Descuento,TotalLinea\n");
+        exportarCSV(rutaArchivo, null, null);
+    }
+
+    /**
+     * Exporta las líneas de venta a CSV en streaming, con memoria constante.
+     * Si la ruta termina en ".gz" el archivo se comprime con gzip.
+     *
+     * @param rutaArchivo Ruta del archivo de destino
+     * @param desde Fecha/hora mínima (inclusive), o null para no limitar
+     * @param hasta Fecha/hora máxima (exclusive), o null para no limitar
+     */
+    public void exportarCSV(String rutaArchivo, LocalDateTime desde, LocalDateTime hasta) {
+        exportarCSV(rutaArchivo, null, desde, hasta);
+    }
+
+    /**
+     * Como {@link #exportarCSV(String, LocalDateTime, LocalDateTime)}, con solo las
+     * ventas del cliente indicado (o todas si {@code rut} es null).
+     */
+    public void exportarCSV(String rutaArchivo, String rut, LocalDateTime desde, LocalDateTime hasta) {
+        try (EscritorCSV csv = EscritorCSV.abrir(Path.of(rutaArchivo), rutaArchivo.endsWith(".gz"))) {
+            exportarCSV(csv, rut, desde, hasta);
+            System.out.println("Historial exportado exitosamente a: " + rutaArchivo
+                    + " (" + (csv.getLineas() - 1) + " líneas)");
+        } catch (IOException e) {
+            System.out.println("Error al exportar CSV: " + e.getMessage());
+        }
+    }
 
-            for (Venta venta : ventas) {
-                List<Producto> productos = venta.getProductosVendidos();
-                List<Integer> descuentos = venta.getDescuentosAplicados();
+    /**
+     * Escribe el encabezado y las líneas de venta del rango en el escritor indicado.
+     * No cierra el escritor.
+     */
+    public void exportarCSV(EscritorCSV csv, LocalDateTime desde, LocalDateTime hasta) throws IOException {
+        exportarCSV(csv, null, desde, hasta);
+    }
 
-                for (int i = 0; i < productos.size(); i++) {
-                    Producto p = productos.get(i);
-                    int desc = descuentos.get(i);
-                    double total = p.getPrecioVentaFinal() - desc;
+    /**
+     * Escribe el encabezado y las líneas de venta del cliente (o de todos si
+     * {@code rut} es null) en el rango. No cierra el escritor.
+     */
+    public void exportarCSV(EscritorCSV csv, String rut, LocalDateTime desde, LocalDateTime hasta) throws IOException {
+        csv.encabezado("FechaHora", "TipoVenta", "Producto", "Cantidad", "PrecioUnitario", "Descuento", "TotalLinea");
+        recorrer(tramos(rut, desde, hasta), venta -> {
+            for (int i = 0; i < venta.getCantidadLineas(); i++) {
+                csv.campo(venta.getFechaHora());
+                csv.campo(venta.getFormatoVenta());
+                csv.campo(venta.getProductoLinea(i).getNombre());
+                csv.campo(venta.getCantidadLinea(i));
+                csv.campo(venta.getPrecioUnitarioLinea(i));
+                csv.campo(venta.getDescuentoLinea(i));
+                csv.campo(venta.getTotalLinea(i));
+                csv.finLinea();
+            }
+        });
+    }
 
-                    writer.write(String.format("%s,%s,%s,%.0f,%d,%.0f\n",
-                            venta.getFechaHora(), venta.getFormatoVenta(),
-                            p.getNombre(), p.getPrecioVentaFinal(), desc, total));
-                }
+    /**
+     * Estado del historial en un instante: los segmentos archivados (inmutables) y
+     * las ventas que estaban en memoria.
+     */
+    static final class Foto {
+        final List<SegmentoVentas> segmentos;
+        final Venta[] recientes;
+
+        private Foto(List<SegmentoVentas> segmentos, Venta[] recientes) {
+            this.segmentos = segmentos;
+            this.recientes = recientes;
+        }
+
+        int getCantidadVentas() {
+            int total = recientes.length;
+            for (SegmentoVentas segmento : segmentos) {
+                total += segmento.getCantidadVentas();
             }
+            return total;
+        }
+    }
 
-            System.out.println("Historial exportado exitosamente a: " + rutaArchivo);
-        } catch (IOException e) {
-            System.out.println("Error al exportar CSV: " + e.getMessage());
+    /**
+     * Parte contigua del resultado de una consulta: posiciones [desde, hasta) de un
+     * segmento, del arreglo de posiciones de un cliente en un segmento, o de las
+     * ventas en memoria.
+     */
+    private static final class Tramo {
+        private final SegmentoVentas segmento;
+        private final int[] posiciones;
+        private final Venta[] recientes;
+        private final int desde;
+        private final int hasta;
+
+        private Tramo(SegmentoVentas segmento, int[] posiciones, Venta[] recientes, int desde, int hasta) {
+            this.segmento = segmento;
+            this.posiciones = posiciones;
+            this.recientes = recientes;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        private int cantidad() {
+            return hasta - desde;
+        }
+
+        /**
+         * Entrega los elementos [primero, fin) del tramo.
+         */
+        private void leer(int primero, int fin, Map<String, Producto> productos, SegmentoVentas.Receptor receptor)
+                throws IOException {
+            if (recientes != null) {
+                for (int i = desde + primero; i < desde + fin; i++) {
+                    receptor.venta(recientes[i]);
+                }
+            } else if (posiciones != null) {
+                segmento.leer(posiciones, desde + primero, desde + fin, productos, receptor);
+            } else {
+                segmento.leer(desde + primero, fin - primero, productos, receptor);
+            }
         }
     }
 }
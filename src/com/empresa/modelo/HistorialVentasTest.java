@@ -0,0 +1,186 @@
+package com.empresa.modelo;
+
+import com.empresa.persistencia.DiarioVentas;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link HistorialVentas}.
+ */
+public class HistorialVentasTest {
+
+    private final Producto gas = new Producto("Archivo Gas 15kg", "gas", 25000, 3000);
+
+    private List<Venta> ventas(LocalDate dia, int cantidad, int unidades) {
+        List<Venta> ventas = new ArrayList<>();
+        LocalDateTime inicio = dia.atStartOfDay();
+        for (int i = 0; i < cantidad; i++) {
+            Venta venta = new Venta(i % 2 == 0 ? "local" : "domicilio", null, inicio.plusSeconds(i));
+            venta.agregarLinea(gas, unidades, 0);
+            ventas.add(venta);
+        }
+        return ventas;
+    }
+
+    @Test
+    public void archivar_pasaDiasAnterioresASegmentosYRecupera() throws Exception {
+        Path directorio = Files.createTempDirectory("archivo-ventas");
+        Path diario = Files.createTempFile("ventas", ".diario");
+        Path copia = Files.createTempFile("ventas", ".copia");
+        LocalDate hoy = LocalDate.now();
+        try {
+            HistorialVentas historial = new HistorialVentas();
+            historial.activarArchivo(directorio.toString(), 1);
+            historial.activarDiario(diario.toString());
+            List<Venta> nuevas = new ArrayList<>(ventas(hoy.minusDays(3), 600, 1));
+            nuevas.addAll(ventas(hoy.minusDays(2), 10, 2));
+            nuevas.addAll(ventas(hoy, 5, 3));
+            historial.agregarVentas(nuevas);
+            Files.copy(diario, copia, StandardCopyOption.REPLACE_EXISTING);
+
+            assertEquals(610, historial.archivar());
+            assertEquals(615, historial.getCantidadVentas());
+            assertEquals(5, historial.getCantidadVentasEnMemoria());
+            try (Stream<Path> archivos = Files.list(directorio)) {
+                assertEquals(2, archivos.count());
+            }
+
+            Pagina<Venta> pagina = historial.ventas(null, null, 30, 20);
+            assertEquals(615, pagina.getTotal());
+            assertEquals(15, pagina.getElementos().size());
+            assertEquals(hoy.minusDays(2).atStartOfDay(), pagina.getElementos().get(0).getFechaHora());
+            assertEquals(hoy.atStartOfDay(), pagina.getElementos().get(10).getFechaHora());
+
+            assertEquals(300, historial.buscarPorFormato("domicilio", hoy.minusDays(3).atStartOfDay(),
+                    hoy.minusDays(2).atStartOfDay()).size());
+            Rentabilidad total = new MotorRentabilidad(historial).total(YearMonth.from(hoy.minusDays(3)),
+                    YearMonth.from(hoy));
+            assertEquals(600 + 20 + 15, total.getUnidades());
+            historial.cerrarDiario();
+
+            // cierre después de escribir los segmentos y antes de reescribir el diario
+            Files.copy(copia, diario, StandardCopyOption.REPLACE_EXISTING);
+            HistorialVentas recuperado = new HistorialVentas();
+            recuperado.activarArchivo(directorio.toString(), 1);
+            recuperado.activarDiario(diario.toString());
+            assertEquals(615, recuperado.getCantidadVentas());
+            assertEquals(5, recuperado.getCantidadVentasEnMemoria());
+            assertEquals(615, recuperado.getEstadisticas().getTotal().getVentas());
+            recuperado.cerrarDiario();
+        } finally {
+            try (Stream<Path> archivos = Files.list(directorio)) {
+                archivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+            Files.delete(directorio);
+            Files.deleteIfExists(diario);
+            Files.deleteIfExists(copia);
+        }
+    }
+
+    @Test
+    public void activarDiario_noOmiteVentaIgualAUnaArchivada() throws Exception {
+        Path directorio = Files.createTempDirectory("archivo-ventas");
+        Path diario = Files.createTempFile("ventas", ".diario");
+        LocalDate ayer = LocalDate.now().minusDays(1);
+        try {
+            HistorialVentas historial = new HistorialVentas();
+            historial.activarArchivo(directorio.toString(), 1);
+            Venta archivada = ventas(ayer, 1, 2).get(0);
+            historial.agregarVenta(archivada);
+            assertEquals(1, historial.archivar());
+
+            // misma fecha, formato y líneas, registrada después de archivar; el cierre
+            // ocurrió antes de reescribir el diario, que aún tiene ambas
+            Venta repetida = ventas(ayer, 1, 2).get(0);
+            repetida.setNumero(archivada.getNumero() + 1);
+            try (DiarioVentas escrito = DiarioVentas.abrir(diario, v -> { })) {
+                escrito.agregar(archivada).join();
+                escrito.agregar(repetida).join();
+            }
+
+            HistorialVentas recuperado = new HistorialVentas();
+            recuperado.activarArchivo(directorio.toString(), 1);
+            recuperado.activarDiario(diario.toString());
+            assertEquals(2, recuperado.getCantidadVentas());
+            assertEquals(1, recuperado.getCantidadVentasEnMemoria());
+            Venta nueva = ventas(LocalDate.now(), 1, 1).get(0);
+            recuperado.agregarVenta(nueva);
+            assertEquals(repetida.getNumero() + 1, nueva.getNumero());
+            recuperado.cerrarDiario();
+        } finally {
+            try (Stream<Path> archivos = Files.list(directorio)) {
+                archivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+            Files.delete(directorio);
+            Files.deleteIfExists(diario);
+        }
+    }
+
+    @Test
+    public void ventasCliente_buscaEnSegmentosYEnMemoriaPorRango() throws Exception {
+        Path directorio = Files.createTempDirectory("archivo-ventas");
+        Path csv = Files.createTempFile("ventas", ".csv");
+        LocalDate hoy = LocalDate.now();
+        Cliente ana = new Cliente("Ana", "31-1", "999", "Calle 1");
+        Cliente beto = new Cliente("Beto", "32-2", "888", "Calle 2");
+        try {
+            HistorialVentas historial = new HistorialVentas();
+            historial.activarArchivo(directorio.toString(), 1);
+            List<Venta> nuevas = new ArrayList<>();
+            for (int d = 4; d >= 0; d--) {
+                LocalDateTime inicio = hoy.minusDays(d).atTime(9, 0);
+                for (int i = 0; i < 1000; i++) {
+                    Venta venta = new Venta("local", i % 10 == 0 ? ana : beto, inicio.plusSeconds(i));
+                    venta.agregarLinea(gas, 1, 0);
+                    nuevas.add(venta);
+                }
+            }
+            historial.agregarVentas(nuevas);
+            // venta atrasada: queda en su lugar por fecha
+            Venta atrasada = new Venta("domicilio", ana, hoy.atTime(8, 0));
+            atrasada.agregarLinea(gas, 2, 0);
+            historial.agregarVenta(atrasada);
+            historial.archivar();
+
+            LocalDateTime desde = hoy.minusDays(3).atTime(9, 10);
+            LocalDateTime hasta = hoy.atTime(9, 5);
+            Pagina<Venta> pagina = historial.ventasCliente("31-1", desde, hasta, 0, 50);
+            // día -3 desde las 9:10, días -2 y -1 completos, y hoy la atrasada más las de antes de las 9:05
+            int esperadas = 40 + 100 + 100 + 1 + 30;
+            assertEquals(esperadas, pagina.getTotal());
+            assertEquals(50, pagina.getElementos().size());
+            assertEquals(desde, pagina.getElementos().get(0).getFechaHora());
+            Venta ultima = historial.ventasCliente("31-1", desde, hasta, esperadas / 50, 50).getElementos()
+                    .get(esperadas % 50 - 1);
+            assertEquals(hoy.atTime(9, 4, 50), ultima.getFechaHora());
+
+            Pagina<Venta> memoria = historial.ventasCliente("31-1", hoy.atStartOfDay(), null, 0, 5);
+            assertSame(atrasada, memoria.getElementos().get(0));
+            assertEquals(101, memoria.getTotal());
+            assertEquals(900 * 5, historial.ventasCliente("32-2", null, null, 0, 10).getTotal());
+            assertEquals(0, historial.ventasCliente("99-9", null, null, 0, 10).getTotal());
+            assertEquals(5001, historial.ventas(null, null, 0, 10).getTotal());
+            assertEquals(600, historial.ventas(hoy.minusDays(1).atTime(9, 0), hoy.minusDays(1).atTime(9, 10), 0, 10)
+                    .getTotal());
+
+            historial.exportarCSV(csv.toString(), "31-1", desde, hasta);
+            assertEquals(1 + esperadas, Files.readAllLines(csv).size());
+        } finally {
+            try (Stream<Path> archivos = Files.list(directorio)) {
+                archivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+            Files.delete(directorio);
+            Files.deleteIfExists(csv);
+        }
+    }
+}
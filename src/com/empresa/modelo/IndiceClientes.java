@@ -0,0 +1,179 @@
+package com.empresa.modelo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índices secundarios de clientes mantenidos por {@link GestorClientes}:
+ * palabras del nombre (en un trie, para búsqueda exacta y por prefijo),
+ * palabras de la dirección y teléfono normalizado.
+ *
+ * Las palabras se normalizan con {@link TextoBusqueda}, de modo que
+ * "Peñalolén" y "penalolen" coinciden.
+ *
+ * No es seguro para uso concurrente; {@link GestorClientes} sincroniza el acceso.
+ *
+ * @author Ignacio
+ */
+final class IndiceClientes {
+
+    private final TriePrefijos<Cliente> nombres = new TriePrefijos<>();
+    private final Map<String, Set<Cliente>> direcciones = new HashMap<>();
+    private final Map<String, Set<Cliente>> telefonos = new HashMap<>();
+
+    void agregar(Cliente cliente) {
+        for (String palabra : TextoBusqueda.palabras(cliente.getNombre())) {
+            nombres.agregar(palabra, cliente);
+        }
+        for (String palabra : TextoBusqueda.palabras(cliente.getDireccion())) {
+            direcciones.computeIfAbsent(palabra, k -> new HashSet<>(2)).add(cliente);
+        }
+        String telefono = normalizarTelefono(cliente.getTelefono());
+        if (!telefono.isEmpty()) {
+            telefonos.computeIfAbsent(telefono, k -> new HashSet<>(2)).add(cliente);
+        }
+    }
+
+    void quitar(Cliente cliente) {
+        for (String palabra : TextoBusqueda.palabras(cliente.getNombre())) {
+            nombres.quitar(palabra, cliente);
+        }
+        for (String palabra : TextoBusqueda.palabras(cliente.getDireccion())) {
+            quitarDe(direcciones, palabra, cliente);
+        }
+        quitarDe(telefonos, normalizarTelefono(cliente.getTelefono()), cliente);
+    }
+
+    /**
+     * Clientes cuyo nombre contiene todas las palabras del texto.
+     */
+    List<Cliente> buscarPorNombre(String texto) {
+        List<Set<Cliente>> conjuntos = new ArrayList<>();
+        for (String palabra : TextoBusqueda.palabras(texto)) {
+            conjuntos.add(nombres.exacto(palabra));
+        }
+        return interseccion(conjuntos);
+    }
+
+    /**
+     * Clientes cuya dirección contiene todas las palabras del texto.
+     */
+    List<Cliente> buscarPorDireccion(String texto) {
+        List<Set<Cliente>> conjuntos = new ArrayList<>();
+        for (String palabra : TextoBusqueda.palabras(texto)) {
+            conjuntos.add(direcciones.getOrDefault(palabra, Collections.emptySet()));
+        }
+        return interseccion(conjuntos);
+    }
+
+    List<Cliente> buscarPorTelefono(String telefono) {
+        Set<Cliente> encontrados = telefonos.get(normalizarTelefono(telefono));
+        return encontrados != null ? new ArrayList<>(encontrados) : new ArrayList<>();
+    }
+
+    /**
+     * Búsqueda mientras se escribe: las palabras completas deben coincidir
+     * exactamente con el nombre y la última (si no termina en espacio) se trata
+     * como prefijo.
+     *
+     * @param texto Texto ingresado hasta ahora
+     * @param limite Máximo de resultados
+     */
+    List<Cliente> sugerir(String texto, int limite) {
+        List<String> palabras = TextoBusqueda.palabras(texto);
+        if (palabras.isEmpty() || limite <= 0) {
+            return new ArrayList<>();
+        }
+        boolean ultimaCompleta = Character.isWhitespace(texto.charAt(texto.length() - 1));
+        String prefijo = ultimaCompleta ? null : palabras.remove(palabras.size() - 1);
+
+        if (palabras.isEmpty()) {
+            Set<Cliente> resultado = new LinkedHashSet<>();
+            nombres.prefijo(prefijo, limite, resultado);
+            return new ArrayList<>(resultado);
+        }
+
+        List<Set<Cliente>> conjuntos = new ArrayList<>();
+        for (String palabra : palabras) {
+            conjuntos.add(nombres.exacto(palabra));
+        }
+        List<Cliente> resultado = new ArrayList<>();
+        for (Cliente c : interseccion(conjuntos)) {
+            if (prefijo == null || tienePalabraConPrefijo(c.getNombre(), prefijo)) {
+                resultado.add(c);
+                if (resultado.size() >= limite) {
+                    break;
+                }
+            }
+        }
+        return resultado;
+    }
+
+    private static boolean tienePalabraConPrefijo(String texto, String prefijo) {
+        for (String palabra : TextoBusqueda.palabras(texto)) {
+            if (palabra.startsWith(prefijo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Intersección de conjuntos recorriendo el más pequeño.
+     */
+    private static List<Cliente> interseccion(List<Set<Cliente>> conjuntos) {
+        List<Cliente> resultado = new ArrayList<>();
+        if (conjuntos.isEmpty()) {
+            return resultado;
+        }
+        Set<Cliente> menor = conjuntos.get(0);
+        for (Set<Cliente> conjunto : conjuntos) {
+            if (conjunto.size() < menor.size()) {
+                menor = conjunto;
+            }
+        }
+        candidatos:
+        for (Cliente c : menor) {
+            for (Set<Cliente> conjunto : conjuntos) {
+                if (conjunto != menor && !conjunto.contains(c)) {
+                    continue candidatos;
+                }
+            }
+            resultado.add(c);
+        }
+        return resultado;
+    }
+
+    private static void quitarDe(Map<String, Set<Cliente>> indice, String clave, Cliente cliente) {
+        Set<Cliente> conjunto = indice.get(clave);
+        if (conjunto != null && conjunto.remove(cliente) && conjunto.isEmpty()) {
+            indice.remove(clave);
+        }
+    }
+
+    /**
+     * Deja solo los dígitos del teléfono, sin el prefijo de país 56.
+     */
+    static String normalizarTelefono(String telefono) {
+        if (telefono == null) {
+            return "";
+        }
+        StringBuilder digitos = new StringBuilder(telefono.length());
+        for (int i = 0; i < telefono.length(); i++) {
+            char c = telefono.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos.append(c);
+            }
+        }
+        if (digitos.length() == 11 && digitos.charAt(0) == '5' && digitos.charAt(1) == '6') {
+            digitos.delete(0, 2);
+        }
+        return digitos.toString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.empresa.modelo;
+
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link IndiceClientes}.
+ */
+public class IndiceClientesTest {
+
+    private final Cliente ana = new Cliente("Ana María Peña", "11-1", "+56 9 1234 5678", "Av. Los Leones 120, Providencia");
+    private final Cliente juan = new Cliente("Juan Pérez", "22-2", "912345679", "Pasaje Las Rosas 45, Peñalolén");
+    private final Cliente juana = new Cliente("Juana Soto", "33-3", "", "Los Leones 900");
+
+    private IndiceClientes crearIndice() {
+        IndiceClientes indice = new IndiceClientes();
+        indice.agregar(ana);
+        indice.agregar(juan);
+        indice.agregar(juana);
+        return indice;
+    }
+
+    @Test
+    public void buscarPorNombre_ignoraTildesYMayusculas() {
+        IndiceClientes indice = crearIndice();
+        assertEquals(List.of(ana), indice.buscarPorNombre("maria PENA"));
+        assertTrue(indice.buscarPorNombre("ana pedro").isEmpty());
+    }
+
+    @Test
+    public void buscarPorDireccionYTelefono() {
+        IndiceClientes indice = crearIndice();
+        assertEquals(2, indice.buscarPorDireccion("los leones").size());
+        assertEquals(List.of(juan), indice.buscarPorDireccion("penalolen"));
+        assertEquals(List.of(ana), indice.buscarPorTelefono("912345678"));
+    }
+
+    @Test
+    public void sugerir_usaUltimaPalabraComoPrefijo() {
+        IndiceClientes indice = crearIndice();
+        assertEquals(2, indice.sugerir("jua", 10).size());
+        assertEquals(List.of(juan), indice.sugerir("juan p", 10));
+        assertEquals(List.of(juan), indice.sugerir("juan ", 10));
+        assertEquals(1, indice.sugerir("j", 1).size());
+    }
+
+    @Test
+    public void quitar_dejaIndicesConsistentes() {
+        IndiceClientes indice = crearIndice();
+        indice.quitar(juan);
+        assertTrue(indice.buscarPorNombre("perez").isEmpty());
+        assertTrue(indice.buscarPorTelefono("912345679").isEmpty());
+        assertEquals(List.of(juana), indice.sugerir("jua", 10));
+    }
+}
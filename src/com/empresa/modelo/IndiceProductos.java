@@ -0,0 +1,200 @@
+package com.empresa.modelo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de búsqueda de productos por nombre y tipo, basado en trigramas.
+ *
+ * Cada producto recibe un identificador correlativo y sus textos normalizados se
+ * guardan una sola vez. Para cada trigrama (secuencia de 3 letras) se mantiene la
+ * lista ordenada de productos que lo contienen; una consulta intersecta las listas
+ * de sus trigramas y solo verifica y ordena los candidatos resultantes.
+ *
+ * Orden de relevancia: nombre exacto, nombre que comienza con el texto, palabra
+ * del nombre que comienza con el texto, nombre que lo contiene y, por último,
+ * coincidencia en el tipo. A igual relevancia, primero los nombres más cortos.
+ *
+ * @author Ignacio
+ */
+final class IndiceProductos {
+
+    private static final int LARGO_GRAMA = 3;
+
+    private final List<Producto> productos = new ArrayList<>();
+    private final List<String> nombres = new ArrayList<>();
+    private final List<String> tipos = new ArrayList<>();
+    private final Map<String, ListaIds> gramas = new HashMap<>();
+    private final ReadWriteLock candado = new ReentrantReadWriteLock();
+
+    void agregar(Producto producto) {
+        candado.writeLock().lock();
+        try {
+            indexar(producto);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta el índice y lo arma de nuevo con los productos indicados, bajo un
+     * solo bloqueo de escritura.
+     */
+    void reconstruir(Collection<Producto> todos) {
+        candado.writeLock().lock();
+        try {
+            productos.clear();
+            nombres.clear();
+            tipos.clear();
+            gramas.clear();
+            for (Producto producto : todos) {
+                indexar(producto);
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    private void indexar(Producto producto) {
+        int id = productos.size();
+        String nombre = TextoBusqueda.normalizar(producto.getNombre());
+        String tipo = TextoBusqueda.normalizar(producto.getTipo());
+        productos.add(producto);
+        nombres.add(nombre);
+        tipos.add(tipo);
+        agregarGramas(nombre, id);
+        agregarGramas(tipo, id);
+    }
+
+    private void agregarGramas(String texto, int id) {
+        for (int i = 0; i + LARGO_GRAMA <= texto.length(); i++) {
+            gramas.computeIfAbsent(texto.substring(i, i + LARGO_GRAMA), k -> new ListaIds()).agregar(id);
+        }
+    }
+
+    /**
+     * Busca productos cuyo nombre o tipo contenga el criterio (sin importar
+     * mayúsculas ni tildes), ordenados por relevancia.
+     *
+     * @param criterio Texto a buscar
+     * @param pagina Número de página, desde 0
+     * @param tamano Cantidad de resultados por página
+     */
+    Pagina<Producto> buscar(String criterio, int pagina, int tamano) {
+        String texto = TextoBusqueda.normalizar(criterio.trim());
+        candado.readLock().lock();
+        try {
+            int[] candidatos = candidatos(texto);
+            long[] claves = new long[candidatos.length];
+            int coincidencias = 0;
+            for (int id : candidatos) {
+                int puntaje = puntaje(nombres.get(id), tipos.get(id), texto);
+                if (puntaje > 0) {
+                    // Menor clave = más relevante: (relevancia invertida, largo del nombre, id)
+                    long largo = Math.min(nombres.get(id).length(), 0xFFFF);
+                    claves[coincidencias++] = ((long) (10 - puntaje) << 48) | (largo << 24) | id;
+                }
+            }
+            Arrays.sort(claves, 0, coincidencias);
+
+            List<Producto> elementos = new ArrayList<>();
+            long inicio = (long) pagina * tamano;
+            for (long i = inicio; i < coincidencias && i < inicio + tamano; i++) {
+                elementos.add(productos.get((int) (claves[(int) i] & 0xFFFFFF)));
+            }
+            return new Pagina<>(elementos, coincidencias, pagina, tamano);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids que contienen todos los trigramas del texto. Textos de menos de tres
+     * letras no tienen trigramas y se verifican contra todos los productos.
+     */
+    private int[] candidatos(String texto) {
+        if (texto.length() < LARGO_GRAMA) {
+            int[] todos = new int[productos.size()];
+            Arrays.setAll(todos, i -> i);
+            return todos;
+        }
+
+        List<ListaIds> listas = new ArrayList<>();
+        for (int i = 0; i + LARGO_GRAMA <= texto.length(); i++) {
+            ListaIds lista = gramas.get(texto.substring(i, i + LARGO_GRAMA));
+            if (lista == null) {
+                return new int[0];
+            }
+            listas.add(lista);
+        }
+        listas.sort((a, b) -> Integer.compare(a.cantidad, b.cantidad));
+
+        int[] resultado = Arrays.copyOf(listas.get(0).ids, listas.get(0).cantidad);
+        int cantidad = resultado.length;
+        for (int l = 1; l < listas.size() && cantidad > 0; l++) {
+            cantidad = intersectar(resultado, cantidad, listas.get(l));
+        }
+        return Arrays.copyOf(resultado, cantidad);
+    }
+
+    /**
+     * Deja en {@code ids} solo los que también están en la lista (ambas ordenadas).
+     */
+    private static int intersectar(int[] ids, int cantidad, ListaIds lista) {
+        int escritos = 0;
+        int j = 0;
+        for (int i = 0; i < cantidad && j < lista.cantidad; i++) {
+            while (j < lista.cantidad && lista.ids[j] < ids[i]) {
+                j++;
+            }
+            if (j < lista.cantidad && lista.ids[j] == ids[i]) {
+                ids[escritos++] = ids[i];
+            }
+        }
+        return escritos;
+    }
+
+    private static int puntaje(String nombre, String tipo, String texto) {
+        if (nombre.equals(texto)) {
+            return 5;
+        }
+        if (nombre.startsWith(texto)) {
+            return 4;
+        }
+        int pos = nombre.indexOf(texto);
+        if (pos >= 0) {
+            while (pos >= 0) {
+                if (!Character.isLetterOrDigit(nombre.charAt(pos - 1))) {
+                    return 3;
+                }
+                pos = nombre.indexOf(texto, pos + 1);
+            }
+            return 2;
+        }
+        return tipo.contains(texto) ? 1 : 0;
+    }
+
+    /**
+     * Lista creciente de ids (ordenada, ya que los ids se asignan en orden).
+     */
+    private static final class ListaIds {
+        private int[] ids = new int[4];
+        private int cantidad;
+
+        private void agregar(int id) {
+            if (cantidad > 0 && ids[cantidad - 1] == id) {
+                return; // trigrama repetido en el mismo producto
+            }
+            if (cantidad == ids.length) {
+                ids = Arrays.copyOf(ids, cantidad * 2);
+            }
+            ids[cantidad++] = id;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.empresa.modelo;
+
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link IndiceProductos}.
+ */
+public class IndiceProductosTest {
+
+    private IndiceProductos crearIndice() {
+        IndiceProductos indice = new IndiceProductos();
+        indice.agregar(new Producto("Regulador gas", "accesorio", 5000, 500));
+        indice.agregar(new Producto("Gas 15kg", "gas", 25000, 3000));
+        indice.agregar(new Producto("Manguera", "accesorio", 3000, 300));
+        indice.agregar(new Producto("Gas", "gas", 25000, 3000));
+        indice.agregar(new Producto("Válvula Gas 45kg", "repuesto", 9000, 900));
+        return indice;
+    }
+
+    private static List<String> nombres(Pagina<Producto> pagina) {
+        return pagina.getElementos().stream().map(Producto::getNombre).toList();
+    }
+
+    @Test
+    public void buscar_ordenaPorRelevancia() {
+        Pagina<Producto> resultado = crearIndice().buscar("GAS", 0, 10);
+        assertEquals(List.of("Gas", "Gas 15kg", "Regulador gas", "Válvula Gas 45kg"), nombres(resultado));
+        assertEquals(4, resultado.getTotal());
+    }
+
+    @Test
+    public void buscar_coincideTipoYTextoSinTildes() {
+        IndiceProductos indice = crearIndice();
+        assertEquals(List.of("Manguera", "Regulador gas"), nombres(indice.buscar("accesorio", 0, 10)));
+        assertEquals(List.of("Válvula Gas 45kg"), nombres(indice.buscar("valvula", 0, 10)));
+        assertEquals(List.of("Válvula Gas 45kg"), nombres(indice.buscar("45", 0, 10)));
+        assertTrue(indice.buscar("gasolina", 0, 10).getElementos().isEmpty());
+    }
+
+    @Test
+    public void buscar_pagina() {
+        Pagina<Producto> segunda = crearIndice().buscar("gas", 1, 3);
+        assertEquals(List.of("Válvula Gas 45kg"), nombres(segunda));
+        assertEquals(2, segunda.getTotalPaginas());
+        assertFalse(segunda.haySiguiente());
+    }
+}
@@ -0,0 +1,97 @@
+package com.empresa.modelo;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Antigüedad de los saldos de clientes a una fecha: cuánto de lo adeudado tiene
+ * 0-30, 31-60, 61-90 y más de 90 días, por cliente y en total.
+ *
+ * @author Ignacio
+ */
+public final class InformeAntiguedad {
+
+    /** Días máximos de cada tramo salvo el último. */
+    static final int[] LIMITES = {30, 60, 90};
+
+    /** Nombre de cada tramo, en el orden de los montos. */
+    public static final List<String> TRAMOS = List.of("0-30", "31-60", "61-90", "Más de 90");
+
+    /**
+     * Saldo de un cliente separado por tramo.
+     */
+    public static final class Fila {
+        private final String rut;
+        private final long[] tramos;
+        private final long saldoAFavor;
+
+        Fila(String rut, long[] tramos, long saldoAFavor) {
+            this.rut = rut;
+            this.tramos = tramos;
+            this.saldoAFavor = saldoAFavor;
+        }
+
+        public String getRut() {
+            return rut;
+        }
+
+        public long getTramo(int tramo) {
+            return tramos[tramo];
+        }
+
+        /**
+         * Total adeudado (suma de los tramos).
+         */
+        public long getAdeudado() {
+            long total = 0;
+            for (long t : tramos) {
+                total += t;
+            }
+            return total;
+        }
+
+        public long getSaldoAFavor() {
+            return saldoAFavor;
+        }
+    }
+
+    private final LocalDate alDia;
+    private final List<Fila> filas;
+    private final long[] totales;
+    private final long totalAFavor;
+
+    InformeAntiguedad(LocalDate alDia, List<Fila> filas, long[] totales, long totalAFavor) {
+        this.alDia = alDia;
+        this.filas = Collections.unmodifiableList(filas);
+        this.totales = totales;
+        this.totalAFavor = totalAFavor;
+    }
+
+    public LocalDate getAlDia() {
+        return alDia;
+    }
+
+    /**
+     * Clientes con deuda o saldo a favor, de mayor a menor deuda.
+     */
+    public List<Fila> getFilas() {
+        return filas;
+    }
+
+    public long getTotalTramo(int tramo) {
+        return totales[tramo];
+    }
+
+    public long getTotalAdeudado() {
+        long total = 0;
+        for (long t : totales) {
+            total += t;
+        }
+        return total;
+    }
+
+    public long getTotalAFavor() {
+        return totalAFavor;
+    }
+}
@@ -1,8 +1,14 @@
 package com.empresa.modelo;
 
-import java.io.FileWriter;
+import com.empresa.exportacion.EscritorCSV;
+import com.empresa.persistencia.Repositorio;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Clase Singleton que representa el inventario de productos disponibles en la empresa.
@@ -10,54 +16,335 @@ import java.util.*;
  * registrar entradas asociadas a facturas y consultar historial.
  * 
  * Usa una estructura interna ProductoInventariado para asociar producto + stock.
- * También maneja un historial de entradas para trazabilidad.
+ * Las facturas de entrada quedan en el {@link LibroCompras} para trazabilidad, y
+ * cada ingreso y ajuste de stock en el {@link LibroMovimientos}.
+ *
+ * Es seguro para uso concurrente desde varias cajas o repartidores: el stock de
+ * cada producto se modifica con operaciones atómicas (CAS) sin bloqueo global, y
+ * las ventas pueden reservar stock, confirmarlo o liberarlo de forma atómica.
  * 
  * @author Ignacio
  */
 public class Inventario {
 
-    private static Inventario instancia = null;
+    private static final Inventario instancia = new Inventario(LibroCompras.getInstancia(),
+            LibroMovimientos.getInstancia());
     private final Map<String, ProductoInventariado> productos;
-    private final List<FacturaCompra> historialEntradas;
+    private final IndiceProductos indice;
+    private final LibroCompras compras;
+    private final LibroMovimientos movimientos;
+    private volatile Repositorio<ProductoInventariado> repositorio;
 
-    private Inventario() {
-        productos = new HashMap<>();
-        historialEntradas = new ArrayList<>();
+    /**
+     * Inventario independiente del singleton, que registra sus facturas y
+     * movimientos en los libros indicados (por ejemplo, en pruebas).
+     */
+    public Inventario(LibroCompras compras, LibroMovimientos movimientos) {
+        productos = new ConcurrentHashMap<>();
+        indice = new IndiceProductos();
+        this.compras = compras;
+        this.movimientos = movimientos;
     }
 
     public static Inventario getInstancia() {
-        if (instancia == null) {
-            instancia = new Inventario();
-        }
         return instancia;
     }
 
-    public void agregarProducto(String nombre, String tipo, double precioCompra, double comision, int cantidad) {
+    public void agregarProducto(String nombre, String tipo, long precioCompra, long comision, int cantidad) {
         if (cantidad <= 0) {
             System.out.println("La cantidad debe ser mayor a 0.");
             return;
         }
 
         String clave = nombre.toLowerCase();
-        if (productos.containsKey(clave)) {
-            productos.get(clave).aumentarStock(cantidad);
-        } else {
+        ProductoInventariado pi = productos.get(clave);
+        if (pi == null) {
             Producto p = new Producto(nombre, tipo, precioCompra, comision);
-            productos.put(clave, new ProductoInventariado(p, cantidad));
+            ProductoInventariado nuevo = new ProductoInventariado(p, 0);
+            pi = productos.putIfAbsent(clave, nuevo);
+            if (pi == null) {
+                pi = nuevo;
+                indice.agregar(p);
+            }
+        }
+
+        // El movimiento se registra primero: si falla su diario, el stock no cambia.
+        // Se guarda dentro del candado del producto para que quede en disco el último total.
+        synchronized (pi) {
+            movimientos.registrar(pi.getProducto().getNombre(), LocalDateTime.now(),
+                    MovimientoStock.Tipo.ENTRADA, cantidad);
+            pi.aumentarStock(cantidad);
+            Repositorio<ProductoInventariado> repo = repositorio;
+            if (repo != null) {
+                repo.guardar(pi);
+            }
+        }
+    }
+
+    /**
+     * Agrega o actualiza un lote de productos del catálogo sin indexarlos: al
+     * terminar de cargar todos los lotes se llama una vez a
+     * {@link #reconstruirIndice()}. Un producto existente toma el tipo, precio de
+     * compra y comisión del catálogo (las ventas ya hechas conservan los
+     * anteriores). Los cambios se guardan en el repositorio en una sola escritura.
+     *
+     * Los ingresos del lote se registran juntos en el diario de movimientos antes
+     * de aplicar nada; si eso falla, el lote no se aplica y sus productos nuevos
+     * no quedan en el inventario.
+     *
+     * @param lote Productos ya validados
+     * @param unidades Unidades que ingresan de cada producto (0 si solo cambia el precio)
+     * @return Cantidad de productos nuevos
+     * @throws java.io.UncheckedIOException si el diario no pudo registrar los ingresos
+     */
+    public int actualizarCatalogo(List<Producto> lote, int[] unidades) {
+        ProductoInventariado[] destino = new ProductoInventariado[lote.size()];
+        Map<String, ProductoInventariado> nuevos = new LinkedHashMap<>();
+        for (int i = 0; i < lote.size(); i++) {
+            Producto p = lote.get(i);
+            String clave = p.getNombre().toLowerCase();
+            ProductoInventariado pi = productos.get(clave);
+            if (pi == null) {
+                ProductoInventariado nuevo = new ProductoInventariado(p, 0);
+                pi = productos.putIfAbsent(clave, nuevo);
+                if (pi == null) {
+                    pi = nuevo;
+                    nuevos.put(clave, nuevo);
+                }
+            }
+            destino[i] = pi;
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        conCandados(destino, () -> {
+            List<MovimientoStock> entradas = new ArrayList<>();
+            for (int i = 0; i < destino.length; i++) {
+                if (unidades[i] > 0) {
+                    entradas.add(new MovimientoStock(destino[i].getProducto().getNombre(), ahora,
+                            MovimientoStock.Tipo.ENTRADA, unidades[i]));
+                }
+            }
+            try {
+                if (!entradas.isEmpty()) {
+                    movimientos.registrarTodos(entradas);
+                }
+            } catch (RuntimeException e) {
+                nuevos.forEach(productos::remove);
+                throw e;
+            }
+
+            Set<ProductoInventariado> modificados = new LinkedHashSet<>(nuevos.values());
+            for (int i = 0; i < destino.length; i++) {
+                ProductoInventariado pi = destino[i];
+                if (!mismosDatos(pi.getProducto(), lote.get(i))) {
+                    pi.reemplazarProducto(lote.get(i));
+                    modificados.add(pi);
+                }
+                if (unidades[i] > 0) {
+                    pi.aumentarStock(unidades[i]);
+                    modificados.add(pi);
+                }
+            }
+            Repositorio<ProductoInventariado> repo = repositorio;
+            if (repo != null && !modificados.isEmpty()) {
+                repo.guardarTodos(modificados);
+            }
+        });
+        return nuevos.size();
+    }
+
+    /**
+     * Ejecuta la acción con el candado de cada producto tomado, como
+     * {@link #agregarProducto} y {@link #ajustarStock} con uno solo. Los candados se
+     * toman en orden por nombre para que dos lotes concurrentes no se bloqueen
+     * mutuamente.
+     */
+    private static void conCandados(ProductoInventariado[] lote, Runnable accion) {
+        ProductoInventariado[] ordenados = Arrays.stream(lote).distinct()
+                .sorted(Comparator.comparing(pi -> pi.getProducto().getNombre().toLowerCase()))
+                .toArray(ProductoInventariado[]::new);
+        conCandados(ordenados, 0, accion);
+    }
+
+    private static void conCandados(ProductoInventariado[] ordenados, int desde, Runnable accion) {
+        if (desde == ordenados.length) {
+            accion.run();
+            return;
+        }
+        synchronized (ordenados[desde]) {
+            conCandados(ordenados, desde + 1, accion);
         }
     }
 
+    private static boolean mismosDatos(Producto a, Producto b) {
+        return a == b || (a.getNombre().equals(b.getNombre()) && a.getTipo().equals(b.getTipo())
+                && a.getPrecioCompraConIVA() == b.getPrecioCompraConIVA()
+                && a.getComisionPesos() == b.getComisionPesos());
+    }
+
+    /**
+     * Vuelve a indexar todos los productos para la búsqueda, con sus datos actuales.
+     */
+    public void reconstruirIndice() {
+        indice.reconstruir(listarProductos());
+    }
+
+    /**
+     * Corrige el stock de un producto (mermas, conteo físico) y lo registra como
+     * ajuste en el {@link LibroMovimientos}.
+     *
+     * @param diferencia Unidades a sumar (positivas) o restar (negativas)
+     * @return false si el producto no existe o no hay stock disponible para restar
+     */
+    public boolean ajustarStock(String nombre, int diferencia) {
+        ProductoInventariado pi = productos.get(nombre.toLowerCase());
+        if (pi == null || diferencia == 0) {
+            return false;
+        }
+        synchronized (pi) {
+            if (!pi.ajustar(diferencia)) {
+                return false;
+            }
+            try {
+                movimientos.registrar(pi.getProducto().getNombre(), LocalDateTime.now(),
+                        MovimientoStock.Tipo.AJUSTE, diferencia);
+            } catch (UncheckedIOException e) {
+                pi.ajustar(-diferencia);
+                throw e;
+            }
+            Repositorio<ProductoInventariado> repo = repositorio;
+            if (repo != null) {
+                repo.guardar(pi);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registra como stock inicial las unidades ingresadas que no figuran en el
+     * {@link LibroMovimientos} (productos cargados antes de llevar el libro), para
+     * que el stock a una fecha cuadre con el actual. Llamar con el diario de
+     * movimientos ya activo y antes de reproducir el diario de ventas.
+     */
+    public void conciliarMovimientos() {
+        for (ProductoInventariado pi : productos.values()) {
+            String nombre = pi.getProducto().getNombre();
+            int faltante = pi.getUnidadesIngresadas() - movimientos.getUnidadesNoVenta(nombre);
+            if (faltante != 0) {
+                movimientos.registrar(nombre, MovimientoStock.INICIO, MovimientoStock.Tipo.INICIAL, faltante);
+            }
+        }
+    }
+
+    /**
+     * Carga los productos guardados en el repositorio y guarda ahí cada ingreso
+     * de stock siguiente. Los productos que ya estaban en memoria y no en el
+     * repositorio se agregan a él.
+     *
+     * Llamar antes de activar el diario de ventas, que descuenta lo vendido.
+     */
+    public void usarRepositorio(Repositorio<ProductoInventariado> repo) {
+        List<ProductoInventariado> soloEnMemoria = new ArrayList<>(productos.values());
+        repo.paraCada(pi -> {
+            String clave = pi.getProducto().getNombre().toLowerCase();
+            if (productos.putIfAbsent(clave, pi) == null) {
+                indice.agregar(pi.getProducto());
+            }
+        });
+        soloEnMemoria.removeIf(pi -> repo.existe(pi.getProducto().getNombre().toLowerCase()));
+        repo.guardarTodos(soloEnMemoria);
+        repositorio = repo;
+    }
+
     public boolean reducirStock(String nombre, int cantidad) {
         if (cantidad <= 0) {
             System.out.println("La cantidad debe ser mayor a 0.");
             return false;
         }
 
-        String clave = nombre.toLowerCase();
-        if (productos.containsKey(clave)) {
-            return productos.get(clave).reducirStock(cantidad);
+        ProductoInventariado pi = productos.get(nombre.toLowerCase());
+        return pi != null && pi.reducirStock(cantidad);
+    }
+
+    /**
+     * Reserva stock de un producto de forma atómica. El stock reservado deja de
+     * estar disponible para otras ventas hasta que se confirme o libere.
+     *
+     * @param nombre Nombre del producto
+     * @param cantidad Unidades a reservar
+     * @return true si había stock suficiente y quedó reservado
+     */
+    public boolean reservarStock(String nombre, int cantidad) {
+        if (cantidad <= 0) {
+            System.out.println("La cantidad debe ser mayor a 0.");
+            return false;
         }
-        return false;
+
+        ProductoInventariado pi = productos.get(nombre.toLowerCase());
+        return pi != null && pi.reservar(cantidad);
+    }
+
+    /**
+     * Confirma una reserva previa: las unidades salen definitivamente del inventario.
+     *
+     * @throws IllegalStateException si no existe una reserva por esa cantidad
+     */
+    public void confirmarReserva(String nombre, int cantidad) {
+        obtenerConReserva(nombre).confirmar(cantidad);
+    }
+
+    /**
+     * Libera una reserva previa devolviendo las unidades al stock disponible.
+     *
+     * @throws IllegalStateException si no existe una reserva por esa cantidad
+     */
+    public void liberarReserva(String nombre, int cantidad) {
+        obtenerConReserva(nombre).liberar(cantidad);
+    }
+
+    /**
+     * Descuenta el stock de todas las líneas de una venta, o de ninguna: reserva
+     * producto por producto y confirma solo si alcanzó para todos.
+     *
+     * @return Nombre del primer producto sin stock suficiente, o null si se descontó todo
+     */
+    public String descontarVenta(Venta venta) {
+        Map<String, Integer> porProducto = new LinkedHashMap<>();
+        for (int i = 0; i < venta.getCantidadLineas(); i++) {
+            porProducto.merge(venta.getProductoLinea(i).getNombre(), venta.getCantidadLinea(i), Integer::sum);
+        }
+
+        Map<String, Integer> reservas = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> linea : porProducto.entrySet()) {
+            if (!reservarStock(linea.getKey(), linea.getValue())) {
+                reservas.forEach(this::liberarReserva);
+                return linea.getKey();
+            }
+            reservas.put(linea.getKey(), linea.getValue());
+        }
+        reservas.forEach(this::confirmarReserva);
+        return null;
+    }
+
+    /**
+     * Devuelve al stock disponible las unidades de una venta ya descontada que no
+     * se alcanzó a registrar (por ejemplo, si falló el diario de ventas).
+     */
+    public void devolverVenta(Venta venta) {
+        for (int i = 0; i < venta.getCantidadLineas(); i++) {
+            ProductoInventariado pi = productos.get(venta.getProductoLinea(i).getNombre().toLowerCase());
+            if (pi != null) {
+                pi.devolver(venta.getCantidadLinea(i));
+            }
+        }
+    }
+
+    private ProductoInventariado obtenerConReserva(String nombre) {
+        ProductoInventariado pi = productos.get(nombre.toLowerCase());
+        if (pi == null) {
+            throw new IllegalStateException("No hay reservas para el producto: " + nombre);
+        }
+        return pi;
     }
 
     public boolean tieneStockDisponible(String nombre, int cantidad) {
@@ -65,11 +352,30 @@ public class Inventario {
         return pi != null && pi.getStock() >= cantidad;
     }
 
+    /**
+     * Retorna el stock disponible (no reservado) de un producto, o 0 si no existe.
+     */
+    public int getStock(String nombre) {
+        ProductoInventariado pi = productos.get(nombre.toLowerCase());
+        return (pi != null) ? pi.getStock() : 0;
+    }
+
     public Producto getProducto(String nombre) {
         ProductoInventariado pi = productos.get(nombre.toLowerCase());
         return (pi != null) ? pi.getProducto() : null;
     }
 
+    /**
+     * Productos del inventario, sin orden particular.
+     */
+    public List<Producto> listarProductos() {
+        List<Producto> lista = new ArrayList<>(productos.size());
+        for (ProductoInventariado pi : productos.values()) {
+            lista.add(pi.getProducto());
+        }
+        return lista;
+    }
+
     public void mostrarInventarioCompleto() {
         if (productos.isEmpty()) {
             System.out.println("El inventario está vacío.");
@@ -79,85 +385,178 @@ public class Inventario {
         System.out.println("\n======= INVENTARIO ACTUAL =======");
         for (ProductoInventariado pi : productos.values()) {
             Producto p = pi.getProducto();
-            System.out.printf("Producto: %-15s | Tipo: %-10s | Stock: %3d | Venta: $%.0f\n",
-                    p.getNombre(), p.getTipo(), pi.getStock(), p.getPrecioVentaFinal());
+            System.out.printf("Producto: %-15s | Tipo: %-10s | Stock: %3d | Venta: %s\n",
+                    p.getNombre(), p.getTipo(), pi.getStock(), Pesos.formatear(p.getPrecioVentaFinal()));
         }
     }
 
+    /**
+     * Busca productos cuyo nombre o tipo contenga el criterio, usando el índice
+     * de trigramas. Los resultados vienen ordenados por relevancia y paginados.
+     *
+     * @param criterio Texto a buscar (sin importar mayúsculas ni tildes)
+     * @param pagina Número de página, desde 0
+     * @param tamanoPagina Cantidad de productos por página
+     */
+    public Pagina<Producto> buscarProductos(String criterio, int pagina, int tamanoPagina) {
+        return indice.buscar(criterio, pagina, tamanoPagina);
+    }
+
     public void buscarProducto(String criterio) {
-        criterio = criterio.toLowerCase();
-        boolean encontrado = false;
+        Pagina<Producto> resultados = buscarProductos(criterio, 0, Integer.MAX_VALUE);
 
         System.out.println("\n--- Resultados de búsqueda ---");
-        for (ProductoInventariado pi : productos.values()) {
-            Producto p = pi.getProducto();
-            if (p.getNombre().toLowerCase().contains(criterio) || p.getTipo().toLowerCase().contains(criterio)) {
-                System.out.printf("Producto: %-15s | Tipo: %-10s | Stock: %3d | Venta: $%.0f\n",
-                        p.getNombre(), p.getTipo(), pi.getStock(), p.getPrecioVentaFinal());
-                encontrado = true;
-            }
+        for (Producto p : resultados.getElementos()) {
+            System.out.printf("Producto: %-15s | Tipo: %-10s | Stock: %3d | Venta: %s\n",
+                    p.getNombre(), p.getTipo(), getStock(p.getNombre()), Pesos.formatear(p.getPrecioVentaFinal()));
         }
 
-        if (!encontrado) {
+        if (resultados.getTotal() == 0) {
             System.out.println("No se encontraron productos con ese criterio.");
         }
     }
 
+    /**
+     * Exporta el inventario a CSV en streaming. Si la ruta termina en ".gz" se comprime con gzip.
+     */
     public void exportarCSV(String ruta) {
-        try (FileWriter writer = new FileWriter(ruta)) {
-            writer.write("Nombre,Tipo,PrecioCompra,Stock\n");
-            for (ProductoInventariado pi : productos.values()) {
-                Producto p = pi.getProducto();
-                writer.write(String.format("%s,%s,%.0f,%d\n",
-                        p.getNombre(), p.getTipo(), p.getPrecioCompraConIVA(), pi.getStock()));
-            }
+        try (EscritorCSV csv = EscritorCSV.abrir(Path.of(ruta), ruta.endsWith(".gz"))) {
+            exportarCSV(csv);
             System.out.println("Inventario exportado exitosamente a: " + ruta);
         } catch (IOException e) {
             System.out.println("Error al exportar CSV: " + e.getMessage());
         }
     }
 
-    public void registrarEntradaConFactura(FacturaCompra factura) {
-        for (FacturaCompra.IngresoInventario ingreso : factura.getProductosIngresados()) {
-            Producto p = ingreso.getProducto();
-            agregarProducto(p.getNombre(), p.getTipo(), p.getPrecioCompraConIVA(), p.getComisionPesos(), ingreso.getCantidad());
+    /**
+     * Escribe el inventario en el escritor indicado, sin cerrarlo.
+     */
+    public void exportarCSV(EscritorCSV csv) throws IOException {
+        csv.encabezado("Nombre", "Tipo", "PrecioCompra", "Stock");
+        for (ProductoInventariado pi : productos.values()) {
+            Producto p = pi.getProducto();
+            csv.campo(p.getNombre());
+            csv.campo(p.getTipo());
+            csv.campo(p.getPrecioCompraConIVA());
+            csv.campo(pi.getStock());
+            csv.finLinea();
         }
-        historialEntradas.add(factura);
     }
 
-    public void mostrarHistorialPorFactura(String numero) {
-        for (FacturaCompra f : historialEntradas) {
-            if (f.getNumeroFactura().equalsIgnoreCase(numero)) {
-                f.mostrarDetalle();
-                return;
-            }
-        }
-        System.out.println("Factura no encontrada.");
+    /**
+     * Registra la factura en el {@link LibroCompras} y suma sus productos al inventario.
+     *
+     * @return false si ya existía una factura con ese número (no se suma nada)
+     */
+    public boolean registrarEntradaConFactura(FacturaCompra factura) {
+        return !registrarEntradasConFacturas(List.of(factura)).isEmpty();
     }
 
-    public void mostrarHistorialPorProducto(String nombreProducto) {
-        boolean encontrado = false;
-        for (FacturaCompra factura : historialEntradas) {
+    /**
+     * Registra un lote de facturas en el {@link LibroCompras} (una sola escritura;
+     * se omiten las de número ya registrado o repetido) y suma al inventario los
+     * productos de las registradas. Las unidades se agrupan por producto; sus
+     * entradas se guardan en el diario de movimientos en una sola escritura y los
+     * cambios de stock en el repositorio en otra.
+     *
+     * Si el diario de movimientos falla, las facturas se anulan y el stock no
+     * cambia, así que el lote puede volver a importarse.
+     *
+     * @return Las facturas registradas
+     * @throws UncheckedIOException si no se pudieron guardar las entradas
+     */
+    public List<FacturaCompra> registrarEntradasConFacturas(List<FacturaCompra> facturas) {
+        List<FacturaCompra> registradas = compras.registrarFacturas(facturas);
+        Map<ProductoInventariado, Integer> ingresos = new LinkedHashMap<>();
+        for (FacturaCompra factura : registradas) {
             for (FacturaCompra.IngresoInventario ingreso : factura.getProductosIngresados()) {
-                if (ingreso.getProducto().getNombre().equalsIgnoreCase(nombreProducto)) {
-                    System.out.printf("Factura: %s | Fecha: %s | Cantidad: %d\n",
-                            factura.getNumeroFactura(), factura.getFecha(), ingreso.getCantidad());
-                    encontrado = true;
+                if (ingreso.getCantidad() > 0) {
+                    ingresos.merge(obtenerOCrear(ingreso.getProducto()), ingreso.getCantidad(), Integer::sum);
                 }
             }
         }
-        if (!encontrado) {
+
+        LocalDateTime ahora = LocalDateTime.now();
+        conCandados(ingresos.keySet().toArray(new ProductoInventariado[0]), () -> {
+            List<MovimientoStock> entradas = new ArrayList<>(ingresos.size());
+            ingresos.forEach((pi, cantidad) -> entradas.add(new MovimientoStock(pi.getProducto().getNombre(), ahora,
+                    MovimientoStock.Tipo.ENTRADA, cantidad)));
+            try {
+                movimientos.registrarTodos(entradas);
+            } catch (RuntimeException e) {
+                compras.anularFacturas(registradas);
+                throw e;
+            }
+            ingresos.forEach((pi, cantidad) -> pi.aumentarStock(cantidad));
+            Repositorio<ProductoInventariado> repo = repositorio;
+            if (repo != null && !ingresos.isEmpty()) {
+                repo.guardarTodos(ingresos.keySet());
+            }
+        });
+        return registradas;
+    }
+
+    /**
+     * Producto del inventario con el nombre de {@code p}; si no existe se agrega,
+     * sin stock, con los datos de {@code p}.
+     */
+    private ProductoInventariado obtenerOCrear(Producto p) {
+        String clave = p.getNombre().toLowerCase();
+        ProductoInventariado pi = productos.get(clave);
+        if (pi == null) {
+            ProductoInventariado nuevo = new ProductoInventariado(
+                    new Producto(p.getNombre(), p.getTipo(), p.getPrecioCompraConIVA(), p.getComisionPesos()), 0);
+            pi = productos.putIfAbsent(clave, nuevo);
+            if (pi == null) {
+                pi = nuevo;
+                indice.agregar(nuevo.getProducto());
+            }
+        }
+        return pi;
+    }
+
+    public void mostrarHistorialPorFactura(String numero) {
+        FacturaCompra factura = compras.buscarFactura(numero);
+        if (factura != null) {
+            factura.mostrarDetalle();
+        } else {
+            System.out.println("Factura no encontrada.");
+        }
+    }
+
+    public void mostrarHistorialPorProducto(String nombreProducto) {
+        List<EntradaCompra> entradas = compras.entradasPorProducto(nombreProducto);
+        for (EntradaCompra entrada : entradas) {
+            System.out.printf("Factura: %s | Fecha: %s | Cantidad: %d\n",
+                    entrada.getNumeroFactura(), entrada.getFecha(), entrada.getCantidad());
+        }
+        if (entradas.isEmpty()) {
             System.out.println("No se encontraron entradas para ese producto.");
         }
     }
 
-    private static class ProductoInventariado {
-        private final Producto producto;
-        private int stock;
+    /**
+     * Producto + stock. El stock disponible y el reservado son contadores atómicos
+     * independientes por producto, de modo que ventas de productos distintos no
+     * compiten entre sí.
+     *
+     * También cuenta las unidades ingresadas en total, que es lo que se guarda en el
+     * repositorio: al iniciar, el stock se obtiene descontando las ventas del diario.
+     */
+    public static class ProductoInventariado {
+        private volatile Producto producto;
+        private final AtomicInteger stock;
+        private final AtomicInteger reservado;
+        private final AtomicInteger unidadesIngresadas;
 
+        /**
+         * @param stockInicial Unidades ingresadas hasta ahora (quedan como stock disponible)
+         */
         public ProductoInventariado(Producto producto, int stockInicial) {
             this.producto = producto;
-            this.stock = stockInicial;
+            this.stock = new AtomicInteger(stockInicial);
+            this.reservado = new AtomicInteger();
+            this.unidadesIngresadas = new AtomicInteger(stockInicial);
         }
 
         public Producto getProducto() {
@@ -165,19 +564,82 @@ public class Inventario {
         }
 
         public int getStock() {
-            return stock;
+            return stock.get();
+        }
+
+        /**
+         * Cambia los datos del producto conservando su stock. Se reemplaza la
+         * instancia en vez de modificarla para no alterar las ventas que la usan.
+         */
+        void reemplazarProducto(Producto nuevo) {
+            producto = nuevo;
         }
 
-        public void aumentarStock(int cantidad) {
-            stock += cantidad;
+        public int getUnidadesIngresadas() {
+            return unidadesIngresadas.get();
         }
 
-        public boolean reducirStock(int cantidad) {
-            if (cantidad <= stock) {
-                stock -= cantidad;
-                return true;
+        void aumentarStock(int cantidad) {
+            unidadesIngresadas.addAndGet(cantidad);
+            stock.addAndGet(cantidad);
+        }
+
+        /**
+         * Suma o resta unidades al stock disponible y a las ingresadas, de modo que el
+         * ajuste se conserva al reiniciar.
+         */
+        boolean ajustar(int diferencia) {
+            if (diferencia < 0 && !descontar(stock, -diferencia)) {
+                return false;
             }
-            return false;
+            if (diferencia > 0) {
+                stock.addAndGet(diferencia);
+            }
+            unidadesIngresadas.addAndGet(diferencia);
+            return true;
+        }
+
+        boolean reducirStock(int cantidad) {
+            return descontar(stock, cantidad);
+        }
+
+        void devolver(int cantidad) {
+            stock.addAndGet(cantidad);
+        }
+
+        boolean reservar(int cantidad) {
+            if (!descontar(stock, cantidad)) {
+                return false;
+            }
+            reservado.addAndGet(cantidad);
+            return true;
+        }
+
+        void confirmar(int cantidad) {
+            if (!descontar(reservado, cantidad)) {
+                throw new IllegalStateException("Reserva insuficiente para " + producto.getNombre());
+            }
+        }
+
+        void liberar(int cantidad) {
+            if (!descontar(reservado, cantidad)) {
+                throw new IllegalStateException("Reserva insuficiente para " + producto.getNombre());
+            }
+            stock.addAndGet(cantidad);
+        }
+
+        /**
+         * Resta cantidad del contador solo si no queda negativo (compare-and-set).
+         */
+        private static boolean descontar(AtomicInteger contador, int cantidad) {
+            int actual;
+            do {
+                actual = contador.get();
+                if (actual < cantidad) {
+                    return false;
+                }
+            } while (!contador.compareAndSet(actual, actual - cantidad));
+            return true;
         }
     }
 }
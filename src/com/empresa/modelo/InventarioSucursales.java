@@ -0,0 +1,457 @@
+package com.empresa.modelo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Stock por sucursal y producto, replicable entre procesos (por ejemplo el local
+ * y el depósito de reparto, cada uno con su propia JVM).
+ *
+ * Cada proceso es un nodo con un nombre y es dueño de una o más sucursales. El
+ * stock de cada sucursal y producto es un {@link ContadorPN}: cualquier nodo puede
+ * registrar ingresos en cualquier sucursal, pero solo el dueño descuenta ventas o
+ * despacha transferencias desde ella. Así nunca se vende más de lo que hay, aunque
+ * las réplicas se sincronicen con retraso: las sumas de otros nodos solo agregan.
+ *
+ * Los totales propios del nodo en cada contador (y los números de sus
+ * transferencias) se registran con un identificador de réplica nuevo en cada
+ * arranque ({@link #getReplica()}), ya que el estado no se guarda en disco: si se
+ * reusara el nombre del nodo, sus totales partirían de cero y al fusionar con los
+ * de antes del reinicio el máximo ocultaría los cambios nuevos. Las réplicas
+ * anteriores siguen contando con lo que tengan los demás nodos.
+ *
+ * Cada cambio recibe una versión local creciente; {@link #cambiosDesde} entrega
+ * solo lo modificado desde una versión dada, y {@link #fusionar} aplica lo recibido
+ * de otro nodo. Fusionar es idempotente y conmutativo, de modo que la replicación
+ * puede ser asíncrona, repetir envíos o reconectarse enviando todo de nuevo.
+ *
+ * @author Ignacio
+ */
+public class InventarioSucursales {
+
+    private static final String SEPARADOR = "\u0000";
+
+    private final String nodo;
+    private final String replica;
+    private final Set<String> sucursalesPropias;
+    private final Map<String, StockSucursal> stock;
+    private final Map<String, RegistroTransferencia> transferencias;
+    private final AtomicLong reloj;
+    private final AtomicLong secuencia;
+    /** Lectura: cambios (concurrentes entre sí). Escritura: tomar una foto consistente de los cambios. */
+    private final ReadWriteLock candado;
+    private volatile Runnable alCambiar;
+
+    /**
+     * @param nodo Nombre único de este proceso
+     * @param sucursalesPropias Sucursales que administra este nodo
+     */
+    public InventarioSucursales(String nodo, String... sucursalesPropias) {
+        this.nodo = nodo;
+        this.replica = nodo + "#" + UUID.randomUUID().toString().substring(0, 8);
+        this.sucursalesPropias = new HashSet<>();
+        for (String s : sucursalesPropias) {
+            this.sucursalesPropias.add(s.toLowerCase());
+        }
+        this.stock = new ConcurrentHashMap<>();
+        this.transferencias = new ConcurrentHashMap<>();
+        this.reloj = new AtomicLong();
+        this.secuencia = new AtomicLong();
+        this.candado = new ReentrantReadWriteLock();
+    }
+
+    public String getNodo() {
+        return nodo;
+    }
+
+    /**
+     * Identificador con que este arranque del nodo registra sus cambios.
+     */
+    public String getReplica() {
+        return replica;
+    }
+
+    /**
+     * Sucursales que administra este nodo, en minúsculas.
+     */
+    public Set<String> getSucursalesPropias() {
+        return Collections.unmodifiableSet(sucursalesPropias);
+    }
+
+    public boolean esPropia(String sucursal) {
+        return sucursalesPropias.contains(sucursal.toLowerCase());
+    }
+
+    /**
+     * Se ejecuta después de cada cambio local o fusión que modificó algo (por
+     * ejemplo, para que el replicador envíe de inmediato).
+     */
+    public void setAlCambiar(Runnable alCambiar) {
+        this.alCambiar = alCambiar;
+    }
+
+    // ======================== STOCK ========================
+
+    /**
+     * Suma unidades al stock de una sucursal (cualquier nodo puede hacerlo).
+     */
+    public void ingresar(String sucursal, String producto, int cantidad) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor a 0.");
+        }
+        candado.readLock().lock();
+        try {
+            StockSucursal s = stock(sucursal, producto);
+            synchronized (s) {
+                s.contador.incrementar(replica, cantidad);
+                s.version = reloj.incrementAndGet();
+            }
+        } finally {
+            candado.readLock().unlock();
+        }
+        avisar();
+    }
+
+    /**
+     * Descuenta unidades (una venta) de una sucursal propia.
+     *
+     * @return false si no hay stock suficiente
+     * @throws IllegalStateException si la sucursal es de otro nodo
+     */
+    public boolean descontar(String sucursal, String producto, int cantidad) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor a 0.");
+        }
+        exigirPropia(sucursal);
+        candado.readLock().lock();
+        try {
+            if (!descontarSinAviso(sucursal, producto, cantidad)) {
+                return false;
+            }
+        } finally {
+            candado.readLock().unlock();
+        }
+        avisar();
+        return true;
+    }
+
+    private boolean descontarSinAviso(String sucursal, String producto, int cantidad) {
+        StockSucursal s = stock(sucursal, producto);
+        synchronized (s) {
+            if (s.contador.valor() < cantidad) {
+                return false;
+            }
+            s.contador.decrementar(replica, cantidad);
+            s.version = reloj.incrementAndGet();
+            return true;
+        }
+    }
+
+    public long getStock(String sucursal, String producto) {
+        StockSucursal s = stock.get(clave(sucursal, producto));
+        return s != null ? s.contador.valor() : 0;
+    }
+
+    /**
+     * Stock del producto sumando todas las sucursales (sin lo que está en tránsito).
+     */
+    public long getStockTotal(String producto) {
+        long total = 0;
+        for (StockSucursal s : stock.values()) {
+            if (s.producto.equalsIgnoreCase(producto)) {
+                total += s.contador.valor();
+            }
+        }
+        return total;
+    }
+
+    // ======================== TRANSFERENCIAS ========================
+
+    /**
+     * Crea una orden de transferencia desde una sucursal propia: las unidades salen
+     * del origen de inmediato y quedan en tránsito hasta que el destino las reciba.
+     *
+     * @return La orden creada, o null si no hay stock suficiente en el origen
+     */
+    public OrdenTransferencia transferir(String origen, String destino, String producto, int cantidad) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor a 0.");
+        }
+        if (origen.equalsIgnoreCase(destino)) {
+            throw new IllegalArgumentException("El origen y el destino deben ser distintos.");
+        }
+        exigirPropia(origen);
+        OrdenTransferencia orden;
+        candado.readLock().lock();
+        try {
+            if (!descontarSinAviso(origen, producto, cantidad)) {
+                return null;
+            }
+            orden = new OrdenTransferencia(replica + "-" + secuencia.incrementAndGet(), origen, destino, producto,
+                    cantidad, LocalDateTime.now(), OrdenTransferencia.Estado.EN_TRANSITO);
+            RegistroTransferencia r = new RegistroTransferencia(orden);
+            r.version = reloj.incrementAndGet();
+            transferencias.put(orden.getId(), r);
+        } finally {
+            candado.readLock().unlock();
+        }
+        avisar();
+        return orden;
+    }
+
+    /**
+     * Recibe en una sucursal propia una transferencia en tránsito y suma sus unidades.
+     *
+     * @return false si la orden no existe (aún no llega la réplica) o ya fue recibida
+     * @throws IllegalStateException si el destino es de otro nodo
+     */
+    public boolean recibirTransferencia(String id) {
+        RegistroTransferencia r = transferencias.get(id);
+        if (r == null) {
+            return false;
+        }
+        exigirPropia(r.orden.getDestino());
+        candado.readLock().lock();
+        try {
+            synchronized (r) {
+                if (r.orden.getEstado() != OrdenTransferencia.Estado.EN_TRANSITO) {
+                    return false;
+                }
+                OrdenTransferencia orden = r.orden;
+                StockSucursal s = stock(orden.getDestino(), orden.getProducto());
+                synchronized (s) {
+                    s.contador.incrementar(replica, orden.getCantidad());
+                    s.version = reloj.incrementAndGet();
+                }
+                r.orden = orden.conEstado(OrdenTransferencia.Estado.RECIBIDA);
+                r.version = reloj.incrementAndGet();
+            }
+        } finally {
+            candado.readLock().unlock();
+        }
+        avisar();
+        return true;
+    }
+
+    /**
+     * Transferencias en tránsito hacia la sucursal indicada, por fecha.
+     */
+    public List<OrdenTransferencia> transferenciasPendientes(String destino) {
+        List<OrdenTransferencia> pendientes = new ArrayList<>();
+        for (RegistroTransferencia r : transferencias.values()) {
+            OrdenTransferencia o = r.orden;
+            if (o.getEstado() == OrdenTransferencia.Estado.EN_TRANSITO && o.getDestino().equalsIgnoreCase(destino)) {
+                pendientes.add(o);
+            }
+        }
+        pendientes.sort((a, b) -> a.getFecha().compareTo(b.getFecha()));
+        return pendientes;
+    }
+
+    public OrdenTransferencia buscarTransferencia(String id) {
+        RegistroTransferencia r = transferencias.get(id);
+        return r != null ? r.orden : null;
+    }
+
+    // ======================== REPLICACIÓN ========================
+
+    /**
+     * Totales de un nodo en el contador de una sucursal y producto.
+     */
+    public static final class EntradaContador {
+        private final String sucursal;
+        private final String producto;
+        private final String nodo;
+        private final long positivos;
+        private final long negativos;
+
+        public EntradaContador(String sucursal, String producto, String nodo, long positivos, long negativos) {
+            this.sucursal = sucursal;
+            this.producto = producto;
+            this.nodo = nodo;
+            this.positivos = positivos;
+            this.negativos = negativos;
+        }
+
+        public String getSucursal() {
+            return sucursal;
+        }
+
+        public String getProducto() {
+            return producto;
+        }
+
+        public String getNodo() {
+            return nodo;
+        }
+
+        public long getPositivos() {
+            return positivos;
+        }
+
+        public long getNegativos() {
+            return negativos;
+        }
+    }
+
+    /**
+     * Cambios de un nodo entre dos versiones, listos para enviar a otro nodo.
+     */
+    public static final class Delta {
+        private final long hasta;
+        private final List<EntradaContador> contadores;
+        private final List<OrdenTransferencia> transferencias;
+
+        public Delta(long hasta, List<EntradaContador> contadores, List<OrdenTransferencia> transferencias) {
+            this.hasta = hasta;
+            this.contadores = contadores;
+            this.transferencias = transferencias;
+        }
+
+        /**
+         * Versión hasta la que llegan los cambios; la siguiente consulta parte de aquí.
+         */
+        public long getHasta() {
+            return hasta;
+        }
+
+        public List<EntradaContador> getContadores() {
+            return Collections.unmodifiableList(contadores);
+        }
+
+        public List<OrdenTransferencia> getTransferencias() {
+            return Collections.unmodifiableList(transferencias);
+        }
+
+        public boolean estaVacio() {
+            return contadores.isEmpty() && transferencias.isEmpty();
+        }
+    }
+
+    /**
+     * Estado modificado después de la versión indicada (0 = todo el estado).
+     * Toma el candado de escritura un instante para que ningún cambio con versión
+     * menor o igual a la entregada quede a medio escribir.
+     */
+    public Delta cambiosDesde(long version) {
+        List<EntradaContador> contadores = new ArrayList<>();
+        List<OrdenTransferencia> ordenes = new ArrayList<>();
+        long hasta;
+        candado.writeLock().lock();
+        try {
+            hasta = reloj.get();
+            for (StockSucursal s : stock.values()) {
+                if (s.version > version) {
+                    s.contador.getTotales().forEach((n, t) ->
+                            contadores.add(new EntradaContador(s.sucursal, s.producto, n, t[0], t[1])));
+                }
+            }
+            for (RegistroTransferencia r : transferencias.values()) {
+                if (r.version > version) {
+                    ordenes.add(r.orden);
+                }
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+        return new Delta(hasta, contadores, ordenes);
+    }
+
+    /**
+     * Aplica los cambios recibidos de otro nodo. Lo que cambia recibe una versión
+     * local nueva, así que se reenvía a los demás nodos.
+     *
+     * @return true si algo cambió
+     */
+    public boolean fusionar(Delta delta) {
+        boolean cambio = false;
+        candado.readLock().lock();
+        try {
+            for (EntradaContador e : delta.contadores) {
+                StockSucursal s = stock(e.sucursal, e.producto);
+                synchronized (s) {
+                    if (s.contador.fusionar(e.nodo, e.positivos, e.negativos)) {
+                        s.version = reloj.incrementAndGet();
+                        cambio = true;
+                    }
+                }
+            }
+            for (OrdenTransferencia o : delta.transferencias) {
+                RegistroTransferencia nuevo = new RegistroTransferencia(o);
+                RegistroTransferencia r = transferencias.putIfAbsent(o.getId(), nuevo);
+                if (r == null) {
+                    nuevo.version = reloj.incrementAndGet();
+                    cambio = true;
+                    continue;
+                }
+                synchronized (r) {
+                    if (o.getEstado().compareTo(r.orden.getEstado()) > 0) {
+                        r.orden = o;
+                        r.version = reloj.incrementAndGet();
+                        cambio = true;
+                    }
+                }
+            }
+        } finally {
+            candado.readLock().unlock();
+        }
+        if (cambio) {
+            avisar();
+        }
+        return cambio;
+    }
+
+    // ======================== INTERNOS ========================
+
+    private void exigirPropia(String sucursal) {
+        if (!esPropia(sucursal)) {
+            throw new IllegalStateException("La sucursal " + sucursal + " no es administrada por el nodo " + nodo);
+        }
+    }
+
+    private void avisar() {
+        Runnable r = alCambiar;
+        if (r != null) {
+            r.run();
+        }
+    }
+
+    private static String clave(String sucursal, String producto) {
+        return sucursal.toLowerCase() + SEPARADOR + producto.toLowerCase();
+    }
+
+    private StockSucursal stock(String sucursal, String producto) {
+        return stock.computeIfAbsent(clave(sucursal, producto), k -> new StockSucursal(sucursal, producto));
+    }
+
+    private static final class StockSucursal {
+        private final String sucursal;
+        private final String producto;
+        private final ContadorPN contador = new ContadorPN();
+        private volatile long version;
+
+        private StockSucursal(String sucursal, String producto) {
+            this.sucursal = sucursal;
+            this.producto = producto;
+        }
+    }
+
+    private static final class RegistroTransferencia {
+        private volatile OrdenTransferencia orden;
+        private volatile long version;
+
+        private RegistroTransferencia(OrdenTransferencia orden) {
+            this.orden = orden;
+        }
+    }
+}
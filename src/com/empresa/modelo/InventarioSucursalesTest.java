@@ -0,0 +1,101 @@
+package com.empresa.modelo;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link InventarioSucursales}.
+ */
+public class InventarioSucursalesTest {
+
+    @Test
+    public void descontar_noPermiteVenderMasDeLoQueHay() {
+        InventarioSucursales local = new InventarioSucursales("local", "Centro");
+        local.ingresar("Centro", "Gas 15kg", 3);
+
+        assertTrue(local.descontar("centro", "gas 15kg", 2));
+        assertFalse(local.descontar("Centro", "Gas 15kg", 2));
+        assertEquals(1, local.getStock("Centro", "Gas 15kg"));
+        try {
+            local.descontar("Norte", "Gas 15kg", 1);
+            fail("Se esperaba IllegalStateException");
+        } catch (IllegalStateException e) {
+            // la sucursal Norte es de otro nodo
+        }
+    }
+
+    @Test
+    public void reiniciar_noPierdeCambiosHechosAntesDeRecibirElEstadoAnterior() {
+        InventarioSucursales local = new InventarioSucursales("local", "Centro");
+        InventarioSucursales deposito = new InventarioSucursales("deposito", "Norte");
+        local.ingresar("Centro", "Gas 15kg", 10);
+        local.descontar("Centro", "Gas 15kg", 4);
+        deposito.fusionar(local.cambiosDesde(0));
+
+        // el proceso local se reinicia sin estado y registra un ingreso antes de sincronizar
+        InventarioSucursales reiniciado = new InventarioSucursales("local", "Centro");
+        assertFalse(local.getReplica().equals(reiniciado.getReplica()));
+        reiniciado.ingresar("Centro", "Gas 15kg", 3);
+        reiniciado.fusionar(deposito.cambiosDesde(0));
+        deposito.fusionar(reiniciado.cambiosDesde(0));
+
+        assertEquals(9, reiniciado.getStock("Centro", "Gas 15kg"));
+        assertEquals(9, deposito.getStock("Centro", "Gas 15kg"));
+    }
+
+    @Test
+    public void fusionar_convergeSinImportarOrdenNiRepeticiones() {
+        InventarioSucursales local = new InventarioSucursales("local", "Centro");
+        InventarioSucursales deposito = new InventarioSucursales("deposito", "Norte");
+        local.ingresar("Centro", "Gas 15kg", 10);
+        deposito.ingresar("Norte", "Gas 15kg", 4);
+        deposito.ingresar("Centro", "Gas 15kg", 5);
+        InventarioSucursales.Delta primero = local.cambiosDesde(0);
+        local.descontar("Centro", "Gas 15kg", 3);
+        InventarioSucursales.Delta segundo = local.cambiosDesde(primero.getHasta());
+
+        // llega primero lo más nuevo, luego lo antiguo y repetido
+        assertTrue(deposito.fusionar(segundo));
+        assertFalse(deposito.fusionar(primero));
+        assertFalse(deposito.fusionar(segundo));
+        local.fusionar(deposito.cambiosDesde(0));
+
+        for (InventarioSucursales i : new InventarioSucursales[] {local, deposito}) {
+            assertEquals(12, i.getStock("Centro", "Gas 15kg"));
+            assertEquals(4, i.getStock("Norte", "Gas 15kg"));
+            assertEquals(16, i.getStockTotal("GAS 15KG"));
+        }
+        assertTrue(local.cambiosDesde(local.cambiosDesde(0).getHasta()).estaVacio());
+    }
+
+    @Test
+    public void transferir_dejaUnidadesEnTransitoHastaQueElDestinoRecibe() {
+        InventarioSucursales local = new InventarioSucursales("local", "Centro");
+        InventarioSucursales deposito = new InventarioSucursales("deposito", "Norte");
+        local.ingresar("Centro", "Regulador", 8);
+        assertNull(local.transferir("Centro", "Norte", "Regulador", 9));
+
+        OrdenTransferencia orden = local.transferir("Centro", "Norte", "Regulador", 5);
+        assertEquals(3, local.getStockTotal("Regulador"));
+        assertFalse(deposito.recibirTransferencia(orden.getId()));
+
+        deposito.fusionar(local.cambiosDesde(0));
+        assertEquals(1, deposito.transferenciasPendientes("norte").size());
+        try {
+            local.recibirTransferencia(orden.getId());
+            fail("Se esperaba IllegalStateException");
+        } catch (IllegalStateException e) {
+            // solo el dueño del destino recibe
+        }
+        assertTrue(deposito.recibirTransferencia(orden.getId()));
+        assertFalse(deposito.recibirTransferencia(orden.getId()));
+
+        // una réplica atrasada con la orden en tránsito no la revierte
+        deposito.fusionar(local.cambiosDesde(0));
+        local.fusionar(deposito.cambiosDesde(0));
+        assertEquals(OrdenTransferencia.Estado.RECIBIDA, local.buscarTransferencia(orden.getId()).getEstado());
+        assertEquals(5, local.getStock("Norte", "Regulador"));
+        assertEquals(8, local.getStockTotal("Regulador"));
+        assertTrue(deposito.transferenciasPendientes("Norte").isEmpty());
+    }
+}
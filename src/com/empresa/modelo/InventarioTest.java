@@ -0,0 +1,86 @@
+package com.empresa.modelo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link Inventario}.
+ */
+public class InventarioTest {
+
+    private final Inventario inventario = Inventario.getInstancia();
+
+    @Test
+    public void reservarStock_concurrenteNoSobrevende() throws Exception {
+        inventario.agregarProducto("Test Concurrencia 15kg", "gas", 20000, 2000, 1000);
+
+        int hilos = 8;
+        AtomicInteger vendidos = new AtomicInteger();
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Thread> trabajadores = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            Thread t = new Thread(() -> {
+                try {
+                    inicio.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (inventario.reservarStock("Test Concurrencia 15kg", 3)) {
+                    inventario.confirmarReserva("Test Concurrencia 15kg", 3);
+                    vendidos.addAndGet(3);
+                }
+            });
+            t.start();
+            trabajadores.add(t);
+        }
+        inicio.countDown();
+        for (Thread t : trabajadores) {
+            t.join();
+        }
+
+        assertEquals(999, vendidos.get()); // 333 reservas de 3 unidades
+        assertEquals(1, inventario.getStock("Test Concurrencia 15kg"));
+    }
+
+    @Test
+    public void liberarReserva_devuelveStock() {
+        inventario.agregarProducto("Test Reserva 5kg", "gas", 10000, 1000, 5);
+
+        assertTrue(inventario.reservarStock("Test Reserva 5kg", 4));
+        assertFalse(inventario.reservarStock("Test Reserva 5kg", 2));
+        assertEquals(1, inventario.getStock("Test Reserva 5kg"));
+
+        inventario.liberarReserva("Test Reserva 5kg", 4);
+        assertEquals(5, inventario.getStock("Test Reserva 5kg"));
+    }
+
+    @Test
+    public void confirmarReserva_sinReservaLanzaExcepcion() {
+        inventario.agregarProducto("Test Sin Reserva", "gas", 10000, 1000, 5);
+        try {
+            inventario.confirmarReserva("Test Sin Reserva", 1);
+            fail("Se esperaba IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals(5, inventario.getStock("Test Sin Reserva"));
+        }
+    }
+
+    @Test
+    public void ajustarStock_registraAjusteYNoDejaStockNegativo() {
+        inventario.agregarProducto("Test Ajuste 45kg", "gas", 60000, 5000, 4);
+        assertTrue(inventario.ajustarStock("test ajuste 45kg", -3));
+        assertFalse(inventario.ajustarStock("Test Ajuste 45kg", -2));
+        assertTrue(inventario.ajustarStock("Test Ajuste 45kg", 5));
+        assertEquals(6, inventario.getStock("Test Ajuste 45kg"));
+        assertFalse(inventario.ajustarStock("No Existe", 1));
+
+        LibroMovimientos libro = LibroMovimientos.getInstancia();
+        assertEquals(6, libro.stockEn("Test Ajuste 45kg", LocalDateTime.now().plusMinutes(1)));
+        assertEquals(6, libro.getUnidadesNoVenta("Test Ajuste 45kg"));
+    }
+}
@@ -0,0 +1,201 @@
+package com.empresa.modelo;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Movimientos de stock de un producto, ordenados por fecha, en arreglos paralelos
+ * (segundo, cantidad, tipo): 13 bytes por movimiento, sin un objeto por cada uno.
+ *
+ * Cada {@value #INTERVALO_FOTO} movimientos se guarda una foto del saldo acumulado,
+ * así el stock a una fecha se obtiene con una búsqueda binaria, la foto anterior y
+ * a lo más {@value #INTERVALO_FOTO} sumas. Un movimiento con fecha anterior al
+ * último (por ejemplo una venta importada tarde) se inserta en su lugar e invalida
+ * las fotos siguientes, que se recalculan recién en la próxima consulta.
+ *
+ * @author Ignacio
+ */
+final class KardexProducto {
+
+    static final int INTERVALO_FOTO = 256;
+    private static final MovimientoStock.Tipo[] TIPOS = MovimientoStock.Tipo.values();
+    private static final byte VENTA = (byte) MovimientoStock.Tipo.VENTA.ordinal();
+    private static final long SEGUNDOS_DIA = 86_400;
+
+    private final String producto;
+    private long[] segundos = new long[16];
+    private int[] cantidades = new int[16];
+    private byte[] tipos = new byte[16];
+    private int largo;
+
+    /** fotos[k] = saldo después del movimiento (k + 1) * INTERVALO_FOTO - 1. */
+    private int[] fotos = new int[4];
+    private int fotosValidas;
+    private int saldoFinal;
+    private int unidadesNoVenta;
+
+    KardexProducto(String producto) {
+        this.producto = producto;
+    }
+
+    static long segundo(LocalDateTime fechaHora) {
+        return fechaHora.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static LocalDateTime fechaHora(long segundo) {
+        return LocalDateTime.ofEpochSecond(segundo, 0, ZoneOffset.UTC);
+    }
+
+    synchronized void registrar(long segundo, MovimientoStock.Tipo tipo, int cantidad) {
+        if (largo == segundos.length) {
+            int nuevo = largo * 2;
+            segundos = Arrays.copyOf(segundos, nuevo);
+            cantidades = Arrays.copyOf(cantidades, nuevo);
+            tipos = Arrays.copyOf(tipos, nuevo);
+        }
+
+        int pos = largo;
+        if (largo > 0 && segundos[largo - 1] > segundo) {
+            pos = primeroPosterior(segundo);
+            System.arraycopy(segundos, pos, segundos, pos + 1, largo - pos);
+            System.arraycopy(cantidades, pos, cantidades, pos + 1, largo - pos);
+            System.arraycopy(tipos, pos, tipos, pos + 1, largo - pos);
+            fotosValidas = Math.min(fotosValidas, pos / INTERVALO_FOTO);
+        }
+        segundos[pos] = segundo;
+        cantidades[pos] = cantidad;
+        tipos[pos] = (byte) tipo.ordinal();
+        largo++;
+
+        saldoFinal += cantidad;
+        if (tipo != MovimientoStock.Tipo.VENTA) {
+            unidadesNoVenta += cantidad;
+        }
+    }
+
+    /**
+     * Stock después de todos los movimientos hasta el segundo indicado, inclusive.
+     */
+    synchronized int saldoEn(long segundo) {
+        return saldoAntesDe(primeroPosterior(segundo));
+    }
+
+    /**
+     * Movimientos con fecha en [desde, hasta), con el saldo después de cada uno.
+     */
+    synchronized Pagina<MovimientoStock> movimientos(long desde, long hasta, int pagina, int tamanoPagina) {
+        int inicio = primeroDesde(desde);
+        int fin = Math.max(inicio, primeroDesde(hasta));
+        int total = fin - inicio;
+
+        int primero = (int) Math.min((long) pagina * tamanoPagina, total);
+        int cantidad = Math.min(tamanoPagina, total - primero);
+        List<MovimientoStock> elementos = new ArrayList<>(cantidad);
+        int saldo = saldoAntesDe(inicio + primero);
+        for (int i = inicio + primero; i < inicio + primero + cantidad; i++) {
+            saldo += cantidades[i];
+            elementos.add(new MovimientoStock(producto, fechaHora(segundos[i]), TIPOS[tipos[i]], cantidades[i], saldo));
+        }
+        return new Pagina<>(elementos, total, pagina, tamanoPagina);
+    }
+
+    /**
+     * Unidades vendidas por día, para {@code unidades.length} días consecutivos a
+     * partir del segundo {@code desde} (inicio del primer día): una búsqueda binaria
+     * y un recorrido de los movimientos del rango.
+     */
+    synchronized void ventasPorDia(long desde, int[] unidades) {
+        long hasta = desde + unidades.length * SEGUNDOS_DIA;
+        for (int i = primeroDesde(desde); i < largo && segundos[i] < hasta; i++) {
+            if (tipos[i] == VENTA) {
+                unidades[(int) ((segundos[i] - desde) / SEGUNDOS_DIA)] -= cantidades[i];
+            }
+        }
+    }
+
+    /**
+     * Suma de las cantidades de los primeros {@code n} movimientos, usando la última
+     * foto válida anterior a n.
+     */
+    private int saldoAntesDe(int n) {
+        if (n == largo) {
+            return saldoFinal;
+        }
+        int bloque = n / INTERVALO_FOTO;
+        actualizarFotos(bloque);
+        int saldo = bloque > 0 ? fotos[bloque - 1] : 0;
+        for (int i = bloque * INTERVALO_FOTO; i < n; i++) {
+            saldo += cantidades[i];
+        }
+        return saldo;
+    }
+
+    /**
+     * Recalcula las fotos que falten hasta la número {@code hasta} (exclusive).
+     */
+    private void actualizarFotos(int hasta) {
+        if (fotosValidas >= hasta) {
+            return;
+        }
+        if (fotos.length < hasta) {
+            fotos = Arrays.copyOf(fotos, Math.max(hasta, fotos.length * 2));
+        }
+        int saldo = fotosValidas > 0 ? fotos[fotosValidas - 1] : 0;
+        for (int k = fotosValidas; k < hasta; k++) {
+            for (int i = k * INTERVALO_FOTO; i < (k + 1) * INTERVALO_FOTO; i++) {
+                saldo += cantidades[i];
+            }
+            fotos[k] = saldo;
+        }
+        fotosValidas = hasta;
+    }
+
+    /**
+     * Índice del primer movimiento con segundo mayor al indicado.
+     */
+    private int primeroPosterior(long segundo) {
+        return segundo == Long.MAX_VALUE ? largo : primeroDesde(segundo + 1);
+    }
+
+    /**
+     * Índice del primer movimiento con segundo mayor o igual al indicado.
+     */
+    private int primeroDesde(long segundo) {
+        int bajo = 0;
+        int alto = largo;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (segundos[medio] < segundo) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Segundo del primer movimiento, o {@code Long.MAX_VALUE} si no hay movimientos.
+     */
+    synchronized long getPrimerSegundo() {
+        return largo > 0 ? segundos[0] : Long.MAX_VALUE;
+    }
+
+    synchronized int getSaldo() {
+        return saldoFinal;
+    }
+
+    /**
+     * Unidades de todos los movimientos que no son ventas (ingresos, ajustes y stock inicial).
+     */
+    synchronized int getUnidadesNoVenta() {
+        return unidadesNoVenta;
+    }
+
+    synchronized int getCantidadMovimientos() {
+        return largo;
+    }
+}
@@ -0,0 +1,490 @@
+package com.empresa.modelo;
+
+import com.empresa.persistencia.Repositorio;
+import com.empresa.persistencia.RepositorioMemoria;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Libro de compras: órdenes de compra y facturas de ingreso, con índices para
+ * consultarlas sin recorrerlas todas.
+ *
+ * Índices: número de orden y de factura (sin importar mayúsculas), producto →
+ * líneas de factura en que ingresó, proveedor/fecha → facturas y órdenes ya
+ * facturadas. Los índices
+ * guardan columnas de enteros por factura y su número; las órdenes y facturas
+ * completas se piden al repositorio solo cuando se consultan, así que con
+ * repositorios en disco el libro puede ser más grande que el heap.
+ *
+ * Las consultas pueden ser concurrentes; los registros son exclusivos.
+ *
+ * @author Ignacio
+ */
+public class LibroCompras {
+
+    private static final LibroCompras instancia = new LibroCompras(
+            new RepositorioMemoria<>(OrdenCompra::getIdOrden), new RepositorioMemoria<>(FacturaCompra::getNumeroFactura));
+    private static final int CAPACIDAD_INICIAL = 64;
+
+    private final ReadWriteLock candado;
+    private Repositorio<OrdenCompra> ordenes;
+    private Repositorio<FacturaCompra> facturas;
+
+    // Índices por clave en minúsculas
+    private final Map<String, String> idsOrden;
+    private final Map<String, Integer> facturasPorNumero;
+    private final Map<String, EntradasProducto> entradasPorProducto;
+    private final Map<String, Integer> codigosProveedor;
+    private final Set<String> ordenesFacturadas;
+
+    // Columnas por número correlativo de factura (orden de registro)
+    private String[] numeros;
+    private int[] dias;
+    private int[] proveedorDe;
+    private int cantidadFacturas;
+
+    private final List<String> proveedores;
+    private final List<FacturasPorFecha> fechasPorProveedor;
+    private final FacturasPorFecha fechasTodas;
+
+    /**
+     * Libro sobre los repositorios indicados; se indexa todo lo que ya contienen.
+     */
+    public LibroCompras(Repositorio<OrdenCompra> ordenes, Repositorio<FacturaCompra> facturas) {
+        candado = new ReentrantReadWriteLock();
+        idsOrden = new HashMap<>();
+        facturasPorNumero = new HashMap<>();
+        entradasPorProducto = new HashMap<>();
+        codigosProveedor = new HashMap<>();
+        ordenesFacturadas = new HashSet<>();
+        proveedores = new ArrayList<>();
+        fechasPorProveedor = new ArrayList<>();
+        fechasTodas = new FacturasPorFecha();
+        numeros = new String[CAPACIDAD_INICIAL];
+        dias = new int[CAPACIDAD_INICIAL];
+        proveedorDe = new int[CAPACIDAD_INICIAL];
+        this.ordenes = ordenes;
+        this.facturas = facturas;
+        indexarTodo();
+    }
+
+    public static LibroCompras getInstancia() {
+        return instancia;
+    }
+
+    /**
+     * Cambia a los repositorios indicados (por ejemplo, los del almacén en disco) y
+     * reconstruye los índices. Las órdenes y facturas ya registradas que no estén
+     * en ellos se agregan.
+     */
+    public void usarRepositorios(Repositorio<OrdenCompra> nuevasOrdenes, Repositorio<FacturaCompra> nuevasFacturas) {
+        candado.writeLock().lock();
+        try {
+            List<OrdenCompra> ordenesEnMemoria = new ArrayList<>();
+            ordenes.paraCada(o -> {
+                if (!nuevasOrdenes.existe(o.getIdOrden())) {
+                    ordenesEnMemoria.add(o);
+                }
+            });
+            nuevasOrdenes.guardarTodos(ordenesEnMemoria);
+
+            List<FacturaCompra> facturasEnMemoria = new ArrayList<>();
+            facturas.paraCada(f -> {
+                if (!nuevasFacturas.existe(f.getNumeroFactura())) {
+                    facturasEnMemoria.add(f);
+                }
+            });
+            nuevasFacturas.guardarTodos(facturasEnMemoria);
+
+            ordenes = nuevasOrdenes;
+            facturas = nuevasFacturas;
+            limpiarIndices();
+            indexarTodo();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    private void limpiarIndices() {
+        idsOrden.clear();
+        facturasPorNumero.clear();
+        entradasPorProducto.clear();
+        codigosProveedor.clear();
+        ordenesFacturadas.clear();
+        proveedores.clear();
+        fechasPorProveedor.clear();
+        fechasTodas.tamano = 0;
+        Arrays.fill(numeros, 0, cantidadFacturas, null);
+        cantidadFacturas = 0;
+    }
+
+    private void indexarTodo() {
+        // las órdenes se indexan por clave, sin leerlas
+        for (String id : ordenes.claves()) {
+            idsOrden.put(clave(id), id);
+        }
+        facturas.paraCada(this::indexarFactura);
+    }
+
+    private static String clave(String texto) {
+        return texto.toLowerCase();
+    }
+
+    // ======================== REGISTRO ========================
+
+    /**
+     * @return false si ya existe una orden con ese número (sin importar mayúsculas)
+     */
+    public boolean registrarOrden(OrdenCompra orden) {
+        String k = clave(orden.getIdOrden());
+        candado.writeLock().lock();
+        try {
+            if (idsOrden.containsKey(k)) {
+                return false;
+            }
+            ordenes.guardar(orden);
+            idsOrden.put(k, orden.getIdOrden());
+            return true;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return false si ya existe una factura con ese número (sin importar mayúsculas)
+     */
+    public boolean registrarFactura(FacturaCompra factura) {
+        candado.writeLock().lock();
+        try {
+            if (facturasPorNumero.containsKey(clave(factura.getNumeroFactura()))) {
+                return false;
+            }
+            facturas.guardar(factura);
+            indexarFactura(factura);
+            return true;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Registra varias facturas con un solo bloqueo y una sola escritura al
+     * repositorio. Se omiten las que ya existen y las repetidas dentro del lote
+     * (sin importar mayúsculas). Si la escritura falla no queda ninguna registrada.
+     *
+     * @return Las facturas registradas, en el orden recibido
+     */
+    public List<FacturaCompra> registrarFacturas(List<FacturaCompra> lote) {
+        candado.writeLock().lock();
+        try {
+            List<FacturaCompra> nuevas = new ArrayList<>(lote.size());
+            Set<String> vistas = new HashSet<>();
+            for (FacturaCompra factura : lote) {
+                String k = clave(factura.getNumeroFactura());
+                if (!facturasPorNumero.containsKey(k) && vistas.add(k)) {
+                    nuevas.add(factura);
+                }
+            }
+            facturas.guardarTodos(nuevas);
+            for (FacturaCompra factura : nuevas) {
+                indexarFactura(factura);
+            }
+            return nuevas;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita facturas recién registradas cuyo ingreso al inventario no se pudo
+     * completar, para que puedan volver a registrarse. Los índices se reconstruyen.
+     */
+    public void anularFacturas(List<FacturaCompra> anuladas) {
+        if (anuladas.isEmpty()) {
+            return;
+        }
+        candado.writeLock().lock();
+        try {
+            for (FacturaCompra factura : anuladas) {
+                facturas.eliminar(factura.getNumeroFactura());
+            }
+            limpiarIndices();
+            indexarTodo();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    private void indexarFactura(FacturaCompra factura) {
+        int n = cantidadFacturas;
+        if (n == numeros.length) {
+            numeros = Arrays.copyOf(numeros, n * 2);
+            dias = Arrays.copyOf(dias, n * 2);
+            proveedorDe = Arrays.copyOf(proveedorDe, n * 2);
+        }
+        Integer codigo = codigosProveedor.get(clave(factura.getProveedor()));
+        if (codigo == null) {
+            codigo = proveedores.size();
+            codigosProveedor.put(clave(factura.getProveedor()), codigo);
+            proveedores.add(factura.getProveedor());
+            fechasPorProveedor.add(new FacturasPorFecha());
+        }
+
+        numeros[n] = factura.getNumeroFactura();
+        dias[n] = (int) factura.getFecha().toEpochDay();
+        proveedorDe[n] = codigo;
+        cantidadFacturas++;
+        facturasPorNumero.put(clave(factura.getNumeroFactura()), n);
+        fechasPorProveedor.get(codigo).agregar(n);
+        fechasTodas.agregar(n);
+        if (factura.getOrdenAsociada() != null) {
+            ordenesFacturadas.add(clave(factura.getOrdenAsociada().getIdOrden()));
+        }
+
+        for (FacturaCompra.IngresoInventario ingreso : factura.getProductosIngresados()) {
+            Producto p = ingreso.getProducto();
+            entradasPorProducto.computeIfAbsent(clave(p.getNombre()), k -> new EntradasProducto(p.getNombre()))
+                    .agregar(n, ingreso.getCantidad(), p.getPrecioCompraConIVA());
+        }
+    }
+
+    // ======================== CONSULTAS ========================
+
+    /**
+     * @return La orden con ese número (sin importar mayúsculas), o null
+     */
+    public OrdenCompra buscarOrden(String idOrden) {
+        candado.readLock().lock();
+        try {
+            String id = idsOrden.get(clave(idOrden));
+            return id != null ? ordenes.buscar(id) : null;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return La factura con ese número (sin importar mayúsculas), o null
+     */
+    public FacturaCompra buscarFactura(String numeroFactura) {
+        candado.readLock().lock();
+        try {
+            Integer n = facturasPorNumero.get(clave(numeroFactura));
+            return n != null ? facturas.buscar(numeros[n]) : null;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    public boolean existeFactura(String numeroFactura) {
+        candado.readLock().lock();
+        try {
+            return facturasPorNumero.containsKey(clave(numeroFactura));
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ingresos de un producto (sin importar mayúsculas), en orden de registro de
+     * las facturas. No lee las facturas del repositorio.
+     */
+    public List<EntradaCompra> entradasPorProducto(String nombreProducto) {
+        candado.readLock().lock();
+        try {
+            EntradasProducto entradas = entradasPorProducto.get(clave(nombreProducto));
+            if (entradas == null) {
+                return Collections.emptyList();
+            }
+            List<EntradaCompra> resultado = new ArrayList<>(entradas.tamano);
+            for (int i = 0; i < entradas.tamano; i++) {
+                int n = entradas.facturas[i];
+                resultado.add(new EntradaCompra(numeros[n], LocalDate.ofEpochDay(dias[n]),
+                        proveedores.get(proveedorDe[n]), entradas.nombre,
+                        entradas.cantidades[i], entradas.precios[i]));
+            }
+            return resultado;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Unidades pedidas en órdenes registradas que aún no tienen factura, por
+     * producto en minúsculas. Lee solo esas órdenes del repositorio.
+     */
+    public Map<String, Integer> unidadesPorRecibir() {
+        candado.readLock().lock();
+        try {
+            Map<String, Integer> pendientes = new HashMap<>();
+            for (Map.Entry<String, String> e : idsOrden.entrySet()) {
+                if (ordenesFacturadas.contains(e.getKey())) {
+                    continue;
+                }
+                OrdenCompra orden = ordenes.buscar(e.getValue());
+                if (orden == null) {
+                    continue;
+                }
+                for (OrdenCompra.ItemOrden item : orden.getItems()) {
+                    pendientes.merge(clave(item.getProducto().getNombre()), item.getCantidad(), Integer::sum);
+                }
+            }
+            return pendientes;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Facturas de un proveedor en un rango de fechas, ordenadas por fecha.
+     *
+     * @param proveedor Proveedor (sin importar mayúsculas), o null para todos
+     * @param desde Fecha mínima (inclusive), o null para no limitar
+     * @param hasta Fecha máxima (inclusive), o null para no limitar
+     * @param pagina Número de página, desde 0
+     * @param tamano Cantidad de facturas por página
+     * @throws IllegalArgumentException si la página es negativa o el tamaño no es positivo
+     */
+    public Pagina<FacturaCompra> buscarFacturas(String proveedor, LocalDate desde, LocalDate hasta, int pagina, int tamano) {
+        if (pagina < 0) {
+            throw new IllegalArgumentException("La página no puede ser negativa: " + pagina);
+        }
+        if (tamano <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a 0.");
+        }
+        candado.readLock().lock();
+        try {
+            FacturasPorFecha lista = fechasTodas;
+            if (proveedor != null) {
+                Integer codigo = codigosProveedor.get(clave(proveedor));
+                if (codigo == null) {
+                    return new Pagina<>(Collections.emptyList(), 0, pagina, tamano);
+                }
+                lista = fechasPorProveedor.get(codigo);
+            }
+            int inicio = desde != null ? lista.primeraDesde(desde.toEpochDay()) : 0;
+            int fin = hasta != null ? lista.primeraDesde(hasta.toEpochDay() + 1) : lista.tamano;
+            int total = Math.max(0, fin - inicio);
+
+            long desdePagina = inicio + (long) pagina * tamano;
+            long hastaPagina = Math.min(fin, desdePagina + tamano);
+            List<FacturaCompra> elementos = new ArrayList<>((int) Math.max(0, hastaPagina - desdePagina));
+            for (long i = desdePagina; i < hastaPagina; i++) {
+                FacturaCompra factura = facturas.buscar(numeros[lista.facturas[(int) i]]);
+                if (factura != null) {
+                    elementos.add(factura);
+                }
+            }
+            return new Pagina<>(elementos, total, pagina, tamano);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recorre las órdenes en orden de registro.
+     */
+    public void paraCadaOrden(Consumer<? super OrdenCompra> accion) {
+        ordenes.paraCada(accion);
+    }
+
+    /**
+     * Recorre las facturas en orden de registro.
+     */
+    public void paraCadaFactura(Consumer<? super FacturaCompra> accion) {
+        facturas.paraCada(accion);
+    }
+
+    public int getCantidadOrdenes() {
+        candado.readLock().lock();
+        try {
+            return idsOrden.size();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    public int getCantidadFacturas() {
+        candado.readLock().lock();
+        try {
+            return cantidadFacturas;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Números correlativos de factura ordenados por fecha (a igual fecha, por orden
+     * de registro). Las facturas suelen llegar en orden de fecha, así que agregar
+     * es casi siempre al final; una factura atrasada se inserta en su lugar.
+     */
+    private final class FacturasPorFecha {
+        private int[] facturas = new int[8];
+        private int tamano;
+
+        private void agregar(int n) {
+            if (tamano == facturas.length) {
+                facturas = Arrays.copyOf(facturas, tamano * 2);
+            }
+            int posicion = tamano > 0 && dias[facturas[tamano - 1]] > dias[n] ? primeraDesde(dias[n] + 1L) : tamano;
+            System.arraycopy(facturas, posicion, facturas, posicion + 1, tamano - posicion);
+            facturas[posicion] = n;
+            tamano++;
+        }
+
+        /**
+         * Posición de la primera factura con fecha mayor o igual al día indicado.
+         */
+        private int primeraDesde(long dia) {
+            int bajo = 0;
+            int alto = tamano;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (dias[facturas[medio]] < dia) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            return bajo;
+        }
+    }
+
+    /**
+     * Líneas de factura de un producto en columnas: factura, cantidad y precio.
+     */
+    private static final class EntradasProducto {
+        private final String nombre;
+        private int[] facturas = new int[4];
+        private int[] cantidades = new int[4];
+        private long[] precios = new long[4];
+        private int tamano;
+
+        private EntradasProducto(String nombre) {
+            this.nombre = nombre;
+        }
+
+        private void agregar(int factura, int cantidad, long precio) {
+            if (tamano == facturas.length) {
+                int capacidad = tamano * 2;
+                facturas = Arrays.copyOf(facturas, capacidad);
+                cantidades = Arrays.copyOf(cantidades, capacidad);
+                precios = Arrays.copyOf(precios, capacidad);
+            }
+            facturas[tamano] = factura;
+            cantidades[tamano] = cantidad;
+            precios[tamano] = precio;
+            tamano++;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.empresa.modelo;
+
+import com.empresa.persistencia.RepositorioMemoria;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link LibroCompras}.
+ */
+public class LibroComprasTest {
+
+    private static final LocalDate HOY = LocalDate.of(2024, 6, 10);
+
+    private LibroCompras libro;
+    private Producto gas15;
+    private Producto gas5;
+
+    @Before
+    public void setUp() {
+        libro = new LibroCompras(new RepositorioMemoria<>(OrdenCompra::getIdOrden),
+                new RepositorioMemoria<>(FacturaCompra::getNumeroFactura));
+        gas15 = new Producto("Gas 15kg", "gas", 25000, 3000);
+        gas5 = new Producto("Gas 5kg", "gas", 10000, 1000);
+    }
+
+    private FacturaCompra factura(String numero, String proveedor, LocalDate fecha) {
+        FacturaCompra f = new FacturaCompra(numero, proveedor, null, fecha);
+        f.agregarProducto(gas15, 10);
+        return f;
+    }
+
+    @Test
+    public void buscar_ignoraMayusculasYRechazaDuplicados() {
+        OrdenCompra orden = new OrdenCompra("OC-10", "Abastible", HOY);
+        assertTrue(libro.registrarOrden(orden));
+        assertFalse(libro.registrarOrden(new OrdenCompra("oc-10", "Lipigas", HOY)));
+        assertTrue(libro.registrarFactura(orden.generarFacturaDesdeOrden("F-1")));
+        assertFalse(libro.registrarFactura(factura("f-1", "Abastible", HOY)));
+
+        assertSame(orden, libro.buscarOrden("oc-10"));
+        assertEquals("F-1", libro.buscarFactura("f-1").getNumeroFactura());
+        assertNull(libro.buscarFactura("F-2"));
+        assertEquals(1, libro.getCantidadOrdenes());
+        assertEquals(1, libro.getCantidadFacturas());
+    }
+
+    @Test
+    public void entradasPorProducto_retornaLineasDeTodasLasFacturas() {
+        FacturaCompra f1 = factura("F-1", "Abastible", HOY);
+        f1.agregarProducto(gas5, 4);
+        libro.registrarFactura(f1);
+        libro.registrarFactura(factura("F-2", "Lipigas", HOY.plusDays(1)));
+
+        List<EntradaCompra> entradas = libro.entradasPorProducto("GAS 15KG");
+        assertEquals(2, entradas.size());
+        assertEquals("F-2", entradas.get(1).getNumeroFactura());
+        assertEquals("Lipigas", entradas.get(1).getProveedor());
+        assertEquals(HOY.plusDays(1), entradas.get(1).getFecha());
+        assertEquals(250000, entradas.get(0).getTotal());
+
+        assertEquals(1, libro.entradasPorProducto("gas 5kg").size());
+        assertTrue(libro.entradasPorProducto("Gas 45kg").isEmpty());
+    }
+
+    @Test
+    public void buscarFacturas_filtraPorProveedorYFechasOrdenadas() {
+        libro.registrarFactura(factura("F-1", "Abastible", HOY));
+        libro.registrarFactura(factura("F-2", "Lipigas", HOY.plusDays(1)));
+        libro.registrarFactura(factura("F-3", "Abastible", HOY.plusDays(5)));
+        libro.registrarFactura(factura("F-4", "abastible", HOY.minusDays(3))); // llega atrasada
+
+        Pagina<FacturaCompra> abastible = libro.buscarFacturas("ABASTIBLE", null, null, 0, 10);
+        assertEquals(3, abastible.getTotal());
+        assertEquals("F-4", abastible.getElementos().get(0).getNumeroFactura());
+        assertEquals("F-3", abastible.getElementos().get(2).getNumeroFactura());
+
+        Pagina<FacturaCompra> rango = libro.buscarFacturas(null, HOY, HOY.plusDays(1), 0, 10);
+        assertEquals(2, rango.getTotal());
+        assertEquals("F-1", rango.getElementos().get(0).getNumeroFactura());
+        assertEquals("F-2", rango.getElementos().get(1).getNumeroFactura());
+
+        Pagina<FacturaCompra> segunda = libro.buscarFacturas(null, null, null, 1, 3);
+        assertEquals(4, segunda.getTotal());
+        assertEquals(1, segunda.getElementos().size());
+        assertEquals("F-3", segunda.getElementos().get(0).getNumeroFactura());
+
+        assertEquals(0, libro.buscarFacturas("Gasco", null, null, 0, 10).getTotal());
+        try {
+            libro.buscarFacturas("Abastible", null, null, -1, 3);
+            fail("Se esperaba IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // una página negativa leería facturas de antes del rango
+        }
+    }
+
+    @Test
+    public void usarRepositorios_conservaRegistrosYReindexa() {
+        libro.registrarFactura(factura("F-1", "Abastible", HOY));
+        RepositorioMemoria<FacturaCompra> otras = new RepositorioMemoria<>(FacturaCompra::getNumeroFactura);
+        otras.guardar(factura("F-9", "Lipigas", HOY.minusDays(1)));
+
+        libro.usarRepositorios(new RepositorioMemoria<>(OrdenCompra::getIdOrden), otras);
+
+        assertEquals(2, libro.getCantidadFacturas());
+        assertTrue(otras.existe("F-1"));
+        assertEquals("F-9", libro.buscarFacturas(null, null, null, 0, 10).getElementos().get(0).getNumeroFactura());
+        assertEquals(2, libro.entradasPorProducto("gas 15kg").size());
+    }
+}
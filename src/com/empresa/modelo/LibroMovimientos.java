@@ -0,0 +1,227 @@
+package com.empresa.modelo;
+
+import com.empresa.persistencia.DiarioMovimientos;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Libro de movimientos de stock (kardex): cada ingreso, venta y ajuste queda
+ * registrado con su fecha, de modo que se puede consultar el stock de un producto
+ * a cualquier fecha y hora pasada sin recalcular desde el inicio.
+ *
+ * Los movimientos de cada producto se guardan en un {@link KardexProducto} con
+ * fotos periódicas del saldo; una consulta es una búsqueda binaria más una
+ * reproducción corta desde la foto anterior.
+ *
+ * Con el diario activo, los movimientos que no son ventas se guardan en disco. Las
+ * ventas se registran desde {@link HistorialVentas}, también al reproducir el
+ * diario de ventas, así que no se guardan dos veces.
+ *
+ * @author Ignacio
+ */
+public class LibroMovimientos {
+
+    private static final LibroMovimientos instancia = new LibroMovimientos();
+    private final Map<String, KardexProducto> kardex;
+    private DiarioMovimientos diario;
+
+    public LibroMovimientos() {
+        kardex = new ConcurrentHashMap<>();
+    }
+
+    public static LibroMovimientos getInstancia() {
+        return instancia;
+    }
+
+    /**
+     * Abre el diario de movimientos, recupera los movimientos guardados en él y
+     * guarda ahí los siguientes ingresos y ajustes.
+     */
+    public synchronized void activarDiario(String rutaArchivo) {
+        if (diario != null) {
+            System.out.println("El diario de movimientos ya está activo.");
+            return;
+        }
+        try {
+            diario = DiarioMovimientos.abrir(Path.of(rutaArchivo), this::aplicar);
+        } catch (IOException e) {
+            System.out.println("Error al abrir el diario de movimientos: " + e.getMessage());
+        }
+    }
+
+    public synchronized void cerrarDiario() {
+        if (diario == null) {
+            return;
+        }
+        try {
+            diario.close();
+        } catch (IOException e) {
+            System.out.println("Error al cerrar el diario de movimientos: " + e.getMessage());
+        }
+        diario = null;
+    }
+
+    /**
+     * Registra un movimiento. Los que no son ventas se guardan en el diario (si está
+     * activo) y se aplican con el mismo candado, en el orden del diario.
+     *
+     * @param cantidad Unidades con signo: negativas si salen del inventario
+     * @throws UncheckedIOException si no se pudo guardar en el diario; en ese caso
+     *         el movimiento no se aplica
+     */
+    public void registrar(String producto, LocalDateTime fechaHora, MovimientoStock.Tipo tipo, int cantidad) {
+        MovimientoStock movimiento = new MovimientoStock(producto, fechaHora, tipo, cantidad);
+        if (tipo == MovimientoStock.Tipo.VENTA) {
+            aplicar(movimiento);
+            return;
+        }
+        synchronized (this) {
+            if (diario != null) {
+                try {
+                    diario.agregar(movimiento);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("No se pudo registrar el movimiento en el diario", e);
+                }
+            }
+            aplicar(movimiento);
+        }
+    }
+
+    /**
+     * Registra varios movimientos que no son ventas con una sola escritura al
+     * diario: quedan guardados y aplicados todos, o ninguno.
+     *
+     * @throws UncheckedIOException si no se pudieron guardar en el diario; en ese
+     *         caso no se aplica ninguno
+     */
+    public void registrarTodos(List<MovimientoStock> lote) {
+        for (MovimientoStock movimiento : lote) {
+            if (movimiento.getTipo() == MovimientoStock.Tipo.VENTA) {
+                throw new IllegalArgumentException("Las ventas se registran con registrarVenta.");
+            }
+        }
+        synchronized (this) {
+            if (diario != null) {
+                try {
+                    diario.agregarTodos(lote);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("No se pudieron registrar los movimientos en el diario", e);
+                }
+            }
+            for (MovimientoStock movimiento : lote) {
+                aplicar(movimiento);
+            }
+        }
+    }
+
+    /**
+     * Registra una salida por cada línea de la venta, con la fecha de la venta.
+     */
+    public void registrarVenta(Venta venta) {
+        long segundo = KardexProducto.segundo(venta.getFechaHora());
+        for (int i = 0; i < venta.getCantidadLineas(); i++) {
+            kardex(venta.getProductoLinea(i).getNombre())
+                    .registrar(segundo, MovimientoStock.Tipo.VENTA, -venta.getCantidadLinea(i));
+        }
+    }
+
+    /**
+     * Registra salidas por ventas ya agrupadas por segundo (el resumen de un
+     * segmento archivado), sin reconstruir cada venta. Las ventas de un mismo
+     * segundo quedan como un solo movimiento.
+     *
+     * @param segundos Segundos desde la época, en UTC, de cada grupo
+     * @param cantidades Unidades vendidas en cada grupo (positivas)
+     */
+    public void registrarSalidas(String producto, long[] segundos, int[] cantidades, int largo) {
+        KardexProducto k = kardex(producto);
+        for (int i = 0; i < largo; i++) {
+            k.registrar(segundos[i], MovimientoStock.Tipo.VENTA, -cantidades[i]);
+        }
+    }
+
+    private void aplicar(MovimientoStock m) {
+        kardex(m.getProducto()).registrar(KardexProducto.segundo(m.getFechaHora()), m.getTipo(), m.getCantidad());
+    }
+
+    private KardexProducto kardex(String producto) {
+        return kardex.computeIfAbsent(producto.toLowerCase(), k -> new KardexProducto(producto));
+    }
+
+    /**
+     * Stock del producto a la fecha y hora indicada, contando los movimientos de
+     * ese mismo segundo. Es el stock disponible más lo reservado en ventas en curso.
+     *
+     * @return 0 si el producto no tiene movimientos
+     */
+    public int stockEn(String producto, LocalDateTime fechaHora) {
+        KardexProducto k = kardex.get(producto.toLowerCase());
+        return k != null ? k.saldoEn(KardexProducto.segundo(fechaHora)) : 0;
+    }
+
+    /**
+     * Movimientos del producto en orden de fecha, con el saldo después de cada uno.
+     *
+     * @param desde Fecha/hora mínima (inclusive), o null para no limitar
+     * @param hasta Fecha/hora máxima (exclusive), o null para no limitar
+     */
+    public Pagina<MovimientoStock> movimientos(String producto, LocalDateTime desde, LocalDateTime hasta,
+            int pagina, int tamanoPagina) {
+        KardexProducto k = kardex.get(producto.toLowerCase());
+        if (k == null) {
+            return new Pagina<>(List.of(), 0, pagina, tamanoPagina);
+        }
+        return k.movimientos(desde != null ? KardexProducto.segundo(desde) : Long.MIN_VALUE,
+                hasta != null ? KardexProducto.segundo(hasta) : Long.MAX_VALUE, pagina, tamanoPagina);
+    }
+
+    /**
+     * Fecha y hora del primer movimiento del producto, o null si no tiene movimientos.
+     */
+    public LocalDateTime primerMovimiento(String producto) {
+        KardexProducto k = kardex.get(producto.toLowerCase());
+        if (k == null) {
+            return null;
+        }
+        long segundo = k.getPrimerSegundo();
+        return segundo != Long.MAX_VALUE ? KardexProducto.fechaHora(segundo) : null;
+    }
+
+    /**
+     * Unidades vendidas del producto en cada uno de los días indicados.
+     *
+     * @param desde Primer día
+     * @param dias Cantidad de días consecutivos
+     */
+    public int[] ventasDiarias(String producto, LocalDate desde, int dias) {
+        int[] unidades = new int[dias];
+        KardexProducto k = kardex.get(producto.toLowerCase());
+        if (k != null) {
+            k.ventasPorDia(KardexProducto.segundo(desde.atStartOfDay()), unidades);
+        }
+        return unidades;
+    }
+
+    /**
+     * Suma de los movimientos que no son ventas: lo que debería coincidir con las
+     * unidades ingresadas del producto en el {@link Inventario}.
+     */
+    int getUnidadesNoVenta(String producto) {
+        KardexProducto k = kardex.get(producto.toLowerCase());
+        return k != null ? k.getUnidadesNoVenta() : 0;
+    }
+
+    public long getCantidadMovimientos() {
+        long total = 0;
+        for (KardexProducto k : kardex.values()) {
+            total += k.getCantidadMovimientos();
+        }
+        return total;
+    }
+}
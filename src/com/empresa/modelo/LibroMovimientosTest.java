@@ -0,0 +1,105 @@
+package com.empresa.modelo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link LibroMovimientos}.
+ */
+public class LibroMovimientosTest {
+
+    private static final LocalDateTime AYER = LocalDateTime.of(2024, 6, 9, 8, 0);
+
+    @Test
+    public void stockEn_sumaMovimientosHastaLaFecha() {
+        LibroMovimientos libro = new LibroMovimientos();
+        Producto gas = new Producto("Gas 15kg", "gas", 25000, 3000);
+        libro.registrar("Gas 15kg", AYER, MovimientoStock.Tipo.ENTRADA, 20);
+        Venta venta = new Venta("local", null, AYER.plusHours(4));
+        venta.agregarLinea(gas, 3, 0);
+        libro.registrarVenta(venta);
+        libro.registrar("Gas 15kg", AYER.plusHours(12), MovimientoStock.Tipo.AJUSTE, -1);
+
+        assertEquals(0, libro.stockEn("gas 15kg", AYER.minusSeconds(1)));
+        assertEquals(20, libro.stockEn("GAS 15KG", AYER));
+        assertEquals(17, libro.stockEn("Gas 15kg", AYER.plusHours(10)));
+        assertEquals(16, libro.stockEn("Gas 15kg", AYER.plusDays(1)));
+        assertEquals(0, libro.stockEn("Gas 5kg", AYER.plusDays(1)));
+    }
+
+    @Test
+    public void stockEn_coincideConRecalculoConMovimientosDesordenados() {
+        LibroMovimientos libro = new LibroMovimientos();
+        Random random = new Random(5);
+        int cantidad = KardexProducto.INTERVALO_FOTO * 8 + 17;
+        long[] segundos = new long[cantidad];
+        int[] cantidades = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            // en su mayoría en orden, con algunos atrasados que obligan a recalcular fotos
+            segundos[i] = i * 60L - (random.nextInt(20) == 0 ? random.nextInt(100_000) : 0);
+            cantidades[i] = random.nextInt(21) - 10;
+            libro.registrar("Regulador", AYER.plusSeconds(segundos[i]), MovimientoStock.Tipo.AJUSTE, cantidades[i]);
+            if (i % 97 == 0) {
+                verificar(libro, segundos, cantidades, i + 1, segundos[i]);
+            }
+        }
+        for (int q = 0; q < 200; q++) {
+            verificar(libro, segundos, cantidades, cantidad, random.nextInt(cantidad * 60) - 50_000);
+        }
+    }
+
+    private static void verificar(LibroMovimientos libro, long[] segundos, int[] cantidades, int registrados, long consulta) {
+        int esperado = 0;
+        for (int i = 0; i < registrados; i++) {
+            if (segundos[i] <= consulta) {
+                esperado += cantidades[i];
+            }
+        }
+        assertEquals(esperado, libro.stockEn("Regulador", AYER.plusSeconds(consulta)));
+    }
+
+    @Test
+    public void movimientos_retornaPaginaConSaldos() {
+        LibroMovimientos libro = new LibroMovimientos();
+        for (int i = 0; i < 10; i++) {
+            libro.registrar("Gas 5kg", AYER.plusHours(i), MovimientoStock.Tipo.ENTRADA, 1 + i);
+        }
+
+        Pagina<MovimientoStock> pagina = libro.movimientos("gas 5kg", AYER.plusHours(2), AYER.plusHours(8), 1, 4);
+        assertEquals(6, pagina.getTotal());
+        assertEquals(2, pagina.getElementos().size());
+        MovimientoStock m = pagina.getElementos().get(0);
+        assertEquals(AYER.plusHours(6), m.getFechaHora());
+        assertEquals(7, m.getCantidad());
+        assertEquals(28, m.getSaldo()); // 1 + 2 + ... + 7
+        assertEquals("Gas 5kg", m.getProducto());
+        assertEquals(0, libro.movimientos("Otro", null, null, 0, 10).getTotal());
+    }
+
+    @Test
+    public void activarDiario_recuperaIngresosYAjustesSinVentas() throws Exception {
+        Path ruta = Files.createTempFile("movimientos", ".diario");
+        Files.delete(ruta);
+        try {
+            LibroMovimientos libro = new LibroMovimientos();
+            libro.activarDiario(ruta.toString());
+            libro.registrar("Gas 15kg", AYER, MovimientoStock.Tipo.ENTRADA, 30);
+            libro.registrar("Gas 15kg", AYER.plusHours(1), MovimientoStock.Tipo.AJUSTE, -2);
+            libro.registrar("Gas 15kg", AYER.plusHours(2), MovimientoStock.Tipo.VENTA, -5);
+            libro.cerrarDiario();
+
+            LibroMovimientos recuperado = new LibroMovimientos();
+            recuperado.activarDiario(ruta.toString());
+            assertEquals(2, recuperado.getCantidadMovimientos());
+            assertEquals(28, recuperado.stockEn("Gas 15kg", AYER.plusDays(1)));
+            assertEquals(28, recuperado.getUnidadesNoVenta("gas 15kg"));
+            recuperado.cerrarDiario();
+        } finally {
+            Files.deleteIfExists(ruta);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.empresa.modelo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grilla de zonas de reparto: cada calle conocida se ubica en una celda
+ * (fila, columna) y la distancia entre dos celdas es la distancia Manhattan por
+ * el tamaño de la celda. No es un mapa exacto, pero basta para agrupar y ordenar
+ * repartos sin depender de un servicio externo de geocodificación.
+ *
+ * Una dirección se ubica por el nombre de su calle: las palabras antes del
+ * primer número ("Av. Los Aromos 123 depto 4" es "los aromos"), sin tildes ni
+ * mayúsculas y sin prefijos como "av" o "calle". Si el nombre comienza con un
+ * número, ese número es parte del nombre ("Calle 5 Norte 120" es "5 norte").
+ *
+ * @author Ignacio
+ */
+public final class MapaZonas {
+
+    /** Celda de una dirección que no se pudo ubicar. */
+    public static final int SIN_UBICAR = -1;
+
+    /** Nombre reservado en el archivo para la celda del local, desde donde salen los repartos. */
+    public static final String LOCAL = "local";
+
+    private static final int MAX_FILA = 0x7FFF; // así ninguna celda es negativa ni coincide con SIN_UBICAR
+    private static final int MAX_COLUMNA = 0xFFFF;
+    private static final Set<String> PREFIJOS = Set.of("av", "avda", "avenida", "calle", "pasaje", "psje", "pje");
+
+    private final int metrosPorCelda;
+    private final Map<String, Integer> calles;
+    private int local;
+
+    public MapaZonas(int metrosPorCelda) {
+        if (metrosPorCelda <= 0) {
+            throw new IllegalArgumentException("El tamaño de la celda debe ser mayor a 0.");
+        }
+        this.metrosPorCelda = metrosPorCelda;
+        this.calles = new HashMap<>();
+    }
+
+    /**
+     * Carga un mapa desde un archivo de texto con una calle por línea
+     * ({@code calle;fila;columna}); la línea {@code local;fila;columna} indica la
+     * celda del local. Se ignoran líneas vacías y las que comienzan con '#'. Las
+     * líneas inválidas se informan y se omiten.
+     */
+    public static MapaZonas cargar(Path ruta, int metrosPorCelda) throws IOException {
+        MapaZonas mapa = new MapaZonas(metrosPorCelda);
+        List<String> lineas = Files.readAllLines(ruta, StandardCharsets.UTF_8);
+        for (int i = 0; i < lineas.size(); i++) {
+            String linea = lineas.get(i).trim();
+            if (linea.isEmpty() || linea.startsWith("#")) {
+                continue;
+            }
+            String[] partes = linea.split(";");
+            try {
+                if (partes.length != 3) {
+                    throw new IllegalArgumentException("se esperaba calle;fila;columna");
+                }
+                int fila = Integer.parseInt(partes[1].trim());
+                int columna = Integer.parseInt(partes[2].trim());
+                if (partes[0].trim().equalsIgnoreCase(LOCAL)) {
+                    mapa.setLocal(fila, columna);
+                } else {
+                    mapa.agregarCalle(partes[0], fila, columna);
+                }
+            } catch (IllegalArgumentException e) {
+                System.out.println("Zonas, línea " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        return mapa;
+    }
+
+    public void agregarCalle(String calle, int fila, int columna) {
+        String clave = clave(calle);
+        if (clave.isEmpty()) {
+            throw new IllegalArgumentException("Nombre de calle vacío.");
+        }
+        calles.put(clave, celda(fila, columna));
+    }
+
+    public void setLocal(int fila, int columna) {
+        local = celda(fila, columna);
+    }
+
+    public int getLocal() {
+        return local;
+    }
+
+    public int getMetrosPorCelda() {
+        return metrosPorCelda;
+    }
+
+    /**
+     * Celda de una dirección, o {@link #SIN_UBICAR} si su calle no está en el mapa.
+     */
+    public int ubicar(String direccion) {
+        if (direccion == null) {
+            return SIN_UBICAR;
+        }
+        Integer celda = calles.get(clave(direccion));
+        return celda != null ? celda : SIN_UBICAR;
+    }
+
+    public long distancia(int celdaA, int celdaB) {
+        return (long) (Math.abs(fila(celdaA) - fila(celdaB)) + Math.abs(columna(celdaA) - columna(celdaB)))
+                * metrosPorCelda;
+    }
+
+    public static int celda(int fila, int columna) {
+        if (fila < 0 || fila > MAX_FILA || columna < 0 || columna > MAX_COLUMNA) {
+            throw new IllegalArgumentException("Coordenadas fuera de la grilla: " + fila + "," + columna);
+        }
+        return fila << 16 | columna;
+    }
+
+    public static int fila(int celda) {
+        return celda >>> 16;
+    }
+
+    public static int columna(int celda) {
+        return celda & MAX_COLUMNA;
+    }
+
+    private static String clave(String direccion) {
+        StringBuilder clave = new StringBuilder();
+        for (String palabra : TextoBusqueda.palabras(direccion)) {
+            if (Character.isDigit(palabra.charAt(0)) && clave.length() > 0) {
+                break;
+            }
+            if (clave.length() == 0 && PREFIJOS.contains(palabra)) {
+                continue;
+            }
+            if (clave.length() > 0) {
+                clave.append(' ');
+            }
+            clave.append(palabra);
+        }
+        return clave.toString();
+    }
+}
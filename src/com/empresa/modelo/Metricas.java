@@ -0,0 +1,64 @@
+package com.empresa.modelo;
+
+/**
+ * Totales de ventas acumulados para un grupo (un producto, un día, un cliente, etc.).
+ * Los montos están en pesos. Es inmutable: {@link CuboVentas} entrega copias.
+ *
+ * @author Ignacio
+ */
+public final class Metricas {
+
+    /** Métricas de un grupo sin ventas. */
+    public static final Metricas VACIAS = new Metricas(0, 0, 0, 0);
+
+    private final long ventas;
+    private final long unidades;
+    private final long totalBruto;
+    private final long totalDescuento;
+
+    public Metricas(long ventas, long unidades, long totalBruto, long totalDescuento) {
+        this.ventas = ventas;
+        this.unidades = unidades;
+        this.totalBruto = totalBruto;
+        this.totalDescuento = totalDescuento;
+    }
+
+    /**
+     * Cantidad de ventas que aportan a este grupo.
+     */
+    public long getVentas() {
+        return ventas;
+    }
+
+    public long getUnidades() {
+        return unidades;
+    }
+
+    public long getTotalBruto() {
+        return totalBruto;
+    }
+
+    public long getTotalDescuento() {
+        return totalDescuento;
+    }
+
+    /**
+     * Ingresos del grupo: total bruto menos descuentos.
+     */
+    public long getTotalNeto() {
+        return totalBruto - totalDescuento;
+    }
+
+    /**
+     * Ingreso neto promedio por venta, en pesos.
+     */
+    public long getTicketPromedio() {
+        return ventas > 0 ? getTotalNeto() / ventas : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Metricas{ventas=" + ventas + ", unidades=" + unidades + ", bruto=" + totalBruto
+                + ", descuento=" + totalDescuento + "}";
+    }
+}
@@ -0,0 +1,182 @@
+package com.empresa.modelo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Motor de descuentos basado en reglas ({@link ReglaDescuento}).
+ *
+ * Las reglas se compilan en una {@link TablaDescuentos} al cargarlas, de modo que
+ * consultar los descuentos de una línea de venta es una búsqueda de tiempo
+ * constante y sin crear objetos, aunque haya miles de reglas. Al recargar se
+ * compila una tabla nueva y se publica de una vez; las consultas en curso siguen
+ * usando la anterior. Si el archivo de reglas tiene errores, se conservan las
+ * reglas vigentes.
+ *
+ * Sin archivo de reglas se usan los descuentos históricos de la empresa.
+ *
+ * @author Ignacio
+ */
+public class MotorDescuentos {
+
+    private static final MotorDescuentos instancia = new MotorDescuentos();
+
+    private volatile TablaDescuentos tabla;
+    private WatchService vigilancia;
+
+    private MotorDescuentos() {
+        tabla = TablaDescuentos.compilar(reglasPorDefecto());
+    }
+
+    public static MotorDescuentos getInstancia() {
+        return instancia;
+    }
+
+    /**
+     * Descuentos históricos (antes fijos en {@link Descuento}).
+     */
+    public static List<ReglaDescuento> reglasPorDefecto() {
+        List<ReglaDescuento> reglas = new ArrayList<>();
+        // LOCAL
+        reglas.add(ReglaDescuento.paraProducto("gas 5kg", "local", 2500));
+        reglas.add(ReglaDescuento.paraProducto("gas 11kg", "local", 4000));
+        reglas.add(ReglaDescuento.paraProducto("gas 15kg", "local", 5500, 6000));
+        // DOMICILIO
+        reglas.add(ReglaDescuento.paraProducto("gas 5kg", "domicilio", 700, 1500));
+        reglas.add(ReglaDescuento.paraProducto("gas 11kg", "domicilio", 1500, 3500));
+        reglas.add(ReglaDescuento.paraProducto("gas 15kg", "domicilio", 3000, 5000));
+        reglas.add(ReglaDescuento.paraProducto("gas 45kg", "domicilio", 6000, 7000));
+        return reglas;
+    }
+
+    /**
+     * Descuentos disponibles para una línea de venta.
+     *
+     * @param producto Producto vendido
+     * @param formatoVenta "local" o "domicilio"
+     * @param cliente Cliente de la venta, o null
+     * @param hora Hora de la venta (0 a 23)
+     * @param cantidad Unidades de la línea
+     * @return Descuentos en pesos por unidad ({0} si no hay regla). El arreglo es
+     *         compartido y no debe modificarse.
+     */
+    public int[] obtenerDescuentos(Producto producto, String formatoVenta, Cliente cliente, int hora, int cantidad) {
+        return tabla.buscar(producto.getClaveNombre(), producto.getClaveTipo(), TablaDescuentos.codigoFormato(formatoVenta),
+                cliente != null ? cliente.getRut() : null, hora, cantidad);
+    }
+
+    /**
+     * Reemplaza las reglas vigentes.
+     */
+    public void cargarReglas(List<ReglaDescuento> reglas) {
+        tabla = TablaDescuentos.compilar(reglas);
+    }
+
+    /**
+     * Carga reglas desde un archivo de texto (una por línea; se ignoran líneas
+     * vacías y las que comienzan con '#'). Si alguna línea es inválida se informa
+     * y se conservan las reglas vigentes.
+     *
+     * @return true si las reglas se cargaron
+     */
+    public boolean cargarReglas(Path ruta) {
+        List<String> lineas;
+        try {
+            lineas = Files.readAllLines(ruta, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.out.println("No se pudo leer el archivo de descuentos: " + e.getMessage());
+            return false;
+        }
+
+        List<ReglaDescuento> reglas = new ArrayList<>(lineas.size());
+        boolean errores = false;
+        for (int i = 0; i < lineas.size(); i++) {
+            String linea = lineas.get(i).trim();
+            if (linea.isEmpty() || linea.startsWith("#")) {
+                continue;
+            }
+            try {
+                reglas.add(ReglaDescuento.parsear(linea));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Descuentos, línea " + (i + 1) + ": " + e.getMessage());
+                errores = true;
+            }
+        }
+        if (errores) {
+            System.out.println("Se conservan las reglas de descuento vigentes.");
+            return false;
+        }
+        cargarReglas(reglas);
+        return true;
+    }
+
+    /**
+     * Carga el archivo de reglas (si existe) y lo vuelve a cargar cada vez que se
+     * modifica, desde un hilo en segundo plano.
+     */
+    public synchronized void vigilar(Path ruta) throws IOException {
+        detenerVigilancia();
+        Path archivo = ruta.toAbsolutePath();
+        if (Files.exists(archivo)) {
+            cargarReglas(archivo);
+        }
+
+        WatchService servicio = FileSystems.getDefault().newWatchService();
+        archivo.getParent().register(servicio, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        vigilancia = servicio;
+
+        Thread hilo = new Thread(() -> vigilarCambios(servicio, archivo), "descuentos-recarga");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Deja de vigilar el archivo de reglas; las reglas cargadas se mantienen.
+     */
+    public synchronized void detenerVigilancia() {
+        if (vigilancia != null) {
+            try {
+                vigilancia.close();
+            } catch (IOException e) {
+                System.out.println("Error al detener la recarga de descuentos: " + e.getMessage());
+            }
+            vigilancia = null;
+        }
+    }
+
+    private void vigilarCambios(WatchService servicio, Path archivo) {
+        try {
+            while (true) {
+                WatchKey clave = servicio.take();
+                boolean cambio = false;
+                for (WatchEvent<?> evento : clave.pollEvents()) {
+                    if (archivo.getFileName().equals(evento.context())) {
+                        cambio = true;
+                    }
+                }
+                clave.reset();
+                if (cambio && Files.exists(archivo) && cargarReglas(archivo)) {
+                    System.out.println("Reglas de descuento recargadas: " + tabla.getCantidadReglas());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // detenerVigilancia()
+        }
+    }
+
+    public int getCantidadReglas() {
+        return tabla.getCantidadReglas();
+    }
+}
@@ -0,0 +1,70 @@
+package com.empresa.modelo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link MotorDescuentos}.
+ */
+public class MotorDescuentosTest {
+
+    private final MotorDescuentos motor = MotorDescuentos.getInstancia();
+    private final Producto gas15 = new Producto("Gas 15kg", "gas", 25000, 3000);
+    private final Producto regulador = new Producto("Regulador", "accesorio", 5000, 500);
+    private final Cliente cliente = new Cliente("Ana", "11.111.111-1", "", "");
+
+    @After
+    public void restaurarReglas() {
+        motor.cargarReglas(MotorDescuentos.reglasPorDefecto());
+    }
+
+    @Test
+    public void obtenerDescuentos_reglasPorDefectoIgualesALasHistoricas() {
+        assertArrayEquals(new int[]{5500, 6000}, motor.obtenerDescuentos(gas15, "local", null, 10, 1));
+        assertArrayEquals(new int[]{3000, 5000}, motor.obtenerDescuentos(gas15, "DOMICILIO", null, 22, 3));
+        assertArrayEquals(new int[]{0}, motor.obtenerDescuentos(regulador, "local", null, 10, 1));
+        assertArrayEquals(new int[]{0}, motor.obtenerDescuentos(gas15, "otro", null, 10, 1));
+    }
+
+    @Test
+    public void obtenerDescuentos_respetaPrecedenciaFranjaYTramos() {
+        List<ReglaDescuento> reglas = Arrays.asList(
+                ReglaDescuento.parsear("tipo=gas; descuentos=100"),
+                ReglaDescuento.parsear("producto=gas 15kg; formato=local; desde=8; hasta=12; descuentos=900"),
+                ReglaDescuento.parsear("producto=GAS 15KG; formato=local; descuentos=500"),
+                ReglaDescuento.parsear("producto=gas 15kg; formato=local; cantidadMinima=10; descuentos=700"),
+                ReglaDescuento.parsear("cliente=11.111.111-1; tipo=gas; descuentos=2000"),
+                ReglaDescuento.parsear("formato=domicilio; desde=22; hasta=2; descuentos=50"));
+        motor.cargarReglas(reglas);
+
+        assertArrayEquals(new int[]{500}, motor.obtenerDescuentos(gas15, "local", null, 14, 1));
+        assertArrayEquals(new int[]{900}, motor.obtenerDescuentos(gas15, "local", null, 9, 1));
+        assertArrayEquals(new int[]{700}, motor.obtenerDescuentos(gas15, "local", null, 14, 12));
+        assertArrayEquals(new int[]{100}, motor.obtenerDescuentos(gas15, "domicilio", null, 14, 1));
+        assertArrayEquals(new int[]{2000}, motor.obtenerDescuentos(gas15, "local", cliente, 9, 1));
+        assertArrayEquals(new int[]{50}, motor.obtenerDescuentos(regulador, "domicilio", null, 1, 1));
+        assertArrayEquals(new int[]{0}, motor.obtenerDescuentos(regulador, "domicilio", null, 3, 1));
+        assertEquals(6, motor.getCantidadReglas());
+    }
+
+    @Test
+    public void cargarReglas_archivoConErroresConservaReglasVigentes() throws Exception {
+        Path archivo = Files.createTempFile("descuentos", ".reglas");
+        try {
+            Files.writeString(archivo, "# reglas\nproducto=Regulador; descuentos=300,400\n");
+            assertTrue(motor.cargarReglas(archivo));
+            assertArrayEquals(new int[]{300, 400}, motor.obtenerDescuentos(regulador, "local", null, 10, 1));
+
+            Files.writeString(archivo, "producto=Regulador; descuentos=abc\nformato=tienda; descuentos=1\n");
+            assertFalse(motor.cargarReglas(archivo));
+            assertArrayEquals(new int[]{300, 400}, motor.obtenerDescuentos(regulador, "local", null, 10, 1));
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+    }
+}
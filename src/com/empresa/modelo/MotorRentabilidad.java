@@ -0,0 +1,366 @@
+package com.empresa.modelo;
+
+import com.empresa.persistencia.SegmentoVentas;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Informes de rentabilidad y comisiones: margen bruto, comisión de repartidores y
+ * costo de descuentos por producto, tipo, formato y mes, a partir del
+ * {@link HistorialVentas}.
+ *
+ * Los meses que faltan se calculan juntos en una sola pasada por las ventas,
+ * repartida entre hilos con fork/join: cada tarea acumula sus ventas por mes y
+ * las mitades se suman al volver. Los segmentos archivados del historial que
+ * tocan algún mes pedido se leen en paralelo, una tarea por segmento. Los meses cerrados (anteriores al actual)
+ * quedan guardados y se reutilizan mientras su cantidad de ventas coincida con la
+ * del {@link CuboVentas}; si entra una venta atrasada, ese mes se recalcula.
+ *
+ * @author Ignacio
+ */
+public class MotorRentabilidad {
+
+    /**
+     * Dimensiones por las que se puede separar la rentabilidad.
+     */
+    public enum Dimension {
+        PRODUCTO, TIPO, FORMATO
+    }
+
+    private static final MotorRentabilidad instancia = new MotorRentabilidad(HistorialVentas.getInstancia());
+    private static final int VENTAS_POR_TAREA = 4096;
+
+    // posiciones de los acumuladores
+    private static final int UNIDADES = 0;
+    private static final int INGRESOS = 1;
+    private static final int COSTO = 2;
+    private static final int COMISION = 3;
+    private static final int DESCUENTO = 4;
+    private static final int CAMPOS = 5;
+
+    private final HistorialVentas historial;
+    private final Map<YearMonth, Mes> cerrados;
+
+    public MotorRentabilidad(HistorialVentas historial) {
+        this.historial = historial;
+        this.cerrados = new ConcurrentHashMap<>();
+    }
+
+    public static MotorRentabilidad getInstancia() {
+        return instancia;
+    }
+
+    public SortedMap<YearMonth, Rentabilidad> porMes(YearMonth desde, YearMonth hasta) {
+        return porMes(desde, hasta, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Rentabilidad total de cada mes del rango, inclusive. Los meses sin ventas no
+     * aparecen.
+     *
+     * @param pool Pool donde se reparte el cálculo de los meses no guardados
+     */
+    public SortedMap<YearMonth, Rentabilidad> porMes(YearMonth desde, YearMonth hasta, ForkJoinPool pool) {
+        SortedMap<YearMonth, Rentabilidad> resultado = new TreeMap<>();
+        meses(desde, hasta, pool).forEach((mes, datos) -> {
+            if (datos.ventas > 0) {
+                resultado.put(mes, foto(datos.total));
+            }
+        });
+        return resultado;
+    }
+
+    public Map<String, Rentabilidad> porDimension(Dimension dimension, YearMonth desde, YearMonth hasta) {
+        return porDimension(dimension, desde, hasta, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Rentabilidad de los grupos de una dimensión en el rango de meses, inclusive,
+     * de mayor a menor contribución.
+     *
+     * @param pool Pool donde se reparte el cálculo de los meses no guardados
+     */
+    public Map<String, Rentabilidad> porDimension(Dimension dimension, YearMonth desde, YearMonth hasta,
+            ForkJoinPool pool) {
+        Map<String, long[]> suma = new HashMap<>();
+        for (Mes datos : meses(desde, hasta, pool).values()) {
+            sumarGrupos(suma, datos.grupos(dimension));
+        }
+        List<Map.Entry<String, long[]>> ordenados = new ArrayList<>(suma.entrySet());
+        ordenados.sort((a, b) -> Long.compare(contribucion(b.getValue()), contribucion(a.getValue())));
+
+        Map<String, Rentabilidad> resultado = new LinkedHashMap<>();
+        for (Map.Entry<String, long[]> e : ordenados) {
+            resultado.put(e.getKey(), foto(e.getValue()));
+        }
+        return resultado;
+    }
+
+    /**
+     * Rentabilidad total del rango de meses, inclusive.
+     */
+    public Rentabilidad total(YearMonth desde, YearMonth hasta) {
+        long[] suma = new long[CAMPOS];
+        for (Mes datos : meses(desde, hasta, ForkJoinPool.commonPool()).values()) {
+            sumar(suma, datos.total);
+        }
+        return foto(suma);
+    }
+
+    /**
+     * Cantidad de meses cerrados guardados.
+     */
+    public int getMesesGuardados() {
+        return cerrados.size();
+    }
+
+    /**
+     * Datos de cada mes del rango: los guardados que siguen vigentes y el resto
+     * calculado en una sola pasada.
+     */
+    private Map<YearMonth, Mes> meses(YearMonth desde, YearMonth hasta, ForkJoinPool pool) {
+        YearMonth actual = YearMonth.now();
+        CuboVentas cubo = historial.getEstadisticas();
+        Map<YearMonth, Mes> resultado = new TreeMap<>();
+        Set<YearMonth> faltantes = new HashSet<>();
+        for (YearMonth mes = desde; !mes.isAfter(hasta); mes = mes.plusMonths(1)) {
+            long ventas = cubo.porMes(mes).getVentas();
+            Mes guardado = cerrados.get(mes);
+            if (guardado != null && guardado.ventas == ventas) {
+                resultado.put(mes, guardado);
+            } else if (ventas == 0) {
+                resultado.put(mes, new Mes());
+            } else {
+                faltantes.add(mes);
+            }
+        }
+        if (faltantes.isEmpty()) {
+            return resultado;
+        }
+
+        Map<YearMonth, Mes> calculados = pool.invoke(new CalcularHistorial(historial.foto(), faltantes));
+        for (YearMonth mes : faltantes) {
+            Mes datos = calculados.getOrDefault(mes, new Mes());
+            resultado.put(mes, datos);
+            if (mes.isBefore(actual)) {
+                cerrados.put(mes, datos);
+            }
+        }
+        return resultado;
+    }
+
+    private static long contribucion(long[] a) {
+        return a[INGRESOS] - a[COSTO] - a[COMISION];
+    }
+
+    private static Rentabilidad foto(long[] a) {
+        return new Rentabilidad(a[UNIDADES], a[INGRESOS], a[COSTO], a[COMISION], a[DESCUENTO]);
+    }
+
+    private static void sumar(long[] destino, long[] origen) {
+        for (int c = 0; c < CAMPOS; c++) {
+            destino[c] += origen[c];
+        }
+    }
+
+    private static void sumarGrupos(Map<String, long[]> destino, Map<String, long[]> origen) {
+        origen.forEach((clave, a) -> sumar(destino.computeIfAbsent(clave, k -> new long[CAMPOS]), a));
+    }
+
+    /**
+     * Acumulados de un mes: total y por producto, tipo y formato.
+     */
+    private static final class Mes {
+        private long ventas;
+        private final long[] total = new long[CAMPOS];
+        private final Map<String, long[]> porProducto = new HashMap<>();
+        private final Map<String, long[]> porTipo = new HashMap<>();
+        private final Map<String, long[]> porFormato = new HashMap<>();
+
+        private Map<String, long[]> grupos(Dimension dimension) {
+            return switch (dimension) {
+                case PRODUCTO -> porProducto;
+                case TIPO -> porTipo;
+                case FORMATO -> porFormato;
+            };
+        }
+
+        private void registrar(Venta venta) {
+            ventas++;
+            long[] formato = porFormato.computeIfAbsent(venta.getFormatoVenta().toLowerCase(), k -> new long[CAMPOS]);
+            for (int i = 0; i < venta.getCantidadLineas(); i++) {
+                Producto producto = venta.getProductoLinea(i);
+                long cantidad = venta.getCantidadLinea(i);
+                long ingresos = venta.getTotalLinea(i);
+                long costo = producto.getPrecioCompraConIVA() * cantidad;
+                long comision = producto.getComisionPesos() * cantidad;
+                long descuento = venta.getDescuentoLinea(i) * cantidad;
+                sumarLinea(total, cantidad, ingresos, costo, comision, descuento);
+                sumarLinea(formato, cantidad, ingresos, costo, comision, descuento);
+                sumarLinea(porProducto.computeIfAbsent(producto.getNombre(), k -> new long[CAMPOS]), cantidad,
+                        ingresos, costo, comision, descuento);
+                sumarLinea(porTipo.computeIfAbsent(producto.getTipo(), k -> new long[CAMPOS]), cantidad, ingresos,
+                        costo, comision, descuento);
+            }
+        }
+
+        private static void sumarLinea(long[] a, long cantidad, long ingresos, long costo, long comision,
+                long descuento) {
+            a[UNIDADES] += cantidad;
+            a[INGRESOS] += ingresos;
+            a[COSTO] += costo;
+            a[COMISION] += comision;
+            a[DESCUENTO] += descuento;
+        }
+
+        private Mes unir(Mes otro) {
+            ventas += otro.ventas;
+            sumar(total, otro.total);
+            sumarGrupos(porProducto, otro.porProducto);
+            sumarGrupos(porTipo, otro.porTipo);
+            sumarGrupos(porFormato, otro.porFormato);
+            return this;
+        }
+    }
+
+    /**
+     * Acumula por mes las ventas archivadas y las que están en memoria.
+     *
+     * @throws UncheckedIOException si no se puede leer un segmento
+     */
+    private static final class CalcularHistorial extends RecursiveTask<Map<YearMonth, Mes>> {
+        private static final long serialVersionUID = 1L;
+
+        private final HistorialVentas.Foto foto;
+        private final Set<YearMonth> pedidos;
+
+        private CalcularHistorial(HistorialVentas.Foto foto, Set<YearMonth> pedidos) {
+            this.foto = foto;
+            this.pedidos = pedidos;
+        }
+
+        @Override
+        protected Map<YearMonth, Mes> compute() {
+            List<RecursiveTask<Map<YearMonth, Mes>>> tareas = new ArrayList<>();
+            for (SegmentoVentas segmento : foto.segmentos) {
+                if (tocaMesPedido(segmento)) {
+                    tareas.add(new CalcularSegmento(segmento, pedidos));
+                }
+            }
+            tareas.add(new CalcularMeses(foto.recientes, 0, foto.recientes.length, pedidos));
+            ForkJoinTask.invokeAll(tareas);
+
+            Map<YearMonth, Mes> resultado = new HashMap<>();
+            for (RecursiveTask<Map<YearMonth, Mes>> tarea : tareas) {
+                tarea.join().forEach((mes, datos) -> resultado.merge(mes, datos, Mes::unir));
+            }
+            return resultado;
+        }
+
+        private boolean tocaMesPedido(SegmentoVentas segmento) {
+            YearMonth ultimo = YearMonth.from(segmento.getUltima());
+            for (YearMonth mes = YearMonth.from(segmento.getPrimera()); !mes.isAfter(ultimo); mes = mes.plusMonths(1)) {
+                if (pedidos.contains(mes)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Acumula por mes las ventas de un segmento archivado cuyo mes está pedido.
+     */
+    private static final class CalcularSegmento extends RecursiveTask<Map<YearMonth, Mes>> {
+        private static final long serialVersionUID = 1L;
+
+        private final SegmentoVentas segmento;
+        private final Set<YearMonth> pedidos;
+
+        private CalcularSegmento(SegmentoVentas segmento, Set<YearMonth> pedidos) {
+            this.segmento = segmento;
+            this.pedidos = pedidos;
+        }
+
+        @Override
+        protected Map<YearMonth, Mes> compute() {
+            Map<YearMonth, Mes> resultado = new HashMap<>();
+            try {
+                segmento.recorrer(null, null, new HashMap<>(), venta -> {
+                    YearMonth mes = YearMonth.from(venta.getFechaHora());
+                    if (pedidos.contains(mes)) {
+                        resultado.computeIfAbsent(mes, k -> new Mes()).registrar(venta);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Acumula por mes las ventas de un tramo del arreglo cuyo mes está pedido.
+     */
+    private static final class CalcularMeses extends RecursiveTask<Map<YearMonth, Mes>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Venta[] ventas;
+        private final int desde;
+        private final int hasta;
+        private final Set<YearMonth> pedidos;
+
+        private CalcularMeses(Venta[] ventas, int desde, int hasta, Set<YearMonth> pedidos) {
+            this.ventas = ventas;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.pedidos = pedidos;
+        }
+
+        @Override
+        protected Map<YearMonth, Mes> compute() {
+            if (hasta - desde > VENTAS_POR_TAREA) {
+                int medio = (desde + hasta) >>> 1;
+                CalcularMeses izquierda = new CalcularMeses(ventas, desde, medio, pedidos);
+                izquierda.fork();
+                Map<YearMonth, Mes> derecha = new CalcularMeses(ventas, medio, hasta, pedidos).compute();
+                Map<YearMonth, Mes> resultado = izquierda.join();
+                derecha.forEach((mes, datos) -> resultado.merge(mes, datos, Mes::unir));
+                return resultado;
+            }
+            Map<YearMonth, Mes> resultado = new HashMap<>();
+            // las ventas vienen casi siempre en orden de fecha: se reutiliza el mes anterior
+            int anio = -1;
+            int numeroMes = -1;
+            Mes actual = null;
+            for (int i = desde; i < hasta; i++) {
+                LocalDateTime fecha = ventas[i].getFechaHora();
+                if (fecha.getYear() != anio || fecha.getMonthValue() != numeroMes) {
+                    anio = fecha.getYear();
+                    numeroMes = fecha.getMonthValue();
+                    YearMonth mes = YearMonth.of(anio, numeroMes);
+                    actual = pedidos.contains(mes) ? resultado.computeIfAbsent(mes, k -> new Mes()) : null;
+                }
+                if (actual != null) {
+                    actual.registrar(ventas[i]);
+                }
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.empresa.modelo;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link MotorRentabilidad}.
+ */
+public class MotorRentabilidadTest {
+
+    private final HistorialVentas historial = HistorialVentas.getInstancia();
+    private final Producto gas = new Producto("Gas 15kg", "gas", 25000, 3000);
+    private final Producto regulador = new Producto("Regulador", "accesorio", 5000, 500);
+
+    @Test
+    public void porDimension_calculaMargenComisionYDescuento() {
+        // meses lejanos para no mezclarse con otras ventas del historial compartido
+        Venta v1 = new Venta("local", null, LocalDateTime.of(2001, 3, 10, 9, 30));
+        v1.agregarLinea(gas, 2, 1000); // 2 x (28.000 - 1.000)
+        v1.agregarLinea(regulador, 1, 0);
+        Venta v2 = new Venta("domicilio", null, LocalDateTime.of(2001, 4, 2, 18, 0));
+        v2.agregarLinea(gas, 1, 0);
+        historial.agregarVentas(List.of(v1, v2));
+
+        MotorRentabilidad motor = new MotorRentabilidad(historial);
+        Map<String, Rentabilidad> productos = motor.porDimension(MotorRentabilidad.Dimension.PRODUCTO,
+                YearMonth.of(2001, 3), YearMonth.of(2001, 4));
+        Rentabilidad r = productos.get("Gas 15kg");
+        assertEquals(3, r.getUnidades());
+        assertEquals(54000 + 28000, r.getIngresos());
+        assertEquals(75000, r.getCosto());
+        assertEquals(9000, r.getComision());
+        assertEquals(2000, r.getDescuento());
+        assertEquals(7000, r.getMargenBruto());
+        assertEquals(-2000, r.getContribucion());
+        assertEquals("Regulador", productos.keySet().iterator().next()); // mayor contribución primero
+
+        Rentabilidad local = motor.porDimension(MotorRentabilidad.Dimension.FORMATO, YearMonth.of(2001, 3),
+                YearMonth.of(2001, 3)).get("local");
+        assertEquals(54000 + 5500, local.getIngresos());
+        assertEquals(2, motor.porMes(YearMonth.of(2001, 1), YearMonth.of(2001, 6)).size());
+    }
+
+    @Test
+    public void porMes_reutilizaMesesCerradosYRecalculaSiLlegaUnaVentaAtrasada() {
+        Venta v1 = new Venta("local", null, LocalDateTime.of(2002, 5, 10, 9, 30));
+        v1.agregarLinea(gas, 1, 0);
+        historial.agregarVenta(v1);
+
+        MotorRentabilidad motor = new MotorRentabilidad(historial);
+        YearMonth mayo = YearMonth.of(2002, 5);
+        assertEquals(3000, motor.total(mayo, mayo).getMargenBruto());
+        assertEquals(1, motor.getMesesGuardados());
+
+        Venta atrasada = new Venta("local", null, LocalDateTime.of(2002, 5, 20, 9, 30));
+        atrasada.agregarLinea(regulador, 2, 0);
+        historial.agregarVenta(atrasada);
+        assertEquals(3000 + 1000, motor.total(mayo, mayo).getMargenBruto());
+        assertEquals(4000, motor.porMes(mayo, mayo).get(mayo).getComision());
+    }
+
+    @Test
+    public void porMes_daLoMismoConUnHiloQueConVarios() {
+        Random random = new Random(5);
+        List<Venta> ventas = new ArrayList<>();
+        LocalDateTime fecha = LocalDateTime.of(2003, 1, 1, 9, 0);
+        for (int i = 0; i < 20_000; i++) {
+            fecha = fecha.plusMinutes(random.nextInt(60));
+            Venta v = new Venta(i % 3 == 0 ? "domicilio" : "local", null, fecha);
+            v.agregarLinea(random.nextBoolean() ? gas : regulador, 1 + random.nextInt(3), random.nextInt(500));
+            ventas.add(v);
+        }
+        historial.agregarVentas(ventas);
+
+        YearMonth desde = YearMonth.of(2003, 1);
+        YearMonth hasta = YearMonth.of(2004, 12); // las ventas abarcan más de un año
+        Map<YearMonth, Rentabilidad> secuencial = new MotorRentabilidad(historial).porMes(desde, hasta,
+                new ForkJoinPool(1));
+        Map<YearMonth, Rentabilidad> paralelo = new MotorRentabilidad(historial).porMes(desde, hasta,
+                new ForkJoinPool(4));
+        assertEquals(secuencial.keySet(), paralelo.keySet());
+        long unidades = 0;
+        for (YearMonth mes : secuencial.keySet()) {
+            assertEquals(secuencial.get(mes).getContribucion(), paralelo.get(mes).getContribucion());
+            assertEquals(secuencial.get(mes).getDescuento(), paralelo.get(mes).getDescuento());
+            unidades += paralelo.get(mes).getUnidades();
+        }
+        long esperadas = 0;
+        for (Venta v : ventas) {
+            esperadas += v.getCantidadUnidades();
+        }
+        assertEquals(esperadas, unidades);
+    }
+}
@@ -0,0 +1,83 @@
+package com.empresa.modelo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Un asiento de la cuenta corriente de un cliente: un cargo (venta a crédito) o
+ * un abono (pago). El monto siempre es positivo; el tipo indica si aumenta o
+ * disminuye la deuda. Es inmutable.
+ *
+ * @author Ignacio
+ */
+public final class MovimientoCuenta {
+
+    /**
+     * Efecto del asiento sobre el saldo del cliente.
+     */
+    public enum Tipo {
+        /** Aumenta la deuda (venta a crédito). */
+        CARGO,
+        /** Disminuye la deuda (pago). */
+        ABONO
+    }
+
+    private final String rut;
+    private final LocalDateTime fechaHora;
+    private final Tipo tipo;
+    private final long monto;
+    private final String referencia;
+    private final long saldo;
+
+    public MovimientoCuenta(String rut, LocalDateTime fechaHora, Tipo tipo, long monto, String referencia) {
+        this(rut, fechaHora, tipo, monto, referencia, 0);
+    }
+
+    /**
+     * @param saldo Deuda del cliente después del asiento (negativa si tiene saldo a favor)
+     */
+    public MovimientoCuenta(String rut, LocalDateTime fechaHora, Tipo tipo, long monto, String referencia, long saldo) {
+        this.rut = rut;
+        this.fechaHora = fechaHora;
+        this.tipo = tipo;
+        this.monto = monto;
+        this.referencia = referencia;
+        this.saldo = saldo;
+    }
+
+    public String getRut() {
+        return rut;
+    }
+
+    public LocalDateTime getFechaHora() {
+        return fechaHora;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Monto del asiento en pesos, siempre positivo.
+     */
+    public long getMonto() {
+        return monto;
+    }
+
+    public String getReferencia() {
+        return referencia;
+    }
+
+    /**
+     * Deuda después del asiento. Solo viene informada en las consultas de
+     * {@link CuentasClientes}; en los asientos por registrar es 0.
+     */
+    public long getSaldo() {
+        return saldo;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s | %-5s | %12s | Saldo: %12s | %s", fechaHora, tipo,
+                Pesos.formatear(tipo == Tipo.CARGO ? monto : -monto), Pesos.formatear(saldo), referencia);
+    }
+}
@@ -0,0 +1,81 @@
+package com.empresa.modelo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Un cambio de stock de un producto: ingreso, venta o ajuste. La cantidad lleva
+ * signo (las ventas restan). Es inmutable.
+ *
+ * @author Ignacio
+ */
+public final class MovimientoStock {
+
+    /**
+     * Origen del movimiento.
+     */
+    public enum Tipo {
+        /** Stock que ya existía antes de llevar el libro de movimientos. */
+        INICIAL,
+        /** Ingreso de mercadería, con o sin factura. */
+        ENTRADA,
+        VENTA,
+        /** Corrección manual (mermas, conteos físicos). */
+        AJUSTE
+    }
+
+    /** Fecha con que se registra el stock inicial: antes de cualquier otro movimiento. */
+    public static final LocalDateTime INICIO = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final String producto;
+    private final LocalDateTime fechaHora;
+    private final Tipo tipo;
+    private final int cantidad;
+    private final int saldo;
+
+    public MovimientoStock(String producto, LocalDateTime fechaHora, Tipo tipo, int cantidad) {
+        this(producto, fechaHora, tipo, cantidad, 0);
+    }
+
+    /**
+     * @param saldo Stock del producto después del movimiento
+     */
+    public MovimientoStock(String producto, LocalDateTime fechaHora, Tipo tipo, int cantidad, int saldo) {
+        this.producto = producto;
+        this.fechaHora = fechaHora;
+        this.tipo = tipo;
+        this.cantidad = cantidad;
+        this.saldo = saldo;
+    }
+
+    public String getProducto() {
+        return producto;
+    }
+
+    public LocalDateTime getFechaHora() {
+        return fechaHora;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Unidades del movimiento: positivas si entran, negativas si salen.
+     */
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Stock después del movimiento. Solo viene informado en las consultas del
+     * {@link LibroMovimientos}; en los movimientos por registrar es 0.
+     */
+    public int getSaldo() {
+        return saldo;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s | %-8s | %+6d | Saldo: %d", fechaHora, tipo, cantidad, saldo);
+    }
+}
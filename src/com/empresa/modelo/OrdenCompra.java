@@ -19,9 +19,16 @@ public class OrdenCompra {
     private final List<ItemOrden> items;
 
     public OrdenCompra(String idOrden, String proveedor) {
+        this(idOrden, proveedor, LocalDate.now());
+    }
+
+    /**
+     * Constructor con fecha de emisión explícita (usado al leer órdenes guardadas).
+     */
+    public OrdenCompra(String idOrden, String proveedor, LocalDate fechaEmision) {
         this.idOrden = idOrden;
         this.proveedor = proveedor;
-        this.fechaEmision = LocalDate.now();
+        this.fechaEmision = fechaEmision;
         this.items = new ArrayList<>();
     }
 
@@ -45,10 +52,13 @@ public class OrdenCompra {
         return items;
     }
 
-    public double calcularTotalEstimado() {
-        double total = 0;
+    /**
+     * Total estimado de la orden en pesos, con IVA incluido.
+     */
+    public long calcularTotalEstimado() {
+        long total = 0;
         for (ItemOrden item : items) {
-            total += item.getProducto().getPrecioCompraConIVA() * item.getCantidad();
+            total = Pesos.sumar(total, Pesos.multiplicar(item.getProducto().getPrecioCompraConIVA(), item.getCantidad()));
         }
         return total;
     }
@@ -17,7 +17,7 @@ public class OrdenCompraTest {
         orden.agregarProducto(prod1, 2); // 2 * 10000
         orden.agregarProducto(prod2, 3); // 3 * 5000
 
-        double esperado = 2 * prod1.getPrecioCompraConIVA() + 3 * prod2.getPrecioCompraConIVA();
-        assertEquals(esperado, orden.calcularTotalEstimado(), 0.0001);
+        long esperado = 2 * prod1.getPrecioCompraConIVA() + 3 * prod2.getPrecioCompraConIVA();
+        assertEquals(esperado, orden.calcularTotalEstimado());
     }
 }
@@ -0,0 +1,76 @@
+package com.empresa.modelo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Traslado de unidades de un producto entre sucursales. Sale del stock de origen
+ * al crearse y entra al de destino cuando la sucursal de destino la recibe. Es
+ * inmutable: recibirla produce una orden nueva con otro estado.
+ *
+ * @author Ignacio
+ */
+public final class OrdenTransferencia {
+
+    /**
+     * Estados en el orden en que avanzan; al fusionar réplicas gana el más avanzado.
+     */
+    public enum Estado {
+        EN_TRANSITO, RECIBIDA
+    }
+
+    private final String id;
+    private final String origen;
+    private final String destino;
+    private final String producto;
+    private final int cantidad;
+    private final LocalDateTime fecha;
+    private final Estado estado;
+
+    public OrdenTransferencia(String id, String origen, String destino, String producto, int cantidad,
+            LocalDateTime fecha, Estado estado) {
+        this.id = id;
+        this.origen = origen;
+        this.destino = destino;
+        this.producto = producto;
+        this.cantidad = cantidad;
+        this.fecha = fecha;
+        this.estado = estado;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOrigen() {
+        return origen;
+    }
+
+    public String getDestino() {
+        return destino;
+    }
+
+    public String getProducto() {
+        return producto;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    OrdenTransferencia conEstado(Estado nuevo) {
+        return new OrdenTransferencia(id, origen, destino, producto, cantidad, fecha, nuevo);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s | %s -> %s | %s x%d | %s | %s", id, origen, destino, producto, cantidad, fecha, estado);
+    }
+}
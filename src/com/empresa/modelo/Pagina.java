@@ -0,0 +1,55 @@
+package com.empresa.modelo;
+
+import java.util.List;
+
+/**
+ * Página de resultados de una consulta: los elementos de la página pedida y el
+ * total de coincidencias, para que la interfaz pueda paginar.
+ *
+ * @param <T> Tipo de los elementos
+ * @author Ignacio
+ */
+public class Pagina<T> {
+
+    private final List<T> elementos;
+    private final int total;
+    private final int numero;
+    private final int tamano;
+
+    public Pagina(List<T> elementos, int total, int numero, int tamano) {
+        this.elementos = elementos;
+        this.total = total;
+        this.numero = numero;
+        this.tamano = tamano;
+    }
+
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Total de coincidencias de la consulta (en todas las páginas).
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Número de esta página, comenzando en 0.
+     */
+    public int getNumero() {
+        return numero;
+    }
+
+    public int getTamano() {
+        return tamano;
+    }
+
+    public int getTotalPaginas() {
+        return tamano > 0 ? (total + tamano - 1) / tamano : 0;
+    }
+
+    public boolean haySiguiente() {
+        return (long) (numero + 1) * tamano < total;
+    }
+}
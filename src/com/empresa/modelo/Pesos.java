@@ -0,0 +1,96 @@
+package com.empresa.modelo;
+
+/**
+ * Aritmética y formato de montos en pesos chilenos (CLP).
+ *
+ * Los montos se representan como {@code long} en pesos enteros (el peso no tiene
+ * decimales), de modo que sumas y multiplicaciones son exactas, no acumulan error
+ * de redondeo y no crean objetos. Esta clase agrupa las operaciones sobre ese
+ * valor, al estilo de {@link Math}: suma y multiplicación con detección de
+ * desborde, extracción del IVA y formato "$1.234.567".
+ *
+ * @author Ignacio
+ */
+public final class Pesos {
+
+    /** Tasa de IVA en Chile, en puntos porcentuales. */
+    public static final int TASA_IVA = 19;
+
+    private Pesos() {
+    }
+
+    /**
+     * Convierte un monto con decimales al peso más cercano (redondeo hacia arriba en .5).
+     */
+    public static long deDouble(double monto) {
+        return Math.round(monto);
+    }
+
+    /**
+     * Suma dos montos.
+     *
+     * @throws ArithmeticException si el resultado desborda un long
+     */
+    public static long sumar(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * Multiplica un monto unitario por una cantidad.
+     *
+     * @throws ArithmeticException si el resultado desborda un long
+     */
+    public static long multiplicar(long monto, int cantidad) {
+        return Math.multiplyExact(monto, cantidad);
+    }
+
+    /**
+     * Monto neto contenido en un monto con IVA incluido, redondeado al peso más cercano.
+     * Se calcula en enteros: neto = bruto * 100 / 119.
+     */
+    public static long netoSinIVA(long montoConIVA) {
+        long divisor = 100L + TASA_IVA;
+        return Math.floorDiv(Math.multiplyExact(montoConIVA, 200L) + divisor, 2 * divisor);
+    }
+
+    /**
+     * IVA contenido en un monto con IVA incluido (bruto - neto), de modo que
+     * neto + IVA siempre suma exactamente el monto original.
+     */
+    public static long ivaIncluido(long montoConIVA) {
+        return montoConIVA - netoSinIVA(montoConIVA);
+    }
+
+    /**
+     * Formatea un monto como "$1.234.567" (o "-$1.234.567").
+     */
+    public static String formatear(long monto) {
+        return formatear(monto, new StringBuilder(16)).toString();
+    }
+
+    /**
+     * Agrega el monto formateado al destino, sin crear objetos intermedios.
+     *
+     * @return El mismo destino, para encadenar llamadas
+     */
+    public static StringBuilder formatear(long monto, StringBuilder destino) {
+        if (monto < 0) {
+            destino.append('-');
+        }
+        destino.append('$');
+
+        // Se trabaja en negativo para cubrir también Long.MIN_VALUE
+        long n = monto < 0 ? monto : -monto;
+        int inicio = destino.length();
+        int digitos = 0;
+        do {
+            if (digitos > 0 && digitos % 3 == 0) {
+                destino.insert(inicio, '.');
+            }
+            destino.insert(inicio, (char) ('0' - (n % 10)));
+            n /= 10;
+            digitos++;
+        } while (n != 0);
+        return destino;
+    }
+}
@@ -0,0 +1,47 @@
+package com.empresa.modelo;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link Pesos}.
+ */
+public class PesosTest {
+
+    @Test
+    public void formatear_separaMiles() {
+        assertEquals("$0", Pesos.formatear(0));
+        assertEquals("$999", Pesos.formatear(999));
+        assertEquals("$1.000", Pesos.formatear(1000));
+        assertEquals("$1.234.567", Pesos.formatear(1234567));
+        assertEquals("-$28.000", Pesos.formatear(-28000));
+        assertEquals("-$9.223.372.036.854.775.808", Pesos.formatear(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void formatear_agregaAlDestino() {
+        StringBuilder sb = new StringBuilder("Total: ");
+        assertSame(sb, Pesos.formatear(5500, sb));
+        assertEquals("Total: $5.500", sb.toString());
+    }
+
+    @Test
+    public void ivaIncluido_netoMasIvaEsIgualAlBruto() {
+        assertEquals(10000, Pesos.netoSinIVA(11900));
+        assertEquals(1900, Pesos.ivaIncluido(11900));
+        for (long bruto = 0; bruto < 5000; bruto++) {
+            assertEquals(bruto, Pesos.netoSinIVA(bruto) + Pesos.ivaIncluido(bruto));
+            assertEquals(Math.round(bruto / 1.19), Pesos.netoSinIVA(bruto));
+        }
+    }
+
+    @Test
+    public void multiplicar_desbordeLanzaExcepcion() {
+        try {
+            Pesos.multiplicar(Long.MAX_VALUE / 2, 3);
+            fail("Se esperaba ArithmeticException");
+        } catch (ArithmeticException e) {
+            assertEquals(6000, Pesos.multiplicar(2000, 3));
+        }
+    }
+}
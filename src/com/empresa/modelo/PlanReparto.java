@@ -0,0 +1,37 @@
+package com.empresa.modelo;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de {@link PlanificadorRepartos#planificar}: las rutas, ordenadas por
+ * repartidor y vuelta, y las ventas cuya dirección no se pudo ubicar en el mapa.
+ *
+ * @author Ignacio
+ */
+public final class PlanReparto {
+
+    private final List<RutaReparto> rutas;
+    private final List<Venta> sinUbicar;
+
+    public PlanReparto(List<RutaReparto> rutas, List<Venta> sinUbicar) {
+        this.rutas = Collections.unmodifiableList(rutas);
+        this.sinUbicar = Collections.unmodifiableList(sinUbicar);
+    }
+
+    public List<RutaReparto> getRutas() {
+        return rutas;
+    }
+
+    public List<Venta> getSinUbicar() {
+        return sinUbicar;
+    }
+
+    public long getMetrosTotales() {
+        long total = 0;
+        for (RutaReparto ruta : rutas) {
+            total += ruta.getMetros();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,235 @@
+package com.empresa.modelo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Agrupa las ventas a domicilio en viajes de reparto y ordena las paradas de
+ * cada viaje.
+ *
+ * <ol>
+ * <li>Cada venta se ubica en el {@link MapaZonas} por la dirección de su cliente.</li>
+ * <li>Las paradas se ordenan por ángulo alrededor del local (barrido) y se cortan
+ * en lotes consecutivos de a lo más {@code maxParadas}: cada lote cubre un
+ * sector, así que sus paradas quedan cerca entre sí.</li>
+ * <li>Cada lote se ordena con vecino más cercano desde el local y luego 2-opt
+ * (invertir tramos mientras acorte el recorrido), sobre una matriz de distancias
+ * del propio lote. Los lotes son independientes y se optimizan en paralelo con
+ * fork/join.</li>
+ * <li>Los lotes se reparten en turno entre los repartidores; quien recibe más de
+ * uno los hace en vueltas sucesivas.</li>
+ * </ol>
+ *
+ * @author Ignacio
+ */
+public class PlanificadorRepartos {
+
+    private final MapaZonas mapa;
+    private final int maxParadas;
+
+    /**
+     * @param maxParadas Entregas por viaje (capacidad del vehículo)
+     */
+    public PlanificadorRepartos(MapaZonas mapa, int maxParadas) {
+        if (maxParadas <= 0) {
+            throw new IllegalArgumentException("La cantidad de paradas por viaje debe ser mayor a 0.");
+        }
+        this.mapa = mapa;
+        this.maxParadas = maxParadas;
+    }
+
+    public PlanReparto planificar(List<Venta> ventas, int repartidores) {
+        return planificar(ventas, repartidores, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Planifica las ventas a domicilio de la lista (las de otro formato se ignoran).
+     *
+     * @param pool Pool donde se optimizan las rutas
+     */
+    public PlanReparto planificar(List<Venta> ventas, int repartidores, ForkJoinPool pool) {
+        if (repartidores <= 0) {
+            throw new IllegalArgumentException("Debe haber al menos un repartidor.");
+        }
+        List<Venta> ubicadas = new ArrayList<>();
+        List<Venta> sinUbicar = new ArrayList<>();
+        List<Integer> celdas = new ArrayList<>();
+        for (Venta venta : ventas) {
+            if (!"domicilio".equalsIgnoreCase(venta.getFormatoVenta())) {
+                continue;
+            }
+            int celda = venta.getCliente() != null ? mapa.ubicar(venta.getCliente().getDireccion()) : MapaZonas.SIN_UBICAR;
+            if (celda == MapaZonas.SIN_UBICAR) {
+                sinUbicar.add(venta);
+            } else {
+                ubicadas.add(venta);
+                celdas.add(celda);
+            }
+        }
+
+        Lote[] lotes = barrer(ubicadas, celdas);
+        pool.invoke(new OptimizarLotes(lotes, 0, lotes.length));
+
+        List<RutaReparto> rutas = new ArrayList<>(lotes.length);
+        for (int i = 0; i < lotes.length; i++) {
+            Lote lote = lotes[i];
+            List<Venta> paradas = new ArrayList<>(lote.ventas.length);
+            for (int parada : lote.orden) {
+                paradas.add(lote.ventas[parada]);
+            }
+            rutas.add(new RutaReparto(i % repartidores + 1, i / repartidores + 1, paradas, lote.metros));
+        }
+        rutas.sort((a, b) -> a.getRepartidor() != b.getRepartidor()
+                ? Integer.compare(a.getRepartidor(), b.getRepartidor())
+                : Integer.compare(a.getVuelta(), b.getVuelta()));
+        return new PlanReparto(rutas, sinUbicar);
+    }
+
+    /**
+     * Ordena las paradas por ángulo alrededor del local (y por distancia dentro del
+     * mismo ángulo) y las corta en lotes de tamaño parejo.
+     */
+    private Lote[] barrer(List<Venta> ventas, List<Integer> celdas) {
+        int n = ventas.size();
+        int local = mapa.getLocal();
+        double[] angulos = new double[n];
+        long[] distancias = new long[n];
+        Integer[] indices = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            int celda = celdas.get(i);
+            angulos[i] = Math.atan2(MapaZonas.fila(celda) - MapaZonas.fila(local),
+                    MapaZonas.columna(celda) - MapaZonas.columna(local));
+            distancias[i] = mapa.distancia(local, celda);
+            indices[i] = i;
+        }
+        Arrays.sort(indices, (a, b) -> angulos[a] != angulos[b]
+                ? Double.compare(angulos[a], angulos[b])
+                : Long.compare(distancias[a], distancias[b]));
+
+        int cantidadLotes = (n + maxParadas - 1) / maxParadas;
+        Lote[] lotes = new Lote[cantidadLotes];
+        int inicio = 0;
+        for (int l = 0; l < cantidadLotes; l++) {
+            int fin = (int) ((long) n * (l + 1) / cantidadLotes);
+            Venta[] loteVentas = new Venta[fin - inicio];
+            int[] loteCeldas = new int[fin - inicio];
+            for (int i = inicio; i < fin; i++) {
+                loteVentas[i - inicio] = ventas.get(indices[i]);
+                loteCeldas[i - inicio] = celdas.get(indices[i]);
+            }
+            lotes[l] = new Lote(loteVentas, loteCeldas);
+            inicio = fin;
+        }
+        return lotes;
+    }
+
+    /**
+     * Ordena las paradas de un lote: vecino más cercano y luego 2-opt sobre el
+     * recorrido cerrado que sale y vuelve al local.
+     */
+    void optimizar(Lote lote) {
+        int k = lote.celdas.length;
+        // nodo 0 = local, nodo i = parada i - 1
+        int[] nodos = new int[k + 1];
+        nodos[0] = mapa.getLocal();
+        System.arraycopy(lote.celdas, 0, nodos, 1, k);
+        long[][] d = new long[k + 1][k + 1];
+        for (int i = 0; i <= k; i++) {
+            for (int j = i + 1; j <= k; j++) {
+                d[i][j] = d[j][i] = mapa.distancia(nodos[i], nodos[j]);
+            }
+        }
+
+        int[] recorrido = new int[k + 1];
+        boolean[] visitado = new boolean[k + 1];
+        visitado[0] = true;
+        for (int p = 1; p <= k; p++) {
+            int actual = recorrido[p - 1];
+            int mejor = -1;
+            for (int j = 1; j <= k; j++) {
+                if (!visitado[j] && (mejor < 0 || d[actual][j] < d[actual][mejor])) {
+                    mejor = j;
+                }
+            }
+            recorrido[p] = mejor;
+            visitado[mejor] = true;
+        }
+
+        boolean mejoro = true;
+        while (mejoro) {
+            mejoro = false;
+            for (int i = 1; i < k; i++) {
+                for (int j = i + 1; j <= k; j++) {
+                    int a = recorrido[i - 1];
+                    int b = recorrido[i];
+                    int c = recorrido[j];
+                    int e = recorrido[(j + 1) % (k + 1)];
+                    if (d[a][c] + d[b][e] < d[a][b] + d[c][e]) {
+                        invertir(recorrido, i, j);
+                        mejoro = true;
+                    }
+                }
+            }
+        }
+
+        long metros = 0;
+        int[] orden = new int[k];
+        for (int p = 0; p <= k; p++) {
+            metros += d[recorrido[p]][recorrido[(p + 1) % (k + 1)]];
+            if (p > 0) {
+                orden[p - 1] = recorrido[p] - 1;
+            }
+        }
+        lote.orden = orden;
+        lote.metros = metros;
+    }
+
+    private static void invertir(int[] recorrido, int desde, int hasta) {
+        while (desde < hasta) {
+            int t = recorrido[desde];
+            recorrido[desde++] = recorrido[hasta];
+            recorrido[hasta--] = t;
+        }
+    }
+
+    static final class Lote {
+        final Venta[] ventas;
+        final int[] celdas;
+        int[] orden;
+        long metros;
+
+        Lote(Venta[] ventas, int[] celdas) {
+            this.ventas = ventas;
+            this.celdas = celdas;
+        }
+    }
+
+    private final class OptimizarLotes extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Lote[] lotes;
+        private final int desde;
+        private final int hasta;
+
+        private OptimizarLotes(Lote[] lotes, int desde, int hasta) {
+            this.lotes = lotes;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= 1) {
+                if (hasta > desde) {
+                    optimizar(lotes[desde]);
+                }
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new OptimizarLotes(lotes, desde, medio), new OptimizarLotes(lotes, medio, hasta));
+        }
+    }
+}
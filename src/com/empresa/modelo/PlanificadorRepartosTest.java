@@ -0,0 +1,89 @@
+package com.empresa.modelo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link PlanificadorRepartos}.
+ */
+public class PlanificadorRepartosTest {
+
+    private static final LocalDateTime HOY = LocalDateTime.of(2024, 6, 10, 9, 0);
+    private static final Producto GAS = new Producto("Gas 15kg", "gas", 25000, 3000);
+
+    private static Venta domicilio(String direccion) {
+        Venta venta = new Venta("domicilio", new Cliente("Cliente " + direccion, "1-9", "", direccion), HOY);
+        venta.agregarLinea(GAS, 1, 0);
+        return venta;
+    }
+
+    @Test
+    public void ubicar_usaLaCalleSinNumeroNiPrefijo() {
+        MapaZonas mapa = new MapaZonas(100);
+        mapa.agregarCalle("Los Aromos", 3, 4);
+
+        assertEquals(MapaZonas.celda(3, 4), mapa.ubicar("Av. Los Aromos 123 depto 4"));
+        assertEquals(MapaZonas.celda(3, 4), mapa.ubicar("LOS AROMOS #55"));
+        assertEquals(MapaZonas.SIN_UBICAR, mapa.ubicar("Los Olmos 12"));
+        assertEquals(700, mapa.distancia(MapaZonas.celda(0, 0), MapaZonas.celda(3, 4)));
+    }
+
+    @Test
+    public void planificar_recorreUnaLineaSinCruces() {
+        MapaZonas mapa = new MapaZonas(100);
+        mapa.setLocal(0, 0);
+        List<Venta> ventas = new ArrayList<>();
+        int[] columnas = {5, 1, 4, 2, 3};
+        for (int c : columnas) {
+            mapa.agregarCalle("Calle " + c, 0, c);
+            ventas.add(domicilio("Calle " + c + " 100"));
+        }
+
+        PlanReparto plan = new PlanificadorRepartos(mapa, 10).planificar(ventas, 1);
+        assertEquals(1, plan.getRutas().size());
+        List<Venta> paradas = plan.getRutas().get(0).getParadas();
+        for (int i = 0; i < paradas.size(); i++) {
+            assertEquals("Calle " + (i + 1) + " 100", paradas.get(i).getCliente().getDireccion());
+        }
+        assertEquals(1000, plan.getMetrosTotales());
+    }
+
+    @Test
+    public void planificar_asignaCadaVentaUnaVezRespetandoCapacidad() {
+        MapaZonas mapa = new MapaZonas(50);
+        mapa.setLocal(20, 20);
+        Random random = new Random(9);
+        for (int i = 0; i < 100; i++) {
+            mapa.agregarCalle("Calle " + i, random.nextInt(41), random.nextInt(41));
+        }
+        List<Venta> ventas = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ventas.add(domicilio("Calle " + random.nextInt(100) + " " + i));
+        }
+        ventas.add(domicilio("Pasaje Desconocido 1"));
+        ventas.add(new Venta("local", null, HOY));
+
+        PlanificadorRepartos planificador = new PlanificadorRepartos(mapa, 12);
+        PlanReparto plan = planificador.planificar(ventas, 4, new ForkJoinPool(2));
+        Set<Venta> vistas = new HashSet<>();
+        long metros = 0;
+        for (RutaReparto ruta : plan.getRutas()) {
+            assertTrue(ruta.getParadas().size() <= 12);
+            assertTrue(ruta.getRepartidor() >= 1 && ruta.getRepartidor() <= 4);
+            vistas.addAll(ruta.getParadas());
+            metros += ruta.getMetros();
+        }
+        assertEquals(500, vistas.size());
+        assertEquals(42, plan.getRutas().size());
+        assertEquals(1, plan.getSinUbicar().size());
+        assertEquals(metros, plan.getMetrosTotales());
+        assertEquals(metros, planificador.planificar(ventas, 4, new ForkJoinPool(1)).getMetrosTotales());
+    }
+}
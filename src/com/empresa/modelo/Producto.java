@@ -4,6 +4,8 @@
  */
 package com.empresa.modelo;
 
+import java.util.Locale;
+
 /**
  * Clase que representa un producto que vende la empresa.
  * Contiene atributos relacionados al precio de compra (con IVA),
@@ -14,9 +16,11 @@ package com.empresa.modelo;
 public class Producto {
     private String nombre;
     private String tipo; // Por ejemplo: "gas", "accesorio", etc.
-    private double precioCompraConIVA;
-    private double comisionPesos;
-    private double precioVentaFinal;
+    private String claveNombre; // nombre en minúsculas, calculado una vez para búsquedas
+    private String claveTipo;
+    private long precioCompraConIVA; // en pesos, ver Pesos
+    private long comisionPesos;
+    private long precioVentaFinal;
 
     /**
      * Constructor para crear un producto con sus datos base.
@@ -24,10 +28,10 @@ public class Producto {
      * 
      * @param nombre Nombre del producto
      * @param tipo Tipo o categoría del producto
-     * @param precioCompraConIVA Precio de compra incluyendo IVA
+     * @param precioCompraConIVA Precio de compra incluyendo IVA, en pesos
      * @param comisionPesos Comisión en pesos chilenos para el producto
      */
-    public Producto(String nombre, String tipo, double precioCompraConIVA, double comisionPesos) {
+    public Producto(String nombre, String tipo, long precioCompraConIVA, long comisionPesos) {
         setNombre(nombre);
         setTipo(tipo);
         setPrecioCompraConIVA(precioCompraConIVA);
@@ -38,38 +42,77 @@ public class Producto {
     // ======================== VALIDACIONES Y SETTERS ========================
 
     public void setNombre(String nombre) {
-        if (nombre == null || nombre.isEmpty()) {
-            throw new IllegalArgumentException("El nombre del producto no puede estar vacío.");
-        }
+        lanzarSiError(validarNombre(nombre));
         this.nombre = nombre;
+        this.claveNombre = nombre.toLowerCase(Locale.ROOT);
     }
 
     public void setTipo(String tipo) {
-        if (tipo == null || tipo.isEmpty()) {
-            throw new IllegalArgumentException("El tipo del producto no puede estar vacío.");
-        }
+        lanzarSiError(validarTipo(tipo));
         this.tipo = tipo;
+        this.claveTipo = tipo.toLowerCase(Locale.ROOT);
     }
 
-    public void setPrecioCompraConIVA(double precioCompraConIVA) {
-        if (precioCompraConIVA <= 0) {
-            throw new IllegalArgumentException("El precio de compra debe ser mayor a cero.");
-        }
+    public void setPrecioCompraConIVA(long precioCompraConIVA) {
+        lanzarSiError(validarPrecioCompra(precioCompraConIVA));
         this.precioCompraConIVA = precioCompraConIVA;
     }
 
-    public void setComisionPesos(double comisionPesos) {
-        if (comisionPesos < 0) {
-            throw new IllegalArgumentException("La comisión no puede ser negativa.");
-        }
+    public void setComisionPesos(long comisionPesos) {
+        lanzarSiError(validarComision(comisionPesos));
         this.comisionPesos = comisionPesos;
     }
 
+    /**
+     * Verifica los datos de un producto sin crearlo, para validar cargas masivas
+     * sin lanzar una excepción por fila.
+     *
+     * @return El primer error encontrado, o null si los datos son válidos
+     */
+    public static String validar(String nombre, String tipo, long precioCompraConIVA, long comisionPesos) {
+        String error = validarNombre(nombre);
+        if (error == null) {
+            error = validarTipo(tipo);
+        }
+        if (error == null) {
+            error = validarPrecioCompra(precioCompraConIVA);
+        }
+        if (error == null) {
+            error = validarComision(comisionPesos);
+        }
+        if (error == null && precioCompraConIVA > Long.MAX_VALUE - comisionPesos) {
+            error = "El precio de venta excede el monto máximo.";
+        }
+        return error;
+    }
+
+    private static String validarNombre(String nombre) {
+        return nombre == null || nombre.isEmpty() ? "El nombre del producto no puede estar vacío." : null;
+    }
+
+    private static String validarTipo(String tipo) {
+        return tipo == null || tipo.isEmpty() ? "El tipo del producto no puede estar vacío." : null;
+    }
+
+    private static String validarPrecioCompra(long precioCompraConIVA) {
+        return precioCompraConIVA <= 0 ? "El precio de compra debe ser mayor a cero." : null;
+    }
+
+    private static String validarComision(long comisionPesos) {
+        return comisionPesos < 0 ? "La comisión no puede ser negativa." : null;
+    }
+
+    private static void lanzarSiError(String error) {
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+    }
+
     /**
      * Calcula el precio de venta como la suma del precio de compra con IVA y la comisión.
      */
     public void calcularPrecioVenta() {
-        this.precioVentaFinal = this.precioCompraConIVA + this.comisionPesos;
+        this.precioVentaFinal = Pesos.sumar(this.precioCompraConIVA, this.comisionPesos);
     }
 
     // ======================== GETTERS ========================
@@ -82,15 +125,26 @@ public class Producto {
         return tipo;
     }
 
-    public double getPrecioCompraConIVA() {
+    /**
+     * Nombre en minúsculas, para búsquedas sin distinguir mayúsculas sin crear objetos.
+     */
+    String getClaveNombre() {
+        return claveNombre;
+    }
+
+    String getClaveTipo() {
+        return claveTipo;
+    }
+
+    public long getPrecioCompraConIVA() {
         return precioCompraConIVA;
     }
 
-    public double getComisionPesos() {
+    public long getComisionPesos() {
         return comisionPesos;
     }
 
-    public double getPrecioVentaFinal() {
+    public long getPrecioVentaFinal() {
         return precioVentaFinal;
     }
 
@@ -102,16 +156,16 @@ public class Producto {
     public void mostrarDetalleProducto() {
         System.out.println("Producto: " + nombre);
         System.out.println("Tipo: " + tipo);
-        System.out.printf("Precio compra c/IVA: $%.0f\n", precioCompraConIVA);
-        System.out.printf("Comisión: $%.0f\n", comisionPesos);
-        System.out.printf("Precio venta final: $%.0f\n", precioVentaFinal);
+        System.out.println("Precio compra c/IVA: " + Pesos.formatear(precioCompraConIVA));
+        System.out.println("Comisión: " + Pesos.formatear(comisionPesos));
+        System.out.println("Precio venta final: " + Pesos.formatear(precioVentaFinal));
     }
     // Métodos simplificados para compatibilidad
-public double getPrecioCompra() {
+public long getPrecioCompra() {
     return getPrecioCompraConIVA();
 }
 
-public double getComision() {
+public long getComision() {
     return getComisionPesos();
 }
 
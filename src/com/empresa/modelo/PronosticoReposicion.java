@@ -0,0 +1,240 @@
+package com.empresa.modelo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pronóstico de demanda por producto y sugerencia de órdenes de compra.
+ *
+ * La demanda diaria de cada producto se estima con dos métodos: media móvil de
+ * los últimos {@value #VENTANA_DIAS} días y suavizado exponencial (con
+ * {@value #ALFA} de peso para el último día). Ambos se actualizan un día cerrado
+ * a la vez, leyendo solo las ventas de los días nuevos desde el
+ * {@link LibroMovimientos}: cada actualización cuesta lo mismo sin importar
+ * cuánto historial haya. Un producto nuevo parte con los últimos
+ * {@value #HISTORIA_INICIAL_DIAS} días, o desde su primer movimiento si es más
+ * reciente.
+ *
+ * Un producto se repone cuando su stock, más lo pedido en órdenes registradas
+ * que aún no tienen factura, no alcanza para el plazo de entrega más
+ * un stock de seguridad ({@value #FACTOR_SEGURIDAD} desviaciones de la demanda en
+ * ese plazo, cerca de un 95% de nivel de servicio). La cantidad sugerida cubre el
+ * plazo, los días de cobertura pedidos y el stock de seguridad. Las órdenes se
+ * agrupan por el proveedor de la última factura del producto.
+ *
+ * Las ventas registradas después de cerrado su día (por ejemplo una importación
+ * tardía) no se vuelven a considerar.
+ *
+ * @author Ignacio
+ */
+public class PronosticoReposicion {
+
+    /**
+     * Método con el que se estima la demanda diaria.
+     */
+    public enum Metodo {
+        MEDIA_MOVIL, SUAVIZADO_EXPONENCIAL
+    }
+
+    static final int VENTANA_DIAS = 28;
+    static final double ALFA = 0.3;
+    static final int HISTORIA_INICIAL_DIAS = 90;
+    static final double FACTOR_SEGURIDAD = 1.65;
+    static final String SIN_PROVEEDOR = "Sin proveedor";
+    private static final DateTimeFormatter FORMATO_ID = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final PronosticoReposicion instancia = new PronosticoReposicion(LibroMovimientos.getInstancia(),
+            Inventario.getInstancia(), LibroCompras.getInstancia());
+
+    private final LibroMovimientos movimientos;
+    private final Inventario inventario;
+    private final LibroCompras libroCompras;
+    private final Map<String, DemandaProducto> demandas;
+
+    public PronosticoReposicion(LibroMovimientos movimientos, Inventario inventario, LibroCompras libroCompras) {
+        this.movimientos = movimientos;
+        this.inventario = inventario;
+        this.libroCompras = libroCompras;
+        this.demandas = new HashMap<>();
+    }
+
+    public static PronosticoReposicion getInstancia() {
+        return instancia;
+    }
+
+    /**
+     * Incorpora las ventas de los días cerrados hasta el indicado (inclusive) que
+     * aún no se habían procesado, para todos los productos del inventario.
+     *
+     * @return Cantidad de días-producto procesados
+     */
+    public synchronized long actualizarHasta(LocalDate ultimoDiaCerrado) {
+        long procesados = 0;
+        for (Producto producto : inventario.listarProductos()) {
+            DemandaProducto d = demandas.computeIfAbsent(producto.getNombre().toLowerCase(),
+                    k -> new DemandaProducto(inicioHistoria(producto.getNombre(), ultimoDiaCerrado)));
+            long dias = ChronoUnit.DAYS.between(d.ultimoDia, ultimoDiaCerrado);
+            if (dias <= 0) {
+                continue;
+            }
+            int[] ventas = movimientos.ventasDiarias(producto.getNombre(), d.ultimoDia.plusDays(1), (int) dias);
+            for (int unidades : ventas) {
+                d.agregarDia(unidades);
+            }
+            d.ultimoDia = ultimoDiaCerrado;
+            procesados += dias;
+        }
+        return procesados;
+    }
+
+    /**
+     * Último día anterior a la historia que se considera para un producto nuevo: los
+     * días antes de su primer movimiento no cuentan como días sin ventas.
+     */
+    private LocalDate inicioHistoria(String producto, LocalDate ultimoDiaCerrado) {
+        LocalDate inicio = ultimoDiaCerrado.minusDays(HISTORIA_INICIAL_DIAS);
+        LocalDateTime primero = movimientos.primerMovimiento(producto);
+        if (primero == null) {
+            return ultimoDiaCerrado;
+        }
+        LocalDate anterior = primero.toLocalDate().minusDays(1);
+        return anterior.isAfter(inicio) ? anterior : inicio;
+    }
+
+    /**
+     * Demanda diaria estimada del producto, o 0 si aún no tiene días procesados.
+     */
+    public synchronized double demandaDiaria(String producto, Metodo metodo) {
+        DemandaProducto d = demandas.get(producto.toLowerCase());
+        return d != null ? d.demanda(metodo) : 0;
+    }
+
+    /**
+     * Stock con el que conviene pedir: demanda en el plazo de entrega más el stock de seguridad.
+     */
+    public synchronized int puntoPedido(String producto, Metodo metodo, int plazoEntregaDias) {
+        DemandaProducto d = demandas.get(producto.toLowerCase());
+        return d != null ? (int) Math.ceil(d.demanda(metodo) * plazoEntregaDias + d.seguridad(metodo, plazoEntregaDias)) : 0;
+    }
+
+    /**
+     * Actualiza el pronóstico con los días cerrados hasta ayer y arma borradores de
+     * órdenes de compra (sin registrarlas) para los productos bajo su punto de pedido.
+     * Lo pedido en órdenes registradas sin factura cuenta como stock, así que un
+     * borrador ya registrado no se vuelve a sugerir.
+     *
+     * @param hoy Día de emisión; se consideran cerradas las ventas hasta el día anterior
+     * @param plazoEntregaDias Días que tarda un pedido en llegar
+     * @param diasCobertura Días de demanda que debe cubrir el pedido además del plazo
+     */
+    public synchronized List<OrdenCompra> generarBorradores(LocalDate hoy, Metodo metodo, int plazoEntregaDias,
+            int diasCobertura) {
+        if (plazoEntregaDias < 0 || diasCobertura < 0) {
+            throw new IllegalArgumentException("El plazo y la cobertura no pueden ser negativos.");
+        }
+        actualizarHasta(hoy.minusDays(1));
+
+        Map<String, OrdenCompra> porProveedor = new LinkedHashMap<>();
+        Map<String, Integer> porRecibir = libroCompras.unidadesPorRecibir();
+        List<Producto> productos = inventario.listarProductos();
+        productos.sort((a, b) -> a.getNombre().compareToIgnoreCase(b.getNombre()));
+        int secuencia = 0;
+        for (Producto producto : productos) {
+            DemandaProducto d = demandas.get(producto.getNombre().toLowerCase());
+            double demanda = d != null ? d.demanda(metodo) : 0;
+            if (demanda <= 0) {
+                continue;
+            }
+            double seguridad = d.seguridad(metodo, plazoEntregaDias);
+            int stock = inventario.getStock(producto.getNombre())
+                    + porRecibir.getOrDefault(producto.getNombre().toLowerCase(), 0);
+            if (stock > Math.ceil(demanda * plazoEntregaDias + seguridad)) {
+                continue;
+            }
+            int cantidad = (int) Math.ceil(demanda * (plazoEntregaDias + diasCobertura) + seguridad) - stock;
+            if (cantidad <= 0) {
+                continue;
+            }
+
+            String proveedor = proveedorHabitual(producto.getNombre());
+            OrdenCompra orden = porProveedor.get(proveedor.toLowerCase());
+            if (orden == null) {
+                String id;
+                do {
+                    id = "SUG-" + hoy.format(FORMATO_ID) + "-" + (++secuencia);
+                } while (libroCompras.buscarOrden(id) != null);
+                orden = new OrdenCompra(id, proveedor, hoy);
+                porProveedor.put(proveedor.toLowerCase(), orden);
+            }
+            orden.agregarProducto(producto, cantidad);
+        }
+        return new ArrayList<>(porProveedor.values());
+    }
+
+    private String proveedorHabitual(String producto) {
+        List<EntradaCompra> entradas = libroCompras.entradasPorProducto(producto);
+        return entradas.isEmpty() ? SIN_PROVEEDOR : entradas.get(entradas.size() - 1).getProveedor();
+    }
+
+    /**
+     * Estado del pronóstico de un producto: la ventana de la media móvil (arreglo
+     * circular con su suma y suma de cuadrados) y el nivel y varianza del suavizado.
+     */
+    private static final class DemandaProducto {
+        private final int[] ventana = new int[VENTANA_DIAS];
+        private int posicion;
+        private int dias;
+        private long suma;
+        private long sumaCuadrados;
+        private double nivel;
+        private double varianza;
+        private LocalDate ultimoDia;
+
+        private DemandaProducto(LocalDate ultimoDia) {
+            this.ultimoDia = ultimoDia;
+        }
+
+        private void agregarDia(int unidades) {
+            int saliente = ventana[posicion];
+            ventana[posicion] = unidades;
+            posicion = (posicion + 1) % VENTANA_DIAS;
+            suma += unidades - saliente;
+            sumaCuadrados += (long) unidades * unidades - (long) saliente * saliente;
+
+            if (dias == 0) {
+                nivel = unidades;
+            } else {
+                double error = unidades - nivel;
+                nivel += ALFA * error;
+                varianza = (1 - ALFA) * (varianza + ALFA * error * error);
+            }
+            dias++;
+        }
+
+        private double demanda(Metodo metodo) {
+            if (dias == 0) {
+                return 0;
+            }
+            return metodo == Metodo.MEDIA_MOVIL ? (double) suma / Math.min(dias, VENTANA_DIAS) : nivel;
+        }
+
+        private double seguridad(Metodo metodo, int plazoEntregaDias) {
+            double varianzaDiaria;
+            if (metodo == Metodo.MEDIA_MOVIL) {
+                int n = Math.min(dias, VENTANA_DIAS);
+                double media = n > 0 ? (double) suma / n : 0;
+                varianzaDiaria = n > 0 ? Math.max(0, (double) sumaCuadrados / n - media * media) : 0;
+            } else {
+                varianzaDiaria = varianza;
+            }
+            return FACTOR_SEGURIDAD * Math.sqrt(varianzaDiaria * plazoEntregaDias);
+        }
+    }
+}
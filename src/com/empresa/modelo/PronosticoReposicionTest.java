@@ -0,0 +1,99 @@
+package com.empresa.modelo;
+
+import com.empresa.persistencia.RepositorioMemoria;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link PronosticoReposicion}.
+ */
+public class PronosticoReposicionTest {
+
+    private static final LocalDate HOY = LocalDate.of(2024, 6, 10);
+
+    private final Inventario inventario = Inventario.getInstancia();
+    private final LibroCompras libroCompras = new LibroCompras(new RepositorioMemoria<>(OrdenCompra::getIdOrden),
+            new RepositorioMemoria<>(FacturaCompra::getNumeroFactura));
+
+    private static void vender(LibroMovimientos libro, String producto, LocalDate dia, int unidades) {
+        libro.registrar(producto, dia.atTime(12, 0), MovimientoStock.Tipo.VENTA, -unidades);
+    }
+
+    @Test
+    public void demandaDiaria_conVentasConstantesNoPideSeguridad() {
+        inventario.agregarProducto("Pronóstico Constante", "gas", 10000, 1000, 500);
+        LibroMovimientos libro = new LibroMovimientos();
+        for (int d = 1; d <= 40; d++) {
+            vender(libro, "Pronóstico Constante", HOY.minusDays(d), 10);
+        }
+        PronosticoReposicion pronostico = new PronosticoReposicion(libro, inventario, libroCompras);
+        pronostico.actualizarHasta(HOY.minusDays(1));
+
+        assertEquals(10.0, pronostico.demandaDiaria("pronóstico constante", PronosticoReposicion.Metodo.MEDIA_MOVIL), 1e-9);
+        assertEquals(10.0, pronostico.demandaDiaria("Pronóstico Constante",
+                PronosticoReposicion.Metodo.SUAVIZADO_EXPONENCIAL), 1e-6);
+        assertEquals(30, pronostico.puntoPedido("Pronóstico Constante", PronosticoReposicion.Metodo.MEDIA_MOVIL, 3));
+    }
+
+    @Test
+    public void actualizarHasta_diaADiaIgualQueDeUnaVez() {
+        inventario.agregarProducto("Pronóstico Incremental", "gas", 10000, 1000, 500);
+        LibroMovimientos libro = new LibroMovimientos();
+        Random random = new Random(4);
+        for (int d = 1; d <= 80; d++) {
+            vender(libro, "Pronóstico Incremental", HOY.minusDays(d), 1 + random.nextInt(20));
+        }
+        PronosticoReposicion diario = new PronosticoReposicion(libro, inventario, libroCompras);
+        PronosticoReposicion completo = new PronosticoReposicion(libro, inventario, libroCompras);
+        LocalDate inicio = HOY.minusDays(40);
+        diario.actualizarHasta(inicio);
+        completo.actualizarHasta(inicio);
+        for (LocalDate dia = inicio.plusDays(1); dia.isBefore(HOY); dia = dia.plusDays(1)) {
+            diario.actualizarHasta(dia);
+        }
+        completo.actualizarHasta(HOY.minusDays(1));
+
+        for (PronosticoReposicion.Metodo metodo : PronosticoReposicion.Metodo.values()) {
+            assertEquals(completo.demandaDiaria("Pronóstico Incremental", metodo),
+                    diario.demandaDiaria("Pronóstico Incremental", metodo), 1e-9);
+            assertEquals(completo.puntoPedido("Pronóstico Incremental", metodo, 5),
+                    diario.puntoPedido("Pronóstico Incremental", metodo, 5));
+        }
+    }
+
+    @Test
+    public void generarBorradores_pideAlProveedorHabitualLoQueFalta() {
+        inventario.agregarProducto("Pronóstico Bajo Stock", "gas", 10000, 1000, 20);
+        inventario.agregarProducto("Pronóstico Con Stock", "gas", 10000, 1000, 900);
+        FacturaCompra factura = new FacturaCompra("PR-1", "Abastible", null, HOY.minusDays(30));
+        factura.agregarProducto(inventario.getProducto("Pronóstico Bajo Stock"), 20);
+        libroCompras.registrarFactura(factura);
+        LibroMovimientos libro = new LibroMovimientos();
+        for (int d = 1; d <= 20; d++) {
+            vender(libro, "Pronóstico Bajo Stock", HOY.minusDays(d), 10);
+            vender(libro, "Pronóstico Con Stock", HOY.minusDays(d), 10);
+        }
+
+        List<OrdenCompra> borradores = new PronosticoReposicion(libro, inventario, libroCompras)
+                .generarBorradores(HOY, PronosticoReposicion.Metodo.MEDIA_MOVIL, 3, 7);
+        assertEquals(1, borradores.size());
+        OrdenCompra orden = borradores.get(0);
+        assertEquals("Abastible", orden.getProveedor());
+        assertEquals("SUG-20240610-1", orden.getIdOrden());
+        assertEquals(1, orden.getItems().size());
+        assertEquals("Pronóstico Bajo Stock", orden.getItems().get(0).getProducto().getNombre());
+        assertEquals(80, orden.getItems().get(0).getCantidad()); // 10 diarias x (3 + 7) - 20 en stock
+        assertNull(libroCompras.buscarOrden(orden.getIdOrden()));
+
+        // registrado el borrador, lo pedido cuenta como stock hasta que llegue su factura
+        libroCompras.registrarOrden(orden);
+        PronosticoReposicion pronostico = new PronosticoReposicion(libro, inventario, libroCompras);
+        assertTrue(pronostico.generarBorradores(HOY, PronosticoReposicion.Metodo.MEDIA_MOVIL, 3, 7).isEmpty());
+        libroCompras.registrarFactura(orden.generarFacturaDesdeOrden("PR-2"));
+        assertEquals(80, pronostico.generarBorradores(HOY, PronosticoReposicion.Metodo.MEDIA_MOVIL, 3, 7).get(0)
+                .getItems().get(0).getCantidad());
+    }
+}
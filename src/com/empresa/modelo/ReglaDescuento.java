@@ -0,0 +1,199 @@
+package com.empresa.modelo;
+
+import java.util.Arrays;
+
+/**
+ * Regla de descuento: a qué ventas aplica y qué descuentos (en pesos por unidad)
+ * puede elegir el vendedor.
+ *
+ * Una regla puede restringirse por producto (nombre) o por tipo de producto,
+ * formato de venta, cliente (RUT), franja horaria y cantidad mínima de unidades.
+ * Los campos sin restricción aplican a todas las ventas.
+ *
+ * En archivo se escribe una regla por línea como pares {@code clave=valor}
+ * separados por ';', por ejemplo:
+ * <pre>
+ * producto=Gas 15kg; formato=local; descuentos=5500,6000
+ * tipo=gas; formato=domicilio; desde=8; hasta=12; cantidadMinima=10; descuentos=1000
+ * cliente=12.345.678-9; producto=Gas 11kg; descuentos=4000
+ * </pre>
+ *
+ * @author Ignacio
+ */
+public final class ReglaDescuento {
+
+    private final String cliente;
+    private final String producto;
+    private final String tipo;
+    private final String formato;
+    private final int horaDesde;
+    private final int horaHasta;
+    private final int cantidadMinima;
+    private final int[] descuentos;
+
+    /**
+     * @param cliente RUT del cliente, o null para todos
+     * @param producto Nombre del producto, o null
+     * @param tipo Tipo de producto, o null (no se puede indicar junto con producto)
+     * @param formato "local", "domicilio" o null para ambos
+     * @param horaDesde Hora de inicio de la franja (0 a 23)
+     * @param horaHasta Hora de término, excluida (1 a 24); si es menor que horaDesde la franja cruza la medianoche
+     * @param cantidadMinima Unidades mínimas de la línea para que aplique (1 o más)
+     * @param descuentos Descuentos disponibles en pesos por unidad (al menos uno)
+     */
+    public ReglaDescuento(String cliente, String producto, String tipo, String formato,
+            int horaDesde, int horaHasta, int cantidadMinima, int... descuentos) {
+        cliente = vacioANulo(cliente);
+        producto = vacioANulo(producto);
+        tipo = vacioANulo(tipo);
+        if (producto != null && tipo != null) {
+            throw new IllegalArgumentException("Indique producto o tipo, no ambos.");
+        }
+        if (formato != null && TablaDescuentos.codigoFormato(formato) < 0) {
+            throw new IllegalArgumentException("Formato de venta inválido: " + formato);
+        }
+        if (horaDesde < 0 || horaDesde > 23 || horaHasta < 1 || horaHasta > 24 || horaDesde == horaHasta) {
+            throw new IllegalArgumentException("Franja horaria inválida: " + horaDesde + "-" + horaHasta);
+        }
+        if (cantidadMinima < 1) {
+            throw new IllegalArgumentException("La cantidad mínima debe ser mayor a 0.");
+        }
+        if (descuentos == null || descuentos.length == 0) {
+            throw new IllegalArgumentException("La regla debe tener al menos un descuento.");
+        }
+        for (int d : descuentos) {
+            if (d < 0) {
+                throw new IllegalArgumentException("Los descuentos no pueden ser negativos.");
+            }
+        }
+        this.cliente = cliente;
+        this.producto = producto;
+        this.tipo = tipo;
+        this.formato = formato;
+        this.horaDesde = horaDesde;
+        this.horaHasta = horaHasta;
+        this.cantidadMinima = cantidadMinima;
+        this.descuentos = descuentos.clone();
+    }
+
+    /**
+     * Regla sin restricción de cliente, horario ni cantidad.
+     */
+    public static ReglaDescuento paraProducto(String producto, String formato, int... descuentos) {
+        return new ReglaDescuento(null, producto, null, formato, 0, 24, 1, descuentos);
+    }
+
+    /**
+     * Lee una regla escrita como pares {@code clave=valor} separados por ';'.
+     *
+     * @throws IllegalArgumentException si la línea tiene claves o valores inválidos
+     */
+    public static ReglaDescuento parsear(String linea) {
+        String cliente = null;
+        String producto = null;
+        String tipo = null;
+        String formato = null;
+        int desde = 0;
+        int hasta = 24;
+        int cantidadMinima = 1;
+        int[] descuentos = null;
+
+        for (String par : linea.split(";")) {
+            if (par.isBlank()) {
+                continue;
+            }
+            int igual = par.indexOf('=');
+            if (igual < 0) {
+                throw new IllegalArgumentException("Se esperaba clave=valor: " + par.trim());
+            }
+            String clave = par.substring(0, igual).trim().toLowerCase();
+            String valor = par.substring(igual + 1).trim();
+            switch (clave) {
+                case "cliente" -> cliente = valor;
+                case "producto" -> producto = valor;
+                case "tipo" -> tipo = valor;
+                case "formato" -> formato = valor.isEmpty() || valor.equalsIgnoreCase("todos") ? null : valor;
+                case "desde" -> desde = entero(clave, valor);
+                case "hasta" -> hasta = entero(clave, valor);
+                case "cantidadminima" -> cantidadMinima = entero(clave, valor);
+                case "descuentos" -> {
+                    String[] partes = valor.split(",");
+                    descuentos = new int[partes.length];
+                    for (int i = 0; i < partes.length; i++) {
+                        descuentos[i] = entero(clave, partes[i].trim());
+                    }
+                }
+                default -> throw new IllegalArgumentException("Clave desconocida: " + clave);
+            }
+        }
+        return new ReglaDescuento(cliente, producto, tipo, formato, desde, hasta, cantidadMinima, descuentos);
+    }
+
+    private static int entero(String clave, String valor) {
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para " + clave + ": " + valor);
+        }
+    }
+
+    private static String vacioANulo(String texto) {
+        return texto == null || texto.isBlank() ? null : texto.trim();
+    }
+
+    public String getCliente() {
+        return cliente;
+    }
+
+    public String getProducto() {
+        return producto;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public String getFormato() {
+        return formato;
+    }
+
+    public int getHoraDesde() {
+        return horaDesde;
+    }
+
+    public int getHoraHasta() {
+        return horaHasta;
+    }
+
+    public int getCantidadMinima() {
+        return cantidadMinima;
+    }
+
+    public int[] getDescuentos() {
+        return descuentos.clone();
+    }
+
+    int[] descuentosSinCopia() {
+        return descuentos;
+    }
+
+    /**
+     * Indica si la regla aplica en la hora dada (0 a 23).
+     */
+    boolean aplicaEnHora(int hora) {
+        return horaDesde < horaHasta
+                ? hora >= horaDesde && hora < horaHasta
+                : hora >= horaDesde || hora < horaHasta;
+    }
+
+    boolean tieneFranjaHoraria() {
+        return horaDesde != 0 || horaHasta != 24;
+    }
+
+    @Override
+    public String toString() {
+        return "ReglaDescuento{cliente=" + cliente + ", producto=" + producto + ", tipo=" + tipo
+                + ", formato=" + formato + ", horas=" + horaDesde + "-" + horaHasta
+                + ", cantidadMinima=" + cantidadMinima + ", descuentos=" + Arrays.toString(descuentos) + "}";
+    }
+}
@@ -0,0 +1,91 @@
+package com.empresa.modelo;
+
+/**
+ * Rentabilidad de un grupo de líneas de venta (un producto, un tipo, un formato o
+ * un mes). Los montos están en pesos. Es inmutable: {@link MotorRentabilidad}
+ * entrega copias.
+ *
+ * El costo y la comisión son los del producto al momento de la venta.
+ *
+ * @author Ignacio
+ */
+public final class Rentabilidad {
+
+    /** Rentabilidad de un grupo sin ventas. */
+    public static final Rentabilidad VACIA = new Rentabilidad(0, 0, 0, 0, 0);
+
+    private final long unidades;
+    private final long ingresos;
+    private final long costo;
+    private final long comision;
+    private final long descuento;
+
+    public Rentabilidad(long unidades, long ingresos, long costo, long comision, long descuento) {
+        this.unidades = unidades;
+        this.ingresos = ingresos;
+        this.costo = costo;
+        this.comision = comision;
+        this.descuento = descuento;
+    }
+
+    public long getUnidades() {
+        return unidades;
+    }
+
+    /**
+     * Ingresos netos: precio cobrado menos descuentos.
+     */
+    public long getIngresos() {
+        return ingresos;
+    }
+
+    /**
+     * Costo de compra con IVA de las unidades vendidas.
+     */
+    public long getCosto() {
+        return costo;
+    }
+
+    /**
+     * Comisión adeudada a los repartidores por las unidades vendidas.
+     */
+    public long getComision() {
+        return comision;
+    }
+
+    /**
+     * Lo que costaron los descuentos otorgados.
+     */
+    public long getDescuento() {
+        return descuento;
+    }
+
+    /**
+     * Ingresos menos costo.
+     */
+    public long getMargenBruto() {
+        return ingresos - costo;
+    }
+
+    /**
+     * Margen bruto menos comisión: lo que queda para el negocio.
+     */
+    public long getContribucion() {
+        return getMargenBruto() - comision;
+    }
+
+    /**
+     * Margen bruto sobre ingresos, en porcentaje.
+     */
+    public double getPorcentajeMargen() {
+        return ingresos != 0 ? getMargenBruto() * 100.0 / ingresos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Unidades: %d | Ingresos: %s | Costo: %s | Margen: %s (%.1f%%) | Comisión: %s | "
+                + "Descuentos: %s | Contribución: %s", unidades, Pesos.formatear(ingresos), Pesos.formatear(costo),
+                Pesos.formatear(getMargenBruto()), getPorcentajeMargen(), Pesos.formatear(comision),
+                Pesos.formatear(descuento), Pesos.formatear(getContribucion()));
+    }
+}
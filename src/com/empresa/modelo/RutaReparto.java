@@ -0,0 +1,44 @@
+package com.empresa.modelo;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Un viaje de un repartidor: sale del local, entrega las ventas en el orden
+ * indicado y vuelve. La vuelta distingue los viajes de un mismo repartidor.
+ *
+ * @author Ignacio
+ */
+public final class RutaReparto {
+
+    private final int repartidor;
+    private final int vuelta;
+    private final List<Venta> paradas;
+    private final long metros;
+
+    public RutaReparto(int repartidor, int vuelta, List<Venta> paradas, long metros) {
+        this.repartidor = repartidor;
+        this.vuelta = vuelta;
+        this.paradas = Collections.unmodifiableList(paradas);
+        this.metros = metros;
+    }
+
+    public int getRepartidor() {
+        return repartidor;
+    }
+
+    public int getVuelta() {
+        return vuelta;
+    }
+
+    public List<Venta> getParadas() {
+        return paradas;
+    }
+
+    /**
+     * Largo estimado del recorrido completo, ida y vuelta al local.
+     */
+    public long getMetros() {
+        return metros;
+    }
+}
@@ -0,0 +1,329 @@
+package com.empresa.modelo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tabla de descuentos compilada a partir de una lista de {@link ReglaDescuento}.
+ * Es inmutable: {@link MotorDescuentos} construye una nueva al recargar reglas y
+ * la reemplaza de una vez.
+ *
+ * Al compilar, las reglas se agrupan por alcance (cliente, y dentro de él producto,
+ * tipo o todos) y para cada combinación de formato y hora se precalculan los
+ * tramos por cantidad mínima. Una búsqueda consulta a lo más seis alcances en
+ * tablas hash (con el nombre y tipo en minúsculas que {@link Producto} calcula una
+ * sola vez), indexa la celda formato/hora y recorre unos pocos tramos: no depende
+ * de la cantidad de reglas ni crea objetos.
+ *
+ * Precedencia: cliente+producto, cliente+tipo, cliente, producto, tipo, general.
+ * Dentro de un mismo alcance y tramo, una regla con franja horaria prevalece sobre
+ * una sin franja, y entre iguales prevalece la última cargada.
+ *
+ * @author Ignacio
+ */
+final class TablaDescuentos {
+
+    /** Resultado cuando no hay regla aplicable. No debe modificarse. */
+    static final int[] SIN_DESCUENTO = {0};
+
+    static final int FORMATO_LOCAL = 0;
+    static final int FORMATO_DOMICILIO = 1;
+    private static final int HORAS = 24;
+    private static final int CELDAS = 2 * HORAS;
+
+    private final Alcance general;
+    private final TablaTexto<Alcance> porCliente;
+    private final int cantidadReglas;
+
+    private TablaDescuentos(Alcance general, TablaTexto<Alcance> porCliente, int cantidadReglas) {
+        this.general = general;
+        this.porCliente = porCliente;
+        this.cantidadReglas = cantidadReglas;
+    }
+
+    /**
+     * Código del formato de venta: 0 local, 1 domicilio, -1 si no es válido.
+     */
+    static int codigoFormato(String formato) {
+        if ("local".equalsIgnoreCase(formato)) {
+            return FORMATO_LOCAL;
+        }
+        if ("domicilio".equalsIgnoreCase(formato)) {
+            return FORMATO_DOMICILIO;
+        }
+        return -1;
+    }
+
+    static TablaDescuentos compilar(List<ReglaDescuento> reglas) {
+        // Las reglas con franja horaria se aplican después, para que prevalezcan
+        List<ReglaDescuento> ordenadas = new ArrayList<>(reglas);
+        ordenadas.sort(Comparator.comparing(ReglaDescuento::tieneFranjaHoraria));
+
+        List<ReglaDescuento> generales = new ArrayList<>();
+        Map<String, List<ReglaDescuento>> porRut = new LinkedHashMap<>();
+        for (ReglaDescuento regla : ordenadas) {
+            if (regla.getCliente() == null) {
+                generales.add(regla);
+            } else {
+                porRut.computeIfAbsent(TablaTexto.minusculas(regla.getCliente()), k -> new ArrayList<>()).add(regla);
+            }
+        }
+
+        Map<String, Alcance> clientes = new LinkedHashMap<>();
+        porRut.forEach((rut, lista) -> clientes.put(rut, Alcance.compilar(lista)));
+        return new TablaDescuentos(Alcance.compilar(generales), new TablaTexto<>(clientes), reglas.size());
+    }
+
+    /**
+     * Descuentos disponibles para una línea de venta.
+     *
+     * @param nombre Nombre del producto en minúsculas ({@link Producto#getClaveNombre})
+     * @param tipo Tipo del producto en minúsculas ({@link Producto#getClaveTipo})
+     * @param formato Código de formato ({@link #codigoFormato})
+     * @param rut RUT del cliente, o null
+     * @param hora Hora de la venta (0 a 23)
+     * @param cantidad Unidades de la línea
+     * @return Descuentos en pesos por unidad; {@link #SIN_DESCUENTO} si no hay regla. No debe modificarse.
+     */
+    int[] buscar(String nombre, String tipo, int formato, String rut, int hora, int cantidad) {
+        if (formato < 0 || hora < 0 || hora >= HORAS) {
+            return SIN_DESCUENTO;
+        }
+        int celda = formato * HORAS + hora;
+        if (rut != null && !porCliente.estaVacia()) {
+            Alcance cliente = porCliente.get(rut);
+            if (cliente != null) {
+                int[] encontrados = cliente.buscar(nombre, tipo, celda, cantidad);
+                if (encontrados != null) {
+                    return encontrados;
+                }
+            }
+        }
+        int[] encontrados = general.buscar(nombre, tipo, celda, cantidad);
+        return encontrados != null ? encontrados : SIN_DESCUENTO;
+    }
+
+    int getCantidadReglas() {
+        return cantidadReglas;
+    }
+
+    /**
+     * Reglas de un mismo cliente (o generales), separadas por producto, tipo y sin filtro.
+     * Cada valor es un arreglo de tramos indexado por celda formato/hora.
+     */
+    private static final class Alcance {
+        private final Map<String, Tramos[]> productos;
+        private final Map<String, Tramos[]> tipos;
+        private final Tramos[] todos;
+
+        private Alcance(Map<String, Tramos[]> productos, Map<String, Tramos[]> tipos, Tramos[] todos) {
+            this.productos = productos;
+            this.tipos = tipos;
+            this.todos = todos;
+        }
+
+        private static Alcance compilar(List<ReglaDescuento> reglas) {
+            Map<String, List<ReglaDescuento>> porProducto = new LinkedHashMap<>();
+            Map<String, List<ReglaDescuento>> porTipo = new LinkedHashMap<>();
+            List<ReglaDescuento> sinFiltro = new ArrayList<>();
+            for (ReglaDescuento regla : reglas) {
+                if (regla.getProducto() != null) {
+                    porProducto.computeIfAbsent(regla.getProducto().toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(regla);
+                } else if (regla.getTipo() != null) {
+                    porTipo.computeIfAbsent(regla.getTipo().toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(regla);
+                } else {
+                    sinFiltro.add(regla);
+                }
+            }
+            return new Alcance(compilarCeldas(porProducto), compilarCeldas(porTipo),
+                    sinFiltro.isEmpty() ? null : celdas(sinFiltro));
+        }
+
+        private static Map<String, Tramos[]> compilarCeldas(Map<String, List<ReglaDescuento>> grupos) {
+            Map<String, Tramos[]> compilado = new HashMap<>(grupos.size() * 2);
+            grupos.forEach((clave, lista) -> compilado.put(clave, celdas(lista)));
+            return compilado;
+        }
+
+        /**
+         * Tramos para cada celda formato/hora. Celdas con las mismas reglas
+         * aplicables comparten la misma instancia.
+         */
+        private static Tramos[] celdas(List<ReglaDescuento> reglas) {
+            Tramos[] celdas = new Tramos[CELDAS];
+            List<ReglaDescuento> anteriores = null;
+            Tramos anterior = null;
+            for (int celda = 0; celda < CELDAS; celda++) {
+                int formato = celda / HORAS;
+                int hora = celda % HORAS;
+                List<ReglaDescuento> aplicables = new ArrayList<>();
+                for (ReglaDescuento regla : reglas) {
+                    boolean formatoValido = regla.getFormato() == null || codigoFormato(regla.getFormato()) == formato;
+                    if (formatoValido && regla.aplicaEnHora(hora)) {
+                        aplicables.add(regla);
+                    }
+                }
+                if (!aplicables.equals(anteriores)) {
+                    anterior = aplicables.isEmpty() ? null : Tramos.compilar(aplicables);
+                    anteriores = aplicables;
+                }
+                celdas[celda] = anterior;
+            }
+            return celdas;
+        }
+
+        private int[] buscar(String nombre, String tipo, int celda, int cantidad) {
+            int[] encontrados = elegir(productos.get(nombre), celda, cantidad);
+            if (encontrados == null) {
+                encontrados = elegir(tipos.get(tipo), celda, cantidad);
+            }
+            if (encontrados == null) {
+                encontrados = elegir(todos, celda, cantidad);
+            }
+            return encontrados;
+        }
+
+        private static int[] elegir(Tramos[] celdas, int celda, int cantidad) {
+            if (celdas == null || celdas[celda] == null) {
+                return null;
+            }
+            return celdas[celda].elegir(cantidad);
+        }
+    }
+
+    /**
+     * Descuentos por tramo de cantidad mínima, ordenados de menor a mayor.
+     */
+    private static final class Tramos {
+        private final int[] minimos;
+        private final int[][] descuentos;
+
+        private Tramos(int[] minimos, int[][] descuentos) {
+            this.minimos = minimos;
+            this.descuentos = descuentos;
+        }
+
+        private static Tramos compilar(List<ReglaDescuento> reglas) {
+            TreeMap<Integer, int[]> porMinimo = new TreeMap<>();
+            for (ReglaDescuento regla : reglas) {
+                porMinimo.put(regla.getCantidadMinima(), regla.descuentosSinCopia());
+            }
+            int[] minimos = new int[porMinimo.size()];
+            int[][] descuentos = new int[porMinimo.size()][];
+            int i = 0;
+            for (Map.Entry<Integer, int[]> tramo : porMinimo.entrySet()) {
+                minimos[i] = tramo.getKey();
+                descuentos[i] = tramo.getValue();
+                i++;
+            }
+            return new Tramos(minimos, descuentos);
+        }
+
+        /**
+         * Descuentos del mayor tramo alcanzado por la cantidad, o null si no alcanza ninguno.
+         */
+        private int[] elegir(int cantidad) {
+            for (int i = minimos.length - 1; i >= 0; i--) {
+                if (cantidad >= minimos[i]) {
+                    return descuentos[i];
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Tabla hash de solo lectura con claves de texto que no distingue mayúsculas,
+     * usada para los RUT (que llegan tal como se registraron, con 'k' o 'K').
+     * Las búsquedas comparan caracter a caracter sin crear la clave en minúsculas.
+     */
+    private static final class TablaTexto<V> {
+        private final String[] claves;
+        private final Object[] valores;
+        private final int mascara;
+        private final int desplazamiento;
+        private final int cantidad;
+
+        private TablaTexto(Map<String, V> entradas) {
+            int capacidad = Integer.highestOneBit(Math.max(2, entradas.size() * 2) - 1) << 1;
+            claves = new String[capacidad];
+            valores = new Object[capacidad];
+            mascara = capacidad - 1;
+            desplazamiento = Integer.numberOfLeadingZeros(capacidad) + 1;
+            cantidad = entradas.size();
+            for (Map.Entry<String, V> entrada : entradas.entrySet()) {
+                int i = posicion(entrada.getKey());
+                while (claves[i] != null) {
+                    i = (i + 1) & mascara;
+                }
+                claves[i] = entrada.getKey();
+                valores[i] = entrada.getValue();
+            }
+        }
+
+        private boolean estaVacia() {
+            return cantidad == 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V get(String texto) {
+            if (texto == null) {
+                return null;
+            }
+            for (int i = posicion(texto); claves[i] != null; i = (i + 1) & mascara) {
+                if (iguales(claves[i], texto)) {
+                    return (V) valores[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Casilla inicial: hash de Fibonacci (bits altos del producto por la razón
+         * áurea), que dispersa bien claves parecidas.
+         */
+        private int posicion(String texto) {
+            int h = 0;
+            for (int i = 0; i < texto.length(); i++) {
+                h = 31 * h + minuscula(texto.charAt(i));
+            }
+            return (h * 0x9E3779B9) >>> desplazamiento;
+        }
+
+        private static char minuscula(char c) {
+            if (c < 0x80) {
+                return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+            }
+            return Character.toLowerCase(c);
+        }
+
+        private static boolean iguales(String clave, String texto) {
+            if (clave.length() != texto.length()) {
+                return false;
+            }
+            for (int i = 0; i < clave.length(); i++) {
+                if (clave.charAt(i) != minuscula(texto.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Minúsculas caracter a caracter, igual que en {@link #posicion} e {@link #iguales}.
+         */
+        private static String minusculas(String texto) {
+            char[] letras = texto.toCharArray();
+            for (int i = 0; i < letras.length; i++) {
+                letras[i] = minuscula(letras[i]);
+            }
+            return new String(letras);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.empresa.modelo;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Normalización de texto para los índices de búsqueda: minúsculas, sin tildes
+ * y separado en palabras de letras y dígitos.
+ *
+ * @author Ignacio
+ */
+final class TextoBusqueda {
+
+    private TextoBusqueda() {
+    }
+
+    /**
+     * Separa un texto en palabras normalizadas (minúsculas, sin tildes, solo letras y dígitos).
+     */
+    static List<String> palabras(String texto) {
+        List<String> palabras = new ArrayList<>();
+        if (texto == null) {
+            return palabras;
+        }
+        String normalizado = normalizar(texto);
+        int inicio = -1;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            boolean letra = i < normalizado.length() && Character.isLetterOrDigit(normalizado.charAt(i));
+            if (letra && inicio < 0) {
+                inicio = i;
+            } else if (!letra && inicio >= 0) {
+                palabras.add(normalizado.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return palabras;
+    }
+
+    static String normalizar(String texto) {
+        String minusculas = texto.toLowerCase();
+        char[] letras = null;
+        for (int i = 0; i < minusculas.length(); i++) {
+            char c = minusculas.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            char sinTilde = switch (c) {
+                case 'á', 'à', 'ä' -> 'a';
+                case 'é', 'è', 'ë' -> 'e';
+                case 'í', 'ì', 'ï' -> 'i';
+                case 'ó', 'ò', 'ö' -> 'o';
+                case 'ú', 'ù', 'ü' -> 'u';
+                case 'ñ' -> 'n';
+                default -> 0;
+            };
+            if (sinTilde == 0) {
+                // Caracter poco común: se usa la normalización Unicode completa
+                return Normalizer.normalize(minusculas, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+            }
+            if (letras == null) {
+                letras = minusculas.toCharArray();
+            }
+            letras[i] = sinTilde;
+        }
+        return letras != null ? new String(letras) : minusculas;
+    }
+}
@@ -0,0 +1,128 @@
+package com.empresa.modelo;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Árbol de prefijos (trie) que asocia palabras a conjuntos de valores.
+ * Permite búsqueda exacta y búsqueda por prefijo para autocompletar.
+ *
+ * Cada nodo guarda sus hijos en arreglos ordenados por letra (búsqueda binaria)
+ * en lugar de un mapa, para reducir memoria con millones de palabras.
+ *
+ * No es seguro para uso concurrente; quien lo usa debe sincronizar el acceso.
+ *
+ * @param <T> Tipo de los valores asociados a cada palabra
+ * @author Ignacio
+ */
+final class TriePrefijos<T> {
+
+    private static final char[] SIN_LETRAS = new char[0];
+
+    private final Nodo<T> raiz = new Nodo<>();
+
+    void agregar(String palabra, T valor) {
+        Nodo<T> nodo = raiz;
+        for (int i = 0; i < palabra.length(); i++) {
+            nodo = nodo.hijoOCrear(palabra.charAt(i));
+        }
+        if (nodo.valores == null) {
+            nodo.valores = new HashSet<>(2);
+        }
+        nodo.valores.add(valor);
+    }
+
+    void quitar(String palabra, T valor) {
+        Nodo<T> nodo = buscarNodo(palabra);
+        if (nodo != null && nodo.valores != null) {
+            nodo.valores.remove(valor);
+            if (nodo.valores.isEmpty()) {
+                nodo.valores = null;
+            }
+        }
+    }
+
+    /**
+     * Valores asociados exactamente a la palabra (vista de solo lectura).
+     */
+    Set<T> exacto(String palabra) {
+        Nodo<T> nodo = buscarNodo(palabra);
+        return (nodo != null && nodo.valores != null) ? Collections.unmodifiableSet(nodo.valores) : Collections.emptySet();
+    }
+
+    /**
+     * Agrega a {@code destino} los valores de todas las palabras que comienzan con
+     * el prefijo, en orden alfabético de palabra, hasta completar {@code limite}.
+     */
+    void prefijo(String prefijo, int limite, Collection<T> destino) {
+        Nodo<T> nodo = buscarNodo(prefijo);
+        if (nodo != null) {
+            recolectar(nodo, limite, destino);
+        }
+    }
+
+    private boolean recolectar(Nodo<T> nodo, int limite, Collection<T> destino) {
+        if (nodo.valores != null) {
+            for (T valor : nodo.valores) {
+                destino.add(valor);
+                if (destino.size() >= limite) {
+                    return true;
+                }
+            }
+        }
+        for (int i = 0; i < nodo.cantidad; i++) {
+            if (recolectar(nodo.hijos[i], limite, destino)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Nodo<T> buscarNodo(String palabra) {
+        Nodo<T> nodo = raiz;
+        for (int i = 0; i < palabra.length() && nodo != null; i++) {
+            nodo = nodo.hijo(palabra.charAt(i));
+        }
+        return nodo;
+    }
+
+    private static final class Nodo<T> {
+        private char[] letras = SIN_LETRAS;
+        private Nodo<T>[] hijos;
+        private int cantidad;
+        private Set<T> valores;
+
+        private Nodo<T> hijo(char letra) {
+            int pos = Arrays.binarySearch(letras, 0, cantidad, letra);
+            return pos >= 0 ? hijos[pos] : null;
+        }
+
+        private Nodo<T> hijoOCrear(char letra) {
+            int pos = Arrays.binarySearch(letras, 0, cantidad, letra);
+            if (pos >= 0) {
+                return hijos[pos];
+            }
+            pos = -pos - 1;
+            if (cantidad == letras.length) {
+                int capacidad = Math.max(2, cantidad * 2);
+                letras = Arrays.copyOf(letras, capacidad);
+                hijos = (hijos == null) ? nuevosHijos(capacidad) : Arrays.copyOf(hijos, capacidad);
+            }
+            System.arraycopy(letras, pos, letras, pos + 1, cantidad - pos);
+            System.arraycopy(hijos, pos, hijos, pos + 1, cantidad - pos);
+            Nodo<T> nuevo = new Nodo<>();
+            letras[pos] = letra;
+            hijos[pos] = nuevo;
+            cantidad++;
+            return nuevo;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Nodo<T>[] nuevosHijos(int capacidad) {
+            return (Nodo<T>[]) new Nodo<?>[capacidad];
+        }
+    }
+}
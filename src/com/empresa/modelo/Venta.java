@@ -1,50 +1,88 @@
 package com.empresa.modelo;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Scanner;
 
 /**
  * Clase que representa una venta, ya sea en local o domicilio.
  * Permite agregar productos, aplicar descuentos seleccionados y calcular totales.
  * Incluye fecha/hora, cliente asociado y permite múltiples productos en una misma venta.
- * 
+ *
+ * Las líneas se guardan en arreglos paralelos de tipos primitivos (producto,
+ * cantidad, precio unitario y descuento unitario en pesos), con una línea por
+ * producto y cantidad en vez de una entrada por unidad. Los totales se
+ * actualizan al agregar cada línea, sin recorrer la venta.
+ *
  * @author Ignacio
  */
 public class Venta {
 
-    private final List<Producto> productosVendidos;
-    private final List<Integer> descuentosAplicados; // en pesos
+    private static final int CAPACIDAD_INICIAL = 4;
+
+    private Producto[] productos;
+    private int[] cantidades;
+    private long[] preciosUnitarios; // precio de venta en pesos al momento de vender
+    private int[] descuentos; // descuento por unidad, en pesos
+    private int lineas;
+    private int unidades;
+    private long totalBruto;
+    private long totalDescuento;
     private final String formatoVenta; // "local" o "domicilio"
     private final LocalDateTime fechaHora;
     private final Cliente cliente; // Cliente asociado a la venta
+    private long numero; // correlativo asignado por el historial al registrarla; 0 si no está registrada
 
     /**
      * Constructor que define el tipo de venta y el cliente.
-     * 
+     *
      * @param formatoVenta "local" o "domicilio"
      * @param cliente Cliente que realiza la compra
      */
     public Venta(String formatoVenta, Cliente cliente) {
+        this(formatoVenta, cliente, LocalDateTime.now());
+    }
+
+    /**
+     * Constructor con fecha/hora explícita (usado al reconstruir ventas ya registradas).
+     *
+     * @param formatoVenta "local" o "domicilio"
+     * @param cliente Cliente que realiza la compra
+     * @param fechaHora Momento en que se realizó la venta
+     */
+    public Venta(String formatoVenta, Cliente cliente, LocalDateTime fechaHora) {
         this.formatoVenta = formatoVenta.toLowerCase();
-        this.productosVendidos = new ArrayList<>();
-        this.descuentosAplicados = new ArrayList<>();
-        this.fechaHora = LocalDateTime.now();
+        this.productos = new Producto[CAPACIDAD_INICIAL];
+        this.cantidades = new int[CAPACIDAD_INICIAL];
+        this.preciosUnitarios = new long[CAPACIDAD_INICIAL];
+        this.descuentos = new int[CAPACIDAD_INICIAL];
+        this.fechaHora = fechaHora;
         this.cliente = cliente;
     }
 
     /**
-     * Agrega un producto a la venta, mostrando descuentos disponibles y solicitando selección.
+     * Agrega una unidad de un producto, mostrando descuentos disponibles y solicitando selección.
      *
      * @param producto Producto a vender
      * @param sc Scanner para entrada del usuario
      */
     public void agregarProducto(Producto producto, Scanner sc) {
-        int[] descuentos = Descuento.obtenerDescuentosDisponibles(producto, formatoVenta);
+        agregarProducto(producto, 1, sc);
+    }
+
+    /**
+     * Agrega una línea con varias unidades de un producto, mostrando los descuentos
+     * disponibles y solicitando una sola selección que se aplica a cada unidad.
+     *
+     * @param producto Producto a vender
+     * @param cantidad Unidades vendidas
+     * @param sc Scanner para entrada del usuario
+     */
+    public void agregarProducto(Producto producto, int cantidad, Scanner sc) {
+        int[] descuentos = Descuento.obtenerDescuentosDisponibles(producto, formatoVenta, cliente, fechaHora.getHour(), cantidad);
         int descuentoSeleccionado = 0;
 
-        System.out.println("\nProducto: " + producto.getNombre());
+        System.out.println("\nProducto: " + producto.getNombre() + " x" + cantidad);
         producto.mostrarDetalleProducto();
 
         if (descuentos.length == 1) {
@@ -67,37 +105,76 @@ public class Venta {
             System.out.println("No hay descuentos disponibles para este producto.");
         }
 
-        productosVendidos.add(producto);
-        descuentosAplicados.add(descuentoSeleccionado);
+        agregarLinea(producto, cantidad, descuentoSeleccionado);
     }
 
     /**
-     * Calcula el total sin descuentos.
+     * Agrega una unidad de un producto con un descuento ya determinado, sin interacción con el usuario.
+     *
+     * @param producto Producto a vender
+     * @param descuento Descuento en pesos aplicado a la unidad
      */
-    public double calcularTotalBruto() {
-        double total = 0;
-        for (Producto p : productosVendidos) {
-            total += p.getPrecioVentaFinal();
-        }
-        return total;
+    public void agregarProducto(Producto producto, int descuento) {
+        agregarLinea(producto, 1, descuento);
     }
 
     /**
-     * Suma todos los descuentos aplicados.
+     * Agrega una línea de venta sin interacción con el usuario. Si la última línea
+     * es del mismo producto y descuento, se suman las cantidades.
+     *
+     * @param producto Producto a vender
+     * @param cantidad Unidades vendidas (mayor a 0)
+     * @param descuentoUnitario Descuento en pesos aplicado a cada unidad
      */
-    public int calcularTotalDescuento() {
-        int totalDescuento = 0;
-        for (int d : descuentosAplicados) {
-            totalDescuento += d;
+    public void agregarLinea(Producto producto, int cantidad, int descuentoUnitario) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor a 0.");
+        }
+        long precio = producto.getPrecioVentaFinal();
+
+        int ultima = lineas - 1;
+        if (ultima >= 0 && productos[ultima] == producto && descuentos[ultima] == descuentoUnitario
+                && preciosUnitarios[ultima] == precio) {
+            cantidades[ultima] += cantidad;
+        } else {
+            if (lineas == productos.length) {
+                int capacidad = lineas * 2;
+                productos = Arrays.copyOf(productos, capacidad);
+                cantidades = Arrays.copyOf(cantidades, capacidad);
+                preciosUnitarios = Arrays.copyOf(preciosUnitarios, capacidad);
+                descuentos = Arrays.copyOf(descuentos, capacidad);
+            }
+            productos[lineas] = producto;
+            cantidades[lineas] = cantidad;
+            preciosUnitarios[lineas] = precio;
+            descuentos[lineas] = descuentoUnitario;
+            lineas++;
         }
+
+        unidades += cantidad;
+        totalBruto = Pesos.sumar(totalBruto, Pesos.multiplicar(precio, cantidad));
+        totalDescuento = Pesos.sumar(totalDescuento, Pesos.multiplicar(descuentoUnitario, cantidad));
+    }
+
+    /**
+     * Total sin descuentos, en pesos.
+     */
+    public long calcularTotalBruto() {
+        return totalBruto;
+    }
+
+    /**
+     * Suma de todos los descuentos aplicados, en pesos.
+     */
+    public long calcularTotalDescuento() {
         return totalDescuento;
     }
 
     /**
-     * Total a pagar con descuentos aplicados.
+     * Total a pagar con descuentos aplicados, en pesos.
      */
-    public double calcularTotalNeto() {
-        return calcularTotalBruto() - calcularTotalDescuento();
+    public long calcularTotalNeto() {
+        return totalBruto - totalDescuento;
     }
 
     /**
@@ -106,18 +183,20 @@ public class Venta {
     public void mostrarResumenVenta() {
         System.out.println("\n====== RESUMEN DE VENTA (" + formatoVenta.toUpperCase() + ") ======");
         System.out.println("Cliente: " + (cliente != null ? cliente.getNombre() + " (" + cliente.getRut() + ")" : "No registrado"));
-        for (int i = 0; i < productosVendidos.size(); i++) {
-            Producto p = productosVendidos.get(i);
-            int d = descuentosAplicados.get(i);
-            System.out.printf("Producto: %-15s | Precio: $%.0f | Descuento: $%d | Final: $%.0f\n",
-                    p.getNombre(), p.getPrecioVentaFinal(), d, p.getPrecioVentaFinal() - d);
+        for (int i = 0; i < lineas; i++) {
+            System.out.printf("Producto: %-15s | Cant: %3d | Precio: %s | Descuento: %s | Final: %s\n",
+                    productos[i].getNombre(), cantidades[i], Pesos.formatear(preciosUnitarios[i]),
+                    Pesos.formatear(descuentos[i]), Pesos.formatear(getTotalLinea(i)));
         }
         System.out.println("---------------------------------------------");
-        System.out.printf("TOTAL BRUTO:     $%.0f\n", calcularTotalBruto());
-        System.out.printf("TOTAL DESCUENTO: $%d\n", calcularTotalDescuento());
-        System.out.printf("TOTAL A PAGAR:   $%.0f\n", calcularTotalNeto());
+        System.out.println("TOTAL BRUTO:     " + Pesos.formatear(calcularTotalBruto()));
+        System.out.println("TOTAL DESCUENTO: " + Pesos.formatear(calcularTotalDescuento()));
+        System.out.println("TOTAL A PAGAR:   " + Pesos.formatear(calcularTotalNeto()));
+        System.out.println("IVA INCLUIDO:    " + Pesos.formatear(Pesos.ivaIncluido(calcularTotalNeto())));
         System.out.println("Fecha/Hora:      " + fechaHora);
-        System.out.println("Cliente: " + cliente.getNombre() + " | RUT: " + cliente.getRut());
+        if (cliente != null) {
+            System.out.println("Cliente: " + cliente.getNombre() + " | RUT: " + cliente.getRut());
+        }
 
     }
 
@@ -125,16 +204,75 @@ public class Venta {
         return fechaHora;
     }
 
+    /**
+     * Número correlativo de la venta en el historial, único entre todas las ventas
+     * registradas (también las archivadas); 0 si la venta aún no se registra.
+     */
+    public long getNumero() {
+        return numero;
+    }
+
+    /**
+     * Lo asigna {@link HistorialVentas} al registrar la venta, o el código que la
+     * reconstruye desde disco.
+     */
+    public void setNumero(long numero) {
+        this.numero = numero;
+    }
+
     public String getFormatoVenta() {
         return formatoVenta;
     }
 
-    public List<Producto> getProductosVendidos() {
-        return productosVendidos;
+    /**
+     * Cantidad de líneas de la venta (productos distintos o con distinto descuento).
+     */
+    public int getCantidadLineas() {
+        return lineas;
+    }
+
+    /**
+     * Total de unidades vendidas, sumando todas las líneas.
+     */
+    public int getCantidadUnidades() {
+        return unidades;
     }
 
-    public List<Integer> getDescuentosAplicados() {
-        return descuentosAplicados;
+    public Producto getProductoLinea(int linea) {
+        return productos[validarLinea(linea)];
+    }
+
+    public int getCantidadLinea(int linea) {
+        return cantidades[validarLinea(linea)];
+    }
+
+    /**
+     * Precio de venta unitario en pesos, tal como se cobró.
+     */
+    public long getPrecioUnitarioLinea(int linea) {
+        return preciosUnitarios[validarLinea(linea)];
+    }
+
+    /**
+     * Descuento por unidad en pesos.
+     */
+    public int getDescuentoLinea(int linea) {
+        return descuentos[validarLinea(linea)];
+    }
+
+    /**
+     * Total de la línea: (precio unitario - descuento) * cantidad.
+     */
+    public long getTotalLinea(int linea) {
+        validarLinea(linea);
+        return Pesos.multiplicar(preciosUnitarios[linea] - descuentos[linea], cantidades[linea]);
+    }
+
+    private int validarLinea(int linea) {
+        if (linea < 0 || linea >= lineas) {
+            throw new IndexOutOfBoundsException("Línea inexistente: " + linea);
+        }
+        return linea;
     }
 
     public Cliente getCliente() {
@@ -0,0 +1,40 @@
+package com.empresa.modelo;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link Venta}.
+ */
+public class VentaTest {
+
+    @Test
+    public void agregarLinea_mantieneTotalesYAgrupaUnidades() {
+        Producto gas = new Producto("Gas 15kg", "gas", 25000, 3000);
+        Producto regulador = new Producto("Regulador", "accesorio", 5000, 500);
+
+        Venta venta = new Venta("local", null);
+        venta.agregarLinea(gas, 50, 5500);
+        venta.agregarProducto(gas, 5500); // misma línea
+        venta.agregarLinea(regulador, 2, 0);
+
+        assertEquals(2, venta.getCantidadLineas());
+        assertEquals(53, venta.getCantidadUnidades());
+        assertEquals(51, venta.getCantidadLinea(0));
+        assertEquals(51 * 28000 + 2 * 5500, venta.calcularTotalBruto());
+        assertEquals(51 * 5500, venta.calcularTotalDescuento());
+        assertEquals(51 * (28000 - 5500), venta.getTotalLinea(0));
+        assertEquals(venta.calcularTotalBruto() - venta.calcularTotalDescuento(), venta.calcularTotalNeto());
+    }
+
+    @Test
+    public void agregarLinea_cantidadInvalidaLanzaExcepcion() {
+        Venta venta = new Venta("domicilio", null);
+        try {
+            venta.agregarLinea(new Producto("Gas 5kg", "gas", 10000, 1000), 0, 0);
+            fail("Se esperaba IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(0, venta.getCantidadLineas());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.empresa.persistencia;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.FacturaCompra;
+import com.empresa.modelo.Inventario;
+import com.empresa.modelo.OrdenCompra;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Almacén embebido de la empresa: un directorio con un {@link RepositorioArchivo}
+ * por entidad (clientes, productos del inventario, órdenes y facturas de compra).
+ *
+ * @author Ignacio
+ */
+public class AlmacenEmpresa implements Closeable {
+
+    private static final int CACHE_CLIENTES = 4096;
+    private static final int CACHE_PRODUCTOS = 1024;
+    private static final int CACHE_ORDENES = 1024;
+    private static final int CACHE_FACTURAS = 1024;
+
+    private final RepositorioArchivo<Cliente> clientes;
+    private final RepositorioArchivo<Inventario.ProductoInventariado> productos;
+    private final RepositorioArchivo<OrdenCompra> ordenes;
+    private final RepositorioArchivo<FacturaCompra> facturas;
+
+    private AlmacenEmpresa(RepositorioArchivo<Cliente> clientes,
+            RepositorioArchivo<Inventario.ProductoInventariado> productos,
+            RepositorioArchivo<OrdenCompra> ordenes, RepositorioArchivo<FacturaCompra> facturas) {
+        this.clientes = clientes;
+        this.productos = productos;
+        this.ordenes = ordenes;
+        this.facturas = facturas;
+    }
+
+    /**
+     * Abre (o crea) el almacén en el directorio indicado.
+     */
+    public static AlmacenEmpresa abrir(Path directorio) throws IOException {
+        Files.createDirectories(directorio);
+        RepositorioArchivo<Cliente> clientes = null;
+        RepositorioArchivo<Inventario.ProductoInventariado> productos = null;
+        RepositorioArchivo<OrdenCompra> ordenes = null;
+        try {
+            clientes = RepositorioArchivo.abrir(directorio.resolve("clientes.db"),
+                    Codificadores.CLIENTE, Cliente::getRut, CACHE_CLIENTES);
+            productos = RepositorioArchivo.abrir(directorio.resolve("productos.db"),
+                    Codificadores.PRODUCTO_INVENTARIADO, pi -> claveProducto(pi.getProducto().getNombre()), CACHE_PRODUCTOS);
+            RepositorioArchivo<OrdenCompra> repoOrdenes = RepositorioArchivo.abrir(directorio.resolve("ordenes.db"),
+                    Codificadores.ORDEN_COMPRA, OrdenCompra::getIdOrden, CACHE_ORDENES);
+            ordenes = repoOrdenes;
+            RepositorioArchivo<FacturaCompra> facturas = RepositorioArchivo.abrir(directorio.resolve("facturas.db"),
+                    Codificadores.facturaCompra(repoOrdenes::buscar), FacturaCompra::getNumeroFactura, CACHE_FACTURAS);
+            return new AlmacenEmpresa(clientes, productos, ordenes, facturas);
+        } catch (IOException | RuntimeException e) {
+            cerrarSilencioso(clientes);
+            cerrarSilencioso(productos);
+            cerrarSilencioso(ordenes);
+            throw e;
+        }
+    }
+
+    /**
+     * Clave de un producto en el repositorio: el nombre en minúsculas, igual que en {@link Inventario}.
+     */
+    public static String claveProducto(String nombre) {
+        return nombre.toLowerCase();
+    }
+
+    public Repositorio<Cliente> getClientes() {
+        return clientes;
+    }
+
+    public Repositorio<Inventario.ProductoInventariado> getProductos() {
+        return productos;
+    }
+
+    public Repositorio<OrdenCompra> getOrdenes() {
+        return ordenes;
+    }
+
+    public Repositorio<FacturaCompra> getFacturas() {
+        return facturas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException error = null;
+        for (Closeable repositorio : new Closeable[] {clientes, productos, ordenes, facturas}) {
+            try {
+                repositorio.close();
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private static void cerrarSilencioso(Closeable recurso) {
+        if (recurso != null) {
+            try {
+                recurso.close();
+            } catch (IOException e) {
+                // ya se está informando el error de apertura
+            }
+        }
+    }
+}
@@ -0,0 +1,541 @@
+package com.empresa.persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Almacén clave-valor en un archivo de registros de solo-agregado (log-structured).
+ *
+ * Cada escritura agrega un registro al final del archivo y hace un fsync; en
+ * memoria solo se guarda la posición de cada clave, de modo que los valores
+ * pueden ocupar mucho más que el heap y se leen del disco cuando se piden.
+ * Los registros reemplazados o eliminados quedan como basura hasta que se
+ * compacta el archivo (automáticamente cuando la basura supera a los datos vivos).
+ *
+ * Formato: cabecera (magic + versión) seguida de registros
+ * [longitud:int][crc32:int][tipo:byte][clave:UTF][valor]. Al cerrar se escribe un
+ * archivo ".indice" con las posiciones, para abrir sin recorrer el archivo
+ * completo; si falta o no corresponde al archivo, el índice se reconstruye
+ * leyendo los registros y una cola truncada se descarta.
+ *
+ * Las lecturas pueden ser concurrentes; las escrituras son exclusivas.
+ *
+ * @author Ignacio
+ */
+public class AlmacenRegistros implements Closeable {
+
+    private static final int MAGIC = 0x414C4D52; // "ALMR"
+    private static final int MAGIC_INDICE = 0x414C4D49; // "ALMI"
+    private static final int VERSION = 1;
+    private static final int LARGO_CABECERA = 8;
+    private static final int MAX_REGISTRO = 16 * 1024 * 1024;
+    private static final byte TIPO_VALOR = 1;
+    private static final byte TIPO_BORRADO = 2;
+    private static final long MIN_BASURA_COMPACTAR = 4L * 1024 * 1024;
+
+    private final Path ruta;
+    private final Path rutaIndice;
+    private final ReadWriteLock candado;
+    private final Map<String, Ubicacion> indice;
+    private FileChannel canal;
+    private long fin;
+    private long basura;
+
+    private AlmacenRegistros(Path ruta, FileChannel canal) {
+        this.ruta = ruta;
+        this.rutaIndice = rutaIndice(ruta);
+        this.canal = canal;
+        this.candado = new ReentrantReadWriteLock();
+        this.indice = new LinkedHashMap<>();
+    }
+
+    private static Path rutaIndice(Path ruta) {
+        return ruta.resolveSibling(ruta.getFileName() + ".indice");
+    }
+
+    /**
+     * Abre (o crea) el almacén.
+     *
+     * @param ruta Archivo de registros
+     */
+    public static AlmacenRegistros abrir(Path ruta) throws IOException {
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        AlmacenRegistros almacen = new AlmacenRegistros(ruta, canal);
+        try {
+            almacen.cargar();
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+        return almacen;
+    }
+
+    private void cargar() throws IOException {
+        if (canal.size() < LARGO_CABECERA) {
+            ByteBuffer cabecera = ByteBuffer.allocate(LARGO_CABECERA).putInt(MAGIC).putInt(VERSION);
+            cabecera.flip();
+            canal.truncate(0);
+            canal.write(cabecera, 0);
+            canal.force(true);
+            fin = LARGO_CABECERA;
+        } else if (!cargarIndice()) {
+            fin = reconstruirIndice();
+            if (fin < canal.size()) {
+                System.out.println("Almacén " + ruta.getFileName() + ": se descartó un registro incompleto al final del archivo.");
+                canal.truncate(fin);
+                canal.force(true);
+            }
+        }
+        // El índice deja de ser válido en cuanto se escriba algo; se vuelve a generar al cerrar
+        Files.deleteIfExists(rutaIndice);
+    }
+
+    /**
+     * Carga las posiciones desde el archivo ".indice", si corresponde al archivo actual.
+     */
+    private boolean cargarIndice() throws IOException {
+        if (!Files.exists(rutaIndice)) {
+            return false;
+        }
+        try (CheckedInputStream verificado = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(rutaIndice), 1 << 16), new CRC32())) {
+            DataInputStream in = new DataInputStream(verificado);
+            if (in.readInt() != MAGIC_INDICE || in.readLong() != canal.size()) {
+                return false;
+            }
+            long basuraGuardada = in.readLong();
+            int cantidad = in.readInt();
+            Map<String, Ubicacion> leido = new LinkedHashMap<>(cantidad * 4 / 3 + 1);
+            for (int i = 0; i < cantidad; i++) {
+                String clave = in.readUTF();
+                leido.put(clave, new Ubicacion(in.readLong(), in.readInt()));
+            }
+            int crcCalculado = (int) verificado.getChecksum().getValue();
+            if (in.readInt() != crcCalculado) {
+                return false;
+            }
+            indice.putAll(leido);
+            basura = basuraGuardada;
+            fin = canal.size();
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Lee todos los registros desde el inicio y retorna la posición del último byte válido.
+     */
+    private long reconstruirIndice() throws IOException {
+        canal.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal), 1 << 16));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("El archivo no es un almacén de registros: " + ruta);
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Versión de almacén no soportada: " + version);
+        }
+
+        CRC32 crc = new CRC32();
+        long posicion = LARGO_CABECERA;
+        byte[] datos = new byte[256];
+        while (true) {
+            int largo;
+            int crcEsperado;
+            try {
+                largo = in.readInt();
+                crcEsperado = in.readInt();
+                if (largo < 3 || largo > MAX_REGISTRO) {
+                    return posicion;
+                }
+                if (datos.length < largo) {
+                    datos = new byte[Math.max(largo, datos.length * 2)];
+                }
+                in.readFully(datos, 0, largo);
+            } catch (EOFException e) {
+                return posicion;
+            }
+
+            crc.reset();
+            crc.update(datos, 0, largo);
+            if ((int) crc.getValue() != crcEsperado) {
+                return posicion;
+            }
+
+            String clave = claveDe(datos);
+            Ubicacion anterior = datos[0] == TIPO_BORRADO
+                    ? indice.remove(clave)
+                    : indice.put(clave, new Ubicacion(posicion, largo));
+            if (anterior != null) {
+                basura += anterior.bytes();
+            }
+            if (datos[0] == TIPO_BORRADO) {
+                basura += 8 + largo;
+            }
+            posicion += 8 + largo;
+        }
+    }
+
+    private static String claveDe(byte[] cuerpo) throws IOException {
+        int largoClave = ((cuerpo[1] & 0xFF) << 8) | (cuerpo[2] & 0xFF);
+        return new DataInputStream(new ByteArrayInputStream(cuerpo, 1, 2 + largoClave)).readUTF();
+    }
+
+    // ======================== LECTURA ========================
+
+    /**
+     * @return El valor guardado con esa clave, o null si no existe
+     */
+    public byte[] leer(String clave) throws IOException {
+        candado.readLock().lock();
+        try {
+            Ubicacion u = indice.get(clave);
+            if (u == null) {
+                return null;
+            }
+            ByteBuffer registro = ByteBuffer.allocate(u.bytes());
+            while (registro.hasRemaining()) {
+                if (canal.read(registro, u.posicion + registro.position()) < 0) {
+                    throw new EOFException("Registro incompleto para la clave " + clave);
+                }
+            }
+            byte[] datos = registro.array();
+            CRC32 crc = new CRC32();
+            crc.update(datos, 8, u.largo);
+            if ((int) crc.getValue() != registro.getInt(4)) {
+                throw new IOException("Registro dañado para la clave " + clave);
+            }
+            int inicioValor = 8 + 3 + (((datos[9] & 0xFF) << 8) | (datos[10] & 0xFF));
+            return Arrays.copyOfRange(datos, inicioValor, datos.length);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    public boolean contiene(String clave) {
+        candado.readLock().lock();
+        try {
+            return indice.containsKey(clave);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    public int cantidad() {
+        candado.readLock().lock();
+        try {
+            return indice.size();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copia de las claves vigentes, en orden de primera inserción.
+     */
+    public List<String> claves() {
+        candado.readLock().lock();
+        try {
+            return new ArrayList<>(indice.keySet());
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copia de las claves vigentes entre las posiciones indicadas (para paginar).
+     */
+    public List<String> claves(int desde, int cantidad) {
+        candado.readLock().lock();
+        try {
+            List<String> resultado = new ArrayList<>(Math.max(0, Math.min(cantidad, indice.size() - desde)));
+            int i = 0;
+            for (String clave : indice.keySet()) {
+                if (i >= desde + cantidad) {
+                    break;
+                }
+                if (i++ >= desde) {
+                    resultado.add(clave);
+                }
+            }
+            return resultado;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    // ======================== ESCRITURA ========================
+
+    /**
+     * Guarda el valor (reemplazando el anterior) y espera a que quede en disco.
+     */
+    public void escribir(String clave, byte[] valor) throws IOException {
+        Map<String, byte[]> uno = new LinkedHashMap<>(2);
+        uno.put(clave, valor);
+        escribirTodos(uno);
+    }
+
+    /**
+     * Guarda varios valores con una sola escritura y un solo fsync.
+     */
+    public void escribirTodos(Map<String, byte[]> valores) throws IOException {
+        if (valores.isEmpty()) {
+            return;
+        }
+        List<ByteBuffer> registros = new ArrayList<>(valores.size());
+        for (Map.Entry<String, byte[]> e : valores.entrySet()) {
+            registros.add(registro(TIPO_VALOR, e.getKey(), e.getValue()));
+        }
+
+        candado.writeLock().lock();
+        try {
+            long posicion = agregar(registros);
+            int i = 0;
+            for (String clave : valores.keySet()) {
+                int largo = registros.get(i++).capacity() - 8;
+                Ubicacion anterior = indice.put(clave, new Ubicacion(posicion, largo));
+                if (anterior != null) {
+                    basura += anterior.bytes();
+                }
+                posicion += 8 + largo;
+            }
+            compactarSiConviene();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true si la clave existía
+     */
+    public boolean eliminar(String clave) throws IOException {
+        candado.writeLock().lock();
+        try {
+            if (!indice.containsKey(clave)) {
+                return false;
+            }
+            ByteBuffer borrado = registro(TIPO_BORRADO, clave, new byte[0]);
+            agregar(List.of(borrado));
+            basura += indice.remove(clave).bytes() + borrado.capacity();
+            compactarSiConviene();
+            return true;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    private static ByteBuffer registro(byte tipo, String clave, byte[] valor) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + 3 + clave.length() + valor.length);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // largo, se completa abajo
+        out.writeInt(0); // crc, se completa abajo
+        out.writeByte(tipo);
+        out.writeUTF(clave);
+        out.write(valor);
+        out.flush();
+
+        ByteBuffer registro = ByteBuffer.wrap(bytes.toByteArray());
+        int largo = registro.capacity() - 8;
+        if (largo > MAX_REGISTRO) {
+            throw new IOException("Registro demasiado grande para la clave " + clave + ": " + largo + " bytes");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(registro.array(), 8, largo);
+        registro.putInt(0, largo);
+        registro.putInt(4, (int) crc.getValue());
+        return registro;
+    }
+
+    /**
+     * Escribe los registros al final del archivo y hace fsync. Requiere el candado de escritura.
+     *
+     * @return Posición del primer registro
+     */
+    private long agregar(List<ByteBuffer> registros) throws IOException {
+        ByteBuffer[] buffers = registros.toArray(new ByteBuffer[0]);
+        long restante = 0;
+        for (ByteBuffer b : buffers) {
+            restante += b.remaining();
+        }
+        long inicio = fin;
+        try {
+            canal.position(fin);
+            while (restante > 0) {
+                restante -= canal.write(buffers);
+            }
+            canal.force(false);
+        } catch (IOException e) {
+            // Se descarta lo que haya alcanzado a escribirse para no dejar registros a medias
+            canal.truncate(inicio);
+            throw e;
+        }
+        fin = canal.position();
+        return inicio;
+    }
+
+    // ======================== COMPACTACIÓN ========================
+
+    private void compactarSiConviene() throws IOException {
+        if (basura >= MIN_BASURA_COMPACTAR && basura > fin - LARGO_CABECERA - basura) {
+            compactarBloqueado();
+        }
+    }
+
+    /**
+     * Reescribe el archivo solo con los registros vigentes y lo reemplaza de forma atómica.
+     */
+    public void compactar() throws IOException {
+        candado.writeLock().lock();
+        try {
+            compactarBloqueado();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * El archivo actual sigue abierto hasta que el compactado lo reemplaza; si algo
+     * falla antes, el almacén sigue trabajando sobre el archivo anterior.
+     */
+    private void compactarBloqueado() throws IOException {
+        Path temporal = ruta.resolveSibling(ruta.getFileName() + ".tmp");
+        Map<String, Ubicacion> nuevas = new LinkedHashMap<>(indice.size() * 4 / 3 + 1);
+        long posicion = LARGO_CABECERA;
+        FileChannel nuevo = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer cabecera = ByteBuffer.allocate(LARGO_CABECERA).putInt(MAGIC).putInt(VERSION);
+            cabecera.flip();
+            nuevo.write(cabecera);
+            for (Map.Entry<String, Ubicacion> e : indice.entrySet()) {
+                Ubicacion u = e.getValue();
+                long copiado = 0;
+                while (copiado < u.bytes()) {
+                    copiado += canal.transferTo(u.posicion + copiado, u.bytes() - copiado, nuevo);
+                }
+                nuevas.put(e.getKey(), new Ubicacion(posicion, u.largo));
+                posicion += u.bytes();
+            }
+            nuevo.force(true);
+            Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            nuevo.close();
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+
+        FileChannel anterior = canal;
+        canal = nuevo;
+        indice.clear();
+        indice.putAll(nuevas);
+        fin = posicion;
+        basura = 0;
+        try {
+            anterior.close();
+        } catch (IOException e) {
+            System.out.println("Almacén " + ruta.getFileName() + ": error al cerrar el archivo anterior: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Bytes ocupados por registros reemplazados o eliminados.
+     */
+    long getBasura() {
+        candado.readLock().lock();
+        try {
+            return basura;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    long getTamanoArchivo() {
+        candado.readLock().lock();
+        try {
+            return fin;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Guarda el índice de posiciones para la próxima apertura y cierra el archivo.
+     */
+    @Override
+    public void close() throws IOException {
+        candado.writeLock().lock();
+        try {
+            if (!canal.isOpen()) {
+                return;
+            }
+            canal.force(true);
+            guardarIndice();
+            canal.close();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    private void guardarIndice() throws IOException {
+        Path temporal = rutaIndice.resolveSibling(rutaIndice.getFileName() + ".tmp");
+        CheckedOutputStream verificado = new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporal), 1 << 16), new CRC32());
+        try (DataOutputStream out = new DataOutputStream(verificado)) {
+            out.writeInt(MAGIC_INDICE);
+            out.writeLong(fin);
+            out.writeLong(basura);
+            out.writeInt(indice.size());
+            for (Map.Entry<String, Ubicacion> e : indice.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue().posicion);
+                out.writeInt(e.getValue().largo);
+            }
+            out.flush();
+            out.writeInt((int) verificado.getChecksum().getValue());
+        }
+        Files.move(temporal, rutaIndice, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Posición de un registro en el archivo y largo de su cuerpo (sin largo ni crc).
+     */
+    private static final class Ubicacion {
+        private final long posicion;
+        private final int largo;
+
+        private Ubicacion(long posicion, int largo) {
+            this.posicion = posicion;
+            this.largo = largo;
+        }
+
+        private int bytes() {
+            return 8 + largo;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.empresa.persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Archivo de solo-agregado compartido por los diarios ({@link DiarioVentas},
+ * {@link DiarioMovimientos} y {@link DiarioCuentas}): cabecera (magic + versión)
+ * seguida de registros [longitud:int][crc32:int][datos].
+ *
+ * Al abrir se reproducen los registros válidos y se descarta la cola truncada o
+ * corrupta que deja un corte de energía. Si una escritura falla, el archivo se
+ * recorta al largo que tenía antes, de modo que las escrituras confirmadas después
+ * no quedan detrás de un registro a medias (que al reproducir cortaría el diario
+ * ahí). Si tampoco se puede recortar, el archivo rechaza toda escritura siguiente.
+ *
+ * @author Ignacio
+ */
+final class ArchivoDiario implements Closeable {
+
+    static final int LARGO_CABECERA = 8;
+
+    /**
+     * Recibe los datos de cada registro al reproducir el diario.
+     */
+    interface Lector {
+        /**
+         * @return false si el registro no es válido; se descarta junto con los siguientes
+         */
+        boolean registro(DataInputStream datos) throws IOException;
+    }
+
+    /**
+     * Escribe los datos de un registro.
+     */
+    interface Contenido {
+        void escribir(DataOutputStream out) throws IOException;
+    }
+
+    private final FileChannel canal;
+    private final String nombre;
+    private boolean inutilizable;
+
+    private ArchivoDiario(FileChannel canal, String nombre) {
+        this.canal = canal;
+        this.nombre = nombre;
+    }
+
+    /**
+     * Abre (o crea) el archivo y reproduce los registros ya escritos.
+     *
+     * @param nombre Qué registra el diario ("ventas", "cuentas"...), para los mensajes
+     * @param maxRegistro Largo máximo de los datos de un registro
+     */
+    static ArchivoDiario abrir(Path ruta, int magic, int version, String nombre, int maxRegistro, Lector lector)
+            throws IOException {
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (canal.size() < LARGO_CABECERA) {
+                ByteBuffer cabecera = ByteBuffer.allocate(LARGO_CABECERA).putInt(magic).putInt(version);
+                cabecera.flip();
+                canal.truncate(0);
+                canal.write(cabecera, 0);
+                canal.force(true);
+            } else {
+                long valido = reproducir(canal, magic, version, nombre, maxRegistro, lector);
+                if (valido < canal.size()) {
+                    System.out.println("Diario de " + nombre + ": se descartó un registro incompleto al final del archivo.");
+                    canal.truncate(valido);
+                    canal.force(true);
+                }
+            }
+            canal.position(canal.size());
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+        return new ArchivoDiario(canal, nombre);
+    }
+
+    /**
+     * Lee los registros desde el inicio y retorna la posición del último byte válido.
+     */
+    private static long reproducir(FileChannel canal, int magic, int version, String nombre, int maxRegistro,
+            Lector lector) throws IOException {
+        canal.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal), 1 << 16));
+        if (in.readInt() != magic) {
+            throw new IOException("El archivo no es un diario de " + nombre + ".");
+        }
+        int leida = in.readInt();
+        if (leida != version) {
+            throw new IOException("Versión de diario no soportada: " + leida);
+        }
+
+        CRC32 crc = new CRC32();
+        long valido = LARGO_CABECERA;
+        byte[] datos = new byte[256];
+        while (true) {
+            int largo;
+            int crcEsperado;
+            try {
+                largo = in.readInt();
+                crcEsperado = in.readInt();
+                if (largo <= 0 || largo > maxRegistro) {
+                    return valido;
+                }
+                if (datos.length < largo) {
+                    datos = new byte[Math.max(largo, datos.length * 2)];
+                }
+                in.readFully(datos, 0, largo);
+            } catch (EOFException e) {
+                return valido;
+            }
+            crc.reset();
+            crc.update(datos, 0, largo);
+            if ((int) crc.getValue() != crcEsperado
+                    || !lector.registro(new DataInputStream(new ByteArrayInputStream(datos, 0, largo)))) {
+                return valido;
+            }
+            valido += 8 + largo;
+        }
+    }
+
+    /**
+     * Arma un registro completo (largo, CRC y datos), listo para {@link #agregar}.
+     */
+    static ByteBuffer registro(Contenido contenido) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // largo, se completa abajo
+        out.writeInt(0); // crc, se completa abajo
+        contenido.escribir(out);
+        out.flush();
+
+        ByteBuffer registro = ByteBuffer.wrap(bytes.toByteArray());
+        int largo = registro.capacity() - 8;
+        CRC32 crc = new CRC32();
+        crc.update(registro.array(), 8, largo);
+        registro.putInt(0, largo);
+        registro.putInt(4, (int) crc.getValue());
+        return registro;
+    }
+
+    /**
+     * Escribe los registros al final del archivo y los sincroniza a disco con un
+     * único fsync. Si falla, recorta el archivo al largo anterior antes de lanzar el
+     * error; si el recorte también falla, el archivo queda inutilizable.
+     *
+     * @throws IOException si los registros no quedaron escritos
+     */
+    synchronized void agregar(ByteBuffer... registros) throws IOException {
+        if (inutilizable) {
+            throw new IOException("El diario de " + nombre + " quedó inutilizable tras un error de escritura.");
+        }
+        long inicio = canal.size();
+        long restante = 0;
+        for (ByteBuffer registro : registros) {
+            restante += registro.remaining();
+        }
+        try {
+            canal.position(inicio);
+            while (restante > 0) {
+                restante -= canal.write(registros);
+            }
+            canal.force(false);
+        } catch (IOException e) {
+            try {
+                canal.truncate(inicio);
+                canal.position(inicio);
+                canal.force(false);
+            } catch (IOException recorte) {
+                inutilizable = true;
+                e.addSuppressed(recorte);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Indica si una escritura falló sin poder deshacerse; desde entonces toda
+     * escritura se rechaza.
+     */
+    synchronized boolean isInutilizable() {
+        return inutilizable;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        canal.close();
+    }
+}
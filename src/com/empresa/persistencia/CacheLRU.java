@@ -0,0 +1,27 @@
+package com.empresa.persistencia;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché de tamaño fijo que descarta el elemento usado hace más tiempo.
+ * No es segura para hilos; {@link RepositorioArchivo} la sincroniza.
+ *
+ * @author Ignacio
+ */
+class CacheLRU<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int capacidad;
+
+    CacheLRU(int capacidad) {
+        super(16, 0.75f, true);
+        this.capacidad = capacidad;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> masAntiguo) {
+        return size() > capacidad;
+    }
+}
@@ -0,0 +1,18 @@
+package com.empresa.persistencia;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Serialización binaria de una entidad para {@link RepositorioArchivo}.
+ *
+ * @param <T> Tipo de la entidad
+ * @author Ignacio
+ */
+public interface Codificador<T> {
+
+    void escribir(T entidad, DataOutput out) throws IOException;
+
+    T leer(DataInput in) throws IOException;
+}
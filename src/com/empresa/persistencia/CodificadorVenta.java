@@ -0,0 +1,98 @@
+package com.empresa.persistencia;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.Producto;
+import com.empresa.modelo.Venta;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+/**
+ * Serialización binaria compacta de una {@link Venta}, usada por el diario y los
+ * segmentos de ventas.
+ * Formato: número de venta, fecha/hora (segundos + nanos), formato de venta,
+ * cliente opcional y líneas (producto con sus montos en pesos, cantidad,
+ * descuento unitario).
+ *
+ * @author Ignacio
+ */
+public final class CodificadorVenta {
+
+    private CodificadorVenta() {
+    }
+
+    public static void escribir(Venta venta, DataOutput out) throws IOException {
+        LocalDateTime fecha = venta.getFechaHora();
+        out.writeLong(venta.getNumero());
+        out.writeLong(fecha.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(fecha.getNano());
+        out.writeUTF(venta.getFormatoVenta());
+
+        Cliente c = venta.getCliente();
+        out.writeBoolean(c != null);
+        if (c != null) {
+            out.writeUTF(c.getNombre());
+            out.writeUTF(c.getRut());
+            out.writeUTF(texto(c.getTelefono()));
+            out.writeUTF(texto(c.getDireccion()));
+        }
+
+        out.writeInt(venta.getCantidadLineas());
+        for (int i = 0; i < venta.getCantidadLineas(); i++) {
+            Producto p = venta.getProductoLinea(i);
+            out.writeUTF(p.getNombre());
+            out.writeUTF(p.getTipo());
+            out.writeLong(p.getPrecioCompraConIVA());
+            out.writeLong(p.getComisionPesos());
+            out.writeInt(venta.getCantidadLinea(i));
+            out.writeInt(venta.getDescuentoLinea(i));
+        }
+    }
+
+    /**
+     * Lee una venta. Los productos se reutilizan desde {@code productosConocidos}
+     * (por nombre y precios) para no duplicar instancias al reconstruir el historial.
+     */
+    public static Venta leer(DataInput in, Map<String, Producto> productosConocidos) throws IOException {
+        long numero = in.readLong();
+        long segundos = in.readLong();
+        int nanos = in.readInt();
+        String formato = in.readUTF();
+
+        Cliente cliente = null;
+        if (in.readBoolean()) {
+            String nombre = in.readUTF();
+            String rut = in.readUTF();
+            String telefono = in.readUTF();
+            String direccion = in.readUTF();
+            cliente = new Cliente(nombre, rut, telefono, direccion);
+        }
+
+        Venta venta = new Venta(formato, cliente, LocalDateTime.ofEpochSecond(segundos, nanos, ZoneOffset.UTC));
+        venta.setNumero(numero);
+        int lineas = in.readInt();
+        for (int l = 0; l < lineas; l++) {
+            String nombre = in.readUTF();
+            String tipo = in.readUTF();
+            long precioCompra = in.readLong();
+            long comision = in.readLong();
+            int cantidad = in.readInt();
+            int descuento = in.readInt();
+
+            Producto p = productosConocidos.get(nombre);
+            if (p == null || p.getPrecioCompraConIVA() != precioCompra || p.getComisionPesos() != comision) {
+                p = new Producto(nombre, tipo, precioCompra, comision);
+                productosConocidos.put(nombre, p);
+            }
+            venta.agregarLinea(p, cantidad, descuento);
+        }
+        return venta;
+    }
+
+    private static String texto(String valor) {
+        return valor != null ? valor : "";
+    }
+}
@@ -0,0 +1,137 @@
+package com.empresa.persistencia;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.FacturaCompra;
+import com.empresa.modelo.Inventario;
+import com.empresa.modelo.OrdenCompra;
+import com.empresa.modelo.Producto;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * Serialización binaria de las entidades guardadas en {@link AlmacenEmpresa}.
+ * Los montos se guardan como long en pesos.
+ *
+ * @author Ignacio
+ */
+public final class Codificadores {
+
+    private Codificadores() {
+    }
+
+    public static final Codificador<Cliente> CLIENTE = new Codificador<>() {
+        @Override
+        public void escribir(Cliente c, DataOutput out) throws IOException {
+            out.writeUTF(c.getNombre());
+            out.writeUTF(c.getRut());
+            out.writeUTF(texto(c.getTelefono()));
+            out.writeUTF(texto(c.getDireccion()));
+        }
+
+        @Override
+        public Cliente leer(DataInput in) throws IOException {
+            return new Cliente(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+        }
+    };
+
+    /**
+     * Producto del inventario junto con las unidades ingresadas; el stock actual se
+     * obtiene descontando las ventas del diario.
+     */
+    public static final Codificador<Inventario.ProductoInventariado> PRODUCTO_INVENTARIADO = new Codificador<>() {
+        @Override
+        public void escribir(Inventario.ProductoInventariado pi, DataOutput out) throws IOException {
+            escribirProducto(pi.getProducto(), out);
+            out.writeInt(pi.getUnidadesIngresadas());
+        }
+
+        @Override
+        public Inventario.ProductoInventariado leer(DataInput in) throws IOException {
+            Producto producto = leerProducto(in);
+            return new Inventario.ProductoInventariado(producto, in.readInt());
+        }
+    };
+
+    public static final Codificador<OrdenCompra> ORDEN_COMPRA = new Codificador<>() {
+        @Override
+        public void escribir(OrdenCompra orden, DataOutput out) throws IOException {
+            out.writeUTF(orden.getIdOrden());
+            out.writeUTF(orden.getProveedor());
+            out.writeLong(orden.getFechaEmision().toEpochDay());
+            out.writeInt(orden.getItems().size());
+            for (OrdenCompra.ItemOrden item : orden.getItems()) {
+                escribirProducto(item.getProducto(), out);
+                out.writeInt(item.getCantidad());
+            }
+        }
+
+        @Override
+        public OrdenCompra leer(DataInput in) throws IOException {
+            OrdenCompra orden = new OrdenCompra(in.readUTF(), in.readUTF(), LocalDate.ofEpochDay(in.readLong()));
+            int items = in.readInt();
+            for (int i = 0; i < items; i++) {
+                orden.agregarProducto(leerProducto(in), in.readInt());
+            }
+            return orden;
+        }
+    };
+
+    /**
+     * Facturas de compra. La orden asociada se guarda solo por su número y se
+     * obtiene con {@code ordenes} al leer la factura.
+     *
+     * @param ordenes Busca una orden por su número (retorna null si no existe)
+     */
+    public static Codificador<FacturaCompra> facturaCompra(Function<String, OrdenCompra> ordenes) {
+        return new Codificador<>() {
+            @Override
+            public void escribir(FacturaCompra factura, DataOutput out) throws IOException {
+                out.writeUTF(factura.getNumeroFactura());
+                out.writeUTF(factura.getProveedor());
+                out.writeLong(factura.getFecha().toEpochDay());
+                OrdenCompra orden = factura.getOrdenAsociada();
+                out.writeBoolean(orden != null);
+                if (orden != null) {
+                    out.writeUTF(orden.getIdOrden());
+                }
+                out.writeInt(factura.getProductosIngresados().size());
+                for (FacturaCompra.IngresoInventario ingreso : factura.getProductosIngresados()) {
+                    escribirProducto(ingreso.getProducto(), out);
+                    out.writeInt(ingreso.getCantidad());
+                }
+            }
+
+            @Override
+            public FacturaCompra leer(DataInput in) throws IOException {
+                String numero = in.readUTF();
+                String proveedor = in.readUTF();
+                LocalDate fecha = LocalDate.ofEpochDay(in.readLong());
+                OrdenCompra orden = in.readBoolean() ? ordenes.apply(in.readUTF()) : null;
+                FacturaCompra factura = new FacturaCompra(numero, proveedor, orden, fecha);
+                int ingresos = in.readInt();
+                for (int i = 0; i < ingresos; i++) {
+                    factura.agregarProducto(leerProducto(in), in.readInt());
+                }
+                return factura;
+            }
+        };
+    }
+
+    private static void escribirProducto(Producto p, DataOutput out) throws IOException {
+        out.writeUTF(p.getNombre());
+        out.writeUTF(p.getTipo());
+        out.writeLong(p.getPrecioCompraConIVA());
+        out.writeLong(p.getComisionPesos());
+    }
+
+    private static Producto leerProducto(DataInput in) throws IOException {
+        return new Producto(in.readUTF(), in.readUTF(), in.readLong(), in.readLong());
+    }
+
+    private static String texto(String valor) {
+        return valor != null ? valor : "";
+    }
+}
@@ -0,0 +1,74 @@
+package com.empresa.persistencia;
+
+import com.empresa.modelo.MovimientoCuenta;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+/**
+ * Diario binario de solo-agregado para los asientos de las cuentas corrientes de
+ * clientes (cargos por ventas a crédito y abonos por pagos).
+ *
+ * Mismo formato de registro que el diario de movimientos: cabecera (magic +
+ * versión) y registros
+ * [longitud:int][crc32:int][tipo:byte][segundo:long][monto:long][rut:UTF][referencia:UTF].
+ * Cada asiento se escribe y se sincroniza a disco antes de retornar: un pago
+ * informado al cliente no puede perderse. El archivo lo maneja un
+ * {@link ArchivoDiario}, que deshace las escrituras fallidas.
+ *
+ * @author Ignacio
+ */
+public class DiarioCuentas implements Closeable {
+
+    private static final int MAGIC = 0x43544153; // "CTAS"
+    private static final int VERSION = 1;
+    private static final int MAX_REGISTRO = 64 * 1024;
+    private static final MovimientoCuenta.Tipo[] TIPOS = MovimientoCuenta.Tipo.values();
+
+    private final ArchivoDiario archivo;
+
+    private DiarioCuentas(ArchivoDiario archivo) {
+        this.archivo = archivo;
+    }
+
+    /**
+     * Abre (o crea) el diario, reproduciendo primero los asientos ya registrados.
+     *
+     * @param alRecuperar Recibe cada asiento recuperado, en orden de registro
+     */
+    public static DiarioCuentas abrir(Path ruta, Consumer<MovimientoCuenta> alRecuperar) throws IOException {
+        return new DiarioCuentas(ArchivoDiario.abrir(ruta, MAGIC, VERSION, "cuentas", MAX_REGISTRO, registro -> {
+            int tipo = registro.readByte();
+            if (tipo < 0 || tipo >= TIPOS.length) {
+                return false;
+            }
+            LocalDateTime fechaHora = LocalDateTime.ofEpochSecond(registro.readLong(), 0, ZoneOffset.UTC);
+            long monto = registro.readLong();
+            String rut = registro.readUTF();
+            alRecuperar.accept(new MovimientoCuenta(rut, fechaHora, TIPOS[tipo], monto, registro.readUTF()));
+            return true;
+        }));
+    }
+
+    /**
+     * Agrega el asiento y retorna cuando quedó en disco. Si la escritura falla, el
+     * asiento no queda en el diario ni a medias.
+     */
+    public void agregar(MovimientoCuenta movimiento) throws IOException {
+        archivo.agregar(ArchivoDiario.registro(out -> {
+            out.writeByte(movimiento.getTipo().ordinal());
+            out.writeLong(movimiento.getFechaHora().toEpochSecond(ZoneOffset.UTC));
+            out.writeLong(movimiento.getMonto());
+            out.writeUTF(movimiento.getRut());
+            out.writeUTF(movimiento.getReferencia());
+        }));
+    }
+
+    @Override
+    public void close() throws IOException {
+        archivo.close();
+    }
+}
@@ -0,0 +1,90 @@
+package com.empresa.persistencia;
+
+import com.empresa.modelo.MovimientoStock;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Diario binario de solo-agregado para los movimientos de stock que no son ventas
+ * (ingresos, ajustes y stock inicial). Las ventas no se repiten aquí: ya quedan con
+ * su fecha en el {@link DiarioVentas} y se vuelven a registrar al reproducirlo.
+ *
+ * Mismo formato de registro que el diario de ventas: cabecera (magic + versión) y
+ * registros [longitud:int][crc32:int][tipo:byte][segundo:long][cantidad:int][producto:UTF].
+ * Estos movimientos son pocos (ingresos manuales o por factura), así que cada uno
+ * se escribe y se sincroniza a disco antes de retornar. El archivo lo maneja un
+ * {@link ArchivoDiario}, que deshace las escrituras fallidas.
+ *
+ * @author Ignacio
+ */
+public class DiarioMovimientos implements Closeable {
+
+    private static final int MAGIC = 0x4D564B58; // "MVKX"
+    private static final int VERSION = 1;
+    private static final int MAX_REGISTRO = 64 * 1024;
+    private static final MovimientoStock.Tipo[] TIPOS = MovimientoStock.Tipo.values();
+
+    private final ArchivoDiario archivo;
+
+    private DiarioMovimientos(ArchivoDiario archivo) {
+        this.archivo = archivo;
+    }
+
+    /**
+     * Abre (o crea) el diario, reproduciendo primero los movimientos ya registrados.
+     *
+     * @param alRecuperar Recibe cada movimiento recuperado, en orden de registro
+     */
+    public static DiarioMovimientos abrir(Path ruta, Consumer<MovimientoStock> alRecuperar) throws IOException {
+        return new DiarioMovimientos(ArchivoDiario.abrir(ruta, MAGIC, VERSION, "movimientos", MAX_REGISTRO, registro -> {
+            int tipo = registro.readByte();
+            if (tipo < 0 || tipo >= TIPOS.length) {
+                return false;
+            }
+            LocalDateTime fechaHora = LocalDateTime.ofEpochSecond(registro.readLong(), 0, ZoneOffset.UTC);
+            int cantidad = registro.readInt();
+            alRecuperar.accept(new MovimientoStock(registro.readUTF(), fechaHora, TIPOS[tipo], cantidad));
+            return true;
+        }));
+    }
+
+    /**
+     * Agrega el movimiento y retorna cuando quedó en disco. Si la escritura falla,
+     * el movimiento no queda en el diario ni a medias.
+     */
+    public void agregar(MovimientoStock movimiento) throws IOException {
+        archivo.agregar(registro(movimiento));
+    }
+
+    /**
+     * Agrega los movimientos con una sola escritura y un solo fsync. Si falla, no
+     * queda ninguno en el diario.
+     */
+    public void agregarTodos(List<MovimientoStock> lote) throws IOException {
+        ByteBuffer[] registros = new ByteBuffer[lote.size()];
+        for (int i = 0; i < registros.length; i++) {
+            registros[i] = registro(lote.get(i));
+        }
+        archivo.agregar(registros);
+    }
+
+    private static ByteBuffer registro(MovimientoStock movimiento) throws IOException {
+        return ArchivoDiario.registro(out -> {
+            out.writeByte(movimiento.getTipo().ordinal());
+            out.writeLong(movimiento.getFechaHora().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(movimiento.getCantidad());
+            out.writeUTF(movimiento.getProducto());
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        archivo.close();
+    }
+}
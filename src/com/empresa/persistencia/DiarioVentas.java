@@ -0,0 +1,224 @@
+package com.empresa.persistencia;
+
+import com.empresa.modelo.Producto;
+import com.empresa.modelo.Venta;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Diario binario de solo-agregado (write-ahead log) para las ventas.
+ *
+ * Cada venta se serializa en el hilo que la registra y se encola; un único hilo
+ * escritor toma todas las ventas pendientes, las escribe en una sola operación y
+ * hace un único fsync por grupo (group commit). Así varias cajas pagan un fsync
+ * compartido en vez de uno por venta, y nunca se reescribe el archivo completo.
+ *
+ * Formato: cabecera (magic + versión) seguida de registros
+ * [longitud:int][crc32:int][venta serializada], en un {@link ArchivoDiario}. Al
+ * abrir se reproducen todos los registros válidos; una cola truncada o corrupta
+ * (por un corte de energía en mitad de una escritura) se descarta. Si el archivo
+ * no puede recortarse tras una escritura fallida, el escritor se detiene y las
+ * ventas siguientes se rechazan.
+ *
+ * @author Ignacio
+ */
+public class DiarioVentas implements Closeable {
+
+    private static final int MAGIC = 0x564A4E4C; // "VJNL"
+    private static final int VERSION = 2;
+    private static final int MAX_REGISTRO = 16 * 1024 * 1024;
+    private static final int MAX_LOTE = 1024;
+    private static final Pendiente FIN = new Pendiente(null);
+
+    private final ArchivoDiario archivo;
+    private final BlockingQueue<Pendiente> cola;
+    private final Thread escritor;
+    private volatile boolean cerrado;
+
+    private DiarioVentas(ArchivoDiario archivo) {
+        this.archivo = archivo;
+        this.cola = new LinkedBlockingQueue<>();
+        this.escritor = new Thread(this::escribirLotes, "diario-ventas");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Abre (o crea) el diario, reproduciendo primero las ventas ya registradas.
+     *
+     * @param ruta Archivo del diario
+     * @param alRecuperar Recibe cada venta recuperada, en orden de registro
+     * @return Diario listo para agregar nuevas ventas
+     */
+    public static DiarioVentas abrir(Path ruta, Consumer<Venta> alRecuperar) throws IOException {
+        Map<String, Producto> productos = new HashMap<>();
+        return new DiarioVentas(ArchivoDiario.abrir(ruta, MAGIC, VERSION, "ventas", MAX_REGISTRO, datos -> {
+            alRecuperar.accept(CodificadorVenta.leer(datos, productos));
+            return true;
+        }));
+    }
+
+    /**
+     * Reemplaza el contenido del diario por las ventas indicadas (por ejemplo, las
+     * que quedan después de archivar los días anteriores). Se escribe un archivo
+     * temporal que luego se renombra, así que ante un corte queda el diario anterior
+     * o el nuevo completo. El diario no debe estar abierto.
+     */
+    public static void reescribir(Path ruta, List<Venta> ventas) throws IOException {
+        Path temporal = ruta.resolveSibling(ruta.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (Venta venta : ventas) {
+                out.write(serializar(venta).array());
+            }
+            out.flush();
+            canal.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        Files.move(temporal, ruta, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Agrega una venta al diario. La serialización ocurre en el hilo llamador; la
+     * escritura y el fsync los hace el hilo escritor junto a otras ventas pendientes.
+     *
+     * @return Futuro que se completa cuando la venta quedó persistida en disco
+     */
+    public CompletableFuture<Void> agregar(Venta venta) {
+        Pendiente pendiente;
+        try {
+            pendiente = new Pendiente(serializar(venta));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        synchronized (cola) {
+            if (cerrado) {
+                return CompletableFuture.failedFuture(new IOException("El diario de ventas está cerrado."));
+            }
+            cola.add(pendiente);
+        }
+        return pendiente.confirmacion;
+    }
+
+    private static ByteBuffer serializar(Venta venta) throws IOException {
+        return ArchivoDiario.registro(out -> CodificadorVenta.escribir(venta, out));
+    }
+
+    private void escribirLotes() {
+        List<Pendiente> lote = new ArrayList<>(MAX_LOTE);
+        boolean terminar = false;
+        try {
+            while (!terminar) {
+                lote.add(cola.take());
+                cola.drainTo(lote, MAX_LOTE - 1);
+
+                int fin = lote.indexOf(FIN);
+                if (fin >= 0) {
+                    terminar = true;
+                    lote.subList(fin, lote.size()).clear();
+                }
+                if (!lote.isEmpty() && !escribirLote(lote)) {
+                    System.out.println("Diario de ventas: se dejan de aceptar ventas por un error de escritura.");
+                    terminar = true;
+                }
+                lote.clear();
+            }
+        } catch (InterruptedException | RuntimeException | Error e) {
+            System.out.println("Diario de ventas: el hilo escritor terminó inesperadamente: " + e);
+        } finally {
+            descartarPendientes(lote);
+        }
+    }
+
+    /**
+     * Al salir el hilo escritor, falla las ventas que tomó y las que siguen en la
+     * cola; así ningún llamador queda esperando una confirmación que no llegará.
+     */
+    private void descartarPendientes(List<Pendiente> lote) {
+        synchronized (cola) {
+            cerrado = true;
+            cola.drainTo(lote);
+        }
+        IOException error = new IOException("El diario de ventas dejó de escribir.");
+        for (Pendiente p : lote) {
+            if (p != FIN) {
+                p.confirmacion.completeExceptionally(error);
+            }
+        }
+    }
+
+    /**
+     * Escribe el lote con un único fsync. Si falla, el archivo se recorta al largo
+     * anterior y las ventas del lote fallan; las siguientes se escriben normalmente.
+     *
+     * @return false si el archivo quedó inutilizable y el escritor debe detenerse
+     */
+    private boolean escribirLote(List<Pendiente> lote) {
+        ByteBuffer[] buffers = new ByteBuffer[lote.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = lote.get(i).registro;
+        }
+        try {
+            archivo.agregar(buffers);
+            for (Pendiente p : lote) {
+                p.confirmacion.complete(null);
+            }
+        } catch (IOException e) {
+            for (Pendiente p : lote) {
+                p.confirmacion.completeExceptionally(e);
+            }
+        }
+        return !archivo.isInutilizable();
+    }
+
+    /**
+     * Espera a que se escriban las ventas pendientes y cierra el archivo. El
+     * archivo se cierra también si el escritor ya se había detenido por un error.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (cola) {
+            if (!cerrado) {
+                cerrado = true;
+                cola.add(FIN);
+            }
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        archivo.close();
+    }
+
+    private static final class Pendiente {
+        private final ByteBuffer registro;
+        private final CompletableFuture<Void> confirmacion = new CompletableFuture<>();
+
+        private Pendiente(ByteBuffer registro) {
+            this.registro = registro;
+        }
+    }
+}
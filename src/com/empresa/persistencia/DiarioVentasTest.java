@@ -0,0 +1,79 @@
+package com.empresa.persistencia;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.Producto;
+import com.empresa.modelo.Venta;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link DiarioVentas}.
+ */
+public class DiarioVentasTest {
+
+    @Test
+    public void abrir_recuperaVentasRegistradas() throws Exception {
+        Path ruta = Files.createTempFile("diario", ".bin");
+        Cliente cliente = new Cliente("Ana", "11-1", "999", "Calle 1");
+        Producto gas = new Producto("Gas 15kg", "gas", 25000, 3000);
+
+        try (DiarioVentas diario = DiarioVentas.abrir(ruta, v -> fail("Diario nuevo no debe tener ventas"))) {
+            List<CompletableFuture<Void>> escrituras = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                Venta venta = new Venta("domicilio", cliente);
+                venta.agregarLinea(gas, 2, 3000);
+                escrituras.add(diario.agregar(venta));
+            }
+            escrituras.forEach(CompletableFuture::join);
+        }
+
+        List<Venta> recuperadas = new ArrayList<>();
+        DiarioVentas.abrir(ruta, recuperadas::add).close();
+
+        assertEquals(50, recuperadas.size());
+        Venta primera = recuperadas.get(0);
+        assertEquals("domicilio", primera.getFormatoVenta());
+        assertEquals("11-1", primera.getCliente().getRut());
+        assertEquals(1, primera.getCantidadLineas());
+        assertEquals(2, primera.getCantidadLinea(0));
+        assertEquals(56000 - 6000, primera.calcularTotalNeto());
+        Files.delete(ruta);
+    }
+
+    @Test
+    public void abrir_descartaRegistroIncompleto() throws Exception {
+        Path ruta = Files.createTempFile("diario", ".bin");
+        Producto gas = new Producto("Gas 5kg", "gas", 10000, 1000);
+
+        try (DiarioVentas diario = DiarioVentas.abrir(ruta, v -> { })) {
+            for (int i = 0; i < 2; i++) {
+                Venta venta = new Venta("local", null);
+                venta.agregarProducto(gas, 2500);
+                diario.agregar(venta).join();
+            }
+        }
+        // Simula un corte a mitad de la escritura del último registro
+        try (RandomAccessFile archivo = new RandomAccessFile(ruta.toFile(), "rw")) {
+            archivo.setLength(archivo.length() - 3);
+        }
+
+        List<Venta> recuperadas = new ArrayList<>();
+        try (DiarioVentas diario = DiarioVentas.abrir(ruta, recuperadas::add)) {
+            assertEquals(1, recuperadas.size());
+            Venta venta = new Venta("local", null);
+            venta.agregarProducto(gas, 0);
+            diario.agregar(venta).join();
+        }
+
+        recuperadas.clear();
+        DiarioVentas.abrir(ruta, recuperadas::add).close();
+        assertEquals(2, recuperadas.size());
+        Files.delete(ruta);
+    }
+}
@@ -0,0 +1,62 @@
+package com.empresa.persistencia;
+
+import com.empresa.modelo.Pagina;
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Colección persistente de entidades identificadas por una clave de texto
+ * (RUT, nombre de producto, número de orden o de factura).
+ *
+ * Los errores de disco se informan como {@link java.io.UncheckedIOException}.
+ *
+ * @param <T> Tipo de las entidades
+ * @author Ignacio
+ */
+public interface Repositorio<T> extends Closeable {
+
+    /**
+     * Guarda la entidad, reemplazando la que tenga la misma clave.
+     */
+    void guardar(T entidad);
+
+    /**
+     * Guarda varias entidades en una sola escritura a disco.
+     */
+    void guardarTodos(Collection<? extends T> entidades);
+
+    /**
+     * @return La entidad con esa clave, o null si no existe
+     */
+    T buscar(String clave);
+
+    /**
+     * @return true si la entidad existía
+     */
+    boolean eliminar(String clave);
+
+    boolean existe(String clave);
+
+    int cantidad();
+
+    /**
+     * Recorre todas las entidades en orden de primera inserción.
+     */
+    void paraCada(Consumer<? super T> accion);
+
+    /**
+     * Claves de todas las entidades en orden de primera inserción, sin leer las
+     * entidades.
+     */
+    List<String> claves();
+
+    /**
+     * Página de entidades en orden de primera inserción.
+     *
+     * @param pagina Número de página, desde 0
+     * @param tamano Cantidad de entidades por página
+     */
+    Pagina<T> listar(int pagina, int tamano);
+}
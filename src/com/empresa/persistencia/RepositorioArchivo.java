@@ -0,0 +1,215 @@
+package com.empresa.persistencia;
+
+import com.empresa.modelo.Pagina;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link Repositorio} respaldado por un {@link AlmacenRegistros}.
+ *
+ * Las entidades se leen del disco recién cuando se piden (carga diferida) y las
+ * más usadas se mantienen en una caché LRU de tamaño fijo, de modo que el heap
+ * solo contiene las posiciones de las claves y las entidades recientes. Los
+ * recorridos completos ({@link #paraCada}) no pasan por la caché para no
+ * desplazar las entidades que sí se consultan seguido.
+ *
+ * @param <T> Tipo de las entidades
+ * @author Ignacio
+ */
+public class RepositorioArchivo<T> implements Repositorio<T> {
+
+    private final AlmacenRegistros almacen;
+    private final Codificador<T> codificador;
+    private final Function<? super T, String> clave;
+    private final CacheLRU<String, T> cache;
+
+    /**
+     * @param almacen Almacén donde se guardan las entidades
+     * @param codificador Serialización de las entidades
+     * @param clave Obtiene la clave de una entidad
+     * @param capacidadCache Máximo de entidades que se mantienen en memoria
+     */
+    public RepositorioArchivo(AlmacenRegistros almacen, Codificador<T> codificador,
+            Function<? super T, String> clave, int capacidadCache) {
+        this.almacen = almacen;
+        this.codificador = codificador;
+        this.clave = clave;
+        this.cache = new CacheLRU<>(capacidadCache);
+    }
+
+    /**
+     * Abre (o crea) el archivo indicado como repositorio.
+     */
+    public static <T> RepositorioArchivo<T> abrir(Path ruta, Codificador<T> codificador,
+            Function<? super T, String> clave, int capacidadCache) throws IOException {
+        return new RepositorioArchivo<>(AlmacenRegistros.abrir(ruta), codificador, clave, capacidadCache);
+    }
+
+    @Override
+    public void guardar(T entidad) {
+        String k = clave.apply(entidad);
+        try {
+            almacen.escribir(k, codificar(entidad));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al guardar " + k, e);
+        }
+        synchronized (cache) {
+            cache.put(k, entidad);
+        }
+    }
+
+    @Override
+    public void guardarTodos(Collection<? extends T> entidades) {
+        Map<String, byte[]> valores = new LinkedHashMap<>(entidades.size() * 4 / 3 + 1);
+        for (T entidad : entidades) {
+            valores.put(clave.apply(entidad), codificar(entidad));
+        }
+        try {
+            almacen.escribirTodos(valores);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al guardar " + entidades.size() + " registros", e);
+        }
+        synchronized (cache) {
+            for (T entidad : entidades) {
+                cache.put(clave.apply(entidad), entidad);
+            }
+        }
+    }
+
+    @Override
+    public T buscar(String k) {
+        synchronized (cache) {
+            T enCache = cache.get(k);
+            if (enCache != null) {
+                return enCache;
+            }
+        }
+        T entidad = leer(k);
+        if (entidad != null) {
+            synchronized (cache) {
+                // Si otro hilo la cargó mientras tanto, se conserva esa instancia
+                T previa = cache.putIfAbsent(k, entidad);
+                if (previa != null) {
+                    return previa;
+                }
+            }
+        }
+        return entidad;
+    }
+
+    @Override
+    public boolean eliminar(String k) {
+        synchronized (cache) {
+            cache.remove(k);
+        }
+        try {
+            return almacen.eliminar(k);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al eliminar " + k, e);
+        }
+    }
+
+    @Override
+    public boolean existe(String k) {
+        return almacen.contiene(k);
+    }
+
+    @Override
+    public int cantidad() {
+        return almacen.cantidad();
+    }
+
+    @Override
+    public void paraCada(Consumer<? super T> accion) {
+        for (String k : almacen.claves()) {
+            T entidad;
+            synchronized (cache) {
+                entidad = cache.get(k);
+            }
+            if (entidad == null) {
+                entidad = leer(k);
+            }
+            if (entidad != null) {
+                accion.accept(entidad);
+            }
+        }
+    }
+
+    @Override
+    public List<String> claves() {
+        return almacen.claves();
+    }
+
+    @Override
+    public Pagina<T> listar(int pagina, int tamano) {
+        int total = almacen.cantidad();
+        List<String> claves = almacen.claves((int) Math.min(Integer.MAX_VALUE, (long) pagina * tamano), tamano);
+        List<T> elementos = new ArrayList<>(claves.size());
+        for (String k : claves) {
+            T entidad = buscar(k);
+            if (entidad != null) {
+                elementos.add(entidad);
+            }
+        }
+        return new Pagina<>(elementos, total, pagina, tamano);
+    }
+
+    /**
+     * Lee y decodifica la entidad desde el disco, sin pasar por la caché.
+     */
+    private T leer(String k) {
+        try {
+            byte[] valor = almacen.leer(k);
+            return valor != null ? codificador.leer(new DataInputStream(new ByteArrayInputStream(valor))) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer " + k, e);
+        }
+    }
+
+    private byte[] codificar(T entidad) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codificador.escribir(entidad, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reescribe el archivo sin los registros obsoletos.
+     */
+    public void compactar() {
+        try {
+            almacen.compactar();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al compactar", e);
+        }
+    }
+
+    int getTamanoCache() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (cache) {
+            cache.clear();
+        }
+        almacen.close();
+    }
+}
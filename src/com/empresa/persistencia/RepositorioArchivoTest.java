@@ -0,0 +1,136 @@
+package com.empresa.persistencia;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.FacturaCompra;
+import com.empresa.modelo.OrdenCompra;
+import com.empresa.modelo.Producto;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link RepositorioArchivo}.
+ */
+public class RepositorioArchivoTest {
+
+    private static RepositorioArchivo<Cliente> abrirClientes(Path ruta, int cache) throws Exception {
+        return RepositorioArchivo.abrir(ruta, Codificadores.CLIENTE, Cliente::getRut, cache);
+    }
+
+    private static List<Cliente> clientes(int cantidad) {
+        List<Cliente> lista = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            lista.add(new Cliente("Cliente " + i, i + "-K", "9" + i, "Calle " + i));
+        }
+        return lista;
+    }
+
+    @Test
+    public void reabrir_recuperaEntidadesConIndiceGuardado() throws Exception {
+        Path ruta = Files.createTempFile("clientes", ".db");
+        try (RepositorioArchivo<Cliente> repo = abrirClientes(ruta, 16)) {
+            repo.guardarTodos(clientes(100));
+            repo.guardar(new Cliente("Cliente 5", "5-K", "111", "Nueva 5"));
+            assertTrue(repo.eliminar("7-K"));
+        }
+        assertTrue(Files.exists(ruta.resolveSibling(ruta.getFileName() + ".indice")));
+
+        try (RepositorioArchivo<Cliente> repo = abrirClientes(ruta, 16)) {
+            assertEquals(99, repo.cantidad());
+            assertNull(repo.buscar("7-K"));
+            assertEquals("Nueva 5", repo.buscar("5-K").getDireccion());
+            assertEquals("Cliente 99", repo.buscar("99-K").getNombre());
+            assertEquals("0-K", repo.listar(0, 10).getElementos().get(0).getRut());
+        }
+    }
+
+    @Test
+    public void reabrir_sinIndiceReconstruyeYDescartaRegistroIncompleto() throws Exception {
+        Path ruta = Files.createTempFile("clientes", ".db");
+        try (RepositorioArchivo<Cliente> repo = abrirClientes(ruta, 16)) {
+            repo.guardarTodos(clientes(10));
+            repo.eliminar("3-K");
+        }
+        Files.delete(ruta.resolveSibling(ruta.getFileName() + ".indice"));
+        try (RandomAccessFile archivo = new RandomAccessFile(ruta.toFile(), "rw")) {
+            archivo.setLength(archivo.length() - 3);
+        }
+
+        try (RepositorioArchivo<Cliente> repo = abrirClientes(ruta, 16)) {
+            // se pierde solo el borrado, que era el último registro
+            assertEquals(10, repo.cantidad());
+            assertNotNull(repo.buscar("3-K"));
+            repo.guardar(new Cliente("Otro", "50-K", "", ""));
+        }
+        try (RepositorioArchivo<Cliente> repo = abrirClientes(ruta, 16)) {
+            assertEquals(11, repo.cantidad());
+            assertEquals("Otro", repo.buscar("50-K").getNombre());
+        }
+    }
+
+    @Test
+    public void buscar_cacheNoSuperaCapacidad() throws Exception {
+        Path ruta = Files.createTempFile("clientes", ".db");
+        try (RepositorioArchivo<Cliente> repo = abrirClientes(ruta, 8)) {
+            repo.guardarTodos(clientes(50));
+            for (int i = 0; i < 50; i++) {
+                assertEquals("Cliente " + i, repo.buscar(i + "-K").getNombre());
+            }
+            assertEquals(8, repo.getTamanoCache());
+            assertSame(repo.buscar("49-K"), repo.buscar("49-K"));
+
+            int[] recorridos = {0};
+            repo.paraCada(c -> recorridos[0]++);
+            assertEquals(50, recorridos[0]);
+        }
+    }
+
+    @Test
+    public void compactar_conservaSoloRegistrosVigentes() throws Exception {
+        Path ruta = Files.createTempFile("clientes", ".db");
+        try (RepositorioArchivo<Cliente> repo = abrirClientes(ruta, 4)) {
+            for (int vuelta = 0; vuelta < 5; vuelta++) {
+                repo.guardarTodos(clientes(200));
+            }
+            long antes = Files.size(ruta);
+            repo.compactar();
+            assertTrue(Files.size(ruta) < antes / 4);
+            assertEquals(200, repo.cantidad());
+            assertEquals("Calle 150", repo.buscar("150-K").getDireccion());
+            assertFalse(Files.exists(ruta.resolveSibling(ruta.getFileName() + ".tmp")));
+            assertEquals(200, repo.claves().size());
+
+            // el almacén sigue escribiendo sobre el archivo compactado
+            repo.guardar(new Cliente("Nuevo", "999-9", "", "Calle 999"));
+        }
+        try (RepositorioArchivo<Cliente> repo = abrirClientes(ruta, 4)) {
+            assertEquals(201, repo.cantidad());
+            assertEquals("Calle 999", repo.buscar("999-9").getDireccion());
+        }
+    }
+
+    @Test
+    public void facturas_resuelvenOrdenAsociada() throws Exception {
+        Path directorio = Files.createTempDirectory("almacen");
+        Producto gas = new Producto("Gas 15kg", "gas", 25000, 3000);
+        try (AlmacenEmpresa almacen = AlmacenEmpresa.abrir(directorio)) {
+            OrdenCompra orden = new OrdenCompra("OC-1", "Abastible", LocalDate.of(2024, 5, 2));
+            orden.agregarProducto(gas, 10);
+            almacen.getOrdenes().guardar(orden);
+            almacen.getFacturas().guardar(orden.generarFacturaDesdeOrden("F-1"));
+        }
+
+        try (AlmacenEmpresa almacen = AlmacenEmpresa.abrir(directorio)) {
+            FacturaCompra factura = almacen.getFacturas().buscar("F-1");
+            assertEquals("Abastible", factura.getProveedor());
+            assertEquals("OC-1", factura.getOrdenAsociada().getIdOrden());
+            assertEquals(LocalDate.of(2024, 5, 2), factura.getOrdenAsociada().getFechaEmision());
+            assertEquals(250000, factura.calcularTotalFactura());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.empresa.persistencia;
+
+import com.empresa.modelo.Pagina;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link Repositorio} solo en memoria. Se usa cuando no se puede abrir el
+ * almacén en disco, para que la aplicación siga funcionando sin persistencia.
+ *
+ * @param <T> Tipo de las entidades
+ * @author Ignacio
+ */
+public class RepositorioMemoria<T> implements Repositorio<T> {
+
+    private final Map<String, T> entidades;
+    private final Function<? super T, String> clave;
+
+    public RepositorioMemoria(Function<? super T, String> clave) {
+        this.entidades = new LinkedHashMap<>();
+        this.clave = clave;
+    }
+
+    @Override
+    public synchronized void guardar(T entidad) {
+        entidades.put(clave.apply(entidad), entidad);
+    }
+
+    @Override
+    public synchronized void guardarTodos(Collection<? extends T> nuevas) {
+        for (T entidad : nuevas) {
+            guardar(entidad);
+        }
+    }
+
+    @Override
+    public synchronized T buscar(String k) {
+        return entidades.get(k);
+    }
+
+    @Override
+    public synchronized boolean eliminar(String k) {
+        return entidades.remove(k) != null;
+    }
+
+    @Override
+    public synchronized boolean existe(String k) {
+        return entidades.containsKey(k);
+    }
+
+    @Override
+    public synchronized int cantidad() {
+        return entidades.size();
+    }
+
+    @Override
+    public void paraCada(Consumer<? super T> accion) {
+        List<T> copia;
+        synchronized (this) {
+            copia = new ArrayList<>(entidades.values());
+        }
+        copia.forEach(accion);
+    }
+
+    @Override
+    public synchronized List<String> claves() {
+        return new ArrayList<>(entidades.keySet());
+    }
+
+    @Override
+    public synchronized Pagina<T> listar(int pagina, int tamano) {
+        List<T> todas = new ArrayList<>(entidades.values());
+        int desde = (int) Math.min(todas.size(), (long) pagina * tamano);
+        int hasta = (int) Math.min(todas.size(), (long) desde + tamano);
+        return new Pagina<>(new ArrayList<>(todas.subList(desde, hasta)), todas.size(), pagina, tamano);
+    }
+
+    @Override
+    public void close() {
+    }
+}
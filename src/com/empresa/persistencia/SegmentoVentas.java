@@ -0,0 +1,897 @@
+package com.empresa.persistencia;
+
+import com.empresa.modelo.CuboVentas;
+import com.empresa.modelo.Producto;
+import com.empresa.modelo.Venta;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Segmento inmutable de ventas archivadas: un archivo comprimido con ventas
+ * ordenadas por fecha y hora (normalmente las de un día).
+ *
+ * Las ventas se guardan en bloques de {@value #VENTAS_POR_BLOQUE} comprimidos por
+ * separado, así que leer una página o un rango de horas descomprime solo los
+ * bloques necesarios. Al final del archivo va el pie con la primera y última
+ * fecha, un filtro de Bloom con los productos vendidos y el índice de bloques
+ * (posición, tamaños, cantidad de ventas, primera fecha y CRC). Abrir un segmento
+ * lee solo el pie; las ventas quedan en disco.
+ *
+ * El pie guarda también el mayor número de venta del segmento, de modo que al
+ * recuperar el diario se reconocen las ventas ya archivadas sin leer los bloques
+ * (ver {@link #yaArchivada}).
+ *
+ * Antes del pie va el índice de clientes: por cada RUT, las posiciones de sus
+ * ventas en el segmento (como diferencias en varint). Se lee la primera vez que
+ * se consulta un cliente.
+ *
+ * Después va el resumen: los agregados de {@link CuboVentas} y, por producto, las
+ * unidades vendidas en cada segundo. Al iniciar, el historial suma el resumen de
+ * cada segmento a las estadísticas, los movimientos y el stock sin descomprimir
+ * las ventas ({@link #leerResumen}).
+ *
+ * Formato: [magic][versión] bloques... [clientes] [resumen] pie [posición del pie:long][magic].
+ * El archivo se escribe completo en uno temporal y se renombra, de modo que un
+ * segmento visible nunca está a medio escribir.
+ *
+ * @author Ignacio
+ */
+public final class SegmentoVentas {
+
+    /**
+     * Recibe las ventas leídas de un segmento, en orden.
+     */
+    public interface Receptor {
+        void venta(Venta venta) throws IOException;
+    }
+
+    /**
+     * Recibe, por producto, las unidades vendidas en cada segundo con ventas, en
+     * orden; los arreglos se reutilizan entre productos.
+     */
+    public interface ReceptorSalidas {
+        void salidas(String producto, long[] segundos, int[] cantidades, int largo);
+    }
+
+    static final int VENTAS_POR_BLOQUE = 512;
+    private static final int MAGIC = 0x56534547; // "VSEG"
+    private static final int VERSION = 4;
+    private static final int LARGO_CABECERA = 8;
+    private static final int LARGO_COLA = 12;
+    private static final int BITS_POR_PRODUCTO = 10;
+    private static final int FUNCIONES_BLOOM = 4;
+    private static final String EXTENSION = ".seg";
+    private static final String TEMPORAL = ".tmp";
+
+    private final Path ruta;
+    private final int cantidadVentas;
+    private final long primerSegundo;
+    private final long ultimoSegundo;
+    private final long[] bloom;
+    private final long[] posiciones;
+    private final int[] largos;
+    private final int[] tamanos;
+    private final int[] ventasAntes; // ventas en los bloques anteriores; una posición extra con el total
+    private final long[] primerosSegundos;
+    private final int[] crcs;
+    private final long posicionClientes;
+    private final int largoClientes;
+    private final int crcClientes;
+    private final long ultimoNumero;
+    private final long posicionResumen;
+    private final int largoResumen;
+    private final int crcResumen;
+    private volatile IndiceClientes clientes;
+
+    private SegmentoVentas(Path ruta, int cantidadVentas, long primerSegundo, long ultimoSegundo, long[] bloom,
+            long[] posiciones, int[] largos, int[] tamanos, int[] ventasAntes, long[] primerosSegundos, int[] crcs,
+            long posicionClientes, int largoClientes, int crcClientes, long ultimoNumero, long posicionResumen,
+            int largoResumen, int crcResumen) {
+        this.ruta = ruta;
+        this.cantidadVentas = cantidadVentas;
+        this.primerSegundo = primerSegundo;
+        this.ultimoSegundo = ultimoSegundo;
+        this.bloom = bloom;
+        this.posiciones = posiciones;
+        this.largos = largos;
+        this.tamanos = tamanos;
+        this.ventasAntes = ventasAntes;
+        this.primerosSegundos = primerosSegundos;
+        this.crcs = crcs;
+        this.posicionClientes = posicionClientes;
+        this.largoClientes = largoClientes;
+        this.crcClientes = crcClientes;
+        this.ultimoNumero = ultimoNumero;
+        this.posicionResumen = posicionResumen;
+        this.largoResumen = largoResumen;
+        this.crcResumen = crcResumen;
+    }
+
+    // ======================== ESCRITURA ========================
+
+    /**
+     * Escribe un segmento nuevo con las ventas indicadas.
+     *
+     * @param ventas Ventas ordenadas por fecha y hora (al menos una)
+     * @throws IllegalArgumentException si no hay ventas o no vienen ordenadas
+     */
+    public static SegmentoVentas escribir(Path ruta, List<Venta> ventas) throws IOException {
+        if (ventas.isEmpty()) {
+            throw new IllegalArgumentException("Un segmento debe tener al menos una venta.");
+        }
+        Set<String> productos = new HashSet<>();
+        Map<String, List<Integer>> porCliente = new TreeMap<>();
+        long ultimoNumero = 0;
+        for (int i = 0; i < ventas.size(); i++) {
+            Venta venta = ventas.get(i);
+            if (i > 0 && venta.getFechaHora().isBefore(ventas.get(i - 1).getFechaHora())) {
+                throw new IllegalArgumentException("Las ventas del segmento deben venir ordenadas por fecha.");
+            }
+            ultimoNumero = Math.max(ultimoNumero, venta.getNumero());
+            for (int l = 0; l < venta.getCantidadLineas(); l++) {
+                productos.add(venta.getProductoLinea(l).getNombre().toLowerCase());
+            }
+            if (venta.getCliente() != null) {
+                porCliente.computeIfAbsent(venta.getCliente().getRut(), k -> new ArrayList<>()).add(i);
+            }
+        }
+        byte[] indiceClientes = codificarClientes(porCliente);
+        byte[] resumen = codificarResumen(ventas);
+        long[] bloom = new long[Math.max(1, (productos.size() * BITS_POR_PRODUCTO + 63) / 64)];
+        for (String producto : productos) {
+            marcar(bloom, producto);
+        }
+
+        int bloques = (ventas.size() + VENTAS_POR_BLOQUE - 1) / VENTAS_POR_BLOQUE;
+        long[] posiciones = new long[bloques];
+        int[] largos = new int[bloques];
+        int[] tamanos = new int[bloques];
+        int[] ventasAntes = new int[bloques + 1];
+        long[] primerosSegundos = new long[bloques];
+        int[] crcs = new int[bloques];
+
+        long posicionClientes;
+        int crcClientes;
+        long posicionResumen;
+        int crcResumen;
+        Path temporal = ruta.resolveSibling(ruta.getFileName() + TEMPORAL);
+        Deflater compresor = new Deflater(Deflater.BEST_SPEED);
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            long posicion = LARGO_CABECERA;
+
+            ByteArrayOutputStream crudo = new ByteArrayOutputStream(64 * VENTAS_POR_BLOQUE);
+            DataOutputStream registros = new DataOutputStream(crudo);
+            byte[] comprimido = new byte[1 << 16];
+            CRC32 crc = new CRC32();
+            for (int b = 0; b < bloques; b++) {
+                int primera = b * VENTAS_POR_BLOQUE;
+                int fin = Math.min(ventas.size(), primera + VENTAS_POR_BLOQUE);
+                crudo.reset();
+                for (int i = primera; i < fin; i++) {
+                    CodificadorVenta.escribir(ventas.get(i), registros);
+                }
+                registros.flush();
+
+                compresor.reset();
+                compresor.setInput(crudo.toByteArray());
+                compresor.finish();
+                int largo = 0;
+                while (!compresor.finished()) {
+                    if (largo == comprimido.length) {
+                        comprimido = Arrays.copyOf(comprimido, comprimido.length * 2);
+                    }
+                    largo += compresor.deflate(comprimido, largo, comprimido.length - largo);
+                }
+                crc.reset();
+                crc.update(comprimido, 0, largo);
+                out.write(comprimido, 0, largo);
+
+                posiciones[b] = posicion;
+                largos[b] = largo;
+                tamanos[b] = crudo.size();
+                ventasAntes[b] = primera;
+                primerosSegundos[b] = segundo(ventas.get(primera).getFechaHora());
+                crcs[b] = (int) crc.getValue();
+                posicion += largo;
+            }
+            ventasAntes[bloques] = ventas.size();
+
+            crc.reset();
+            crc.update(indiceClientes);
+            crcClientes = (int) crc.getValue();
+            posicionClientes = posicion;
+            out.write(indiceClientes);
+            crc.reset();
+            crc.update(resumen);
+            crcResumen = (int) crc.getValue();
+            posicionResumen = posicion + indiceClientes.length;
+            out.write(resumen);
+            long pie = posicionResumen + resumen.length;
+            out.writeInt(ventas.size());
+            out.writeLong(primerosSegundos[0]);
+            out.writeLong(segundo(ventas.get(ventas.size() - 1).getFechaHora()));
+            out.writeInt(bloom.length);
+            for (long palabra : bloom) {
+                out.writeLong(palabra);
+            }
+            out.writeInt(bloques);
+            for (int b = 0; b < bloques; b++) {
+                out.writeLong(posiciones[b]);
+                out.writeInt(largos[b]);
+                out.writeInt(tamanos[b]);
+                out.writeInt(ventasAntes[b + 1] - ventasAntes[b]);
+                out.writeLong(primerosSegundos[b]);
+                out.writeInt(crcs[b]);
+            }
+            out.writeLong(posicionClientes);
+            out.writeInt(indiceClientes.length);
+            out.writeInt(crcClientes);
+            out.writeLong(ultimoNumero);
+            out.writeLong(posicionResumen);
+            out.writeInt(resumen.length);
+            out.writeInt(crcResumen);
+            out.writeLong(pie);
+            out.writeInt(MAGIC);
+            out.flush();
+            canal.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        } finally {
+            compresor.end();
+        }
+        Files.move(temporal, ruta, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new SegmentoVentas(ruta, ventas.size(), primerosSegundos[0],
+                segundo(ventas.get(ventas.size() - 1).getFechaHora()), bloom, posiciones, largos, tamanos,
+                ventasAntes, primerosSegundos, crcs, posicionClientes, indiceClientes.length, crcClientes, ultimoNumero, posicionResumen,
+                resumen.length, crcResumen);
+    }
+
+    /**
+     * Índice de clientes: [cantidad de RUT] y por cada uno, en orden,
+     * [rut:UTF][cantidad de ventas:int][diferencias entre posiciones:varint...].
+     */
+    private static byte[] codificarClientes(Map<String, List<Integer>> porCliente) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(porCliente.size());
+        for (Map.Entry<String, List<Integer>> cliente : porCliente.entrySet()) {
+            out.writeUTF(cliente.getKey());
+            out.writeInt(cliente.getValue().size());
+            int anterior = 0;
+            for (int posicion : cliente.getValue()) {
+                escribirVarint(out, posicion - anterior);
+                anterior = posicion;
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Resumen: agregados de {@link CuboVentas#escribirResumen}, [cantidad de
+     * productos] y por cada uno [nombre:UTF][grupos:int][primer segundo:long]
+     * [cantidad:varint] y luego [segundos desde el anterior:varint][cantidad:varint].
+     */
+    private static byte[] codificarResumen(List<Venta> ventas) throws IOException {
+        CuboVentas cubo = new CuboVentas();
+        Map<String, SalidasProducto> salidas = new TreeMap<>();
+        for (Venta venta : ventas) {
+            cubo.registrar(venta);
+            long segundo = segundo(venta.getFechaHora());
+            for (int l = 0; l < venta.getCantidadLineas(); l++) {
+                salidas.computeIfAbsent(venta.getProductoLinea(l).getNombre(), k -> new SalidasProducto())
+                        .agregar(segundo, venta.getCantidadLinea(l));
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        cubo.escribirResumen(out);
+        out.writeInt(salidas.size());
+        for (Map.Entry<String, SalidasProducto> producto : salidas.entrySet()) {
+            SalidasProducto s = producto.getValue();
+            out.writeUTF(producto.getKey());
+            out.writeInt(s.largo);
+            out.writeLong(s.segundos[0]);
+            for (int i = 0; i < s.largo; i++) {
+                if (i > 0) {
+                    escribirVarint(out, Math.toIntExact(s.segundos[i] - s.segundos[i - 1]));
+                }
+                escribirVarint(out, s.cantidades[i]);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Unidades vendidas de un producto por segundo, en el orden de las ventas.
+     */
+    private static final class SalidasProducto {
+        private long[] segundos = new long[8];
+        private int[] cantidades = new int[8];
+        private int largo;
+
+        private void agregar(long segundo, int cantidad) {
+            if (largo > 0 && segundos[largo - 1] == segundo) {
+                cantidades[largo - 1] += cantidad;
+                return;
+            }
+            if (largo == segundos.length) {
+                segundos = Arrays.copyOf(segundos, largo * 2);
+                cantidades = Arrays.copyOf(cantidades, largo * 2);
+            }
+            segundos[largo] = segundo;
+            cantidades[largo] = cantidad;
+            largo++;
+        }
+    }
+
+    private static void escribirVarint(DataOutputStream out, int valor) throws IOException {
+        while ((valor & ~0x7F) != 0) {
+            out.writeByte((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        out.writeByte(valor);
+    }
+
+    // ======================== APERTURA ========================
+
+    /**
+     * Lee el pie de un segmento existente.
+     *
+     * @throws IOException si el archivo no es un segmento válido
+     */
+    public static SegmentoVentas abrir(Path ruta) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano < LARGO_CABECERA + LARGO_COLA) {
+                throw new IOException("Segmento de ventas incompleto: " + ruta);
+            }
+            ByteBuffer cola = leer(canal, tamano - LARGO_COLA, LARGO_COLA);
+            long pie = cola.getLong();
+            if (cola.getInt() != MAGIC || pie < LARGO_CABECERA || pie > tamano - LARGO_COLA) {
+                throw new IOException("El archivo no es un segmento de ventas: " + ruta);
+            }
+            ByteBuffer cabecera = leer(canal, 0, LARGO_CABECERA);
+            int version = cabecera.getInt() == MAGIC ? cabecera.getInt() : -1;
+            if (version != VERSION) {
+                throw new IOException("Versión de segmento no soportada: " + ruta);
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                    leer(canal, pie, (int) (tamano - LARGO_COLA - pie)).array()));
+            int cantidad = in.readInt();
+            long primero = in.readLong();
+            long ultimo = in.readLong();
+            long[] bloom = new long[in.readInt()];
+            for (int i = 0; i < bloom.length; i++) {
+                bloom[i] = in.readLong();
+            }
+            int bloques = in.readInt();
+            long[] posiciones = new long[bloques];
+            int[] largos = new int[bloques];
+            int[] tamanos = new int[bloques];
+            int[] ventasAntes = new int[bloques + 1];
+            long[] primerosSegundos = new long[bloques];
+            int[] crcs = new int[bloques];
+            for (int b = 0; b < bloques; b++) {
+                posiciones[b] = in.readLong();
+                largos[b] = in.readInt();
+                tamanos[b] = in.readInt();
+                ventasAntes[b + 1] = ventasAntes[b] + in.readInt();
+                primerosSegundos[b] = in.readLong();
+                crcs[b] = in.readInt();
+            }
+            if (ventasAntes[bloques] != cantidad) {
+                throw new IOException("Índice de bloques inconsistente: " + ruta);
+            }
+            long posicionClientes = in.readLong();
+            int largoClientes = in.readInt();
+            int crcClientes = in.readInt();
+            long ultimoNumero = in.readLong();
+            long posicionResumen = in.readLong();
+            int largoResumen = in.readInt();
+            int crcResumen = in.readInt();
+            return new SegmentoVentas(ruta, cantidad, primero, ultimo, bloom, posiciones, largos, tamanos,
+                    ventasAntes, primerosSegundos, crcs, posicionClientes, largoClientes, crcClientes, ultimoNumero,
+                    posicionResumen, largoResumen, crcResumen);
+        }
+    }
+
+    /**
+     * Abre todos los segmentos del directorio (creándolo si no existe), ordenados
+     * por primera venta. Borra los temporales que dejó una escritura interrumpida.
+     */
+    public static List<SegmentoVentas> abrirDirectorio(Path directorio) throws IOException {
+        Files.createDirectories(directorio);
+        List<SegmentoVentas> segmentos = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+            for (Path archivo : archivos) {
+                String nombre = archivo.getFileName().toString();
+                if (nombre.endsWith(EXTENSION + TEMPORAL)) {
+                    Files.deleteIfExists(archivo);
+                } else if (nombre.endsWith(EXTENSION)) {
+                    segmentos.add(abrir(archivo));
+                }
+            }
+        }
+        segmentos.sort(SegmentoVentas::comparar);
+        return segmentos;
+    }
+
+    /**
+     * Orden de los segmentos: por primera venta y, a igual fecha, por nombre de archivo.
+     */
+    public static int comparar(SegmentoVentas a, SegmentoVentas b) {
+        int c = Long.compare(a.primerSegundo, b.primerSegundo);
+        return c != 0 ? c : a.ruta.getFileName().compareTo(b.ruta.getFileName());
+    }
+
+    /**
+     * Nombre de archivo para un segmento nuevo: "prefijo-N.seg" con el primer N libre.
+     */
+    public static Path rutaLibre(Path directorio, String prefijo) {
+        for (int n = 1; ; n++) {
+            Path ruta = directorio.resolve(prefijo + "-" + n + EXTENSION);
+            if (!Files.exists(ruta)) {
+                return ruta;
+            }
+        }
+    }
+
+    private static ByteBuffer leer(FileChannel canal, long posicion, int largo) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(largo);
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer, posicion + buffer.position()) < 0) {
+                throw new IOException("Fin de archivo inesperado en el segmento.");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    // ======================== CONSULTAS ========================
+
+    public Path getRuta() {
+        return ruta;
+    }
+
+    public int getCantidadVentas() {
+        return cantidadVentas;
+    }
+
+    public LocalDateTime getPrimera() {
+        return LocalDateTime.ofEpochSecond(primerSegundo, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Fecha de la última venta, truncada al segundo.
+     */
+    public LocalDateTime getUltima() {
+        return LocalDateTime.ofEpochSecond(ultimoSegundo, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Mayor número de venta del segmento.
+     */
+    public long getUltimoNumero() {
+        return ultimoNumero;
+    }
+
+    /**
+     * Indica, sin leer los bloques, si una venta recuperada del diario ya está en
+     * este segmento o en uno anterior: al archivar, todas las ventas en memoria del
+     * rango de fechas del segmento pasan a él, así que una venta de ese rango con
+     * número no mayor que el último del segmento ya estaba registrada al archivar y
+     * quedó aquí o en un archivado previo.
+     */
+    public boolean yaArchivada(Venta venta) {
+        return venta.getNumero() <= ultimoNumero && seSolapa(venta.getFechaHora(), venta.getFechaHora().plusNanos(1));
+    }
+
+    /**
+     * @param desde Fecha/hora mínima (inclusive), o null para no limitar
+     * @param hasta Fecha/hora máxima (exclusive), o null para no limitar
+     * @return false si ninguna venta del segmento puede estar en el rango
+     */
+    public boolean seSolapa(LocalDateTime desde, LocalDateTime hasta) {
+        return (desde == null || ultimoSegundo >= segundo(desde)) && (hasta == null || primerSegundo < segundo(hasta)
+                || (primerSegundo == segundo(hasta) && hasta.getNano() > 0));
+    }
+
+    /**
+     * Consulta el filtro de Bloom: false asegura que el producto no se vendió en el
+     * segmento; true indica que probablemente sí.
+     */
+    public boolean puedeContenerProducto(String nombre) {
+        String clave = nombre.toLowerCase();
+        int h1 = clave.hashCode();
+        int h2 = segundoHash(h1);
+        long bits = (long) bloom.length * 64;
+        for (int i = 0; i < FUNCIONES_BLOOM; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bits);
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void marcar(long[] bloom, String clave) {
+        int h1 = clave.hashCode();
+        int h2 = segundoHash(h1);
+        long bits = (long) bloom.length * 64;
+        for (int i = 0; i < FUNCIONES_BLOOM; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bits);
+            bloom[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private static int segundoHash(int h) {
+        h *= 0x9E3779B9;
+        return (h ^ (h >>> 16)) | 1;
+    }
+
+    /**
+     * Lee solo el resumen del segmento: suma sus agregados a {@code estadisticas} y
+     * entrega las unidades vendidas de cada producto por segundo.
+     */
+    public void leerResumen(CuboVentas estadisticas, ReceptorSalidas receptor) throws IOException {
+        byte[] datos;
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            datos = leer(canal, posicionResumen, largoResumen).array();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(datos);
+        if ((int) crc.getValue() != crcResumen) {
+            throw new IOException("Resumen dañado en el segmento " + ruta);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(datos));
+        estadisticas.sumarResumen(in);
+        int productos = in.readInt();
+        long[] segundos = new long[64];
+        int[] cantidades = new int[64];
+        for (int p = 0; p < productos; p++) {
+            String nombre = in.readUTF();
+            int largo = in.readInt();
+            if (largo > segundos.length) {
+                segundos = new long[largo];
+                cantidades = new int[largo];
+            }
+            long segundo = in.readLong();
+            for (int i = 0; i < largo; i++) {
+                if (i > 0) {
+                    segundo += leerVarint(in);
+                }
+                segundos[i] = segundo;
+                cantidades[i] = leerVarint(in);
+            }
+            receptor.salidas(nombre, segundos, cantidades, largo);
+        }
+    }
+
+    private static int leerVarint(DataInputStream in) throws IOException {
+        int valor = 0;
+        int desplazamiento = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            valor |= (b & 0x7F) << desplazamiento;
+            desplazamiento += 7;
+        } while ((b & 0x80) != 0);
+        return valor;
+    }
+
+    /**
+     * Entrega las ventas con posición en [primera, primera + cantidad), leyendo solo
+     * los bloques que las contienen.
+     *
+     * @param productos Productos ya leídos, para reutilizar instancias entre lecturas
+     */
+    public void leer(int primera, int cantidad, Map<String, Producto> productos, Receptor receptor) throws IOException {
+        int fin = Math.min(cantidadVentas, primera + cantidad);
+        if (primera >= fin) {
+            return;
+        }
+        int bloque = bloqueDeVenta(primera);
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            Inflater descompresor = new Inflater();
+            try {
+                for (; bloque < posiciones.length && ventasAntes[bloque] < fin; bloque++) {
+                    DataInputStream in = abrirBloque(canal, bloque, descompresor);
+                    for (int i = ventasAntes[bloque]; i < ventasAntes[bloque + 1] && i < fin; i++) {
+                        Venta venta = CodificadorVenta.leer(in, productos);
+                        if (i >= primera) {
+                            receptor.venta(venta);
+                        }
+                    }
+                }
+            } finally {
+                descompresor.end();
+            }
+        }
+    }
+
+    /**
+     * Entrega las ventas del rango en orden, buscando el primer bloque por fecha
+     * (búsqueda binaria en el índice) y deteniéndose al pasar el final del rango.
+     *
+     * @param desde Fecha/hora mínima (inclusive), o null para no limitar
+     * @param hasta Fecha/hora máxima (exclusive), o null para no limitar
+     */
+    public void recorrer(LocalDateTime desde, LocalDateTime hasta, Map<String, Producto> productos, Receptor receptor)
+            throws IOException {
+        if (!seSolapa(desde, hasta)) {
+            return;
+        }
+        int bloque = desde != null ? ultimoBloqueAntesDe(segundo(desde)) : 0;
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            Inflater descompresor = new Inflater();
+            try {
+                for (; bloque < posiciones.length; bloque++) {
+                    DataInputStream in = abrirBloque(canal, bloque, descompresor);
+                    for (int i = ventasAntes[bloque]; i < ventasAntes[bloque + 1]; i++) {
+                        Venta venta = CodificadorVenta.leer(in, productos);
+                        LocalDateTime fecha = venta.getFechaHora();
+                        if (hasta != null && !fecha.isBefore(hasta)) {
+                            return;
+                        }
+                        if (desde == null || !fecha.isBefore(desde)) {
+                            receptor.venta(venta);
+                        }
+                    }
+                }
+            } finally {
+                descompresor.end();
+            }
+        }
+    }
+
+    /**
+     * Entrega las ventas de las posiciones {@code posiciones[desde..hasta)}, que
+     * deben venir ordenadas. Cada bloque involucrado se descomprime una sola vez.
+     */
+    public void leer(int[] posiciones, int desde, int hasta, Map<String, Producto> productos, Receptor receptor)
+            throws IOException {
+        if (desde >= hasta) {
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            Inflater descompresor = new Inflater();
+            try {
+                int k = desde;
+                while (k < hasta) {
+                    int bloque = bloqueDeVenta(posiciones[k]);
+                    DataInputStream in = abrirBloque(canal, bloque, descompresor);
+                    for (int i = ventasAntes[bloque]; i < ventasAntes[bloque + 1] && k < hasta; i++) {
+                        Venta venta = CodificadorVenta.leer(in, productos);
+                        if (i == posiciones[k]) {
+                            receptor.venta(venta);
+                            k++;
+                        }
+                    }
+                }
+            } finally {
+                descompresor.end();
+            }
+        }
+    }
+
+    /**
+     * Posición de la primera venta con fecha igual o posterior a la indicada (la
+     * cantidad de ventas si no hay ninguna). Busca el bloque en el índice y
+     * descomprime solo ese y, si hace falta, los siguientes.
+     */
+    public int posicionDesde(LocalDateTime fecha) throws IOException {
+        long buscado = segundo(fecha);
+        if (buscado < primerSegundo) {
+            return 0;
+        }
+        if (buscado > ultimoSegundo) {
+            return cantidadVentas;
+        }
+        Map<String, Producto> productos = new HashMap<>();
+        int bloque = ultimoBloqueAntesDe(buscado);
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            Inflater descompresor = new Inflater();
+            try {
+                for (; bloque < posiciones.length; bloque++) {
+                    DataInputStream in = abrirBloque(canal, bloque, descompresor);
+                    for (int i = ventasAntes[bloque]; i < ventasAntes[bloque + 1]; i++) {
+                        if (!CodificadorVenta.leer(in, productos).getFechaHora().isBefore(fecha)) {
+                            return i;
+                        }
+                    }
+                }
+            } finally {
+                descompresor.end();
+            }
+        }
+        return cantidadVentas;
+    }
+
+    /**
+     * Posiciones, en orden, de las ventas del cliente en este segmento.
+     *
+     * @return Arreglo vacío si el cliente no compró en el segmento
+     */
+    public int[] posicionesCliente(String rut) throws IOException {
+        return indiceClientes().posiciones(rut);
+    }
+
+    private IndiceClientes indiceClientes() throws IOException {
+        IndiceClientes indice = clientes;
+        if (indice == null) {
+            byte[] datos;
+            try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+                datos = leer(canal, posicionClientes, largoClientes).array();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(datos);
+            if ((int) crc.getValue() != crcClientes) {
+                throw new IOException("Índice de clientes dañado en el segmento " + ruta);
+            }
+            indice = new IndiceClientes(datos);
+            clientes = indice;
+        }
+        return indice;
+    }
+
+    /**
+     * Índice de clientes leído del archivo: los RUT ordenados y, para cada uno,
+     * dónde empiezan sus posiciones codificadas. Las posiciones se decodifican
+     * solo al consultar el cliente.
+     */
+    private static final class IndiceClientes {
+        private final byte[] datos;
+        private final String[] ruts;
+        private final int[] cantidades;
+        private final int[] inicios;
+
+        private IndiceClientes(byte[] datos) throws IOException {
+            this.datos = datos;
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(datos));
+            int n = in.readInt();
+            ruts = new String[n];
+            cantidades = new int[n];
+            inicios = new int[n];
+            for (int i = 0; i < n; i++) {
+                ruts[i] = in.readUTF();
+                cantidades[i] = in.readInt();
+                inicios[i] = datos.length - in.available();
+                for (int c = 0; c < cantidades[i]; c++) {
+                    while ((in.readByte() & 0x80) != 0) {
+                        // continúa el varint
+                    }
+                }
+            }
+        }
+
+        private int[] posiciones(String rut) {
+            int i = Arrays.binarySearch(ruts, rut);
+            if (i < 0) {
+                return new int[0];
+            }
+            int[] posiciones = new int[cantidades[i]];
+            int leido = inicios[i];
+            int anterior = 0;
+            for (int c = 0; c < posiciones.length; c++) {
+                int valor = 0;
+                int desplazamiento = 0;
+                byte b;
+                do {
+                    b = datos[leido++];
+                    valor |= (b & 0x7F) << desplazamiento;
+                    desplazamiento += 7;
+                } while ((b & 0x80) != 0);
+                anterior += valor;
+                posiciones[c] = anterior;
+            }
+            return posiciones;
+        }
+    }
+
+    /**
+     * Bloque que contiene la venta en la posición indicada (búsqueda binaria).
+     */
+    private int bloqueDeVenta(int venta) {
+        int bajo = 0;
+        int alto = posiciones.length - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto + 1) >>> 1;
+            if (ventasAntes[medio] <= venta) {
+                bajo = medio;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Último bloque cuya primera venta es anterior al segundo indicado (las ventas de
+     * ese mismo segundo pueden empezar en el bloque previo), o 0.
+     */
+    private int ultimoBloqueAntesDe(long segundo) {
+        int bajo = 0;
+        int alto = posiciones.length - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto + 1) >>> 1;
+            if (primerosSegundos[medio] < segundo) {
+                bajo = medio;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return bajo;
+    }
+
+    private DataInputStream abrirBloque(FileChannel canal, int bloque, Inflater descompresor) throws IOException {
+        byte[] comprimido = leer(canal, posiciones[bloque], largos[bloque]).array();
+        CRC32 crc = new CRC32();
+        crc.update(comprimido);
+        if ((int) crc.getValue() != crcs[bloque]) {
+            throw new IOException("Bloque " + bloque + " dañado en el segmento " + ruta);
+        }
+        byte[] crudo = new byte[tamanos[bloque]];
+        descompresor.reset();
+        descompresor.setInput(comprimido);
+        try {
+            int leidos = 0;
+            while (leidos < crudo.length && !descompresor.finished()) {
+                int n = descompresor.inflate(crudo, leidos, crudo.length - leidos);
+                if (n == 0 && descompresor.needsInput()) {
+                    break;
+                }
+                leidos += n;
+            }
+            if (leidos != crudo.length) {
+                throw new IOException("Bloque " + bloque + " incompleto en el segmento " + ruta);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Bloque " + bloque + " dañado en el segmento " + ruta, e);
+        }
+        return new DataInputStream(new ByteArrayInputStream(crudo));
+    }
+
+    private static long segundo(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    @Override
+    public String toString() {
+        return ruta.getFileName() + " (" + cantidadVentas + " ventas, " + getPrimera() + " a " + getUltima() + ")";
+    }
+}
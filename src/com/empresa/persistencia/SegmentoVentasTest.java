@@ -0,0 +1,215 @@
+package com.empresa.persistencia;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.CuboVentas;
+import com.empresa.modelo.Producto;
+import com.empresa.modelo.Venta;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SegmentoVentas}.
+ */
+public class SegmentoVentasTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2024, 3, 1, 8, 0);
+
+    private static List<Venta> ventasDelDia(int cantidad) {
+        Cliente cliente = new Cliente("Ana", "11-1", "999", "Calle 1");
+        Producto gas = new Producto("Gas 15kg", "gas", 25000, 3000);
+        Producto regulador = new Producto("Regulador", "accesorio", 5000, 500);
+        List<Venta> ventas = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            Venta venta = new Venta(i % 2 == 0 ? "local" : "domicilio", cliente, INICIO.plusSeconds(10L * i));
+            venta.agregarLinea(i % 3 == 0 ? regulador : gas, 1 + i % 4, 0);
+            venta.setNumero(i + 1);
+            ventas.add(venta);
+        }
+        return ventas;
+    }
+
+    @Test
+    public void abrir_leePaginasYRangosPorBloques() throws Exception {
+        Path directorio = Files.createTempDirectory("segmentos");
+        try {
+            List<Venta> ventas = ventasDelDia(2000);
+            Path ruta = SegmentoVentas.rutaLibre(directorio, "ventas-2024-03-01");
+            SegmentoVentas.escribir(ruta, ventas);
+            Files.writeString(directorio.resolve("otro.seg.tmp"), "resto de una escritura interrumpida");
+
+            List<SegmentoVentas> abiertos = SegmentoVentas.abrirDirectorio(directorio);
+            assertEquals(1, abiertos.size());
+            assertFalse(Files.exists(directorio.resolve("otro.seg.tmp")));
+            SegmentoVentas segmento = abiertos.get(0);
+            assertEquals(2000, segmento.getCantidadVentas());
+            assertEquals(INICIO, segmento.getPrimera());
+            assertEquals(INICIO.plusSeconds(19_990), segmento.getUltima());
+            assertTrue(segmento.puedeContenerProducto("gas 15KG"));
+            assertTrue(segmento.puedeContenerProducto("Regulador"));
+            assertFalse(segmento.puedeContenerProducto("Cilindro 45kg"));
+            assertFalse(segmento.seSolapa(INICIO.plusDays(1), null));
+
+            // página que cruza el límite entre el primer y el segundo bloque
+            List<Venta> pagina = new ArrayList<>();
+            segmento.leer(500, 20, new HashMap<>(), pagina::add);
+            assertEquals(20, pagina.size());
+            assertEquals(ventas.get(500).getFechaHora(), pagina.get(0).getFechaHora());
+            assertEquals(ventas.get(519).calcularTotalNeto(), pagina.get(19).calcularTotalNeto());
+
+            List<Venta> rango = new ArrayList<>();
+            segmento.recorrer(INICIO.plusSeconds(10_000), INICIO.plusSeconds(10_100), new HashMap<>(), rango::add);
+            assertEquals(10, rango.size());
+            assertEquals(INICIO.plusSeconds(10_000), rango.get(0).getFechaHora());
+            assertEquals("11-1", rango.get(0).getCliente().getRut());
+            assertEquals(1001, rango.get(0).getNumero());
+
+            assertEquals(2000, segmento.getUltimoNumero());
+            assertTrue(segmento.yaArchivada(ventas.get(1999)));
+            Venta posterior = new Venta("local", null, INICIO.plusSeconds(10_000));
+            posterior.setNumero(2001);
+            assertFalse(segmento.yaArchivada(posterior));
+            posterior.setNumero(3);
+            assertTrue(segmento.yaArchivada(posterior));
+            assertFalse(segmento.yaArchivada(new Venta("local", null, INICIO.plusDays(1))));
+        } finally {
+            for (Path archivo : Files.newDirectoryStream(directorio)) {
+                Files.delete(archivo);
+            }
+            Files.delete(directorio);
+        }
+    }
+
+    @Test
+    public void posicionesCliente_usaIndiceYLeeSoloEsasVentas() throws Exception {
+        Path ruta = Files.createTempFile("segmento", ".seg");
+        try {
+            Cliente otro = new Cliente("Beto", "22-2", "888", "Calle 2");
+            Producto gas = new Producto("Gas 15kg", "gas", 25000, 3000);
+            List<Venta> ventas = new ArrayList<>();
+            for (Venta venta : ventasDelDia(1500)) {
+                ventas.add(venta);
+                if (ventas.size() % 301 == 1) {
+                    Venta delOtro = new Venta("local", otro, venta.getFechaHora());
+                    delOtro.agregarLinea(gas, 7, 0);
+                    ventas.add(delOtro);
+                }
+            }
+            SegmentoVentas segmento = SegmentoVentas.escribir(ruta, ventas);
+
+            int[] posiciones = SegmentoVentas.abrir(ruta).posicionesCliente("22-2");
+            assertArrayEquals(new int[] {1, 302, 603, 904, 1205}, posiciones);
+            assertEquals(0, segmento.posicionesCliente("33-3").length);
+            assertEquals(1500, segmento.posicionesCliente("11-1").length);
+
+            List<Venta> leidas = new ArrayList<>();
+            segmento.leer(posiciones, 1, 4, new HashMap<>(), leidas::add);
+            assertEquals(3, leidas.size());
+            for (Venta venta : leidas) {
+                assertEquals("22-2", venta.getCliente().getRut());
+                assertEquals(7, venta.getCantidadLinea(0));
+            }
+            assertEquals(ventas.get(603).getFechaHora(), leidas.get(1).getFechaHora());
+
+            assertEquals(0, segmento.posicionDesde(INICIO.minusHours(1)));
+            assertEquals(0, segmento.posicionDesde(INICIO));
+            assertEquals(2, segmento.posicionDesde(INICIO.plusNanos(1)));
+            assertEquals(ventas.indexOf(ventas.stream()
+                    .filter(v -> v.getFechaHora().equals(INICIO.plusSeconds(10_000))).findFirst().get()),
+                    segmento.posicionDesde(INICIO.plusSeconds(10_000)));
+            assertEquals(ventas.size(), segmento.posicionDesde(INICIO.plusDays(1)));
+        } finally {
+            Files.deleteIfExists(ruta);
+        }
+    }
+
+    @Test
+    public void leerResumen_sumaAgregadosYSalidasSinLeerVentas() throws Exception {
+        Path ruta = Files.createTempFile("segmento", ".seg");
+        try {
+            List<Venta> ventas = new ArrayList<>(ventasDelDia(1000));
+            // dos ventas en el mismo segundo quedan como una sola salida
+            Venta mismoSegundo = new Venta("local", null, ventas.get(999).getFechaHora());
+            mismoSegundo.agregarLinea(ventas.get(999).getProductoLinea(0), 5, 100);
+            ventas.add(mismoSegundo);
+            SegmentoVentas.escribir(ruta, ventas);
+
+            CuboVentas esperado = new CuboVentas();
+            ventas.forEach(esperado::registrar);
+            CuboVentas leido = new CuboVentas();
+            Map<String, Integer> unidades = new HashMap<>();
+            Map<String, Integer> grupos = new HashMap<>();
+            SegmentoVentas.abrir(ruta).leerResumen(leido, (producto, segundos, cantidades, largo) -> {
+                for (int i = 0; i < largo; i++) {
+                    unidades.merge(producto, cantidades[i], Integer::sum);
+                }
+                grupos.put(producto, largo);
+                assertEquals(INICIO.toEpochSecond(ZoneOffset.UTC) + (producto.equals("Gas 15kg") ? 10 : 0), segundos[0]);
+            });
+
+            assertEquals(1001, leido.getTotal().getVentas());
+            assertEquals(esperado.getTotal().getUnidades(), leido.getTotal().getUnidades());
+            assertEquals(esperado.getTotal().getTotalNeto(), leido.getTotal().getTotalNeto());
+            assertEquals(esperado.porFormato("domicilio").getTotalBruto(), leido.porFormato("domicilio").getTotalBruto());
+            assertEquals(esperado.porCliente("11-1").getVentas(), leido.porCliente("11-1").getVentas());
+            assertEquals(esperado.porHora(9).getUnidades(), leido.porHora(9).getUnidades());
+            assertEquals(esperado.porDia(INICIO.toLocalDate()).getTotalNeto(),
+                    leido.porDia(INICIO.toLocalDate()).getTotalNeto());
+            assertEquals(esperado.porMes(YearMonth.from(INICIO)).getVentas(), leido.porMes(YearMonth.from(INICIO)).getVentas());
+            int vendidas = 0;
+            for (Venta venta : ventas) {
+                vendidas += venta.getCantidadUnidades();
+            }
+            assertEquals(vendidas, unidades.get("Gas 15kg") + unidades.get("Regulador"));
+            assertEquals(334, (int) grupos.get("Regulador"));
+            assertEquals(666, (int) grupos.get("Gas 15kg"));
+        } finally {
+            Files.deleteIfExists(ruta);
+        }
+    }
+
+    @Test
+    public void leer_detectaBloqueDanado() throws Exception {
+        Path ruta = Files.createTempFile("segmento", ".seg");
+        try {
+            SegmentoVentas segmento = SegmentoVentas.escribir(ruta, ventasDelDia(100));
+            try (RandomAccessFile archivo = new RandomAccessFile(ruta.toFile(), "rw")) {
+                archivo.seek(20);
+                archivo.write(archivo.read() ^ 0xFF);
+            }
+            try {
+                segmento.leer(0, 100, new HashMap<>(), v -> { });
+                fail("Se esperaba IOException");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("dañado"));
+            }
+        } finally {
+            Files.deleteIfExists(ruta);
+        }
+    }
+
+    @Test
+    public void escribir_rechazaVentasDesordenadas() throws Exception {
+        List<Venta> ventas = ventasDelDia(3);
+        ventas.add(ventas.remove(0));
+        Path ruta = Files.createTempFile("segmento", ".seg");
+        try {
+            SegmentoVentas.escribir(ruta, ventas);
+            fail("Se esperaba IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("ordenadas"));
+        } finally {
+            Files.deleteIfExists(ruta);
+        }
+    }
+}
@@ -1,24 +1,123 @@
 package com.empresa.servicio;
 
+import com.empresa.exportacion.ExportadorVentasXLSX;
+import com.empresa.importacion.ErrorFila;
+import com.empresa.importacion.ImportadorCatalogo;
+import com.empresa.importacion.ImportadorClientesExcel;
+import com.empresa.importacion.ImportadorFacturas;
+import com.empresa.importacion.ImportadorVentasLote;
+import com.empresa.importacion.LectorFilasXLSX;
 import com.empresa.modelo.*;
-import java.text.NumberFormat;
+import com.empresa.persistencia.AlmacenEmpresa;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.Locale;
 import java.util.InputMismatchException;
+import java.util.concurrent.CountDownLatch;
 
 public class AppPrincipal {
 
     private static final Scanner sc = new Scanner(System.in);
     private static final Inventario inventario = Inventario.getInstancia();
-    private static final List<OrdenCompra> listaOrdenes = new ArrayList<>();
-    private static final List<FacturaCompra> listaFacturas = new ArrayList<>();
+    private static final LibroCompras libroCompras = LibroCompras.getInstancia();
+    private static final LibroMovimientos libroMovimientos = LibroMovimientos.getInstancia();
+    private static AlmacenEmpresa almacen;
     private static final HistorialVentas historialVentas = HistorialVentas.getInstancia();
     private static final GestorClientes gestorClientes = GestorClientes.getInstancia();
-    private static final NumberFormat formatoMoneda = NumberFormat.getCurrencyInstance(new Locale("es", "CL"));
+    private static final CuentasClientes cuentasClientes = CuentasClientes.getInstancia();
     private static final int MAX_LONGITUD_FACTURA = 25;
+    private static final String RUTA_DIARIO_VENTAS = "ventas.diario";
+    private static final String RUTA_ARCHIVO_VENTAS = "ventas-archivo";
+    private static final int DIAS_EN_MEMORIA = 7;
+    private static final String RUTA_DIARIO_MOVIMIENTOS = "movimientos.diario";
+    private static final String RUTA_DIARIO_CUENTAS = "cuentas.diario";
+    private static final String RUTA_REGLAS_DESCUENTO = "descuentos.reglas";
+    private static final String RUTA_ALMACEN = "datos";
+    private static final int MAX_ERRORES_MOSTRADOS = 20;
+    private static final int FACTURAS_POR_PAGINA = 20;
+    private static final int MOVIMIENTOS_POR_PAGINA = 30;
+    private static final int VENTAS_POR_PAGINA = 20;
+    private static final int CLIENTES_POR_INFORME = 30;
+    private static final int PUERTO_SERVIDOR = 8080;
+    private static final String RUTA_ZONAS = "zonas.txt";
+    private static final int METROS_POR_CELDA = 250;
+    private static final int PARADAS_POR_VIAJE = 12;
 
+    /**
+     * Sin argumentos inicia el menú interactivo. Con {@code --lote <archivo> [hilos]}
+     * importa las ventas del archivo sin interacción y termina. Con
+     * {@code --servidor [puerto] [direccion]} atiende la API HTTP de
+     * {@link ServidorVentas} hasta presionar Enter o recibir la señal de término; sin
+     * dirección solo acepta conexiones locales.
+     */
     public static void main(String[] args) {
-        mostrarPortada();
+        libroMovimientos.activarDiario(RUTA_DIARIO_MOVIMIENTOS);
+        abrirAlmacen();
+        historialVentas.activarArchivo(RUTA_ARCHIVO_VENTAS, DIAS_EN_MEMORIA);
+        historialVentas.activarDiario(RUTA_DIARIO_VENTAS);
+        historialVentas.archivar();
+        cuentasClientes.activarDiario(RUTA_DIARIO_CUENTAS);
+        activarReglasDescuento();
+        if (args.length >= 2 && args[0].equals("--lote")) {
+            int hilos = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            importarVentasLote(args[1], hilos);
+        } else if (args.length >= 1 && args[0].equals("--servidor")) {
+            atenderServidor(args.length > 1 ? Integer.parseInt(args[1]) : PUERTO_SERVIDOR,
+                    args.length > 2 ? args[2] : null);
+        } else {
+            mostrarPortada();
+        }
+        historialVentas.cerrarDiario();
+        libroMovimientos.cerrarDiario();
+        cuentasClientes.cerrarDiario();
+        cerrarAlmacen();
+    }
+
+    /**
+     * Abre el almacén en disco y carga clientes y productos. Debe hacerse antes de
+     * activar el diario de ventas, que descuenta del inventario lo ya vendido, y
+     * después del diario de movimientos, con el que se concilian las unidades
+     * ingresadas. Si no se puede abrir, se sigue trabajando solo en memoria.
+     */
+    private static void abrirAlmacen() {
+        try {
+            almacen = AlmacenEmpresa.abrir(Paths.get(RUTA_ALMACEN));
+            gestorClientes.usarRepositorio(almacen.getClientes());
+            inventario.usarRepositorio(almacen.getProductos());
+            inventario.conciliarMovimientos();
+            libroCompras.usarRepositorios(almacen.getOrdenes(), almacen.getFacturas());
+            System.out.printf("Almacén abierto. Clientes: %d | Productos: %d | Órdenes: %d | Facturas: %d\n",
+                    almacen.getClientes().cantidad(), almacen.getProductos().cantidad(),
+                    libroCompras.getCantidadOrdenes(), libroCompras.getCantidadFacturas());
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("No se pudo abrir el almacén de datos, se trabajará solo en memoria: " + e.getMessage());
+        }
+    }
+
+    private static synchronized void cerrarAlmacen() {
+        if (almacen == null) {
+            return;
+        }
+        try {
+            almacen.close();
+        } catch (IOException e) {
+            System.out.println("Error al cerrar el almacén de datos: " + e.getMessage());
+        }
+        almacen = null;
+    }
+
+    private static void activarReglasDescuento() {
+        try {
+            MotorDescuentos.getInstancia().vigilar(Paths.get(RUTA_REGLAS_DESCUENTO));
+        } catch (IOException e) {
+            System.out.println("No se pudo vigilar el archivo de descuentos: " + e.getMessage());
+        }
     }
 
     private static void mostrarPortada() {
@@ -34,6 +133,10 @@ public class AppPrincipal {
             mostrarMenuPrincipal();
         } else {
             System.out.println("¡Gracias por utilizar el sistema!");
+            historialVentas.cerrarDiario();
+            libroMovimientos.cerrarDiario();
+            cuentasClientes.cerrarDiario();
+            cerrarAlmacen();
             System.exit(0);
         }
     }
@@ -55,8 +158,11 @@ public class AppPrincipal {
             System.out.println("10. Consultar historial de órdenes y facturas");
             System.out.println("11. Salir");
             System.out.println("12. Historial de Ventas");
-            System.out.println("13. Exportar Ventas a CSV");
+            System.out.println("13. Exportar Ventas (CSV / Excel)");
             System.out.println("14. Importar Clientes desde Excel");
+            System.out.println("15. Importar Ventas desde archivo (lote)");
+            System.out.println("16. Planificar repartos a domicilio");
+            System.out.println("17. Importar facturas de proveedores (Excel / CSV)");
             opcion = leerEnteroSeguro("Seleccione una opción: ");
 
             switch (opcion) {
@@ -65,29 +171,421 @@ public class AppPrincipal {
                 case 2 -> crearOrdenYGenerarFactura();
                 case 3 -> ingresoManualFactura();
                 case 4 -> gestionarInventario();
-                case 5 -> System.out.println("Cuentas / Saldos (en desarrollo)");
+                case 5 -> gestionarCuentas();
                 case 6 -> realizarVenta("local");
                 case 7 -> realizarVenta("domicilio");
                 case 8 -> gestionarClientes();
-                case 9 -> System.out.println("Estadísticas y visualizaciones (en desarrollo)");
+                case 9 -> mostrarEstadisticas();
                 case 10 -> consultarHistorial();
                 case 11 -> System.out.println("Saliendo del sistema...");
-                case 12 -> historialVentas.mostrarHistorial();
-                case 13 -> {
-                    System.out.print("Ruta del archivo CSV (ej: ventas.csv): ");
-                    String ruta = sc.nextLine().trim();
-                    historialVentas.exportarCSV(ruta);
-                }
+                case 12 -> mostrarHistorialVentas();
+                case 13 -> exportarVentas();
                 case 14 -> {
                     System.out.print("Ruta del archivo Excel (.xlsx): ");
                     String ruta = sc.nextLine().trim();
-                    gestorClientes.importarClientesDesdeExcel(ruta);
+                    importarClientesDesdeExcel(ruta);
                 }
+                case 15 -> {
+                    System.out.print("Ruta del archivo de ventas (.csv): ");
+                    String ruta = sc.nextLine().trim();
+                    importarVentasLote(ruta, Runtime.getRuntime().availableProcessors());
+                }
+                case 16 -> planificarRepartos();
+                case 17 -> importarFacturas();
                 default -> System.out.println("Opción no válida, intente nuevamente.");
             }
         } while (opcion != 11);
     }
 
+    private static void mostrarEstadisticas() {
+        CuboVentas cubo = historialVentas.getEstadisticas();
+        int opcion;
+        do {
+            System.out.println("\n--- ESTADÍSTICAS Y VISUALIZACIONES ---");
+            System.out.println("1. Resumen general");
+            System.out.println("2. Productos más vendidos");
+            System.out.println("3. Ventas por tipo de producto");
+            System.out.println("4. Ventas por formato (local/domicilio)");
+            System.out.println("5. Mejores clientes");
+            System.out.println("6. Ventas por hora del día");
+            System.out.println("7. Ventas por día (últimos 14 días)");
+            System.out.println("8. Ventas por semana (últimas 8 semanas)");
+            System.out.println("9. Ventas por mes (últimos 12 meses)");
+            System.out.println("10. Rentabilidad y comisiones (últimos 12 meses)");
+            System.out.println("11. Volver al menú principal");
+            opcion = leerEnteroSeguro("Seleccione una opción: ");
+
+            LocalDate hoy = LocalDate.now();
+            switch (opcion) {
+                case 1 -> {
+                    mostrarMetricas("Total histórico", cubo.getTotal());
+                    mostrarMetricas("Hoy", cubo.porDia(hoy));
+                    mostrarMetricas("Esta semana", cubo.porSemana(hoy));
+                    mostrarMetricas("Este mes", cubo.porMes(YearMonth.from(hoy)));
+                }
+                case 2 -> mostrarRanking(cubo.ranking(CuboVentas.Dimension.PRODUCTO, 10));
+                case 3 -> mostrarRanking(cubo.ranking(CuboVentas.Dimension.TIPO, Integer.MAX_VALUE));
+                case 4 -> mostrarRanking(cubo.ranking(CuboVentas.Dimension.FORMATO, Integer.MAX_VALUE));
+                case 5 -> mostrarRanking(cubo.ranking(CuboVentas.Dimension.CLIENTE, 10));
+                case 6 -> {
+                    Map<String, Metricas> porHora = new LinkedHashMap<>();
+                    for (int h = 0; h < 24; h++) {
+                        porHora.put(String.format("%02d:00", h), cubo.porHora(h));
+                    }
+                    mostrarGrafico(porHora);
+                }
+                case 7 -> {
+                    Map<String, Metricas> dias = new LinkedHashMap<>();
+                    SortedMap<LocalDate, Metricas> serie = cubo.serieDiaria(hoy.minusDays(13), hoy);
+                    for (LocalDate d = hoy.minusDays(13); !d.isAfter(hoy); d = d.plusDays(1)) {
+                        dias.put(d.toString(), serie.getOrDefault(d, Metricas.VACIAS));
+                    }
+                    mostrarGrafico(dias);
+                }
+                case 8 -> {
+                    Map<String, Metricas> semanas = new LinkedHashMap<>();
+                    LocalDate primera = CuboVentas.inicioSemana(hoy).minusWeeks(7);
+                    SortedMap<LocalDate, Metricas> serie = cubo.serieSemanal(primera, hoy);
+                    for (LocalDate s = primera; !s.isAfter(hoy); s = s.plusWeeks(1)) {
+                        semanas.put("Sem. " + s, serie.getOrDefault(s, Metricas.VACIAS));
+                    }
+                    mostrarGrafico(semanas);
+                }
+                case 9 -> {
+                    Map<String, Metricas> meses = new LinkedHashMap<>();
+                    YearMonth actual = YearMonth.from(hoy);
+                    SortedMap<YearMonth, Metricas> serie = cubo.serieMensual(actual.minusMonths(11), actual);
+                    for (YearMonth m = actual.minusMonths(11); !m.isAfter(actual); m = m.plusMonths(1)) {
+                        meses.put(m.toString(), serie.getOrDefault(m, Metricas.VACIAS));
+                    }
+                    mostrarGrafico(meses);
+                }
+                case 10 -> {
+                    try {
+                        mostrarRentabilidad(YearMonth.from(hoy).minusMonths(11), YearMonth.from(hoy));
+                    } catch (UncheckedIOException e) {
+                        System.out.println("Error al leer las ventas archivadas: " + e.getCause().getMessage());
+                    }
+                }
+                case 11 -> System.out.println("Volviendo...");
+                default -> System.out.println("Opción inválida.");
+            }
+        } while (opcion != 11);
+    }
+
+    /**
+     * Margen, comisión y descuentos del rango de meses: por mes, por tipo, por
+     * formato y los productos con más contribución.
+     */
+    private static void mostrarRentabilidad(YearMonth desde, YearMonth hasta) {
+        MotorRentabilidad motor = MotorRentabilidad.getInstancia();
+        SortedMap<YearMonth, Rentabilidad> meses = motor.porMes(desde, hasta);
+        if (meses.isEmpty()) {
+            System.out.println("No hay ventas registradas.");
+            return;
+        }
+        System.out.println("\n--- RENTABILIDAD POR MES ---");
+        meses.forEach((mes, r) -> System.out.printf("%-16s | %s\n", mes, r));
+        System.out.printf("%-16s | %s\n", "Total", motor.total(desde, hasta));
+
+        System.out.println("\n--- POR TIPO DE PRODUCTO ---");
+        motor.porDimension(MotorRentabilidad.Dimension.TIPO, desde, hasta)
+                .forEach((tipo, r) -> System.out.printf("%-16s | %s\n", tipo, r));
+        System.out.println("\n--- POR FORMATO ---");
+        motor.porDimension(MotorRentabilidad.Dimension.FORMATO, desde, hasta)
+                .forEach((formato, r) -> System.out.printf("%-16s | %s\n", formato, r));
+
+        System.out.println("\n--- PRODUCTOS CON MAYOR CONTRIBUCIÓN ---");
+        int posicion = 1;
+        for (Map.Entry<String, Rentabilidad> producto
+                : motor.porDimension(MotorRentabilidad.Dimension.PRODUCTO, desde, hasta).entrySet()) {
+            if (posicion > 10) {
+                break;
+            }
+            System.out.printf("%2d. %-16s | %s\n", posicion++, producto.getKey(), producto.getValue());
+        }
+    }
+
+    private static void mostrarMetricas(String titulo, Metricas m) {
+        System.out.printf("%-16s | Ventas: %6d | Unidades: %6d | Bruto: %14s | Descuentos: %12s | Neto: %14s | Ticket prom.: %s\n",
+                titulo, m.getVentas(), m.getUnidades(), Pesos.formatear(m.getTotalBruto()),
+                Pesos.formatear(m.getTotalDescuento()), Pesos.formatear(m.getTotalNeto()),
+                Pesos.formatear(m.getTicketPromedio()));
+    }
+
+    private static void mostrarRanking(Map<String, Metricas> ranking) {
+        if (ranking.isEmpty()) {
+            System.out.println("No hay ventas registradas.");
+            return;
+        }
+        int posicion = 1;
+        for (Map.Entry<String, Metricas> grupo : ranking.entrySet()) {
+            System.out.printf("%2d. ", posicion++);
+            mostrarMetricas(grupo.getKey(), grupo.getValue());
+        }
+    }
+
+    /**
+     * Gráfico de barras en texto con el ingreso neto de cada grupo.
+     */
+    private static void mostrarGrafico(Map<String, Metricas> grupos) {
+        final int ancho = 40;
+        long maximo = 0;
+        for (Metricas m : grupos.values()) {
+            maximo = Math.max(maximo, m.getTotalNeto());
+        }
+        for (Map.Entry<String, Metricas> grupo : grupos.entrySet()) {
+            long neto = grupo.getValue().getTotalNeto();
+            int largo = maximo > 0 ? (int) (neto * ancho / maximo) : 0;
+            System.out.printf("%-16s | %-" + ancho + "s | %s (%d ventas)\n", grupo.getKey(),
+                    "#".repeat(Math.max(0, largo)), Pesos.formatear(neto), grupo.getValue().getVentas());
+        }
+    }
+
+    /**
+     * Importa clientes desde un archivo Excel (.xlsx) con columnas:
+     * Nombre cuenta | Teléfono (ignorado) | Dirección | Día Último (ignorado)
+     *
+     * La hoja se lee en streaming (sin cargar el libro completo en memoria) y los
+     * clientes se registran por lotes.
+     */
+    private static void importarClientesDesdeExcel(String rutaArchivo) {
+        ImportadorClientesExcel importador = new ImportadorClientesExcel(gestorClientes, (filas, importados) ->
+                System.out.printf("Filas leídas: %d | Clientes importados: %d\n", filas, importados));
+        try {
+            int contador = importador.importar(rutaArchivo);
+            System.out.println("✅ Importación finalizada. Clientes importados: " + contador);
+        } catch (IOException e) {
+            System.out.println("❌ Error al leer el archivo Excel: " + e.getMessage());
+        }
+    }
+
+    private static void importarVentasLote(String ruta, int hilos) {
+        ImportadorVentasLote importador = new ImportadorVentasLote(inventario, gestorClientes, historialVentas, hilos);
+        try {
+            ImportadorVentasLote.Resultado resultado = importador.importar(Paths.get(ruta));
+            System.out.printf("Líneas leídas: %d | Ventas registradas: %d | Rechazadas: %d | Unidades: %d\n",
+                    resultado.getLineasLeidas(), resultado.getVentasRegistradas(),
+                    resultado.getVentasRechazadas(), resultado.getUnidades());
+            System.out.printf("Tiempo: %d ms | %.0f ventas/s | %.0f líneas/s (%d hilos)\n",
+                    resultado.getDuracionMs(), resultado.getVentasPorSegundo(), resultado.getLineasPorSegundo(), hilos);
+
+            List<ImportadorVentasLote.ErrorRegistro> errores = resultado.getErrores();
+            for (int i = 0; i < errores.size() && i < MAX_ERRORES_MOSTRADOS; i++) {
+                System.out.println("  " + errores.get(i));
+            }
+            if (errores.size() > MAX_ERRORES_MOSTRADOS) {
+                System.out.println("  ... y " + (errores.size() - MAX_ERRORES_MOSTRADOS) + " errores más.");
+            }
+        } catch (IOException e) {
+            System.out.println("Error al leer el archivo de ventas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Atiende la API HTTP. Si la entrada estándar no está disponible (por ejemplo
+     * como servicio), espera la señal de término; el hook de cierre deja el diario
+     * y el almacén cerrados en ambos casos.
+     */
+    private static void atenderServidor(int puerto, String direccion) {
+        ServidorVentas servidor;
+        try {
+            InetAddress interfaz = direccion != null ? InetAddress.getByName(direccion) : InetAddress.getLoopbackAddress();
+            servidor = ServidorVentas.iniciar(interfaz, puerto, inventario, gestorClientes, historialVentas);
+            servidor.usarExportadorXLSX(new ExportadorVentasXLSX(historialVentas)::exportar);
+        } catch (IOException e) {
+            System.out.println("No se pudo iniciar el servidor en el puerto " + puerto + ": " + e.getMessage());
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            servidor.close();
+            historialVentas.cerrarDiario();
+            libroMovimientos.cerrarDiario();
+            cuentasClientes.cerrarDiario();
+            cerrarAlmacen();
+        }));
+        System.out.println("Servidor atendiendo en http://" + (direccion != null ? direccion : "localhost") + ":"
+                + servidor.getPuerto() + "/api (Enter para detener)");
+        try {
+            sc.nextLine();
+        } catch (NoSuchElementException e) {
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        servidor.close();
+        for (Map.Entry<String, HistogramaLatencias> e : servidor.getLatencias().entrySet()) {
+            System.out.println(e.getKey() + ": " + e.getValue());
+        }
+    }
+
+    private static void exportarVentas() {
+        System.out.print("Ruta del archivo (ej: ventas.csv, ventas.csv.gz para comprimir, ventas.xlsx para Excel): ");
+        String ruta = sc.nextLine().trim();
+        LocalDate desde = leerFechaOpcional("Desde (AAAA-MM-DD, vacío = sin límite): ");
+        LocalDate hasta = leerFechaOpcional("Hasta (AAAA-MM-DD, vacío = sin límite): ");
+        LocalDateTime inicio = desde != null ? desde.atStartOfDay() : null;
+        LocalDateTime fin = hasta != null ? hasta.plusDays(1).atStartOfDay() : null;
+        String rut = leerRutOpcional();
+        if (ruta.toLowerCase().endsWith(".xlsx")) {
+            new ExportadorVentasXLSX(historialVentas).exportar(ruta, rut, inicio, fin);
+        } else {
+            historialVentas.exportarCSV(ruta, rut, inicio, fin);
+        }
+    }
+
+    private static void planificarRepartos() {
+        MapaZonas mapa;
+        try {
+            mapa = MapaZonas.cargar(Paths.get(RUTA_ZONAS), METROS_POR_CELDA);
+        } catch (IOException e) {
+            System.out.println("No se pudo leer el mapa de zonas (" + RUTA_ZONAS + "): " + e.getMessage());
+            return;
+        }
+        LocalDate dia = leerFechaOpcional("Día de reparto (AAAA-MM-DD, vacío = hoy): ");
+        if (dia == null) {
+            dia = LocalDate.now();
+        }
+        int repartidores = leerEnteroSeguro("Cantidad de repartidores: ");
+        if (repartidores <= 0) {
+            System.out.println("Debe haber al menos un repartidor.");
+            return;
+        }
+
+        List<Venta> ventas = historialVentas.buscarPorFormato("domicilio", dia.atStartOfDay(),
+                dia.plusDays(1).atStartOfDay());
+        PlanReparto plan = new PlanificadorRepartos(mapa, PARADAS_POR_VIAJE).planificar(ventas, repartidores);
+        for (RutaReparto ruta : plan.getRutas()) {
+            System.out.printf("\n--- Repartidor %d, vuelta %d (%.1f km) ---\n", ruta.getRepartidor(), ruta.getVuelta(),
+                    ruta.getMetros() / 1000.0);
+            int parada = 1;
+            for (Venta venta : ruta.getParadas()) {
+                Cliente cliente = venta.getCliente();
+                System.out.printf("%2d. %s | %s | $%,d\n", parada++, cliente.getDireccion(), cliente.getNombre(),
+                        venta.calcularTotalNeto());
+            }
+        }
+        System.out.printf("\n%d ventas en %d viajes, %.1f km en total.\n", ventas.size() - plan.getSinUbicar().size(),
+                plan.getRutas().size(), plan.getMetrosTotales() / 1000.0);
+        if (!plan.getSinUbicar().isEmpty()) {
+            System.out.println("Sin ubicar en el mapa (" + plan.getSinUbicar().size() + "):");
+            for (Venta venta : plan.getSinUbicar()) {
+                Cliente cliente = venta.getCliente();
+                System.out.println("- " + (cliente != null ? cliente.getNombre() + " | " + cliente.getDireccion()
+                        : "venta sin cliente, " + venta.getFechaHora()));
+            }
+        }
+    }
+
+    private static void gestionarCuentas() {
+        int opcion;
+        do {
+            System.out.println("\n--- CUENTAS / SALDOS ---");
+            System.out.println("1. Registrar pago de un cliente");
+            System.out.println("2. Estado de cuenta de un cliente");
+            System.out.println("3. Antigüedad de saldos");
+            System.out.println("4. Volver al menú principal");
+            opcion = leerEnteroSeguro("Seleccione una opción: ");
+
+            switch (opcion) {
+                case 1 -> registrarPago();
+                case 2 -> mostrarEstadoCuenta();
+                case 3 -> mostrarAntiguedadSaldos();
+                case 4 -> System.out.println("Volviendo...");
+                default -> System.out.println("Opción inválida.");
+            }
+        } while (opcion != 4);
+    }
+
+    private static void registrarPago() {
+        System.out.print("RUT del cliente: ");
+        String rut = sc.nextLine().trim();
+        if (gestorClientes.buscarClientePorRUT(rut) == null) {
+            System.out.println("Cliente no encontrado.");
+            return;
+        }
+        System.out.println("Saldo actual: " + Pesos.formatear(cuentasClientes.getSaldo(rut)));
+        long monto = leerPesosSeguro("Monto pagado: ");
+        if (monto <= 0) {
+            System.out.println("El monto debe ser mayor a 0.");
+            return;
+        }
+        System.out.print("Referencia (ej: efectivo, transferencia N°): ");
+        String referencia = sc.nextLine().trim();
+        try {
+            MovimientoCuenta abono = cuentasClientes.abonar(rut, LocalDateTime.now(), monto, referencia);
+            System.out.println("Pago registrado. Saldo del cliente: " + Pesos.formatear(abono.getSaldo()));
+        } catch (UncheckedIOException e) {
+            System.out.println("No se pudo registrar el pago: " + e.getCause().getMessage());
+        }
+    }
+
+    private static void mostrarEstadoCuenta() {
+        System.out.print("RUT del cliente: ");
+        String rut = sc.nextLine().trim();
+        LocalDate desde = leerFechaOpcional("Desde (AAAA-MM-DD, vacío = sin límite): ");
+        LocalDate hasta = leerFechaOpcional("Hasta (AAAA-MM-DD, vacío = sin límite): ");
+        LocalDateTime inicio = desde != null ? desde.atStartOfDay() : null;
+        LocalDateTime fin = hasta != null ? hasta.plusDays(1).atStartOfDay() : null;
+
+        int pagina = 0;
+        while (true) {
+            Pagina<MovimientoCuenta> asientos = cuentasClientes.estadoCuenta(rut, inicio, fin, pagina, MOVIMIENTOS_POR_PAGINA);
+            if (asientos.getTotal() == 0) {
+                System.out.println("No hay movimientos para ese cliente en el rango.");
+                return;
+            }
+            for (MovimientoCuenta m : asientos.getElementos()) {
+                System.out.println(m);
+            }
+            System.out.printf("Página %d de %d (%d movimientos) | Saldo actual: %s\n", pagina + 1,
+                    asientos.getTotalPaginas(), asientos.getTotal(), Pesos.formatear(cuentasClientes.getSaldo(rut)));
+            if (!asientos.haySiguiente()) {
+                return;
+            }
+            System.out.print("Enter para ver más, 'q' para volver: ");
+            if (sc.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+            pagina++;
+        }
+    }
+
+    private static void mostrarAntiguedadSaldos() {
+        LocalDate alDia = leerFechaOpcional("Al día (AAAA-MM-DD, vacío = hoy): ");
+        InformeAntiguedad informe = cuentasClientes.antiguedadSaldos(alDia != null ? alDia : LocalDate.now());
+        if (informe.getFilas().isEmpty()) {
+            System.out.println("No hay clientes con saldo.");
+            return;
+        }
+        System.out.printf("\n%-14s %-20s", "RUT", "Cliente");
+        for (String tramo : InformeAntiguedad.TRAMOS) {
+            System.out.printf(" %13s", tramo);
+        }
+        System.out.printf(" %13s\n", "A favor");
+        int mostradas = 0;
+        for (InformeAntiguedad.Fila fila : informe.getFilas()) {
+            if (mostradas++ == CLIENTES_POR_INFORME) {
+                System.out.println("... y " + (informe.getFilas().size() - CLIENTES_POR_INFORME) + " clientes más");
+                break;
+            }
+            Cliente cliente = gestorClientes.buscarClientePorRUT(fila.getRut());
+            String nombre = cliente != null ? cliente.getNombre() : "";
+            System.out.printf("%-14s %-20.20s", fila.getRut(), nombre);
+            for (int t = 0; t < InformeAntiguedad.TRAMOS.size(); t++) {
+                System.out.printf(" %13s", Pesos.formatear(fila.getTramo(t)));
+            }
+            System.out.printf(" %13s\n", Pesos.formatear(fila.getSaldoAFavor()));
+        }
+        System.out.printf("%-35s", "TOTAL");
+        for (int t = 0; t < InformeAntiguedad.TRAMOS.size(); t++) {
+            System.out.printf(" %13s", Pesos.formatear(informe.getTotalTramo(t)));
+        }
+        System.out.printf(" %13s\n", Pesos.formatear(informe.getTotalAFavor()));
+    }
+
     private static void gestionarClientes() {
         int opcion;
         do {
@@ -96,7 +594,8 @@ public class AppPrincipal {
             System.out.println("2. Ver todos los clientes");
             System.out.println("3. Buscar cliente por RUT");
             System.out.println("4. Eliminar cliente");
-            System.out.println("5. Volver al menú principal");
+            System.out.println("5. Buscar por nombre, dirección o teléfono");
+            System.out.println("6. Volver al menú principal");
             opcion = leerEnteroSeguro("Seleccione una opción: ");
 
             switch (opcion) {
@@ -123,10 +622,26 @@ public class AppPrincipal {
                     String rut = sc.nextLine();
                     gestorClientes.eliminarCliente(rut);
                 }
-                case 5 -> System.out.println("Volviendo...");
+                case 5 -> buscarClientes();
+                case 6 -> System.out.println("Volviendo...");
                 default -> System.out.println("Opción inválida.");
             }
-        } while (opcion != 5);
+        } while (opcion != 6);
+    }
+
+    private static void buscarClientes() {
+        System.out.print("Texto a buscar (nombre o parte del nombre, dirección o teléfono): ");
+        String texto = sc.nextLine();
+
+        Set<Cliente> encontrados = new LinkedHashSet<>(gestorClientes.sugerirPorNombre(texto, 20));
+        encontrados.addAll(gestorClientes.buscarPorDireccion(texto));
+        encontrados.addAll(gestorClientes.buscarPorTelefono(texto));
+
+        if (encontrados.isEmpty()) {
+            System.out.println("No se encontraron clientes.");
+        } else {
+            encontrados.forEach(System.out::println);
+        }
     }
 
     private static void consultarHistorial() {
@@ -137,19 +652,19 @@ public class AppPrincipal {
             System.out.println("2. Ver facturas de compra");
             System.out.println("3. Buscar orden por ID");
             System.out.println("4. Buscar factura por número");
-            System.out.println("5. Volver al menú principal");
+            System.out.println("5. Entradas de un producto");
+            System.out.println("6. Facturas por proveedor y fechas");
+            System.out.println("7. Volver al menú principal");
             opcion = leerEnteroSeguro("Seleccione una opción: ");
 
             switch (opcion) {
-                case 1 -> listaOrdenes.forEach(oc ->
-                    System.out.println("Orden ID: " + oc.getIdOrden() + " | Proveedor: " + oc.getProveedor() + " | Total estimado: " + formatoMoneda.format(oc.calcularTotalEstimado())));
-                case 2 -> listaFacturas.forEach(FacturaCompra::mostrarDetalle);
+                case 1 -> libroCompras.paraCadaOrden(oc ->
+                    System.out.println("Orden ID: " + oc.getIdOrden() + " | Proveedor: " + oc.getProveedor() + " | Total estimado: " + Pesos.formatear(oc.calcularTotalEstimado())));
+                case 2 -> libroCompras.paraCadaFactura(FacturaCompra::mostrarDetalle);
                 case 3 -> {
                     System.out.print("Ingrese ID de orden: ");
                     String id = sc.nextLine();
-                    listaOrdenes.stream()
-                            .filter(oc -> oc.getIdOrden().equalsIgnoreCase(id))
-                            .findFirst()
+                    Optional.ofNullable(libroCompras.buscarOrden(id))
                             .ifPresentOrElse(
                                     oc -> oc.getItems().forEach(item -> System.out.printf("Producto: %s | Cantidad: %d\n", item.getProducto().getNombre(), item.getCantidad())),
                                     () -> System.out.println("Orden no encontrada."));
@@ -157,20 +672,57 @@ public class AppPrincipal {
                 case 4 -> {
                     System.out.print("Ingrese número de factura: ");
                     String num = sc.nextLine();
-                    listaFacturas.stream()
-                            .filter(f -> f.getNumeroFactura().equalsIgnoreCase(num))
-                            .findFirst()
+                    Optional.ofNullable(libroCompras.buscarFactura(num))
                             .ifPresentOrElse(FacturaCompra::mostrarDetalle, () -> System.out.println("Factura no encontrada."));
                 }
-                case 5 -> System.out.println("Volviendo...");
+                case 5 -> {
+                    System.out.print("Nombre del producto: ");
+                    inventario.mostrarHistorialPorProducto(sc.nextLine().trim());
+                }
+                case 6 -> consultarFacturasPorProveedor();
+                case 7 -> System.out.println("Volviendo...");
                 default -> System.out.println("Opción inválida.");
             }
-        } while (opcion != 5);
+        } while (opcion != 7);
+    }
+
+    private static void consultarFacturasPorProveedor() {
+        System.out.print("Proveedor (vacío = todos): ");
+        String proveedor = sc.nextLine().trim();
+        LocalDate desde = leerFechaOpcional("Desde (AAAA-MM-DD, vacío = sin límite): ");
+        LocalDate hasta = leerFechaOpcional("Hasta (AAAA-MM-DD, vacío = sin límite): ");
+
+        int numero = 0;
+        while (true) {
+            Pagina<FacturaCompra> pagina = libroCompras.buscarFacturas(proveedor.isEmpty() ? null : proveedor,
+                    desde, hasta, numero, FACTURAS_POR_PAGINA);
+            if (pagina.getTotal() == 0) {
+                System.out.println("No se encontraron facturas.");
+                return;
+            }
+            for (FacturaCompra f : pagina.getElementos()) {
+                System.out.printf("%s | %s | %-20s | %s\n", f.getFecha(), f.getNumeroFactura(), f.getProveedor(),
+                        Pesos.formatear(f.calcularTotalFactura()));
+            }
+            System.out.printf("Página %d de %d (%d facturas)\n", numero + 1, pagina.getTotalPaginas(), pagina.getTotal());
+            if (!pagina.haySiguiente()) {
+                return;
+            }
+            System.out.print("¿Ver página siguiente? (s/n): ");
+            if (!sc.nextLine().equalsIgnoreCase("s")) {
+                return;
+            }
+            numero++;
+        }
     }
 
     private static void crearOrdenYGenerarFactura() {
         System.out.print("ID de orden de compra: ");
         String idOrden = sc.nextLine();
+        if (libroCompras.buscarOrden(idOrden) != null) {
+            System.out.println("Ya existe una orden con el ID " + idOrden + ".");
+            return;
+        }
         System.out.print("Nombre del proveedor: ");
         String proveedor = sc.nextLine();
         OrdenCompra orden = new OrdenCompra(idOrden, proveedor);
@@ -184,7 +736,10 @@ public class AppPrincipal {
             agregar = sc.nextLine().equalsIgnoreCase("s");
         }
 
-        listaOrdenes.add(orden);
+        if (!libroCompras.registrarOrden(orden)) {
+            System.out.println("Ya existe una orden con el ID " + idOrden + ".");
+            return;
+        }
 
         System.out.print("Ingrese número de factura: ");
         String numeroFactura = sc.nextLine().replaceAll("[^a-zA-Z0-9\\-]", "").trim();
@@ -193,8 +748,10 @@ public class AppPrincipal {
         }
 
         FacturaCompra factura = orden.generarFacturaDesdeOrden(numeroFactura);
-        inventario.registrarEntradaConFactura(factura);
-        listaFacturas.add(factura);
+        if (!inventario.registrarEntradaConFactura(factura)) {
+            System.out.println("Ya existe una factura con el número " + numeroFactura + "; la orden quedó registrada sin factura.");
+            return;
+        }
         System.out.println("\nFactura generada e inventario actualizado correctamente.");
         factura.mostrarDetalle();
     }
@@ -205,6 +762,10 @@ public class AppPrincipal {
         if (numero.length() > MAX_LONGITUD_FACTURA) {
             numero = numero.substring(0, MAX_LONGITUD_FACTURA);
         }
+        if (libroCompras.existeFactura(numero)) {
+            System.out.println("Ya existe una factura con el número " + numero + ".");
+            return;
+        }
         System.out.print("Proveedor: ");
         String proveedor = sc.nextLine();
 
@@ -219,8 +780,10 @@ public class AppPrincipal {
             agregar = sc.nextLine().equalsIgnoreCase("s");
         }
 
-        inventario.registrarEntradaConFactura(factura);
-        listaFacturas.add(factura);
+        if (!inventario.registrarEntradaConFactura(factura)) {
+            System.out.println("Ya existe una factura con el número " + numero + ".");
+            return;
+        }
         System.out.println("Factura ingresada correctamente.");
         factura.mostrarDetalle();
     }
@@ -233,7 +796,12 @@ public class AppPrincipal {
             System.out.println("2. Agregar producto o aumentar stock");
             System.out.println("3. Buscar producto");
             System.out.println("4. Exportar a CSV");
-            System.out.println("5. Volver al menú principal");
+            System.out.println("5. Ajustar stock (mermas, conteo físico)");
+            System.out.println("6. Stock a una fecha y hora");
+            System.out.println("7. Movimientos de un producto");
+            System.out.println("8. Sugerir órdenes de compra (pronóstico de demanda)");
+            System.out.println("9. Importar catálogo de productos (CSV o Excel)");
+            System.out.println("10. Volver al menú principal");
             opcion = leerEnteroSeguro("Seleccione una opción: ");
 
             switch (opcion) {
@@ -254,10 +822,218 @@ public class AppPrincipal {
                     String archivo = sc.nextLine();
                     inventario.exportarCSV(archivo);
                 }
-                case 5 -> System.out.println("Volviendo...");
+                case 5 -> ajustarStock();
+                case 6 -> {
+                    System.out.print("Nombre del producto: ");
+                    String nombre = sc.nextLine().trim();
+                    LocalDateTime fechaHora = leerFechaHora("Fecha y hora (AAAA-MM-DD HH:MM): ");
+                    System.out.printf("Stock de %s al %s: %d (actual: %d)\n", nombre, fechaHora,
+                            libroMovimientos.stockEn(nombre, fechaHora), inventario.getStock(nombre));
+                }
+                case 7 -> mostrarMovimientos();
+                case 8 -> sugerirOrdenesCompra();
+                case 9 -> importarCatalogo();
+                case 10 -> System.out.println("Volviendo...");
                 default -> System.out.println("Opción inválida.");
             }
-        } while (opcion != 5);
+        } while (opcion != 10);
+    }
+
+    private static void importarFacturas() {
+        System.out.println("Columnas: NumeroFactura, Fecha, Proveedor, Producto, Tipo, PrecioCompra, Comision, Cantidad");
+        System.out.print("Ruta de la planilla (.xlsx o .csv): ");
+        String ruta = sc.nextLine().trim();
+        try {
+            ImportadorFacturas importador = new ImportadorFacturas(inventario);
+            ImportadorFacturas.Resultado resultado = ruta.toLowerCase().endsWith(".xlsx")
+                    ? importador.importar(LectorFilasXLSX.primeraHoja(ruta)) : importador.importar(Paths.get(ruta));
+            System.out.printf("Líneas leídas: %d | Facturas registradas: %d | Ya registradas: %d | Rechazadas: %d | Unidades: %d\n",
+                    resultado.getLineasLeidas(), resultado.getFacturasRegistradas(), resultado.getFacturasRepetidas(),
+                    resultado.getFacturasRechazadas(), resultado.getUnidades());
+            System.out.printf("Tiempo: %d ms | %.0f líneas/s\n", resultado.getDuracionMs(),
+                    resultado.getLineasPorSegundo());
+
+            List<ErrorFila> errores = resultado.getErrores();
+            for (int i = 0; i < errores.size() && i < MAX_ERRORES_MOSTRADOS; i++) {
+                System.out.println("  " + errores.get(i));
+            }
+            if (errores.size() > MAX_ERRORES_MOSTRADOS) {
+                System.out.println("  ... y " + (errores.size() - MAX_ERRORES_MOSTRADOS) + " errores más.");
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Error al importar las facturas: " + e.getMessage());
+        }
+    }
+
+    private static void importarCatalogo() {
+        System.out.println("Columnas: Nombre, Tipo, PrecioCompra, Comision, Stock (opcional)");
+        System.out.print("Ruta del archivo (.csv o .xlsx): ");
+        String ruta = sc.nextLine().trim();
+        try {
+            ImportadorCatalogo importador = new ImportadorCatalogo(inventario);
+            ImportadorCatalogo.Resultado resultado = ruta.toLowerCase().endsWith(".xlsx")
+                    ? importador.importar(LectorFilasXLSX.primeraHoja(ruta)) : importador.importar(Paths.get(ruta));
+            System.out.printf("Filas leídas: %d | Productos nuevos: %d | Actualizados: %d | Unidades ingresadas: %d\n",
+                    resultado.getFilasLeidas(), resultado.getProductosNuevos(), resultado.getProductosActualizados(),
+                    resultado.getUnidades());
+            if (resultado.getFilasNoCargadas() > 0) {
+                System.out.println("Filas válidas no cargadas: " + resultado.getFilasNoCargadas());
+            }
+            System.out.printf("Tiempo: %d ms | %.0f filas/s\n", resultado.getDuracionMs(),
+                    resultado.getFilasPorSegundo());
+
+            List<ErrorFila> errores = resultado.getErrores();
+            for (int i = 0; i < errores.size() && i < MAX_ERRORES_MOSTRADOS; i++) {
+                System.out.println("  " + errores.get(i));
+            }
+            if (errores.size() > MAX_ERRORES_MOSTRADOS) {
+                System.out.println("  ... y " + (errores.size() - MAX_ERRORES_MOSTRADOS) + " errores más.");
+            }
+        } catch (IOException e) {
+            System.out.println("Error al leer el catálogo: " + e.getMessage());
+        }
+    }
+
+    private static void sugerirOrdenesCompra() {
+        System.out.println("Método: 1. Media móvil  2. Suavizado exponencial");
+        PronosticoReposicion.Metodo metodo = leerEnteroSeguro("Seleccione: ") == 1
+                ? PronosticoReposicion.Metodo.MEDIA_MOVIL : PronosticoReposicion.Metodo.SUAVIZADO_EXPONENCIAL;
+        int plazo = leerEnteroSeguro("Plazo de entrega del proveedor (días): ");
+        int cobertura = leerEnteroSeguro("Días de venta a cubrir con el pedido: ");
+        if (plazo < 0 || cobertura < 0) {
+            System.out.println("El plazo y la cobertura no pueden ser negativos.");
+            return;
+        }
+
+        List<OrdenCompra> borradores = PronosticoReposicion.getInstancia()
+                .generarBorradores(LocalDate.now(), metodo, plazo, cobertura);
+        if (borradores.isEmpty()) {
+            System.out.println("Ningún producto está bajo su punto de pedido.");
+            return;
+        }
+        for (OrdenCompra orden : borradores) {
+            System.out.printf("\nOrden sugerida %s | Proveedor: %s | Total estimado: %s\n", orden.getIdOrden(),
+                    orden.getProveedor(), Pesos.formatear(orden.calcularTotalEstimado()));
+            for (OrdenCompra.ItemOrden item : orden.getItems()) {
+                String nombre = item.getProducto().getNombre();
+                System.out.printf("  %-20s | Stock: %4d | Demanda diaria: %6.1f | Pedir: %d\n", nombre,
+                        inventario.getStock(nombre), PronosticoReposicion.getInstancia().demandaDiaria(nombre, metodo),
+                        item.getCantidad());
+            }
+        }
+        System.out.print("\n¿Registrar estas órdenes de compra? (s/n): ");
+        if (!sc.nextLine().trim().equalsIgnoreCase("s")) {
+            System.out.println("Las órdenes sugeridas se descartaron.");
+            return;
+        }
+        int registradas = 0;
+        for (OrdenCompra orden : borradores) {
+            if (libroCompras.registrarOrden(orden)) {
+                registradas++;
+            } else {
+                System.out.println("Ya existe una orden con el ID " + orden.getIdOrden() + "; se omitió.");
+            }
+        }
+        System.out.println(registradas + " órdenes de compra registradas.");
+    }
+
+    private static void ajustarStock() {
+        System.out.print("Nombre del producto: ");
+        String nombre = sc.nextLine().trim();
+        if (inventario.getProducto(nombre) == null) {
+            System.out.println("Producto no encontrado.");
+            return;
+        }
+        int diferencia = leerEnteroSeguro("Unidades a sumar (o restar, con signo -): ");
+        if (inventario.ajustarStock(nombre, diferencia)) {
+            System.out.println("Stock ajustado. Stock actual: " + inventario.getStock(nombre));
+        } else {
+            System.out.println("No se pudo ajustar: la diferencia es 0 o no hay stock disponible suficiente.");
+        }
+    }
+
+    private static void mostrarMovimientos() {
+        System.out.print("Nombre del producto: ");
+        String nombre = sc.nextLine().trim();
+        LocalDate desde = leerFechaOpcional("Desde (AAAA-MM-DD, vacío = sin límite): ");
+        LocalDate hasta = leerFechaOpcional("Hasta (AAAA-MM-DD, vacío = sin límite): ");
+        LocalDateTime inicio = desde != null ? desde.atStartOfDay() : null;
+        LocalDateTime fin = hasta != null ? hasta.plusDays(1).atStartOfDay() : null;
+
+        int pagina = 0;
+        while (true) {
+            Pagina<MovimientoStock> movimientos = libroMovimientos.movimientos(nombre, inicio, fin, pagina, MOVIMIENTOS_POR_PAGINA);
+            if (movimientos.getTotal() == 0) {
+                System.out.println("No hay movimientos para ese producto en el rango.");
+                return;
+            }
+            for (MovimientoStock m : movimientos.getElementos()) {
+                System.out.println(m);
+            }
+            System.out.printf("Página %d de %d (%d movimientos)\n", pagina + 1, movimientos.getTotalPaginas(), movimientos.getTotal());
+            if (!movimientos.haySiguiente()) {
+                return;
+            }
+            System.out.print("Enter para ver más, 'q' para volver: ");
+            if (sc.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+            pagina++;
+        }
+    }
+
+    /**
+     * RUT de cliente para filtrar ventas, o null si se deja vacío.
+     */
+    private static String leerRutOpcional() {
+        System.out.print("RUT del cliente (vacío = todos): ");
+        String rut = sc.nextLine().trim();
+        return rut.isEmpty() ? null : rut;
+    }
+
+    /**
+     * Historial de ventas por páginas, opcionalmente de un cliente y un rango de
+     * fechas; las archivadas se leen de disco a medida que se avanza.
+     */
+    private static void mostrarHistorialVentas() {
+        String rut = leerRutOpcional();
+        LocalDate desde = leerFechaOpcional("Desde (AAAA-MM-DD, vacío = sin límite): ");
+        LocalDate hasta = leerFechaOpcional("Hasta (AAAA-MM-DD, vacío = sin límite): ");
+        LocalDateTime inicio = desde != null ? desde.atStartOfDay() : null;
+        LocalDateTime fin = hasta != null ? hasta.plusDays(1).atStartOfDay() : null;
+
+        int pagina = 0;
+        while (true) {
+            Pagina<Venta> ventas;
+            try {
+                ventas = rut != null
+                        ? historialVentas.ventasCliente(rut, inicio, fin, pagina, VENTAS_POR_PAGINA)
+                        : historialVentas.ventas(inicio, fin, pagina, VENTAS_POR_PAGINA);
+            } catch (IOException e) {
+                System.out.println("Error al leer las ventas archivadas: " + e.getMessage());
+                return;
+            }
+            if (ventas.getTotal() == 0) {
+                System.out.println("No hay ventas registradas en el rango.");
+                return;
+            }
+            if (pagina == 0) {
+                System.out.println("\n===== HISTORIAL DE VENTAS =====");
+            }
+            for (Venta venta : ventas.getElementos()) {
+                venta.mostrarResumenVenta();
+                System.out.println("---------------------------------------------");
+            }
+            System.out.printf("Página %d de %d (%d ventas)\n", pagina + 1, ventas.getTotalPaginas(), ventas.getTotal());
+            if (!ventas.haySiguiente()) {
+                return;
+            }
+            System.out.print("Enter para ver más, 'q' para volver: ");
+            if (sc.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+            pagina++;
+        }
     }
 
     private static void realizarVenta(String formato) {
@@ -272,37 +1048,64 @@ public class AppPrincipal {
         }
 
         Venta venta = new Venta(formato, cliente);
+        // Stock reservado por esta venta; se confirma al cerrarla o se libera si se interrumpe
+        Map<String, Integer> reservas = new LinkedHashMap<>();
+        boolean completada = false;
 
-        boolean agregarOtro = true;
-        while (agregarOtro) {
-            System.out.print("Nombre del producto (exacto): ");
-            String nombre = sc.nextLine();
+        try {
+            boolean agregarOtro = true;
+            while (agregarOtro) {
+                System.out.print("Nombre del producto (exacto): ");
+                String nombre = sc.nextLine();
 
-            if (!inventario.tieneStockDisponible(nombre, 1)) {
-                System.out.println("Producto no existe o sin stock.");
-                continue;
-            }
+                if (!inventario.tieneStockDisponible(nombre, 1)) {
+                    System.out.println("Producto no existe o sin stock.");
+                    continue;
+                }
 
-            Producto producto = inventario.getProducto(nombre);
-            int cantidad = leerEnteroSeguro("¿Cantidad a vender?: ");
+                Producto producto = inventario.getProducto(nombre);
+                int cantidad = leerEnteroSeguro("¿Cantidad a vender?: ");
 
-            if (!inventario.tieneStockDisponible(nombre, cantidad)) {
-                System.out.println("Stock insuficiente.");
-                continue;
-            }
+                if (!inventario.reservarStock(nombre, cantidad)) {
+                    System.out.println("Stock insuficiente.");
+                    continue;
+                }
+                reservas.merge(nombre, cantidad, Integer::sum);
 
-            for (int i = 0; i < cantidad; i++) {
-                venta.agregarProducto(producto, sc);
+                venta.agregarProducto(producto, cantidad, sc);
+
+                System.out.print("¿Desea agregar otro producto? (s/n): ");
+                agregarOtro = sc.nextLine().equalsIgnoreCase("s");
             }
 
-            inventario.reducirStock(nombre, cantidad);
-            System.out.print("¿Desea agregar otro producto? (s/n): ");
-            agregarOtro = sc.nextLine().equalsIgnoreCase("s");
+            reservas.forEach(inventario::confirmarReserva);
+            completada = true;
+        } finally {
+            if (!completada) {
+                reservas.forEach(inventario::liberarReserva);
+            }
         }
 
-        historialVentas.agregarVenta(venta);
+        try {
+            historialVentas.agregarVenta(venta);
+        } catch (UncheckedIOException e) {
+            inventario.devolverVenta(venta);
+            System.out.println("No se pudo registrar la venta: " + e.getCause().getMessage());
+            return;
+        }
         venta.mostrarResumenVenta();
-        System.out.println("TOTAL A PAGAR: " + formatoMoneda.format(venta.calcularTotalNeto()));
+        System.out.print("¿Venta a crédito (se carga a la cuenta del cliente)? (s/n): ");
+        if (sc.nextLine().trim().equalsIgnoreCase("s") && venta.calcularTotalNeto() > 0) {
+            try {
+                MovimientoCuenta cargo = cuentasClientes.cargarVenta(venta);
+                System.out.println("Cargado a la cuenta. Saldo del cliente: " + Pesos.formatear(cargo.getSaldo()));
+            } catch (UncheckedIOException e) {
+                System.out.println("No se pudo cargar a la cuenta (" + e.getCause().getMessage() + "). TOTAL A PAGAR: "
+                        + Pesos.formatear(venta.calcularTotalNeto()));
+            }
+        } else {
+            System.out.println("TOTAL A PAGAR: " + Pesos.formatear(venta.calcularTotalNeto()));
+        }
     }
 
     private static void probarProductos() {
@@ -317,8 +1120,8 @@ public class AppPrincipal {
         if (descuentos.length == 0) {
             System.out.println("No hay descuentos disponibles.");
         } else if (descuentos.length == 1) {
-            double precioFinal = Descuento.aplicarDescuentoSeleccionado(p, formato, 0);
-            System.out.printf("Descuento aplicado: $%d | Precio final: $%.0f\n", descuentos[0], precioFinal);
+            long precioFinal = Descuento.aplicarDescuentoSeleccionado(p, formato, 0);
+            System.out.println("Descuento aplicado: " + Pesos.formatear(descuentos[0]) + " | Precio final: " + Pesos.formatear(precioFinal));
         } else {
             System.out.println("Seleccione descuento:");
             for (int i = 0; i < descuentos.length; i++) {
@@ -326,8 +1129,8 @@ public class AppPrincipal {
             }
             int opcion = leerEnteroSeguro("Opción: ");
             if (opcion >= 0 && opcion < descuentos.length) {
-                double precioFinal = Descuento.aplicarDescuentoSeleccionado(p, formato, opcion);
-                System.out.printf("Precio final: $%.0f\n", precioFinal);
+                long precioFinal = Descuento.aplicarDescuentoSeleccionado(p, formato, opcion);
+                System.out.println("Precio final: " + Pesos.formatear(precioFinal));
             } else {
                 System.out.println("Opción inválida.");
             }
@@ -339,8 +1142,8 @@ public class AppPrincipal {
         String nombre = sc.nextLine();
         System.out.print("Tipo: ");
         String tipo = sc.nextLine();
-        double precioCompra = leerDoubleSeguro("Precio compra con IVA: ");
-        double comision = leerDoubleSeguro("Comisión (en pesos): ");
+        long precioCompra = leerPesosSeguro("Precio compra con IVA: ");
+        long comision = leerPesosSeguro("Comisión (en pesos): ");
         return new Producto(nombre, tipo, precioCompra, comision);
     }
 
@@ -358,11 +1161,41 @@ public class AppPrincipal {
         }
     }
 
-    private static double leerDoubleSeguro(String mensaje) {
+    private static LocalDate leerFechaOpcional(String mensaje) {
+        while (true) {
+            System.out.print(mensaje);
+            String texto = sc.nextLine().trim();
+            if (texto.isEmpty()) {
+                return null;
+            }
+            try {
+                return LocalDate.parse(texto);
+            } catch (DateTimeParseException e) {
+                System.out.println("Fecha inválida. Intente nuevamente.");
+            }
+        }
+    }
+
+    private static LocalDateTime leerFechaHora(String mensaje) {
+        while (true) {
+            System.out.print(mensaje);
+            String texto = sc.nextLine().trim().replace(' ', 'T');
+            try {
+                return LocalDateTime.parse(texto);
+            } catch (DateTimeParseException e) {
+                System.out.println("Fecha y hora inválidas. Intente nuevamente.");
+            }
+        }
+    }
+
+    /**
+     * Lee un monto en pesos enteros (sin decimales).
+     */
+    private static long leerPesosSeguro(String mensaje) {
         while (true) {
             try {
                 System.out.print(mensaje);
-                double valor = sc.nextDouble();
+                long valor = sc.nextLong();
                 sc.nextLine();
                 return valor;
             } catch (InputMismatchException e) {
@@ -0,0 +1,106 @@
+package com.empresa.servicio;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias en microsegundos, seguro para hilos y sin candados.
+ *
+ * Los valores hasta 16 µs tienen su propio casillero; sobre eso cada potencia de
+ * dos se divide en 8 casilleros, de modo que un percentil se informa con un
+ * error relativo de a lo más 12,5% usando unos pocos cientos de contadores.
+ *
+ * @author Ignacio
+ */
+public class HistogramaLatencias {
+
+    private static final int LINEALES = 16;
+    private static final int SUBDIVISIONES = 8;
+    private static final int BITS_SUBDIVISION = 3;
+    private static final int CASILLEROS = LINEALES + (64 - 4) * SUBDIVISIONES;
+
+    private final AtomicLongArray conteos = new AtomicLongArray(CASILLEROS);
+    private final AtomicLong cantidad = new AtomicLong();
+    private final AtomicLong sumaMicros = new AtomicLong();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra una duración medida con {@link System#nanoTime()}.
+     */
+    public void registrar(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        conteos.incrementAndGet(casillero(micros));
+        cantidad.incrementAndGet();
+        sumaMicros.addAndGet(micros);
+        maximo.accumulateAndGet(micros, Math::max);
+    }
+
+    private static int casillero(long micros) {
+        if (micros < LINEALES) {
+            return (int) micros;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(micros); // >= 4
+        int sub = (int) (micros >>> (exponente - BITS_SUBDIVISION)) & (SUBDIVISIONES - 1);
+        return LINEALES + (exponente - 4) * SUBDIVISIONES + sub;
+    }
+
+    /**
+     * Mayor valor que cae en el casillero.
+     */
+    private static long limiteSuperior(int casillero) {
+        if (casillero < LINEALES) {
+            return casillero;
+        }
+        int exponente = (casillero - LINEALES) / SUBDIVISIONES + 4;
+        int sub = (casillero - LINEALES) % SUBDIVISIONES;
+        long ancho = 1L << (exponente - BITS_SUBDIVISION);
+        return (1L << exponente) + (sub + 1) * ancho - 1;
+    }
+
+    public long getCantidad() {
+        return cantidad.get();
+    }
+
+    public long getMaximoMicros() {
+        return maximo.get();
+    }
+
+    public long getPromedioMicros() {
+        long n = cantidad.get();
+        return n > 0 ? sumaMicros.get() / n : 0;
+    }
+
+    /**
+     * Latencia bajo la cual está el porcentaje indicado de las mediciones.
+     *
+     * @param percentil Entre 0 y 100 (por ejemplo 99.9)
+     * @return Microsegundos (0 si no hay mediciones)
+     */
+    public long percentilMicros(double percentil) {
+        long total = 0;
+        long[] copia = new long[CASILLEROS];
+        for (int i = 0; i < CASILLEROS; i++) {
+            copia[i] = conteos.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(total * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < CASILLEROS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d | prom=%dµs | p50=%dµs | p90=%dµs | p99=%dµs | p99.9=%dµs | max=%dµs",
+                getCantidad(), getPromedioMicros(), percentilMicros(50), percentilMicros(90),
+                percentilMicros(99), percentilMicros(99.9), getMaximoMicros());
+    }
+}
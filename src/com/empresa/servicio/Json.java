@@ -0,0 +1,340 @@
+package com.empresa.servicio;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lectura y escritura mínima de JSON para la API HTTP, sin dependencias.
+ *
+ * Al leer, los objetos se convierten en {@link Map}, los arreglos en {@link List},
+ * los números enteros en {@link Long} y los decimales en {@link Double}.
+ *
+ * @author Ignacio
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    // ======================== LECTURA ========================
+
+    /**
+     * Máximo de objetos y arreglos anidados; más que eso se rechaza en vez de
+     * agotar la pila del hilo que atiende la solicitud.
+     */
+    static final int MAX_PROFUNDIDAD = 32;
+
+    /**
+     * @throws IllegalArgumentException si el texto no es JSON válido o anida más de
+     *         {@link #MAX_PROFUNDIDAD} niveles
+     */
+    static Object leer(String texto) {
+        Lector lector = new Lector(texto);
+        lector.espacios();
+        Object valor = lector.valor();
+        lector.espacios();
+        if (lector.pos < texto.length()) {
+            throw lector.error("Contenido extra después del valor");
+        }
+        return valor;
+    }
+
+    private static final class Lector {
+        private final String texto;
+        private int pos;
+        private int profundidad;
+
+        private Lector(String texto) {
+            this.texto = texto;
+        }
+
+        private Object valor() {
+            if (pos >= texto.length()) {
+                throw error("Fin inesperado");
+            }
+            char c = texto.charAt(pos);
+            switch (c) {
+                case '{':
+                    return objeto();
+                case '[':
+                    return arreglo();
+                case '"':
+                    return cadena();
+                case 't':
+                    return literal("true", Boolean.TRUE);
+                case 'f':
+                    return literal("false", Boolean.FALSE);
+                case 'n':
+                    return literal("null", null);
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) {
+                        return numero();
+                    }
+                    throw error("Carácter inesperado '" + c + "'");
+            }
+        }
+
+        private Map<String, Object> objeto() {
+            entrar();
+            Map<String, Object> mapa = new LinkedHashMap<>();
+            pos++;
+            espacios();
+            if (consumir('}')) {
+                profundidad--;
+                return mapa;
+            }
+            do {
+                espacios();
+                if (pos >= texto.length() || texto.charAt(pos) != '"') {
+                    throw error("Se esperaba el nombre de un campo");
+                }
+                String nombre = cadena();
+                espacios();
+                if (!consumir(':')) {
+                    throw error("Se esperaba ':'");
+                }
+                espacios();
+                mapa.put(nombre, valor());
+                espacios();
+            } while (consumir(','));
+            if (!consumir('}')) {
+                throw error("Se esperaba '}'");
+            }
+            profundidad--;
+            return mapa;
+        }
+
+        private List<Object> arreglo() {
+            entrar();
+            List<Object> lista = new ArrayList<>();
+            pos++;
+            espacios();
+            if (consumir(']')) {
+                profundidad--;
+                return lista;
+            }
+            do {
+                espacios();
+                lista.add(valor());
+                espacios();
+            } while (consumir(','));
+            if (!consumir(']')) {
+                throw error("Se esperaba ']'");
+            }
+            profundidad--;
+            return lista;
+        }
+
+        private void entrar() {
+            if (++profundidad > MAX_PROFUNDIDAD) {
+                throw error("Demasiados niveles anidados (máximo " + MAX_PROFUNDIDAD + ")");
+            }
+        }
+
+        private String cadena() {
+            StringBuilder sb = new StringBuilder();
+            pos++;
+            while (pos < texto.length()) {
+                char c = texto.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= texto.length()) {
+                    break;
+                }
+                char e = texto.charAt(pos++);
+                switch (e) {
+                    case 'n' -> sb.append('\n');
+                    case 't' -> sb.append('\t');
+                    case 'r' -> sb.append('\r');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > texto.length()) {
+                            throw error("Escape \\u incompleto");
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(texto.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("Escape \\u inválido");
+                        }
+                        pos += 4;
+                    }
+                    default -> sb.append(e); // \" \\ \/
+                }
+            }
+            throw error("Texto sin cerrar");
+        }
+
+        private Object numero() {
+            int inicio = pos;
+            boolean decimal = false;
+            if (texto.charAt(pos) == '-') {
+                pos++;
+            }
+            while (pos < texto.length()) {
+                char c = texto.charAt(pos);
+                if (c == '.' || c == 'e' || c == 'E' || c == '+' || (c == '-' && pos > inicio)) {
+                    decimal = true;
+                } else if (c < '0' || c > '9') {
+                    break;
+                }
+                pos++;
+            }
+            String numero = texto.substring(inicio, pos);
+            try {
+                return decimal ? (Object) Double.parseDouble(numero) : (Object) Long.parseLong(numero);
+            } catch (NumberFormatException e) {
+                throw error("Número inválido: " + numero);
+            }
+        }
+
+        private Object literal(String palabra, Object valor) {
+            if (!texto.startsWith(palabra, pos)) {
+                throw error("Valor inválido");
+            }
+            pos += palabra.length();
+            return valor;
+        }
+
+        private boolean consumir(char c) {
+            if (pos < texto.length() && texto.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void espacios() {
+            while (pos < texto.length() && Character.isWhitespace(texto.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String mensaje) {
+            return new IllegalArgumentException("JSON inválido en la posición " + pos + ": " + mensaje);
+        }
+    }
+
+    // ======================== ESCRITURA ========================
+
+    /**
+     * Escritor de JSON sobre un StringBuilder. Las comas entre campos y elementos
+     * se agregan solas.
+     */
+    static final class Escritor {
+        private final StringBuilder sb = new StringBuilder(256);
+        private boolean primero = true;
+
+        Escritor objeto() {
+            separar();
+            sb.append('{');
+            primero = true;
+            return this;
+        }
+
+        Escritor objeto(String nombre) {
+            nombre(nombre);
+            sb.append('{');
+            primero = true;
+            return this;
+        }
+
+        Escritor finObjeto() {
+            sb.append('}');
+            primero = false;
+            return this;
+        }
+
+        Escritor arreglo(String nombre) {
+            nombre(nombre);
+            sb.append('[');
+            primero = true;
+            return this;
+        }
+
+        Escritor finArreglo() {
+            sb.append(']');
+            primero = false;
+            return this;
+        }
+
+        Escritor campo(String nombre, String valor) {
+            nombre(nombre);
+            texto(valor);
+            return this;
+        }
+
+        Escritor campo(String nombre, long valor) {
+            nombre(nombre);
+            sb.append(valor);
+            return this;
+        }
+
+        Escritor campo(String nombre, boolean valor) {
+            nombre(nombre);
+            sb.append(valor);
+            return this;
+        }
+
+        /**
+         * Elemento de un arreglo de números.
+         */
+        Escritor valor(long valor) {
+            separar();
+            sb.append(valor);
+            return this;
+        }
+
+        private void nombre(String nombre) {
+            separar();
+            texto(nombre);
+            sb.append(':');
+        }
+
+        private void separar() {
+            if (!primero) {
+                sb.append(',');
+            }
+            primero = false;
+        }
+
+        private void texto(String valor) {
+            primero = false;
+            if (valor == null) {
+                sb.append("null");
+                return;
+            }
+            sb.append('"');
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                switch (c) {
+                    case '"' -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\t' -> sb.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            sb.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            sb.append(c);
+                        }
+                    }
+                }
+            }
+            sb.append('"');
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.empresa.servicio;
+
+import com.empresa.modelo.InventarioSucursales;
+import com.empresa.modelo.OrdenTransferencia;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Replica un {@link InventarioSucursales} con otros procesos por TCP, de forma
+ * asíncrona: las ventas y transferencias se aplican localmente sin esperar a la
+ * red, y un hilo virtual por par envía los cambios en segundo plano.
+ *
+ * Al conectar, quien envía se presenta con su nombre de nodo y sus sucursales; el
+ * receptor rechaza la conexión si usa el nombre del receptor o declara una
+ * sucursal del receptor o de otro nodo que ya se presentó, ya que dos dueños de
+ * una sucursal podrían vender el mismo stock. Un par rechazado no se vuelve a
+ * intentar.
+ *
+ * Cada envío es un marco {@code [largo int][delta]} con los contadores y órdenes
+ * modificados desde el último envío confirmado; el receptor lo fusiona y responde
+ * con la versión recibida. Si la conexión se corta, al reconectar se envía el
+ * estado completo: fusionar dos veces lo mismo no tiene efecto, así que no se
+ * necesita llevar la cuenta de qué llegó y qué no.
+ *
+ * Sin cambios se envía igual un marco vacío en cada intervalo, de modo que ambos
+ * lados pueden dar por caída una conexión que no recibe nada en
+ * {@link #ESPERA_MAXIMA_MS} (los pares deben usar intervalos menores a eso).
+ *
+ * Uso con dos procesos en la misma máquina:
+ * <pre>
+ * ReplicadorSucursales r = ReplicadorSucursales.iniciar(inventario, 7401, 200);
+ * r.agregarPar("127.0.0.1", 7402);
+ * </pre>
+ * Entre sucursales, se escucha en la dirección de la red de sucursales con
+ * {@link #iniciar(InventarioSucursales, InetAddress, int, long)}.
+ *
+ * @author Ignacio
+ */
+public class ReplicadorSucursales implements Closeable {
+
+    private static final int MAX_MARCO = 64 * 1024 * 1024;
+    private static final int MAX_SUCURSALES = 10_000;
+    private static final long ESPERA_MAXIMA_RECONEXION_MS = 5_000;
+    private static final int ESPERA_MAXIMA_MS = 30_000;
+    private static final int MAGIC = 0x52455053; // "REPS"
+
+    private final InventarioSucursales inventario;
+    private final ServerSocket servidor;
+    private final long intervaloMs;
+    private final List<Thread> hilos;
+    private final List<Socket> conexiones;
+    private final Object senal;
+    /** Nodos que se presentaron (en minúsculas) y sus sucursales. */
+    private final Map<String, Set<String>> pares;
+    private long cambios;
+    private volatile boolean cerrado;
+
+    private ReplicadorSucursales(InventarioSucursales inventario, ServerSocket servidor, long intervaloMs) {
+        this.inventario = inventario;
+        this.servidor = servidor;
+        this.intervaloMs = intervaloMs;
+        this.hilos = new CopyOnWriteArrayList<>();
+        this.conexiones = new CopyOnWriteArrayList<>();
+        this.senal = new Object();
+        this.pares = new HashMap<>();
+    }
+
+    /**
+     * Comienza a recibir cambios en el puerto indicado (0 elige uno libre), solo
+     * desde la misma máquina (loopback).
+     *
+     * @param intervaloMs Cada cuánto se revisan cambios aunque no haya aviso
+     *        (también es la espera inicial antes de reintentar una conexión)
+     */
+    public static ReplicadorSucursales iniciar(InventarioSucursales inventario, int puerto, long intervaloMs)
+            throws IOException {
+        return iniciar(inventario, InetAddress.getLoopbackAddress(), puerto, intervaloMs);
+    }
+
+    /**
+     * Comienza a recibir cambios en la dirección y puerto indicados (0 elige uno
+     * libre). La dirección debe ser la de la interfaz de la red de sucursales, no
+     * la comodín, para no aceptar cambios de inventario desde cualquier red.
+     */
+    public static ReplicadorSucursales iniciar(InventarioSucursales inventario, InetAddress direccion, int puerto,
+            long intervaloMs) throws IOException {
+        ServerSocket servidor = new ServerSocket();
+        servidor.bind(new InetSocketAddress(direccion, puerto));
+        ReplicadorSucursales replicador = new ReplicadorSucursales(inventario, servidor, intervaloMs);
+        inventario.setAlCambiar(replicador::avisar);
+        replicador.hilos.add(Thread.ofVirtual().name("replicacion-recepcion").start(replicador::aceptar));
+        return replicador;
+    }
+
+    public int getPuerto() {
+        return servidor.getLocalPort();
+    }
+
+    /**
+     * Agrega un proceso al que enviar los cambios. Para replicar en ambos sentidos,
+     * cada proceso agrega al otro.
+     */
+    public void agregarPar(String host, int puerto) {
+        hilos.add(Thread.ofVirtual().name("replicacion-" + host + ":" + puerto)
+                .start(() -> enviar(host, puerto)));
+    }
+
+    private void avisar() {
+        synchronized (senal) {
+            cambios++;
+            senal.notifyAll();
+        }
+    }
+
+    // ======================== ENVÍO ========================
+
+    private void enviar(String host, int puerto) {
+        long espera = intervaloMs;
+        while (!cerrado) {
+            try (Socket socket = new Socket()) {
+                conexiones.add(socket);
+                socket.connect(new InetSocketAddress(host, puerto), ESPERA_MAXIMA_MS);
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout(ESPERA_MAXIMA_MS);
+                DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                DataInputStream entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                presentarse(salida);
+                String rechazo = entrada.readBoolean() ? null : entrada.readUTF();
+                if (rechazo != null) {
+                    System.out.println("Replicación con " + host + ":" + puerto + " rechazada: " + rechazo);
+                    return;
+                }
+                espera = intervaloMs;
+                long desde = 0;
+                while (!cerrado) {
+                    long vistos;
+                    synchronized (senal) {
+                        vistos = cambios;
+                    }
+                    // vacío o no se envía: sirve de latido
+                    InventarioSucursales.Delta delta = inventario.cambiosDesde(desde);
+                    byte[] marco = codificar(delta);
+                    salida.writeInt(marco.length);
+                    salida.write(marco);
+                    salida.flush();
+                    if (entrada.readLong() != delta.getHasta()) {
+                        throw new IOException("Confirmación inesperada del par " + host + ":" + puerto);
+                    }
+                    desde = delta.getHasta();
+                    esperarCambios(vistos);
+                }
+            } catch (IOException e) {
+                if (!cerrado) {
+                    System.out.println("Replicación con " + host + ":" + puerto + " interrumpida: " + e.getMessage());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                conexiones.removeIf(Socket::isClosed);
+            }
+            try {
+                Thread.sleep(espera);
+            } catch (InterruptedException e) {
+                return;
+            }
+            espera = Math.min(espera * 2, ESPERA_MAXIMA_RECONEXION_MS);
+        }
+    }
+
+    private void presentarse(DataOutputStream salida) throws IOException {
+        salida.writeInt(MAGIC);
+        salida.writeUTF(inventario.getNodo());
+        salida.writeInt(inventario.getSucursalesPropias().size());
+        for (String sucursal : inventario.getSucursalesPropias()) {
+            salida.writeUTF(sucursal);
+        }
+        salida.flush();
+    }
+
+    private void esperarCambios(long vistos) throws InterruptedException {
+        synchronized (senal) {
+            if (cambios == vistos && !cerrado) {
+                senal.wait(intervaloMs);
+            }
+        }
+    }
+
+    // ======================== RECEPCIÓN ========================
+
+    private void aceptar() {
+        while (!cerrado) {
+            try {
+                Socket socket = servidor.accept();
+                conexiones.add(socket);
+                hilos.removeIf(h -> !h.isAlive());
+                hilos.add(Thread.ofVirtual().name("replicacion-par").start(() -> atender(socket)));
+            } catch (IOException e) {
+                if (!cerrado) {
+                    System.out.println("Error al aceptar conexión de replicación: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void atender(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(ESPERA_MAXIMA_MS);
+            DataInputStream entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            if (entrada.readInt() != MAGIC) {
+                throw new IOException("La conexión no es de replicación de sucursales.");
+            }
+            String par = entrada.readUTF();
+            int cantidad = entrada.readInt();
+            if (cantidad < 0 || cantidad > MAX_SUCURSALES) {
+                throw new IOException("Cantidad de sucursales inválida: " + cantidad);
+            }
+            Set<String> sucursales = new HashSet<>();
+            for (int i = 0; i < cantidad; i++) {
+                sucursales.add(entrada.readUTF().toLowerCase());
+            }
+            String rechazo = registrarPar(par, sucursales);
+            if (rechazo != null) {
+                System.out.println("Replicación entrante rechazada: " + rechazo);
+                salida.writeBoolean(false);
+                salida.writeUTF(rechazo);
+                salida.flush();
+                return;
+            }
+            salida.writeBoolean(true);
+            salida.flush();
+
+            while (!cerrado) {
+                int largo;
+                try {
+                    largo = entrada.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                if (largo < 0 || largo > MAX_MARCO) {
+                    throw new IOException("Marco de replicación inválido: " + largo + " bytes");
+                }
+                byte[] marco = new byte[largo];
+                entrada.readFully(marco);
+                InventarioSucursales.Delta delta = decodificar(marco);
+                inventario.fusionar(delta);
+                salida.writeLong(delta.getHasta());
+                salida.flush();
+            }
+        } catch (SocketTimeoutException e) {
+            if (!cerrado) {
+                System.out.println("Replicación entrante sin datos por " + ESPERA_MAXIMA_MS + " ms; se cierra la conexión.");
+            }
+        } catch (SocketException e) {
+            // conexión cerrada por el par o por close()
+        } catch (IOException e) {
+            if (!cerrado) {
+                System.out.println("Error en replicación entrante: " + e.getMessage());
+            }
+        } finally {
+            conexiones.remove(socket);
+        }
+    }
+
+    /**
+     * Registra las sucursales de un par que se presenta. Un nodo que se vuelve a
+     * presentar (por ejemplo tras reiniciarse) reemplaza lo que había declarado.
+     *
+     * @return null si se acepta, o el motivo del rechazo
+     */
+    private String registrarPar(String par, Set<String> sucursales) {
+        if (par.equalsIgnoreCase(inventario.getNodo())) {
+            return "el nodo " + par + " tiene el mismo nombre que este nodo";
+        }
+        synchronized (pares) {
+            for (String sucursal : sucursales) {
+                if (inventario.esPropia(sucursal)) {
+                    return "el nodo " + par + " declara la sucursal " + sucursal + ", que es de este nodo ("
+                            + inventario.getNodo() + ")";
+                }
+                for (Map.Entry<String, Set<String>> otro : pares.entrySet()) {
+                    if (!otro.getKey().equals(par.toLowerCase()) && otro.getValue().contains(sucursal)) {
+                        return "el nodo " + par + " declara la sucursal " + sucursal + ", que es del nodo "
+                                + otro.getKey();
+                    }
+                }
+            }
+            pares.put(par.toLowerCase(), sucursales);
+            return null;
+        }
+    }
+
+    // ======================== FORMATO ========================
+
+    static byte[] codificar(InventarioSucursales.Delta delta) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream salida = new DataOutputStream(bytes);
+        salida.writeLong(delta.getHasta());
+        salida.writeInt(delta.getContadores().size());
+        for (InventarioSucursales.EntradaContador e : delta.getContadores()) {
+            salida.writeUTF(e.getSucursal());
+            salida.writeUTF(e.getProducto());
+            salida.writeUTF(e.getNodo());
+            salida.writeLong(e.getPositivos());
+            salida.writeLong(e.getNegativos());
+        }
+        salida.writeInt(delta.getTransferencias().size());
+        for (OrdenTransferencia o : delta.getTransferencias()) {
+            salida.writeUTF(o.getId());
+            salida.writeUTF(o.getOrigen());
+            salida.writeUTF(o.getDestino());
+            salida.writeUTF(o.getProducto());
+            salida.writeInt(o.getCantidad());
+            salida.writeLong(o.getFecha().toEpochSecond(ZoneOffset.UTC));
+            salida.writeInt(o.getFecha().getNano());
+            salida.writeByte(o.getEstado().ordinal());
+        }
+        salida.flush();
+        return bytes.toByteArray();
+    }
+
+    static InventarioSucursales.Delta decodificar(byte[] marco) throws IOException {
+        DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(marco));
+        long hasta = entrada.readLong();
+        int cantidad = entrada.readInt();
+        List<InventarioSucursales.EntradaContador> contadores = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            contadores.add(new InventarioSucursales.EntradaContador(entrada.readUTF(), entrada.readUTF(),
+                    entrada.readUTF(), entrada.readLong(), entrada.readLong()));
+        }
+        cantidad = entrada.readInt();
+        List<OrdenTransferencia> ordenes = new ArrayList<>(cantidad);
+        OrdenTransferencia.Estado[] estados = OrdenTransferencia.Estado.values();
+        for (int i = 0; i < cantidad; i++) {
+            String id = entrada.readUTF();
+            String origen = entrada.readUTF();
+            String destino = entrada.readUTF();
+            String producto = entrada.readUTF();
+            int unidades = entrada.readInt();
+            LocalDateTime fecha = LocalDateTime.ofEpochSecond(entrada.readLong(), entrada.readInt(), ZoneOffset.UTC);
+            int estado = entrada.readByte();
+            if (estado < 0 || estado >= estados.length) {
+                throw new IOException("Estado de transferencia desconocido: " + estado);
+            }
+            ordenes.add(new OrdenTransferencia(id, origen, destino, producto, unidades, fecha, estados[estado]));
+        }
+        return new InventarioSucursales.Delta(hasta, contadores, ordenes);
+    }
+
+    // ======================== CIERRE ========================
+
+    @Override
+    public void close() throws IOException {
+        cerrado = true;
+        inventario.setAlCambiar(null);
+        avisar();
+        servidor.close();
+        for (Socket socket : conexiones) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // ya cerrada
+            }
+        }
+        for (Thread hilo : hilos) {
+            hilo.interrupt();
+        }
+    }
+}
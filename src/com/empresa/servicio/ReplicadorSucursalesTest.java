@@ -0,0 +1,81 @@
+package com.empresa.servicio;
+
+import com.empresa.modelo.InventarioSucursales;
+import com.empresa.modelo.OrdenTransferencia;
+import java.util.function.BooleanSupplier;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ReplicadorSucursales}.
+ */
+public class ReplicadorSucursalesTest {
+
+    private static void esperar(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!condicion.getAsBoolean()) {
+            if (System.currentTimeMillis() > limite) {
+                fail("Las réplicas no convergieron a tiempo");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void replicar_convergePorLoopback() throws Exception {
+        InventarioSucursales local = new InventarioSucursales("local", "Centro");
+        InventarioSucursales deposito = new InventarioSucursales("deposito", "Norte");
+        local.ingresar("Centro", "Gas 15kg", 20);
+        try (ReplicadorSucursales rLocal = ReplicadorSucursales.iniciar(local, 0, 50);
+                ReplicadorSucursales rDeposito = ReplicadorSucursales.iniciar(deposito, 0, 50)) {
+            rLocal.agregarPar("127.0.0.1", rDeposito.getPuerto());
+            rDeposito.agregarPar("127.0.0.1", rLocal.getPuerto());
+
+            deposito.ingresar("Norte", "Gas 15kg", 7);
+            OrdenTransferencia orden = local.transferir("Centro", "Norte", "Gas 15kg", 6);
+            esperar(() -> deposito.buscarTransferencia(orden.getId()) != null);
+            assertTrue(deposito.recibirTransferencia(orden.getId()));
+            assertTrue(deposito.descontar("Norte", "Gas 15kg", 10));
+
+            esperar(() -> local.getStock("Norte", "Gas 15kg") == 3);
+            assertEquals(14, local.getStock("Centro", "Gas 15kg"));
+            assertEquals(17, local.getStockTotal("Gas 15kg"));
+            assertEquals(17, deposito.getStockTotal("Gas 15kg"));
+            assertEquals(OrdenTransferencia.Estado.RECIBIDA, local.buscarTransferencia(orden.getId()).getEstado());
+        }
+    }
+
+    @Test
+    public void replicar_rechazaNodoQueDeclaraUnaSucursalAjena() throws Exception {
+        InventarioSucursales local = new InventarioSucursales("local", "Centro");
+        InventarioSucursales intruso = new InventarioSucursales("caja-2", "centro", "Sur");
+        InventarioSucursales deposito = new InventarioSucursales("deposito", "Norte");
+        intruso.ingresar("Sur", "Gas 15kg", 5);
+        deposito.ingresar("Norte", "Gas 15kg", 2);
+        try (ReplicadorSucursales rLocal = ReplicadorSucursales.iniciar(local, 0, 50);
+                ReplicadorSucursales rIntruso = ReplicadorSucursales.iniciar(intruso, 0, 50);
+                ReplicadorSucursales rDeposito = ReplicadorSucursales.iniciar(deposito, 0, 50)) {
+            rIntruso.agregarPar("127.0.0.1", rLocal.getPuerto());
+            rDeposito.agregarPar("127.0.0.1", rLocal.getPuerto());
+
+            esperar(() -> local.getStock("Norte", "Gas 15kg") == 2);
+            Thread.sleep(200);
+            assertEquals(0, local.getStock("Sur", "Gas 15kg"));
+        }
+    }
+
+    @Test
+    public void codificar_decodificarConservaElDelta() throws Exception {
+        InventarioSucursales local = new InventarioSucursales("local", "Centro");
+        local.ingresar("Centro", "Gas 5kg", 4);
+        local.transferir("Centro", "Ñuñoa", "Gas 5kg", 1);
+        InventarioSucursales.Delta delta = local.cambiosDesde(0);
+
+        InventarioSucursales copia = new InventarioSucursales("otro");
+        copia.fusionar(ReplicadorSucursales.decodificar(ReplicadorSucursales.codificar(delta)));
+        assertEquals(3, copia.getStock("Centro", "Gas 5kg"));
+        OrdenTransferencia orden = copia.transferenciasPendientes("ñuñoa").get(0);
+        assertEquals(local.transferenciasPendientes("Ñuñoa").get(0).getFecha(), orden.getFecha());
+        assertEquals(1, orden.getCantidad());
+    }
+}
@@ -0,0 +1,591 @@
+package com.empresa.servicio;
+
+import com.empresa.exportacion.EscritorCSV;
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.Descuento;
+import com.empresa.modelo.GestorClientes;
+import com.empresa.modelo.HistorialVentas;
+import com.empresa.modelo.Inventario;
+import com.empresa.modelo.LibroMovimientos;
+import com.empresa.modelo.Pagina;
+import com.empresa.modelo.Producto;
+import com.empresa.modelo.Venta;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * API HTTP/JSON para tablets de mostrador y repartidores, sobre el
+ * {@link HttpServer} del JDK. Cada solicitud se atiende en su propio hilo
+ * virtual, así que muchas conexiones lentas no agotan un pool de hilos.
+ *
+ * Rutas:
+ * <pre>
+ * POST /api/ventas                     crea una venta (ver {@link #crearVenta})
+ * GET  /api/stock?producto=Gas 15kg    stock y precio de un producto
+ * GET  /api/stock?producto=Gas 15kg&amp;en=2024-05-02T18:00   además, el stock a esa fecha y hora
+ * GET  /api/productos?q=gas&amp;pagina=0&amp;tamano=20
+ * GET  /api/clientes/{rut}
+ * GET  /api/clientes?nombre=ana&amp;limite=10   (o ?telefono=...)
+ * GET  /api/exportar/ventas.csv?desde=2024-01-01&amp;hasta=2024-02-01   (opcional &amp;rut=... para un cliente)
+ * GET  /api/exportar/ventas.xlsx?desde=2024-01-01&amp;hasta=2024-02-01   (si hay exportador XLSX, ver {@link #usarExportadorXLSX})
+ * GET  /api/exportar/inventario.csv
+ * GET  /api/metricas                   histogramas de latencia por ruta
+ * </pre>
+ *
+ * Los errores se responden como {"error": "..."} con 400 (solicitud mal
+ * formada), 404 (no existe), 405 (método), 409 (sin stock), 413 (cuerpo de más
+ * de {@link #MAX_CUERPO} bytes), 422 (datos inválidos) o 503 (no se pudo escribir
+ * el diario de ventas).
+ *
+ * @author Ignacio
+ */
+public class ServidorVentas implements Closeable {
+
+    /**
+     * Tamaño máximo del cuerpo de una solicitud; una venta ocupa unos cientos de bytes.
+     */
+    public static final int MAX_CUERPO = 64 * 1024;
+
+    private final HttpServer servidor;
+    private final ExecutorService hilos;
+    private final Inventario inventario;
+    private final GestorClientes gestorClientes;
+    private final HistorialVentas historial;
+    private final Map<String, HistogramaLatencias> latencias;
+    private volatile ExportadorVentas exportadorXLSX;
+
+    private ServidorVentas(HttpServer servidor, Inventario inventario, GestorClientes gestorClientes,
+            HistorialVentas historial) {
+        this.servidor = servidor;
+        this.inventario = inventario;
+        this.gestorClientes = gestorClientes;
+        this.historial = historial;
+        this.latencias = new ConcurrentHashMap<>();
+        this.hilos = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Inicia el servidor en el puerto indicado (0 elige uno libre), atendiendo solo
+     * conexiones locales (loopback).
+     */
+    public static ServidorVentas iniciar(int puerto, Inventario inventario, GestorClientes gestorClientes,
+            HistorialVentas historial) throws IOException {
+        return iniciar(InetAddress.getLoopbackAddress(), puerto, inventario, gestorClientes, historial);
+    }
+
+    /**
+     * Inicia el servidor en la dirección y puerto indicados (0 elige uno libre). Para
+     * atender las tablets, usar la dirección de la interfaz de la red del local.
+     */
+    public static ServidorVentas iniciar(InetAddress direccion, int puerto, Inventario inventario,
+            GestorClientes gestorClientes, HistorialVentas historial) throws IOException {
+        // sin TCP_NODELAY las respuestas pequeñas esperan ~40 ms el ACK retardado del cliente
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer http = HttpServer.create(new InetSocketAddress(direccion, puerto), 0);
+        ServidorVentas s = new ServidorVentas(http, inventario, gestorClientes, historial);
+        s.registrar("/api/ventas", s::ventas);
+        s.registrar("/api/stock", s::stock);
+        s.registrar("/api/productos", s::productos);
+        s.registrar("/api/clientes", true, s::clientes);
+        s.registrar("/api/exportar", s::exportar);
+        s.registrar("/api/metricas", s::metricas);
+        http.setExecutor(s.hilos);
+        http.start();
+        return s;
+    }
+
+    /**
+     * Escribe una exportación de ventas en el flujo indicado y lo cierra.
+     */
+    @FunctionalInterface
+    public interface ExportadorVentas {
+        void exportar(OutputStream salida, String rut, LocalDateTime desde, LocalDateTime hasta) throws IOException;
+    }
+
+    /**
+     * Habilita /api/exportar/ventas.xlsx. El exportador Excel depende de POI, así
+     * que el servidor no lo crea; lo entrega quien arma la aplicación (por ejemplo
+     * {@code new ExportadorVentasXLSX(historial)::exportar}).
+     */
+    public void usarExportadorXLSX(ExportadorVentas exportador) {
+        this.exportadorXLSX = exportador;
+    }
+
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Latencias medidas por ruta (método + contexto).
+     */
+    public Map<String, HistogramaLatencias> getLatencias() {
+        return new TreeMap<>(latencias);
+    }
+
+    /**
+     * Descarta las latencias medidas hasta ahora (por ejemplo tras un calentamiento).
+     */
+    public void reiniciarLatencias() {
+        latencias.clear();
+    }
+
+    /**
+     * Deja de aceptar conexiones, espera hasta un segundo a las solicitudes en curso y libera los hilos.
+     */
+    @Override
+    public void close() {
+        servidor.stop(1);
+        hilos.shutdown();
+    }
+
+    // ======================== INFRAESTRUCTURA ========================
+
+    @FunctionalInterface
+    private interface Manejador {
+        void atender(HttpExchange intercambio) throws IOException;
+    }
+
+    /**
+     * Error con código HTTP que se informa al cliente como JSON.
+     */
+    private static final class ErrorHttp extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int codigo;
+
+        private ErrorHttp(int codigo, String mensaje) {
+            super(mensaje);
+            this.codigo = codigo;
+        }
+    }
+
+    private void registrar(String ruta, Manejador manejador) {
+        registrar(ruta, false, manejador);
+    }
+
+    /**
+     * Atiende la ruta exacta y, con {@code conSubrutas}, las que siguen tras una
+     * "/" (el contexto de {@link HttpServer} acepta cualquier ruta que empiece
+     * igual, como "/api/clientesXYZ").
+     */
+    private void registrar(String ruta, boolean conSubrutas, Manejador manejador) {
+        servidor.createContext(ruta, intercambio -> {
+            long inicio = System.nanoTime();
+            try (intercambio) {
+                try {
+                    String pedida = intercambio.getRequestURI().getPath();
+                    if (!pedida.equals(ruta) && !(conSubrutas && pedida.startsWith(ruta + "/"))) {
+                        throw new ErrorHttp(404, "Ruta desconocida: " + pedida);
+                    }
+                    manejador.atender(intercambio);
+                } catch (ErrorHttp e) {
+                    responderError(intercambio, e.codigo, e.getMessage());
+                } catch (IllegalArgumentException e) {
+                    responderError(intercambio, 400, e.getMessage());
+                } catch (RuntimeException e) {
+                    responderError(intercambio, 500, "Error interno: " + e);
+                }
+            } catch (IOException e) {
+                // el cliente cerró la conexión
+            } finally {
+                latencias.computeIfAbsent(metodoConocido(intercambio) + " " + ruta, k -> new HistogramaLatencias())
+                        .registrar(System.nanoTime() - inicio);
+            }
+        });
+    }
+
+    /**
+     * Método del pedido para las métricas; los que el servidor no usa se agrupan
+     * en "OTRO", para que un cliente no pueda crear entradas sin límite.
+     */
+    private static String metodoConocido(HttpExchange intercambio) {
+        String metodo = intercambio.getRequestMethod();
+        return metodo.equals("GET") || metodo.equals("POST") ? metodo : "OTRO";
+    }
+
+    private static void responder(HttpExchange intercambio, int codigo, Json.Escritor json) throws IOException {
+        byte[] cuerpo = json.toString().getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        intercambio.sendResponseHeaders(codigo, cuerpo.length);
+        intercambio.getResponseBody().write(cuerpo);
+    }
+
+    private static void responderError(HttpExchange intercambio, int codigo, String mensaje) throws IOException {
+        responder(intercambio, codigo, new Json.Escritor().objeto().campo("error", mensaje).finObjeto());
+    }
+
+    private static void exigirMetodo(HttpExchange intercambio, String metodo) {
+        if (!intercambio.getRequestMethod().equals(metodo)) {
+            intercambio.getResponseHeaders().set("Allow", metodo);
+            throw new ErrorHttp(405, "Método no permitido: " + intercambio.getRequestMethod());
+        }
+    }
+
+    private static Map<String, String> parametros(HttpExchange intercambio) {
+        Map<String, String> resultado = new HashMap<>();
+        String consulta = intercambio.getRequestURI().getRawQuery();
+        if (consulta == null || consulta.isEmpty()) {
+            return resultado;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            String nombre = igual >= 0 ? par.substring(0, igual) : par;
+            String valor = igual >= 0 ? par.substring(igual + 1) : "";
+            resultado.put(URLDecoder.decode(nombre, StandardCharsets.UTF_8), URLDecoder.decode(valor, StandardCharsets.UTF_8));
+        }
+        return resultado;
+    }
+
+    private static int entero(Map<String, String> parametros, String nombre, int porDefecto, int minimo, int maximo) {
+        String valor = parametros.get(nombre);
+        if (valor == null || valor.isEmpty()) {
+            return porDefecto;
+        }
+        try {
+            int n = Integer.parseInt(valor);
+            if (n < minimo || n > maximo) {
+                throw new ErrorHttp(400, "Parámetro " + nombre + " fuera de rango (" + minimo + " a " + maximo + ")");
+            }
+            return n;
+        } catch (NumberFormatException e) {
+            throw new ErrorHttp(400, "Parámetro " + nombre + " inválido: " + valor);
+        }
+    }
+
+    private static String obligatorio(Map<String, String> parametros, String nombre) {
+        String valor = parametros.get(nombre);
+        if (valor == null || valor.isBlank()) {
+            throw new ErrorHttp(400, "Falta el parámetro " + nombre);
+        }
+        return valor.trim();
+    }
+
+    /**
+     * Lee el cuerpo de la solicitud rechazando los de más de {@link #MAX_CUERPO}
+     * bytes, ya sea por el Content-Length declarado o por lo que realmente llega.
+     */
+    private static String leerCuerpo(HttpExchange intercambio) throws IOException {
+        String declarado = intercambio.getRequestHeaders().getFirst("Content-Length");
+        if (declarado != null) {
+            try {
+                if (Long.parseLong(declarado.trim()) > MAX_CUERPO) {
+                    throw new ErrorHttp(413, "El cuerpo supera el máximo de " + MAX_CUERPO + " bytes");
+                }
+            } catch (NumberFormatException e) {
+                throw new ErrorHttp(400, "Content-Length inválido: " + declarado);
+            }
+        }
+        byte[] bytes = intercambio.getRequestBody().readNBytes(MAX_CUERPO + 1);
+        if (bytes.length > MAX_CUERPO) {
+            throw new ErrorHttp(413, "El cuerpo supera el máximo de " + MAX_CUERPO + " bytes");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ======================== VENTAS ========================
+
+    private void ventas(HttpExchange intercambio) throws IOException {
+        exigirMetodo(intercambio, "POST");
+        String cuerpo = leerCuerpo(intercambio);
+        if (!(Json.leer(cuerpo) instanceof Map<?, ?> pedido)) {
+            throw new ErrorHttp(400, "Se esperaba un objeto JSON");
+        }
+        Venta venta = crearVenta(pedido);
+
+        Json.Escritor json = new Json.Escritor().objeto()
+                .campo("fechaHora", venta.getFechaHora().toString())
+                .campo("formato", venta.getFormatoVenta())
+                .campo("rut", venta.getCliente() != null ? venta.getCliente().getRut() : null)
+                .arreglo("lineas");
+        for (int i = 0; i < venta.getCantidadLineas(); i++) {
+            json.objeto()
+                    .campo("producto", venta.getProductoLinea(i).getNombre())
+                    .campo("cantidad", venta.getCantidadLinea(i))
+                    .campo("precioUnitario", venta.getPrecioUnitarioLinea(i))
+                    .campo("descuento", venta.getDescuentoLinea(i))
+                    .campo("total", venta.getTotalLinea(i))
+                    .finObjeto();
+        }
+        json.finArreglo()
+                .campo("totalBruto", venta.calcularTotalBruto())
+                .campo("totalDescuento", venta.calcularTotalDescuento())
+                .campo("totalNeto", venta.calcularTotalNeto())
+                .finObjeto();
+        responder(intercambio, 201, json);
+    }
+
+    /**
+     * Valida el pedido, descuenta el stock y registra la venta. Formato:
+     * <pre>
+     * {"formato": "local" | "domicilio", "rut": "11.111.111-1" (opcional),
+     *  "lineas": [{"producto": "Gas 15kg", "cantidad": 2, "descuento": 3000}]}
+     * </pre>
+     * El descuento es por unidad y debe ser una de las opciones de {@link Descuento};
+     * puede omitirse si la línea tiene una sola opción.
+     */
+    private Venta crearVenta(Map<?, ?> pedido) {
+        String formato = texto(pedido, "formato").toLowerCase();
+        if (!formato.equals("local") && !formato.equals("domicilio")) {
+            throw new ErrorHttp(422, "Formato inválido (local/domicilio): " + formato);
+        }
+        Cliente cliente = null;
+        if (pedido.get("rut") != null) {
+            String rut = texto(pedido, "rut");
+            cliente = gestorClientes.buscarClientePorRUT(rut);
+            if (cliente == null) {
+                throw new ErrorHttp(422, "Cliente no registrado: " + rut);
+            }
+        }
+        if (!(pedido.get("lineas") instanceof List<?> lineas) || lineas.isEmpty()) {
+            throw new ErrorHttp(422, "La venta debe tener al menos una línea");
+        }
+
+        Venta venta = new Venta(formato, cliente, LocalDateTime.now());
+        for (Object elemento : lineas) {
+            if (!(elemento instanceof Map<?, ?> linea)) {
+                throw new ErrorHttp(400, "Cada línea debe ser un objeto");
+            }
+            agregarLinea(venta, linea);
+        }
+
+        String sinStock = inventario.descontarVenta(venta);
+        if (sinStock != null) {
+            throw new ErrorHttp(409, "Stock insuficiente para " + sinStock + " (disponible: " + inventario.getStock(sinStock) + ")");
+        }
+        try {
+            historial.agregarVenta(venta);
+        } catch (RuntimeException e) {
+            inventario.devolverVenta(venta);
+            if (e instanceof UncheckedIOException) {
+                throw new ErrorHttp(503, "No se pudo registrar la venta: " + e.getCause().getMessage());
+            }
+            throw e;
+        }
+        return venta;
+    }
+
+    private void agregarLinea(Venta venta, Map<?, ?> linea) {
+        String nombre = texto(linea, "producto");
+        Producto producto = inventario.getProducto(nombre);
+        if (producto == null) {
+            throw new ErrorHttp(422, "Producto no existe: " + nombre);
+        }
+        long cantidad = numero(linea, "cantidad");
+        if (cantidad <= 0 || cantidad > Integer.MAX_VALUE) {
+            throw new ErrorHttp(422, "La cantidad debe ser mayor a 0.");
+        }
+
+        int[] opciones = Descuento.obtenerDescuentosDisponibles(producto, venta.getFormatoVenta(),
+                venta.getCliente(), venta.getFechaHora().getHour(), (int) cantidad);
+        int descuento;
+        if (linea.get("descuento") == null) {
+            if (opciones.length > 1) {
+                throw new ErrorHttp(422, "Indique el descuento de " + nombre + "; opciones: " + Arrays.toString(opciones));
+            }
+            descuento = opciones[0];
+        } else {
+            long pedido = numero(linea, "descuento");
+            if (Arrays.stream(opciones).noneMatch(o -> o == pedido)) {
+                throw new ErrorHttp(422, "Descuento $" + pedido + " no disponible para " + nombre
+                        + "; opciones: " + Arrays.toString(opciones));
+            }
+            descuento = (int) pedido;
+        }
+        venta.agregarLinea(producto, (int) cantidad, descuento);
+    }
+
+    private static String texto(Map<?, ?> objeto, String campo) {
+        if (!(objeto.get(campo) instanceof String valor) || valor.isBlank()) {
+            throw new ErrorHttp(422, "Falta el campo de texto " + campo);
+        }
+        return valor.trim();
+    }
+
+    private static long numero(Map<?, ?> objeto, String campo) {
+        if (!(objeto.get(campo) instanceof Long valor)) {
+            throw new ErrorHttp(422, "El campo " + campo + " debe ser un número entero");
+        }
+        return valor;
+    }
+
+    // ======================== CONSULTAS ========================
+
+    private void stock(HttpExchange intercambio) throws IOException {
+        exigirMetodo(intercambio, "GET");
+        Map<String, String> parametros = parametros(intercambio);
+        String nombre = obligatorio(parametros, "producto");
+        LocalDateTime en = fecha(parametros, "en");
+        Producto p = inventario.getProducto(nombre);
+        if (p == null) {
+            throw new ErrorHttp(404, "Producto no existe: " + nombre);
+        }
+        Json.Escritor json = new Json.Escritor().objeto();
+        escribirProducto(json, p);
+        if (en != null) {
+            json.campo("en", en.toString()).campo("stockEn", LibroMovimientos.getInstancia().stockEn(nombre, en));
+        }
+        responder(intercambio, 200, json.finObjeto());
+    }
+
+    private void escribirProducto(Json.Escritor json, Producto p) {
+        json.campo("nombre", p.getNombre())
+                .campo("tipo", p.getTipo())
+                .campo("precioVenta", p.getPrecioVentaFinal())
+                .campo("stock", inventario.getStock(p.getNombre()));
+    }
+
+    private void productos(HttpExchange intercambio) throws IOException {
+        exigirMetodo(intercambio, "GET");
+        Map<String, String> parametros = parametros(intercambio);
+        Pagina<Producto> pagina = inventario.buscarProductos(parametros.getOrDefault("q", ""),
+                entero(parametros, "pagina", 0, 0, Integer.MAX_VALUE), entero(parametros, "tamano", 20, 1, 500));
+
+        Json.Escritor json = new Json.Escritor().objeto()
+                .campo("total", pagina.getTotal())
+                .campo("pagina", pagina.getNumero())
+                .campo("totalPaginas", pagina.getTotalPaginas())
+                .arreglo("productos");
+        for (Producto p : pagina.getElementos()) {
+            json.objeto();
+            escribirProducto(json, p);
+            json.finObjeto();
+        }
+        responder(intercambio, 200, json.finArreglo().finObjeto());
+    }
+
+    private void clientes(HttpExchange intercambio) throws IOException {
+        exigirMetodo(intercambio, "GET");
+        String ruta = intercambio.getRequestURI().getPath();
+        String resto = ruta.length() > "/api/clientes".length() ? ruta.substring("/api/clientes/".length()) : "";
+
+        if (!resto.isEmpty()) {
+            Cliente cliente = gestorClientes.buscarClientePorRUT(URLDecoder.decode(resto, StandardCharsets.UTF_8));
+            if (cliente == null) {
+                throw new ErrorHttp(404, "Cliente no registrado: " + resto);
+            }
+            Json.Escritor json = new Json.Escritor().objeto();
+            escribirCliente(json, cliente);
+            responder(intercambio, 200, json.finObjeto());
+            return;
+        }
+
+        Map<String, String> parametros = parametros(intercambio);
+        List<Cliente> encontrados;
+        if (parametros.containsKey("telefono")) {
+            encontrados = gestorClientes.buscarPorTelefono(obligatorio(parametros, "telefono"));
+        } else {
+            encontrados = gestorClientes.sugerirPorNombre(obligatorio(parametros, "nombre"),
+                    entero(parametros, "limite", 10, 1, 100));
+        }
+        Json.Escritor json = new Json.Escritor().objeto().arreglo("clientes");
+        for (Cliente c : encontrados) {
+            json.objeto();
+            escribirCliente(json, c);
+            json.finObjeto();
+        }
+        responder(intercambio, 200, json.finArreglo().finObjeto());
+    }
+
+    private static void escribirCliente(Json.Escritor json, Cliente c) {
+        json.campo("rut", c.getRut())
+                .campo("nombre", c.getNombre())
+                .campo("telefono", c.getTelefono())
+                .campo("direccion", c.getDireccion());
+    }
+
+    // ======================== EXPORTACIÓN Y MÉTRICAS ========================
+
+    /**
+     * Las exportaciones se envían en streaming (codificación chunked), sin armar el archivo en memoria.
+     */
+    private void exportar(HttpExchange intercambio) throws IOException {
+        exigirMetodo(intercambio, "GET");
+        String archivo = intercambio.getRequestURI().getPath().substring("/api/exportar".length());
+        Map<String, String> parametros = parametros(intercambio);
+        LocalDateTime desde = fecha(parametros, "desde");
+        LocalDateTime hasta = fecha(parametros, "hasta");
+        String rut = parametros.get("rut");
+        if (rut != null && rut.isBlank()) {
+            rut = null;
+        }
+        if (!archivo.equals("/ventas.csv") && !archivo.equals("/inventario.csv") && !archivo.equals("/ventas.xlsx")) {
+            throw new ErrorHttp(404, "Exportación no disponible: " + archivo);
+        }
+
+        boolean excel = archivo.endsWith(".xlsx");
+        ExportadorVentas xlsx = exportadorXLSX;
+        if (excel && xlsx == null) {
+            throw new ErrorHttp(404, "Exportación a Excel no disponible en este servidor");
+        }
+        intercambio.getResponseHeaders().set("Content-Type", excel
+                ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet" : "text/csv; charset=utf-8");
+        intercambio.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"" + archivo.substring(1) + "\"");
+        intercambio.sendResponseHeaders(200, 0);
+        OutputStream salida = intercambio.getResponseBody();
+        if (excel) {
+            xlsx.exportar(salida, rut, desde, hasta);
+            return;
+        }
+        try (EscritorCSV csv = EscritorCSV.sobre(salida)) {
+            if (archivo.equals("/ventas.csv")) {
+                historial.exportarCSV(csv, rut, desde, hasta);
+            } else {
+                inventario.exportarCSV(csv);
+            }
+        }
+    }
+
+    /**
+     * Fecha (AAAA-MM-DD) o fecha y hora (AAAA-MM-DDTHH:MM) de un parámetro opcional.
+     */
+    private static LocalDateTime fecha(Map<String, String> parametros, String nombre) {
+        String valor = parametros.get(nombre);
+        if (valor == null || valor.isEmpty()) {
+            return null;
+        }
+        try {
+            return valor.length() <= 10 ? LocalDate.parse(valor).atStartOfDay() : LocalDateTime.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new ErrorHttp(400, "Fecha inválida en " + nombre + ": " + valor);
+        }
+    }
+
+    private void metricas(HttpExchange intercambio) throws IOException {
+        exigirMetodo(intercambio, "GET");
+        Json.Escritor json = new Json.Escritor().objeto().objeto("rutas");
+        for (Map.Entry<String, HistogramaLatencias> e : getLatencias().entrySet()) {
+            HistogramaLatencias h = e.getValue();
+            json.objeto(e.getKey())
+                    .campo("solicitudes", h.getCantidad())
+                    .campo("promedioMicros", h.getPromedioMicros())
+                    .campo("p50Micros", h.percentilMicros(50))
+                    .campo("p90Micros", h.percentilMicros(90))
+                    .campo("p99Micros", h.percentilMicros(99))
+                    .campo("p999Micros", h.percentilMicros(99.9))
+                    .campo("maxMicros", h.getMaximoMicros())
+                    .finObjeto();
+        }
+        responder(intercambio, 200, json.finObjeto().finObjeto());
+    }
+}
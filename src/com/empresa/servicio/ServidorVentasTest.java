@@ -0,0 +1,117 @@
+package com.empresa.servicio;
+
+import com.empresa.modelo.Cliente;
+import com.empresa.modelo.GestorClientes;
+import com.empresa.modelo.HistorialVentas;
+import com.empresa.modelo.Inventario;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ServidorVentas}.
+ */
+public class ServidorVentasTest {
+
+    private final Inventario inventario = Inventario.getInstancia();
+    private final GestorClientes clientes = GestorClientes.getInstancia();
+    private final HistorialVentas historial = HistorialVentas.getInstancia();
+    private final HttpClient http = HttpClient.newHttpClient();
+    private ServidorVentas servidor;
+
+    @Before
+    public void setUp() throws Exception {
+        servidor = ServidorVentas.iniciar(0, inventario, clientes, historial);
+    }
+
+    @After
+    public void tearDown() {
+        servidor.close();
+    }
+
+    private HttpResponse<String> get(String ruta) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + servidor.getPuerto() + ruta)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String ruta, String cuerpo) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + servidor.getPuerto() + ruta))
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void crearVenta_descuentaStockYRegistraVenta() throws Exception {
+        inventario.agregarProducto("Api Gas 15kg", "gas", 25000, 3000, 5);
+        clientes.registrarClientes(List.of(new Cliente("Cliente Api", "66.666.666-6", "", "Calle 1")));
+        int antes = historial.getCantidadVentas();
+
+        HttpResponse<String> r = post("/api/ventas",
+                "{\"formato\":\"local\",\"rut\":\"66.666.666-6\",\"lineas\":[{\"producto\":\"api gas 15kg\",\"cantidad\":2}]}");
+
+        assertEquals(201, r.statusCode());
+        Map<?, ?> venta = (Map<?, ?>) Json.leer(r.body());
+        assertEquals("66.666.666-6", venta.get("rut"));
+        assertEquals(1, ((List<?>) venta.get("lineas")).size());
+        assertEquals(3, inventario.getStock("Api Gas 15kg"));
+        assertEquals(antes + 1, historial.getCantidadVentas());
+
+        Map<?, ?> stock = (Map<?, ?>) Json.leer(get("/api/stock?producto=Api%20Gas%2015kg").body());
+        assertEquals(3L, stock.get("stock"));
+    }
+
+    @Test
+    public void crearVenta_rechazaSinStockYDatosInvalidos() throws Exception {
+        inventario.agregarProducto("Api Regulador", "accesorio", 5000, 500, 1);
+        int antes = historial.getCantidadVentas();
+
+        HttpResponse<String> sinStock = post("/api/ventas",
+                "{\"formato\":\"local\",\"lineas\":[{\"producto\":\"Api Regulador\",\"cantidad\":3}]}");
+        assertEquals(409, sinStock.statusCode());
+        assertTrue(sinStock.body().contains("Stock insuficiente"));
+
+        assertEquals(422, post("/api/ventas", "{\"formato\":\"local\",\"lineas\":[{\"producto\":\"No Existe\",\"cantidad\":1}]}").statusCode());
+        assertEquals(422, post("/api/ventas", "{\"formato\":\"tienda\",\"lineas\":[]}").statusCode());
+        assertEquals(400, post("/api/ventas", "{\"formato\":").statusCode());
+        assertEquals(400, post("/api/ventas", "[".repeat(10_000)).statusCode());
+        assertEquals(413, post("/api/ventas", " ".repeat(ServidorVentas.MAX_CUERPO + 1)).statusCode());
+        assertEquals(405, get("/api/ventas").statusCode());
+
+        assertEquals(1, inventario.getStock("Api Regulador"));
+        assertEquals(antes, historial.getCantidadVentas());
+    }
+
+    @Test
+    public void consultas_respondenNoEncontradoYRegistranLatencias() throws Exception {
+        assertEquals(404, get("/api/stock?producto=Nada").statusCode());
+        assertEquals(404, get("/api/clientes/1-9").statusCode());
+        assertEquals(400, get("/api/stock").statusCode());
+        assertEquals(404, get("/api/exportar/otra.csv").statusCode());
+
+        HistogramaLatencias stock = servidor.getLatencias().get("GET /api/stock");
+        assertEquals(2, stock.getCantidad());
+        Map<?, ?> metricas = (Map<?, ?>) Json.leer(get("/api/metricas").body());
+        assertTrue(((Map<?, ?>) metricas.get("rutas")).containsKey("GET /api/clientes"));
+    }
+
+    @Test
+    public void rutas_soloCoincidenEnLimiteDeSegmentoYMetodosSeAgrupan() throws Exception {
+        assertEquals(404, get("/api/clientesXYZ?nombre=a").statusCode());
+        assertEquals(404, get("/api/stockXYZ?producto=a").statusCode());
+        for (String metodo : new String[] {"BORRAR", "PURGAR", "X1"}) {
+            HttpResponse<String> r = http.send(HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + servidor.getPuerto() + "/api/stock"))
+                    .method(metodo, HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(405, r.statusCode());
+        }
+
+        assertEquals(3, servidor.getLatencias().get("OTRO /api/stock").getCantidad());
+        assertEquals(2, servidor.getLatencias().keySet().stream().filter(k -> k.endsWith(" /api/stock")).count());
+    }
+}